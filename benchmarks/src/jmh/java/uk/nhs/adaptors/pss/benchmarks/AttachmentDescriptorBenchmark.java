@@ -0,0 +1,144 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.nhs.adaptors.pss.translator.model.AttachmentDescriptor;
+
+/**
+ * Reads every field of the ebXML descriptions in a manifest of ten thousand attachments, once with {@link AttachmentDescriptor}
+ * and once with the per-field regular expressions it replaced, which are kept here as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AttachmentDescriptorBenchmark {
+
+    private static final int MANIFEST_SIZE = 10_000;
+    private static final int LENGTH_STEP = 4096;
+    private static final String[] CONTENT_TYPES = {
+        "text/plain", "application/pdf", "image/jpeg", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"
+    };
+
+    private List<String> descriptions;
+
+    @Setup
+    public void setUp() {
+        descriptions = new ArrayList<>(MANIFEST_SIZE);
+        for (int i = 0; i < MANIFEST_SIZE; i++) {
+            descriptions.add(String.format(Locale.ROOT, """
+                Filename="%08X-FA96-48FF-9373-7BBCB9D036E7_%d.messageattachment"
+                ContentType=%s
+                Compressed=%s
+                LargeAttachment=%s
+                OriginalBase64=Yes
+                Length=%d
+                DomainData="X-GP2GP-Skeleton: %s"
+                """,
+                i, i, CONTENT_TYPES[i % CONTENT_TYPES.length], yesNo(i % 2 == 0), yesNo(i % 10 == 0), (i + 1) * LENGTH_STEP,
+                yesNo(i == 0)));
+        }
+    }
+
+    @Benchmark
+    public void parseDescriptors(Blackhole blackhole) throws ParseException {
+        for (String description : descriptions) {
+            var descriptor = AttachmentDescriptor.parse(description);
+            blackhole.consume(descriptor.isEmisStyle());
+            blackhole.consume(descriptor.getFilename());
+            blackhole.consume(descriptor.getContentType());
+            blackhole.consume(descriptor.isCompressed());
+            blackhole.consume(descriptor.isLargeAttachment());
+            blackhole.consume(descriptor.isOriginalBase64());
+            blackhole.consume(descriptor.getLength());
+            blackhole.consume(descriptor.isSkeleton());
+        }
+    }
+
+    @Benchmark
+    public void parseWithRegularExpressions(Blackhole blackhole) throws ParseException {
+        for (String description : descriptions) {
+            blackhole.consume(RegexDescriptionParser.isDescriptionEmisStyle(description));
+            blackhole.consume(RegexDescriptionParser.parseFilename(description));
+            blackhole.consume(RegexDescriptionParser.parseContentType(description));
+            blackhole.consume(RegexDescriptionParser.parseYesNo("Compressed", description));
+            blackhole.consume(RegexDescriptionParser.parseYesNo("LargeAttachment", description));
+            blackhole.consume(RegexDescriptionParser.parseYesNo("OriginalBase64", description));
+            blackhole.consume(RegexDescriptionParser.parseFileLength(description));
+            blackhole.consume(RegexDescriptionParser.parseIsSkeleton(description));
+        }
+    }
+
+    private static String yesNo(boolean value) {
+        return value ? "Yes" : "No";
+    }
+
+    /**
+     * The parsing {@code XmlParseUtilService} did before {@link AttachmentDescriptor}: a pattern compiled for each field on each
+     * call, and the whole description rewritten to look for the skeleton property.
+     */
+    private static final class RegexDescriptionParser {
+        private static final String FILENAME_PATTERN = "Filename=\"([\\S]{1}[^\"]*)\"";
+        private static final String COMPRESSED_PATTERN = "Compressed=(Yes|No)";
+
+        private static boolean parseYesNo(String key, String description) throws ParseException {
+            Matcher matcher = Pattern.compile(key + "=(Yes|No)").matcher(description);
+            if (matcher.find()) {
+                return matcher.group(1).equals("Yes");
+            }
+            throw new ParseException("Unable to parse " + key, 0);
+        }
+
+        private static String parseContentType(String description) throws ParseException {
+            Matcher matcher = Pattern.compile("ContentType=([A-Za-z\\d\\-/.]*)").matcher(description);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+            throw new ParseException("Unable to parse ContentType", 0);
+        }
+
+        private static String parseFilename(String description) throws ParseException {
+            Matcher matcher = Pattern.compile(FILENAME_PATTERN).matcher(description);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+            throw new ParseException("Unable to parse originalFilename field in description", 0);
+        }
+
+        private static boolean isDescriptionEmisStyle(String description) {
+            boolean hasFilename = Pattern.compile(FILENAME_PATTERN).matcher(description).find();
+            boolean hasCompressed = Pattern.compile(COMPRESSED_PATTERN).matcher(description).find();
+            return !hasFilename && !hasCompressed;
+        }
+
+        private static int parseFileLength(String description) {
+            Matcher matcher = Pattern.compile("Length=([\\d]*)").matcher(description);
+            if (matcher.find()) {
+                try {
+                    return Integer.parseInt(matcher.group(1));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+            return 0;
+        }
+
+        private static boolean parseIsSkeleton(String description) {
+            return description.replaceAll("\\s+", "").toLowerCase().contains("x-gp2gp-skeleton:yes");
+        }
+    }
+}
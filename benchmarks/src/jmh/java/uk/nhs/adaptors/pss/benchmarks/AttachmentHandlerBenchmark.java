@@ -0,0 +1,85 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jakarta.xml.bind.ValidationException;
+import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
+import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.service.AttachmentHandlerService;
+import uk.nhs.adaptors.pss.translator.storage.LocalStorageService;
+import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
+import uk.nhs.adaptors.pss.translator.storage.StorageServiceConfiguration;
+
+/**
+ * Decodes, decompresses and stores inline attachments in {@link LocalStorageService}, so that only the translator's own work is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttachmentHandlerBenchmark {
+
+    private static final int RETRY_LIMIT = 3;
+
+    @Param({"TEXT", "COMPRESSED_TEXT", "COMPRESSED_PDF"})
+    private AttachmentFixture attachmentFixture;
+
+    private AttachmentHandlerService attachmentHandlerService;
+    private List<InboundMessage.Attachment> attachments;
+
+    @Setup
+    public void setUp() {
+        var configuration = new StorageServiceConfiguration();
+        configuration.setRetryLimit(RETRY_LIMIT);
+
+        attachmentHandlerService = new AttachmentHandlerService(
+            new StorageManagerService(new LocalStorageService(), configuration),
+            PipelineMetrics.noop()
+        );
+        attachments = List.of(attachmentFixture.toAttachment());
+    }
+
+    @Benchmark
+    public void storeAttachments() throws ValidationException, InlineAttachmentProcessingException {
+        attachmentHandlerService.storeAttachments(attachments, Fixtures.CONVERSATION_ID);
+    }
+
+    public enum AttachmentFixture {
+        TEXT("InlineAttachments/text_attachment_encoded.txt", "text_attachment.txt", "text/plain", "No"),
+        COMPRESSED_TEXT("InlineAttachments/text_attachment_encoded_and_compressed.txt", "text_attachment.txt", "text/plain", "Yes"),
+        COMPRESSED_PDF("InlineAttachments/large_messages.pdf.txt", "large_messages.pdf", "application/pdf", "Yes");
+
+        private final String fixture;
+        private final String filename;
+        private final String contentType;
+        private final String compressed;
+
+        AttachmentFixture(String fixture, String filename, String contentType, String compressed) {
+            this.fixture = fixture;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.compressed = compressed;
+        }
+
+        private InboundMessage.Attachment toAttachment() {
+            return InboundMessage.Attachment.builder()
+                .contentType(contentType)
+                .isBase64("true")
+                .description("Filename=\"" + filename + "\" ContentType=" + contentType + " Compressed=" + compressed
+                    + " LargeAttachment=No OriginalBase64=No")
+                .payload(Fixtures.read(fixture))
+                .build();
+        }
+    }
+}
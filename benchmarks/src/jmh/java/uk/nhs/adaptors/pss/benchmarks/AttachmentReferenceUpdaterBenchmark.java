@@ -0,0 +1,72 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.util.UriUtils;
+
+import jakarta.xml.bind.ValidationException;
+import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
+import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
+import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.service.AttachmentReferenceUpdaterService;
+import uk.nhs.adaptors.pss.translator.storage.LocalStorageService;
+import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
+import uk.nhs.adaptors.pss.translator.storage.StorageServiceConfiguration;
+
+/**
+ * Rewrites every {@code file://localhost/} reference in an extract to its storage location, as happens once all of a
+ * transfer's attachments have arrived.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttachmentReferenceUpdaterBenchmark {
+
+    private static final Pattern FILE_REFERENCE = Pattern.compile("<reference value=\"file://localhost/([^\"]+)\"");
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "GENERATED"})
+    private ExtractSize extractSize;
+
+    private AttachmentReferenceUpdaterService attachmentReferenceUpdaterService;
+    private List<InboundMessage.Attachment> attachments;
+    private String ehrExtract;
+
+    @Setup
+    public void setUp() {
+        attachmentReferenceUpdaterService = new AttachmentReferenceUpdaterService(
+            new StorageManagerService(new LocalStorageService(), new StorageServiceConfiguration()),
+            PipelineMetrics.noop()
+        );
+        ehrExtract = extractSize.read();
+        attachments = FILE_REFERENCE.matcher(ehrExtract)
+            .results()
+            .map(reference -> InboundMessage.Attachment.builder()
+                .contentType("text/plain")
+                .isBase64("true")
+                .description("Filename=\"" + UriUtils.decode(reference.group(1), UTF_8) + "\" ContentType=text/plain Compressed=No "
+                    + "LargeAttachment=No OriginalBase64=Yes")
+                .payload("")
+                .build())
+            .toList();
+    }
+
+    @Benchmark
+    public String replaceReferences()
+        throws ValidationException, AttachmentNotFoundException, InlineAttachmentProcessingException {
+        return attachmentReferenceUpdaterService.replaceOriginalFilenameWithStorageFilenameInEhrExtract(
+            attachments, Fixtures.CONVERSATION_ID, ehrExtract);
+    }
+}
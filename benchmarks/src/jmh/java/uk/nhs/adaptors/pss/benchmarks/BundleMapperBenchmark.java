@@ -0,0 +1,63 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.v3.RCMRIN030000UKMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import jakarta.xml.bind.JAXBException;
+import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
+import uk.nhs.adaptors.pss.translator.service.BundleMapperService;
+import uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil;
+
+/**
+ * Maps an unmarshalled extract to a FHIR bundle. Mapping merges duplicate observation statements in place, so each invocation
+ * maps a freshly unmarshalled extract; the unmarshalling is not included in the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BundleMapperBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "GENERATED"})
+    private ExtractSize extractSize;
+
+    private AnnotationConfigApplicationContext context;
+    private BundleMapperService bundleMapperService;
+    private String ehrExtract;
+    private RCMRIN030000UKMessage message;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        context = new AnnotationConfigApplicationContext(BundleMappingConfiguration.class);
+        bundleMapperService = context.getBean(BundleMapperService.class);
+        ehrExtract = extractSize.read();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws JAXBException {
+        message = XmlUnmarshallUtil.unmarshallString(ehrExtract, RCMRIN030000UKMessage.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Bundle mapToBundle() throws BundleMappingException {
+        return bundleMapperService.mapToBundle(message, Fixtures.LOSING_ODS_CODE, List.of());
+    }
+}
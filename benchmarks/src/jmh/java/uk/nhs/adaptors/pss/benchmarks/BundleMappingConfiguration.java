@@ -0,0 +1,102 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import ca.uhn.fhir.context.FhirContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+import uk.nhs.adaptors.connector.dao.ImmunizationSnomedCTDao;
+import uk.nhs.adaptors.connector.dao.SnomedCTDao;
+import uk.nhs.adaptors.connector.model.ImmunizationSnomedCT;
+import uk.nhs.adaptors.connector.model.SnomedCTDescription;
+import uk.nhs.adaptors.pss.translator.config.MetricsProperties;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
+import uk.nhs.adaptors.pss.translator.service.BundleMapperService;
+import uk.nhs.adaptors.pss.translator.service.ConfidentialityService;
+import uk.nhs.adaptors.pss.translator.service.IdGeneratorService;
+import uk.nhs.adaptors.pss.translator.util.DatabaseImmunizationChecker;
+import uk.nhs.adaptors.pss.translator.util.ResourceReferenceUtil;
+
+/**
+ * The real mappers behind {@link BundleMapperService}, without a database: every SNOMED code is found, with its own code as the
+ * concept ID, and no code is an immunization.
+ */
+@Configuration
+@ComponentScan(basePackages = {
+    "uk.nhs.adaptors.pss.translator.mapper",
+    "uk.nhs.adaptors.pss.translator.generator"
+})
+@Import({
+    BundleMapperService.class,
+    ConfidentialityService.class,
+    IdGeneratorService.class,
+    DatabaseImmunizationChecker.class,
+    ResourceReferenceUtil.class,
+    PipelineMetrics.class,
+    MetricsProperties.class,
+    FhirParser.class
+})
+public class BundleMappingConfiguration {
+
+    @Bean
+    public FhirContext fhirContext() {
+        return FhirContext.forDstu3();
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public SnomedCTDao snomedCTDao() {
+        return new SnomedCTDao() {
+            @Override
+            public SnomedCTDescription getSnomedDescriptionUsingConceptIdAndDisplayName(String conceptId, String displayName) {
+                return description(conceptId, displayName);
+            }
+
+            @Override
+            public SnomedCTDescription getSnomedDescriptionUsingConceptId(String conceptId) {
+                return description(conceptId, conceptId);
+            }
+
+            @Override
+            public SnomedCTDescription getSnomedDescriptionUsingDescriptionId(String descriptionId) {
+                return description(descriptionId, descriptionId);
+            }
+
+            @Override
+            public SnomedCTDescription getSnomedDescriptionPreferredTermUsingConceptId(String conceptId) {
+                return description(conceptId, conceptId);
+            }
+        };
+    }
+
+    @Bean
+    public ImmunizationSnomedCTDao immunizationSnomedCTDao() {
+        return new ImmunizationSnomedCTDao() {
+            @Override
+            public ImmunizationSnomedCT getImmunizationSnomedUsingConceptOrDescriptionId(String snomedId) {
+                return null;
+            }
+
+            @Override
+            public boolean areImmunizationCodesLoaded() {
+                return true;
+            }
+        };
+    }
+
+    private static SnomedCTDescription description(String code, String term) {
+        return SnomedCTDescription.builder()
+            .id(code)
+            .conceptid(code)
+            .term(term)
+            .build();
+    }
+}
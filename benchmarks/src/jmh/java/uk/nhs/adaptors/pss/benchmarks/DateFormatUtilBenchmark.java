@@ -0,0 +1,53 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.nhs.adaptors.pss.translator.util.DateFormatUtil;
+
+/**
+ * Parses every valid HL7 timestamp in the {@code DateFormatUtilTest} golden file, covering each precision with and without an offset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateFormatUtilBenchmark {
+
+    private static final String TIMESTAMPS_FIXTURE = "dateformat/hl7-timestamps.csv";
+    private static final String INVALID_PRECISION = ",ERROR";
+
+    private List<String> timestamps;
+
+    @Setup
+    public void setUp() {
+        timestamps = Fixtures.read(TIMESTAMPS_FIXTURE)
+            .lines()
+            .skip(1)
+            .filter(line -> !line.endsWith(INVALID_PRECISION))
+            .map(line -> line.substring(0, line.indexOf(',')))
+            .toList();
+    }
+
+    @Benchmark
+    public void parseToDateTimeType(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(DateFormatUtil.parseToDateTimeType(timestamp));
+        }
+    }
+
+    @Benchmark
+    public void parseToInstantType(Blackhole blackhole) {
+        for (String timestamp : timestamps) {
+            blackhole.consume(DateFormatUtil.parseToInstantType(timestamp));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.function.Supplier;
+
+/**
+ * The EHR extracts benchmarks are parameterised by, from a generated record of a handful of statements to a generated record
+ * several times the size of the largest fixture.
+ */
+public enum ExtractSize {
+    SMALL(Fixtures::generateSmallExtract),
+    MEDIUM(() -> Fixtures.read("xml/RCMRIN030000UK06/payloadSmallMessage.xml")),
+    LARGE(() -> Fixtures.read("xml/RCMRIN030000UK06/structuredRecord.xml")),
+    GENERATED(Fixtures::generateLargeExtract);
+
+    private final Supplier<String> extract;
+
+    ExtractSize(Supplier<String> extract) {
+        this.extract = extract;
+    }
+
+    public String read() {
+        return extract.get();
+    }
+}
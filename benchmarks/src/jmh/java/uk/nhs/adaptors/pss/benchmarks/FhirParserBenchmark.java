@@ -0,0 +1,57 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.v3.RCMRIN030000UKMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import jakarta.xml.bind.JAXBException;
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
+import uk.nhs.adaptors.pss.translator.service.BundleMapperService;
+import uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil;
+
+/**
+ * Encodes the bundle mapped from each extract, pretty printed as the facade returns it and compact as the translator stores it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FhirParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "GENERATED"})
+    private ExtractSize extractSize;
+
+    private FhirParser fhirParser;
+    private Bundle bundle;
+
+    @Setup
+    public void setUp() throws JAXBException, BundleMappingException {
+        try (var context = new AnnotationConfigApplicationContext(BundleMappingConfiguration.class)) {
+            fhirParser = context.getBean(FhirParser.class);
+
+            var message = XmlUnmarshallUtil.unmarshallString(extractSize.read(), RCMRIN030000UKMessage.class);
+            bundle = context.getBean(BundleMapperService.class).mapToBundle(message, Fixtures.LOSING_ODS_CODE, List.of());
+        }
+    }
+
+    @Benchmark
+    public String encodeToJson() {
+        return fhirParser.encodeToJson(bundle);
+    }
+
+    @Benchmark
+    public String encodeToCompactJson() {
+        return fhirParser.encodeToCompactJson(bundle);
+    }
+}
@@ -0,0 +1,65 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import uk.nhs.adaptors.pss.generator.EhrExtractGenerator;
+import uk.nhs.adaptors.pss.generator.GeneratorOptions;
+
+/**
+ * Reads the translator's test fixtures, which the build adds to the benchmark classpath, or generates an extract in their place.
+ */
+final class Fixtures {
+
+    static final String CONVERSATION_ID = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+    static final String LOSING_ODS_CODE = "P83007";
+
+    private static final String NHS_NUMBER = "9729734925";
+    private static final GeneratorOptions SMALL_EXTRACT = GeneratorOptions.builder()
+        .conversationId(CONVERSATION_ID)
+        .nhsNumber(NHS_NUMBER)
+        .losingOdsCode(LOSING_ODS_CODE)
+        .compositionCount(3)
+        .statementsPerComposition(5)
+        .build();
+    private static final GeneratorOptions LARGE_EXTRACT = GeneratorOptions.builder()
+        .conversationId(CONVERSATION_ID)
+        .nhsNumber(NHS_NUMBER)
+        .losingOdsCode(LOSING_ODS_CODE)
+        .compositionCount(1000)
+        .statementsPerComposition(10)
+        .attachmentCount(50)
+        .attachmentSize(1024)
+        .build();
+
+    private Fixtures() {
+    }
+
+    static String read(String path) {
+        try (InputStream inputStream = Fixtures.class.getResourceAsStream("/" + path)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture not found on classpath: " + path);
+            }
+            return new String(inputStream.readAllBytes(), UTF_8).replace("{{nhsNumber}}", NHS_NUMBER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Three compositions of five statements each, with no attachments.
+     */
+    static String generateSmallExtract() {
+        return new EhrExtractGenerator().generate(SMALL_EXTRACT).getEhrExtract().getPayload();
+    }
+
+    /**
+     * A thousand compositions of ten statements each, with fifty inline attachments: roughly four times the largest fixture.
+     */
+    static String generateLargeExtract() {
+        return new EhrExtractGenerator().generate(LARGE_EXTRACT).getEhrExtract().getPayload();
+    }
+}
@@ -0,0 +1,65 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import uk.nhs.adaptors.pss.translator.service.XPathService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class XPathServiceBenchmark {
+
+    private static final String EBXML_FIXTURE = "xml/RCMRIN030000UK06/ebxmlSmallMessage.xml";
+    private static final String CONVERSATION_ID_PATH = "/Envelope/Header/MessageHeader/ConversationId";
+    private static final String INTERACTION_ID_PATH = "/Envelope/Header/MessageHeader/Action";
+    private static final String MESSAGE_ID_PATH = "/Envelope/Header/MessageHeader/MessageData/MessageId";
+    private static final String SENDER_ASID_PATH = "/RCMR_IN030000UK06/communicationFunctionSnd/device/id/@extension";
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "GENERATED"})
+    private ExtractSize extractSize;
+
+    private final XPathService xPathService = new XPathService();
+    private String ebXml;
+    private String ehrExtract;
+    private Document ehrExtractDocument;
+
+    @Setup
+    public void setUp() throws SAXException {
+        ebXml = Fixtures.read(EBXML_FIXTURE);
+        ehrExtract = extractSize.read();
+        ehrExtractDocument = xPathService.parseDocumentFromXml(ehrExtract);
+    }
+
+    /**
+     * Parses an ebXML header and reads the fields every inbound message is routed by.
+     */
+    @Benchmark
+    public void readEbXmlHeader(Blackhole blackhole) throws SAXException {
+        Document ebXmlDocument = xPathService.parseDocumentFromXml(ebXml);
+        blackhole.consume(xPathService.getNodeValue(ebXmlDocument, CONVERSATION_ID_PATH));
+        blackhole.consume(xPathService.getNodeValue(ebXmlDocument, INTERACTION_ID_PATH));
+        blackhole.consume(xPathService.getNodeValue(ebXmlDocument, MESSAGE_ID_PATH));
+    }
+
+    @Benchmark
+    public Document parseEhrExtract() throws SAXException {
+        return xPathService.parseDocumentFromXml(ehrExtract);
+    }
+
+    @Benchmark
+    public String evaluateOnEhrExtract() {
+        return xPathService.getNodeValue(ehrExtractDocument, SENDER_ASID_PATH);
+    }
+}
@@ -0,0 +1,37 @@
+package uk.nhs.adaptors.pss.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.v3.RCMRIN030000UKMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jakarta.xml.bind.JAXBException;
+import uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XmlUnmarshallBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE", "GENERATED"})
+    private ExtractSize extractSize;
+
+    private String ehrExtract;
+
+    @Setup
+    public void setUp() {
+        ehrExtract = extractSize.read();
+    }
+
+    @Benchmark
+    public RCMRIN030000UKMessage unmarshallEhrExtract() throws JAXBException {
+        return XmlUnmarshallUtil.unmarshallString(ehrExtract, RCMRIN030000UKMessage.class);
+    }
+}
@@ -0,0 +1,27 @@
+package uk.nhs.adaptors.common.enums;
+
+/**
+ * The stages an inbound MHS message passes through in the translator, in the order they complete. Each message only passes
+ * through the stages that apply to its interaction: an EHR extract through {@code ATTACHMENTS_STORED} and then either
+ * {@code BUNDLE_PERSISTED} or {@code EHR_EXTRACT_PERSISTED} and {@code CONTINUE_REQUEST_SENT}, and a COPC message through
+ * {@code ATTACHMENTS_STORED}, {@code FRAGMENTS_MERGED} and {@code ACK_SENT}.
+ * <p>
+ * The stages of both paths share one ordering, so a stage of one path can compare as completed by a stage of the other, as
+ * {@code BUNDLE_PERSISTED} does by {@code CONTINUE_REQUEST_SENT}. {@link #isCompleted} is only right because a message only
+ * ever records, and is only ever checked against, the stages of its own path. A new stage must keep each path in order.
+ */
+public enum MessageStage {
+    ATTACHMENTS_STORED,
+    FRAGMENTS_MERGED,
+    EHR_EXTRACT_PERSISTED,
+    BUNDLE_PERSISTED,
+    CONTINUE_REQUEST_SENT,
+    ACK_SENT;
+
+    /**
+     * Whether this stage was completed by a message whose last completed stage is {@code lastStage}, which may be {@code null}.
+     */
+    public boolean isCompleted(MessageStage lastStage) {
+        return lastStage != null && lastStage.compareTo(this) >= 0;
+    }
+}
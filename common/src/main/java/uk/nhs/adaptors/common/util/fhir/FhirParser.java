@@ -1,5 +1,10 @@
 package uk.nhs.adaptors.common.util.fhir;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -7,34 +12,70 @@ import org.springframework.stereotype.Service;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.IParser;
 import ca.uhn.fhir.parser.StrictErrorHandler;
-import lombok.RequiredArgsConstructor;
 import uk.nhs.adaptors.common.exception.FhirValidationException;
 
+/**
+ * JSON parsing and encoding of FHIR resources.
+ * <p>
+ * HAPI parsers are not thread safe, so each thread keeps its own parsers, created once from the shared {@link FhirContext}
+ * and configured with a {@link StrictErrorHandler}. The context itself is never mutated after startup.
+ */
 @Service
-@RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class FhirParser {
 
-    private final FhirContext context;
+    private final ThreadLocal<IParser> parser;
+    private final ThreadLocal<IParser> prettyEncoder;
+    private final ThreadLocal<IParser> compactEncoder;
+
+    @Autowired
+    public FhirParser(FhirContext context) {
+        this.parser = ThreadLocal.withInitial(() -> newParser(context));
+        this.prettyEncoder = ThreadLocal.withInitial(() -> newParser(context).setPrettyPrint(true));
+        this.compactEncoder = ThreadLocal.withInitial(() -> newParser(context).setPrettyPrint(false));
+    }
 
     public <T extends IBaseResource> T parseResource(String body, Class<T> fhirClass) {
-        IParser jsonParser = prepareParser();
         try {
-            return jsonParser.parseResource(fhirClass, body);
+            return parser.get().parseResource(fhirClass, body);
         } catch (Exception ex) {
             throw new FhirValidationException(ex.getMessage());
         }
     }
 
+    public <T extends IBaseResource> T parseFromReader(Reader reader, Class<T> fhirClass) {
+        try {
+            return parser.get().parseResource(fhirClass, reader);
+        } catch (Exception ex) {
+            throw new FhirValidationException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the resource as pretty printed JSON, as used for the OperationOutcomes returned in error responses.
+     */
     public String encodeToJson(IBaseResource resource) {
-        IParser jsonParser = prepareParser();
-        return jsonParser
-            .setPrettyPrint(true)
-            .encodeResourceToString(resource);
+        return prettyEncoder.get().encodeResourceToString(resource);
+    }
+
+    /**
+     * Encodes the resource as JSON without whitespace, for storage and for bundles returned to API consumers.
+     */
+    public String encodeToCompactJson(IBaseResource resource) {
+        return compactEncoder.get().encodeResourceToString(resource);
+    }
+
+    /**
+     * Streams the resource as JSON without whitespace to the given writer, without building the whole document in memory.
+     */
+    public void encodeToWriter(IBaseResource resource, Writer writer) {
+        try {
+            compactEncoder.get().encodeResourceToWriter(resource, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private IParser prepareParser() {
-        context.newJsonParser();
-        context.setParserErrorHandler(new StrictErrorHandler());
-        return context.newJsonParser();
+    private static IParser newParser(FhirContext context) {
+        return context.newJsonParser().setParserErrorHandler(new StrictErrorHandler());
     }
 }
@@ -0,0 +1,36 @@
+package uk.nhs.adaptors.common.enums;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static uk.nhs.adaptors.common.enums.MessageStage.ACK_SENT;
+import static uk.nhs.adaptors.common.enums.MessageStage.ATTACHMENTS_STORED;
+import static uk.nhs.adaptors.common.enums.MessageStage.BUNDLE_PERSISTED;
+import static uk.nhs.adaptors.common.enums.MessageStage.CONTINUE_REQUEST_SENT;
+import static uk.nhs.adaptors.common.enums.MessageStage.EHR_EXTRACT_PERSISTED;
+import static uk.nhs.adaptors.common.enums.MessageStage.FRAGMENTS_MERGED;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class MessageStageTest {
+
+    private static final List<List<MessageStage>> PATHS = List.of(
+        List.of(ATTACHMENTS_STORED, BUNDLE_PERSISTED),
+        List.of(ATTACHMENTS_STORED, EHR_EXTRACT_PERSISTED, CONTINUE_REQUEST_SENT),
+        List.of(ATTACHMENTS_STORED, FRAGMENTS_MERGED, ACK_SENT)
+    );
+
+    @Test
+    public void When_CheckingStagesOfOnePath_Expect_CompletedByThemselvesAndLaterStagesOnly() {
+        for (List<MessageStage> path : PATHS) {
+            for (int stage = 0; stage < path.size(); stage++) {
+                for (int lastStage = 0; lastStage < path.size(); lastStage++) {
+                    assertEquals(lastStage >= stage, path.get(stage).isCompleted(path.get(lastStage)),
+                        path.get(stage) + " after " + path.get(lastStage));
+                }
+                assertFalse(path.get(stage).isCompleted(null));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package uk.nhs.adaptors.common.util.fhir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import uk.nhs.adaptors.common.exception.FhirValidationException;
+
+public class FhirParserTest {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ENTRY_COUNT = 50;
+
+    private final FhirParser fhirParser = new FhirParser(FhirContext.forDstu3());
+
+    @Test
+    public void When_EncodeToCompactJson_Expect_NoWhitespaceAndSameResourceAsPrettyJson() {
+        Bundle bundle = buildBundle();
+
+        String pretty = fhirParser.encodeToJson(bundle);
+        String compact = fhirParser.encodeToCompactJson(bundle);
+
+        assertTrue(pretty.contains("\n"));
+        assertFalse(compact.contains("\n"));
+        assertEquals(compact, fhirParser.encodeToCompactJson(fhirParser.parseResource(pretty, Bundle.class)));
+    }
+
+    @Test
+    public void When_EncodeToWriter_Expect_SameOutputAsCompactJson() {
+        Bundle bundle = buildBundle();
+        StringWriter writer = new StringWriter();
+
+        fhirParser.encodeToWriter(bundle, writer);
+
+        assertEquals(fhirParser.encodeToCompactJson(bundle), writer.toString());
+    }
+
+    @Test
+    public void When_ParseFromReader_Expect_ResourceParsed() {
+        String json = fhirParser.encodeToCompactJson(buildBundle());
+
+        Bundle bundle = fhirParser.parseFromReader(new StringReader(json), Bundle.class);
+
+        assertEquals(ENTRY_COUNT, bundle.getEntry().size());
+    }
+
+    @Test
+    public void When_ParseInvalidResource_Expect_FhirValidationException() {
+        assertThrows(FhirValidationException.class,
+            () -> fhirParser.parseResource("{\"resourceType\":\"Bundle\",\"unknownField\":true}", Bundle.class));
+    }
+
+    @Test
+    public void When_ParsedConcurrently_Expect_EveryThreadGetsCorrectResult() throws Exception {
+        String json = fhirParser.encodeToCompactJson(buildBundle());
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT * THREAD_COUNT; i++) {
+                results.add(executor.submit(() -> fhirParser.encodeToCompactJson(fhirParser.parseResource(json, Bundle.class))));
+            }
+
+            for (Future<String> result : results) {
+                assertEquals(json, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Bundle buildBundle() {
+        Bundle bundle = new Bundle();
+        bundle.setType(Bundle.BundleType.COLLECTION);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Patient patient = new Patient();
+            patient.setId("patient-" + i);
+            patient.addName().setFamily("Family" + i);
+            bundle.addEntry().setResource(patient);
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,16 @@
+CREATE OR REPLACE FUNCTION audit.summarise_value(p_value JSONB, p_threshold INT) RETURNS JSONB AS '
+    SELECT CASE
+        WHEN jsonb_typeof(p_value) = ''string'' AND length(p_value #>> ''{}'') > p_threshold THEN
+            jsonb_build_object(
+                ''length'', length(p_value #>> ''{}''),
+                ''sha256'', encode(sha256(convert_to(p_value #>> ''{}'', ''UTF8'')), ''hex''))
+        ELSE p_value
+    END;'
+LANGUAGE sql IMMUTABLE
+SET search_path = pg_catalog, audit;
+
+CREATE OR REPLACE FUNCTION audit.summarise_row(p_row JSONB, p_threshold INT) RETURNS JSONB AS '
+    SELECT jsonb_object_agg(key, audit.summarise_value(value, p_threshold))
+    FROM jsonb_each(p_row);'
+LANGUAGE sql IMMUTABLE
+SET search_path = pg_catalog, audit;
@@ -0,0 +1,82 @@
+CREATE OR REPLACE FUNCTION audit.create_audit_entry_function() RETURNS trigger AS '
+    DECLARE
+        v_mode TEXT;
+        v_async BOOLEAN;
+        v_threshold INT;
+        v_old_data TEXT;
+        v_new_data TEXT;
+        v_column NAME;
+        v_changed BOOLEAN;
+        v_old_value JSONB;
+        v_new_value JSONB;
+        v_old_columns JSONB := ''{}'';
+        v_new_columns JSONB := ''{}'';
+    BEGIN
+        SELECT mode, async, large_value_threshold INTO v_mode, v_async, v_threshold
+        FROM audit.audit_settings WHERE id = 1;
+
+        if (TG_OP NOT IN (''UPDATE'', ''DELETE'', ''INSERT'')) then
+            RAISE WARNING ''[AUDIT.CREATE_AUDIT_ENTRY_FUNCTION] - Other action occurred: %, at %'',TG_OP,now();
+            RETURN NULL;
+        end if;
+
+        if (v_mode IS NULL OR v_mode = ''FULL'') then
+            if (TG_OP IN (''UPDATE'', ''DELETE'')) then
+                v_old_data := ROW(OLD.*);
+            end if;
+            if (TG_OP IN (''UPDATE'', ''INSERT'')) then
+                v_new_data := ROW(NEW.*);
+            end if;
+        elsif (TG_OP = ''UPDATE'') then
+            -- compare column by column, so that large values the UPDATE left alone are not converted to JSON
+            FOR v_column IN
+                SELECT attname FROM pg_catalog.pg_attribute
+                WHERE attrelid = TG_RELID AND attnum > 0 AND NOT attisdropped
+                ORDER BY attnum
+            LOOP
+                EXECUTE format(''SELECT $1.%1$I IS DISTINCT FROM $2.%1$I'', v_column) INTO v_changed USING OLD, NEW;
+                if (v_changed) then
+                    EXECUTE format(''SELECT to_jsonb($1.%1$I), to_jsonb($2.%1$I)'', v_column)
+                    INTO v_old_value, v_new_value USING OLD, NEW;
+                    v_old_columns := v_old_columns || jsonb_build_object(v_column, audit.summarise_value(v_old_value, v_threshold));
+                    v_new_columns := v_new_columns || jsonb_build_object(v_column, audit.summarise_value(v_new_value, v_threshold));
+                end if;
+            END LOOP;
+
+            if (v_new_columns = ''{}'') then
+                RETURN NEW;
+            end if;
+            v_old_data := v_old_columns::TEXT;
+            v_new_data := v_new_columns::TEXT;
+        elsif (TG_OP = ''DELETE'') then
+            v_old_data := audit.summarise_row(to_jsonb(OLD), v_threshold)::TEXT;
+        else
+            v_new_data := audit.summarise_row(to_jsonb(NEW), v_threshold)::TEXT;
+        end if;
+
+        if (v_async IS TRUE) then
+            insert into audit.pending_actions (schema_name,table_name,user_name,action,original_data,new_data,query)
+            values (TG_TABLE_SCHEMA::TEXT,TG_TABLE_NAME::TEXT,session_user::TEXT,substring(TG_OP,1,1),v_old_data,v_new_data,current_query());
+        else
+            insert into audit.logged_actions (schema_name,table_name,user_name,action,original_data,new_data,query)
+            values (TG_TABLE_SCHEMA::TEXT,TG_TABLE_NAME::TEXT,session_user::TEXT,substring(TG_OP,1,1),v_old_data,v_new_data,current_query());
+        end if;
+
+        if (TG_OP = ''DELETE'') then
+            RETURN OLD;
+        end if;
+        RETURN NEW;
+
+    EXCEPTION
+        WHEN data_exception THEN
+            RAISE WARNING ''[AUDIT.CREATE_AUDIT_ENTRY_FUNCTION] - UDF ERROR [DATA EXCEPTION] - SQLSTATE: %, SQLERRM: %'',SQLSTATE,SQLERRM;
+            RETURN NULL;
+        WHEN unique_violation THEN
+            RAISE WARNING ''[AUDIT.CREATE_AUDIT_ENTRY_FUNCTION] - UDF ERROR [UNIQUE] - SQLSTATE: %, SQLERRM: %'',SQLSTATE,SQLERRM;
+            RETURN NULL;
+        WHEN others THEN
+            RAISE WARNING ''[AUDIT.CREATE_AUDIT_ENTRY_FUNCTION] - UDF ERROR [OTHER] - SQLSTATE: %, SQLERRM: %'',SQLSTATE,SQLERRM;
+            RETURN NULL;
+END;'
+LANGUAGE plpgsql SECURITY DEFINER
+SET search_path = pg_catalog, audit;
@@ -0,0 +1,24 @@
+CREATE OR REPLACE FUNCTION audit.drain_pending_actions(p_batch_size INT) RETURNS INT AS '
+    DECLARE
+        v_drained INT;
+    BEGIN
+        WITH batch AS (
+            DELETE FROM audit.pending_actions
+            WHERE id IN (
+                SELECT id FROM audit.pending_actions
+                ORDER BY id
+                LIMIT p_batch_size
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING schema_name, table_name, user_name, action_timestamp, action, original_data, new_data, query, id
+        )
+        INSERT INTO audit.logged_actions (schema_name,table_name,user_name,action_timestamp,action,original_data,new_data,query)
+        SELECT schema_name, table_name, user_name, action_timestamp, action, original_data, new_data, query
+        FROM batch
+        ORDER BY id;
+
+        GET DIAGNOSTICS v_drained = ROW_COUNT;
+        RETURN v_drained;
+    END;'
+LANGUAGE plpgsql SECURITY DEFINER
+SET search_path = pg_catalog, audit;
@@ -0,0 +1,15 @@
+package uk.nhs.adaptors.connector.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@ConfigurationProperties(prefix = "bundle.entries")
+@Getter
+@Setter
+public class BundleEntryProperties {
+    private boolean splitOnSave;
+}
@@ -16,11 +16,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 
 import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.connector.dao.AuditDao;
+import uk.nhs.adaptors.connector.dao.BundleEntryDao;
 import uk.nhs.adaptors.connector.dao.ImmunizationSnomedCTDao;
+import uk.nhs.adaptors.connector.dao.MessageCheckpointDao;
 import uk.nhs.adaptors.connector.dao.MessagePersistDurationDao;
 import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
 import uk.nhs.adaptors.connector.dao.PatientAttachmentLogDao;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.dao.PssQueueOutboxDao;
 import uk.nhs.adaptors.connector.dao.SnomedCTDao;
 
 @Slf4j
@@ -54,6 +58,11 @@ public class DbConnectorConfiguration {
         return jdbi.onDemand(PatientMigrationRequestDao.class);
     }
 
+    @Bean
+    public BundleEntryDao bundleEntryDao(Jdbi jdbi) {
+        return jdbi.onDemand(BundleEntryDao.class);
+    }
+
     @Bean
     public MigrationStatusLogDao migrationStatusLogDao(Jdbi jdbi) {
         return jdbi.onDemand(MigrationStatusLogDao.class);
@@ -74,8 +83,23 @@ public class DbConnectorConfiguration {
         return jdbi.onDemand(MessagePersistDurationDao.class);
     }
 
+    @Bean
+    public MessageCheckpointDao messageCheckpointDao(Jdbi jdbi) {
+        return jdbi.onDemand(MessageCheckpointDao.class);
+    }
+
     @Bean
     public PatientAttachmentLogDao attachmentLogDao(Jdbi jdbi) {
         return jdbi.onDemand(PatientAttachmentLogDao.class);
     }
+
+    @Bean
+    public AuditDao auditDao(Jdbi jdbi) {
+        return jdbi.onDemand(AuditDao.class);
+    }
+
+    @Bean
+    public PssQueueOutboxDao pssQueueOutboxDao(Jdbi jdbi) {
+        return jdbi.onDemand(PssQueueOutboxDao.class);
+    }
 }
@@ -0,0 +1,12 @@
+package uk.nhs.adaptors.connector.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.locator.UseClasspathSqlLocator;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+public interface AuditDao {
+
+    @SqlQuery("drain_pending_audit_actions")
+    @UseClasspathSqlLocator
+    int drainPendingActions(@Bind("batchSize") int batchSize);
+}
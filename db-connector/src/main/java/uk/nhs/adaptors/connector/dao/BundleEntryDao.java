@@ -0,0 +1,52 @@
+package uk.nhs.adaptors.connector.dao;
+
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.locator.UseClasspathSqlLocator;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+/**
+ * The entries of a migration's saved bundle kept one per row, in bundle order, so that the bundle can be served a page at a time.
+ * The rest of the bundle, without its entries, is kept as the migration's bundle envelope.
+ * <p>
+ * This is a second copy of the bundle, alongside the whole bundle that is served when no page is asked for. Postgres only
+ * compresses values of more than about 2 kB, which most single entries are not, so the entries usually take more space than
+ * the compressed whole bundle. They are only written when the bundle is saved if {@code bundle.entries.splitOnSave} is set;
+ * otherwise a bundle is split the first time a page of it is asked for.
+ */
+public interface BundleEntryDao {
+
+    @SqlUpdate("delete_bundle_entries")
+    @UseClasspathSqlLocator
+    void deleteBundleEntries(@Bind("conversationId") String conversationId);
+
+    /**
+     * Splits the bundle already saved against the migration into its entries and envelope. This is done by the database, so
+     * the bundle does not need to be parsed again by the caller. Entries that are already saved are kept, so two callers
+     * splitting the same bundle at once both succeed.
+     */
+    @SqlUpdate("save_bundle_entries")
+    @UseClasspathSqlLocator
+    void saveBundleEntries(@Bind("conversationId") String conversationId);
+
+    /**
+     * Marks the migration's bundle as not yet split, after its entries have been deleted.
+     */
+    @SqlUpdate("clear_bundle_envelope")
+    @UseClasspathSqlLocator
+    void clearBundleEnvelope(@Bind("conversationId") String conversationId);
+
+    @SqlQuery("select_bundle_envelope")
+    @UseClasspathSqlLocator
+    String getBundleEnvelope(@Bind("conversationId") String conversationId);
+
+    /**
+     * Up to {@code limit} entries as JSON, starting at entry {@code offset} counting from 0.
+     */
+    @SqlQuery("select_bundle_entries")
+    @UseClasspathSqlLocator
+    List<String> getBundleEntries(@Bind("conversationId") String conversationId, @Bind("offset") int offset,
+        @Bind("limit") int limit);
+}
@@ -0,0 +1,20 @@
+package uk.nhs.adaptors.connector.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.locator.UseClasspathSqlLocator;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+/**
+ * Session level advisory locks keyed by conversation ID. The lock belongs to the connection that acquired it, so this DAO must
+ * be attached to a single open handle rather than used on demand.
+ */
+public interface ConversationLockDao {
+
+    @SqlQuery("try_acquire_conversation_lock")
+    @UseClasspathSqlLocator
+    boolean tryAcquireLock(@Bind("conversationId") String conversationId);
+
+    @SqlQuery("release_conversation_lock")
+    @UseClasspathSqlLocator
+    boolean releaseLock(@Bind("conversationId") String conversationId);
+}
@@ -0,0 +1,35 @@
+package uk.nhs.adaptors.connector.dao;
+
+import java.time.OffsetDateTime;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.locator.UseClasspathSqlLocator;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import uk.nhs.adaptors.common.enums.MessageStage;
+
+/**
+ * The last stage each inbound MHS message completed, see {@link uk.nhs.adaptors.connector.service.MessageCheckpointService}.
+ */
+public interface MessageCheckpointDao {
+
+    @SqlUpdate("save_message_checkpoint")
+    @UseClasspathSqlLocator
+    void saveStage(@Bind("conversationId") String conversationId, @Bind("messageId") String messageId,
+        @Bind("stage") MessageStage stage);
+
+    /**
+     * The last stage completed by the message, or {@code null} if it has not completed any.
+     */
+    @SqlQuery("select_message_checkpoint_stage")
+    @UseClasspathSqlLocator
+    MessageStage getStage(@Bind("conversationId") String conversationId, @Bind("messageId") String messageId);
+
+    /**
+     * Deletes the checkpoints of messages that last completed a stage before the cutoff, returning how many were deleted.
+     */
+    @SqlUpdate("delete_message_checkpoints_updated_before")
+    @UseClasspathSqlLocator
+    int deleteStagesUpdatedBefore(@Bind("cutoff") OffsetDateTime cutoff);
+}
@@ -13,6 +13,11 @@ import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 
 public interface MigrationStatusLogDao {
 
+    /**
+     * The Postgres notification channel on which the conversation ID of a migration is published whenever its status changes.
+     */
+    String STATUS_CHANGED_CHANNEL = "migration_status_changed";
+
     @SqlUpdate("insert_migration_status_log")
     @UseClasspathSqlLocator
     void addMigrationStatusLog(@Bind("status") MigrationStatus status,
@@ -27,4 +32,12 @@ public interface MigrationStatusLogDao {
     @SqlQuery("select_migration_status_logs")
     @UseClasspathSqlLocator
     List<MigrationStatusLog> getLatestMigrationStatusLogs(@Bind("migrationRequestId") int migrationRequestId);
+
+    /**
+     * Tells anyone listening on {@link #STATUS_CHANGED_CHANNEL} that the migration's status has changed. Inside a transaction
+     * the notification is only delivered once it commits.
+     */
+    @SqlQuery("notify_migration_status_changed")
+    @UseClasspathSqlLocator
+    int notifyMigrationStatusChanged(@Bind("channel") String channel, @Bind("conversationId") String conversationId);
 }
@@ -1,12 +1,18 @@
 package uk.nhs.adaptors.connector.dao;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.locator.UseClasspathSqlLocator;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
 
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
@@ -18,10 +24,43 @@ public interface PatientMigrationRequestDao {
     void addNewRequest(@Bind("nhsNumber") String patientNhsNumber, @Bind("conversationId") String conversationId,
         @Bind("losingOdsCode") String losingOdsCode, @Bind("winningOdsCode") String winningOdsCode);
 
+    @SqlBatch("insert_patient_migration_request")
+    @UseClasspathSqlLocator
+    void addNewRequests(@Bind("nhsNumber") List<String> patientNhsNumbers, @Bind("conversationId") List<String> conversationIds,
+        @Bind("losingOdsCode") String losingOdsCode, @Bind("winningOdsCode") String winningOdsCode);
+
+    @SqlBatch("insert_request_received_migration_status_log")
+    @UseClasspathSqlLocator
+    void addRequestReceivedStatusLogs(@Bind("status") MigrationStatus status, @Bind("date") OffsetDateTime date,
+        @Bind("conversationId") List<String> conversationIds);
+
+    @SqlQuery("select_existing_conversation_ids")
+    @UseClasspathSqlLocator
+    List<String> getExistingConversationIds(@BindList("conversationIds") List<String> conversationIds);
+
+    /**
+     * The conversation ID of the latest migration of each of the given patients whose latest status is one of the given
+     * statuses, or which has no status yet, keyed by NHS number.
+     */
+    @SqlQuery("select_conversation_ids_of_migrations_in_progress_by_patient_nhs_numbers")
+    @UseClasspathSqlLocator
+    @KeyColumn("patient_nhs_number")
+    @ValueColumn("conversation_id")
+    Map<String, String> getConversationIdsOfMigrationsInProgress(@BindList("patientNhsNumbers") List<String> patientNhsNumbers,
+        @BindList("statusList") List<MigrationStatus> statusList);
+
     @SqlQuery("select_patient_migration_request")
     @UseClasspathSqlLocator
     PatientMigrationRequest getMigrationRequest(@Bind("conversationId") String conversationId);
 
+    /**
+     * The migration request without its bundle, pre-mapped bundle or inbound message. Requests received before the EHR extract
+     * header was saved need {@link #getMigrationRequest} to read the extract.
+     */
+    @SqlQuery("select_patient_migration_request_header")
+    @UseClasspathSqlLocator
+    PatientMigrationRequest getMigrationRequestHeader(@Bind("conversationId") String conversationId);
+
     @SqlQuery("select_patient_migration_request_id")
     @UseClasspathSqlLocator
     int getMigrationRequestId(@Bind("conversationId") String conversationId);
@@ -31,6 +70,41 @@ public interface PatientMigrationRequestDao {
     void saveBundleAndInboundMessageData(@Bind("conversationId") String conversationId, @Bind("bundle") String bundle,
         @Bind("inboundMessage") String inboundMessage);
 
+    /**
+     * Keeps a bundle mapped before every attachment has arrived, for the merge to finish once they have. Saving the bundle
+     * itself clears it, and a pre-mapped bundle is not kept once the bundle has been saved, so one mapped alongside a merge
+     * that has already finished is dropped rather than left behind.
+     */
+    @SqlUpdate("save_pre_mapped_bundle_resource")
+    @UseClasspathSqlLocator
+    void savePreMappedBundle(@Bind("conversationId") String conversationId, @Bind("bundle") String bundle);
+
+    /**
+     * Keeps the EHR extract's message reference, ASIDs, author ODS code and ebXML timestamp, so that replying to or timing out
+     * the transfer does not need the extract itself.
+     */
+    @SqlUpdate("save_ehr_extract_header")
+    @UseClasspathSqlLocator
+    void saveEhrExtractHeader(@Bind("conversationId") String conversationId, @Bind("messageRef") String messageRef,
+        @Bind("winningPracticeAsid") String winningPracticeAsid, @Bind("losingPracticeAsid") String losingPracticeAsid,
+        @Bind("authorOdsCode") String authorOdsCode, @Bind("timestamp") OffsetDateTime timestamp);
+
+    /**
+     * The hex encoded SHA-256 hash of the UTF-8 bundle, which is kept up to date whenever the bundle is saved.
+     */
+    @SqlQuery("select_bundle_resource_hash")
+    @UseClasspathSqlLocator
+    String getBundleResourceHash(@Bind("conversationId") String conversationId);
+
+    /**
+     * The whole bundle, read by a single query in a read-only transaction so that it comes from one snapshot and its TOASTed
+     * value is decompressed once.
+     */
+    @SqlQuery("select_bundle_resource")
+    @UseClasspathSqlLocator
+    @Transaction(readOnly = true)
+    String getBundleResource(@Bind("conversationId") String conversationId);
+
     @SqlQuery("exists_by_conversation_id")
     @UseClasspathSqlLocator
     boolean existsByConversationId(@Bind("conversationId") String conversationId);
@@ -39,8 +113,12 @@ public interface PatientMigrationRequestDao {
     @UseClasspathSqlLocator
     PatientMigrationRequest getLatestMigrationRequestByPatientNhsNumber(@Bind("patientNhsNumber") String patientNhsNumber);
 
-    @SqlQuery("select_patient_migration_requests_by_latest_migration_status")
+    /**
+     * The migration requests whose latest status is one of the given statuses, without their bundle, pre-mapped bundle or inbound
+     * message. Requests received before the EHR extract header was saved need {@link #getMigrationRequest} to read the extract.
+     */
+    @SqlQuery("select_patient_migration_request_headers_by_latest_migration_status")
     @UseClasspathSqlLocator
-    List<PatientMigrationRequest> getMigrationRequestsByLatestMigrationStatusIn(
+    List<PatientMigrationRequest> getMigrationRequestHeadersByLatestMigrationStatusIn(
         @BindList("statusList") List<MigrationStatus> statusList);
 }
@@ -0,0 +1,50 @@
+package uk.nhs.adaptors.connector.dao;
+
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.locator.UseClasspathSqlLocator;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import uk.nhs.adaptors.connector.model.PssQueueOutboxMessage;
+
+/**
+ * Messages waiting to be put on the PSS queue. They are written in the same transaction as the change that produced them and
+ * removed once they have been published, see {@link uk.nhs.adaptors.connector.service.PssQueueOutboxService}.
+ */
+public interface PssQueueOutboxDao {
+
+    @SqlUpdate("insert_outbox_message")
+    @UseClasspathSqlLocator
+    void addMessage(@Bind("conversationId") String conversationId, @Bind("message") String message);
+
+    @SqlBatch("insert_outbox_message")
+    @UseClasspathSqlLocator
+    void addMessages(@Bind("conversationId") List<String> conversationIds, @Bind("message") List<String> messages);
+
+    /**
+     * Up to {@code limit} of the oldest messages, locked until the end of the transaction. Messages already locked by another
+     * transaction are skipped, so that more than one relay can run at once.
+     */
+    @SqlQuery("select_next_outbox_messages")
+    @UseClasspathSqlLocator
+    List<PssQueueOutboxMessage> getNextMessages(@Bind("limit") int limit);
+
+    @SqlUpdate("delete_outbox_messages")
+    @UseClasspathSqlLocator
+    void deleteMessages(@BindList("ids") List<Long> ids);
+
+    @SqlQuery("count_outbox_messages")
+    @UseClasspathSqlLocator
+    long countMessages();
+
+    /**
+     * How long the oldest message has been waiting, or 0 if there are none.
+     */
+    @SqlQuery("select_oldest_outbox_message_age_millis")
+    @UseClasspathSqlLocator
+    long getOldestMessageAgeMillis();
+}
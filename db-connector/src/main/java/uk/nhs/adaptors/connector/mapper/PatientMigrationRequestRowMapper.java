@@ -2,6 +2,7 @@ package uk.nhs.adaptors.connector.mapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.OffsetDateTime;
 
 import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.statement.StatementContext;
@@ -18,10 +19,16 @@ public class PatientMigrationRequestRowMapper implements RowMapper<PatientMigrat
             .id(rs.getInt("id"))
             .patientNhsNumber(rs.getString("patient_nhs_number"))
             .bundleResource(rs.getString("bundle_resource"))
+            .preMappedBundleResource(rs.getString("pre_mapped_bundle_resource"))
             .inboundMessage(rs.getString("inbound_message"))
             .conversationId(rs.getString("conversation_id"))
             .losingPracticeOdsCode(rs.getString("losing_practice_ods_code"))
             .winningPracticeOdsCode(rs.getString("winning_practice_ods_code"))
+            .ehrExtractMessageRef(rs.getString("ehr_extract_message_ref"))
+            .winningPracticeAsid(rs.getString("winning_practice_asid"))
+            .losingPracticeAsid(rs.getString("losing_practice_asid"))
+            .ehrExtractAuthorOdsCode(rs.getString("ehr_extract_author_ods_code"))
+            .ehrExtractTimestamp(rs.getObject("ehr_extract_timestamp", OffsetDateTime.class))
             .build();
     }
 }
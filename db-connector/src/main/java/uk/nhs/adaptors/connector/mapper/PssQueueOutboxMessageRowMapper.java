@@ -0,0 +1,25 @@
+package uk.nhs.adaptors.connector.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.springframework.stereotype.Component;
+
+import uk.nhs.adaptors.connector.model.PssQueueOutboxMessage;
+
+@Component
+public class PssQueueOutboxMessageRowMapper implements RowMapper<PssQueueOutboxMessage> {
+
+    @Override
+    public PssQueueOutboxMessage map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return PssQueueOutboxMessage.builder()
+            .id(rs.getLong("id"))
+            .conversationId(rs.getString("conversation_id"))
+            .message(rs.getString("message"))
+            .age(Duration.ofMillis(rs.getLong("age_millis")))
+            .build();
+    }
+}
@@ -1,5 +1,7 @@
 package uk.nhs.adaptors.connector.model;
 
+import java.time.OffsetDateTime;
+
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,8 +13,14 @@ public class PatientMigrationRequest {
     private int id;
     private String patientNhsNumber;
     private String bundleResource;
+    private String preMappedBundleResource;
     private String inboundMessage;
     private String conversationId;
     private String losingPracticeOdsCode;
     private String winningPracticeOdsCode;
+    private String ehrExtractMessageRef;
+    private String winningPracticeAsid;
+    private String losingPracticeAsid;
+    private String ehrExtractAuthorOdsCode;
+    private OffsetDateTime ehrExtractTimestamp;
 }
@@ -0,0 +1,17 @@
+package uk.nhs.adaptors.connector.model;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class PssQueueOutboxMessage {
+    private long id;
+    private String conversationId;
+    private String message;
+    private Duration age;
+}
@@ -0,0 +1,129 @@
+package uk.nhs.adaptors.connector.service;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.connector.dao.ConversationLockDao;
+
+/**
+ * Cross-instance lock for one conversation, backed by a Postgres advisory lock. Use it around code that reads and then updates
+ * the state of a transfer, so that replicas handling messages for the same conversation do not interleave.
+ * <p>
+ * The lock is only tried, never waited for on the database: while another replica holds it the connection is returned to the
+ * pool and the lock tried again after a backoff, so waiting threads cannot use up the pool that the holder needs to finish its
+ * work. Each held lock does keep one pooled connection until it is closed, on top of any that the work inside it uses. A
+ * thread that already holds the lock for a conversation can take it again without blocking.
+ */
+@Slf4j
+@Service
+public class ConversationLockService {
+
+    private static final long INITIAL_BACKOFF_MILLIS = 10L;
+    private static final long MAX_BACKOFF_MILLIS = 500L;
+
+    private final Jdbi jdbi;
+    private final Timer waitTimer;
+    private final Timer heldTimer;
+    private final ThreadLocal<Map<String, ConversationLock>> heldLocks = ThreadLocal.withInitial(HashMap::new);
+
+    @Autowired
+    public ConversationLockService(Jdbi jdbi, MeterRegistry meterRegistry) {
+        this.jdbi = jdbi;
+        this.waitTimer = Timer.builder("conversation.lock.wait")
+            .description("Time spent waiting for the advisory lock of a conversation")
+            .register(meterRegistry);
+        this.heldTimer = Timer.builder("conversation.lock.held")
+            .description("Time the advisory lock of a conversation was held")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Blocks until the lock for the conversation is acquired. Close the returned lock, on the same thread, to release it.
+     */
+    public ConversationLock lock(String conversationId) {
+        ConversationLock heldLock = heldLocks.get().get(conversationId);
+        if (heldLock != null) {
+            heldLock.holdCount++;
+            return heldLock;
+        }
+
+        long waitStart = System.nanoTime();
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        ConversationLock lock = tryLock(conversationId);
+        while (lock == null) {
+            sleep(conversationId, backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            lock = tryLock(conversationId);
+        }
+
+        waitTimer.record(lock.acquiredAt - waitStart, NANOSECONDS);
+        LOGGER.debug("Acquired conversation lock for conversation_id=[{}]", conversationId);
+        heldLocks.get().put(conversationId, lock);
+        return lock;
+    }
+
+    private ConversationLock tryLock(String conversationId) {
+        Handle handle = jdbi.open();
+        boolean acquired = false;
+        try {
+            ConversationLockDao lockDao = handle.attach(ConversationLockDao.class);
+            acquired = lockDao.tryAcquireLock(conversationId);
+            return acquired ? new ConversationLock(conversationId, handle, lockDao, System.nanoTime()) : null;
+        } finally {
+            if (!acquired) {
+                handle.close();
+            }
+        }
+    }
+
+    private static void sleep(String conversationId, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for conversation lock for conversation_id=[" + conversationId + "]", e);
+        }
+    }
+
+    public final class ConversationLock implements AutoCloseable {
+        private final String conversationId;
+        private final Handle handle;
+        private final ConversationLockDao lockDao;
+        private final long acquiredAt;
+        private int holdCount = 1;
+
+        private ConversationLock(String conversationId, Handle handle, ConversationLockDao lockDao, long acquiredAt) {
+            this.conversationId = conversationId;
+            this.handle = handle;
+            this.lockDao = lockDao;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public void close() {
+            if (--holdCount > 0) {
+                return;
+            }
+
+            heldLocks.get().remove(conversationId);
+            try {
+                if (!lockDao.releaseLock(conversationId)) {
+                    LOGGER.warn("Conversation lock for conversation_id=[{}] was not held when released", conversationId);
+                }
+            } finally {
+                heldTimer.record(System.nanoTime() - acquiredAt, NANOSECONDS);
+                handle.close();
+            }
+        }
+    }
+}
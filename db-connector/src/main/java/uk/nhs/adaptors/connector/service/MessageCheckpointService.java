@@ -0,0 +1,38 @@
+package uk.nhs.adaptors.connector.service;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import uk.nhs.adaptors.common.enums.MessageStage;
+import uk.nhs.adaptors.connector.dao.MessageCheckpointDao;
+
+/**
+ * Records how far each inbound MHS message got, keyed by conversation ID and message ID, so that a message redelivered after a
+ * late failure carries on from the last stage it completed rather than storing its attachments and mapping its bundle again.
+ * A stage is recorded after its work is done, so a failure between the two only means the stage is repeated. Checkpoints are
+ * only needed while a message can still be redelivered, so old ones are deleted by the translator's checkpoint cleanup.
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class MessageCheckpointService {
+
+    private final MessageCheckpointDao messageCheckpointDao;
+
+    /**
+     * The last stage completed by the message, or {@code null} if it has not completed any.
+     */
+    public MessageStage getLastStage(String conversationId, String messageId) {
+        return messageCheckpointDao.getStage(conversationId, messageId);
+    }
+
+    public void checkpoint(String conversationId, String messageId, MessageStage stage) {
+        messageCheckpointDao.saveStage(conversationId, messageId, stage);
+    }
+
+    public int deleteCheckpointsUpdatedBefore(OffsetDateTime cutoff) {
+        return messageCheckpointDao.deleteStagesUpdatedBefore(cutoff);
+    }
+}
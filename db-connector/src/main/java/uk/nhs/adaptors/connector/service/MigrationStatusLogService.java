@@ -1,11 +1,14 @@
 package uk.nhs.adaptors.connector.service;
 
+import org.jdbi.v3.core.Jdbi;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.connector.config.BundleEntryProperties;
+import uk.nhs.adaptors.connector.dao.BundleEntryDao;
 import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
@@ -21,19 +24,12 @@ public class MigrationStatusLogService {
     private final PatientMigrationRequestDao patientMigrationRequestDao;
     private final MigrationStatusLogDao migrationStatusLogDao;
     private final DateUtils dateUtils;
+    private final Jdbi jdbi;
+    private final BundleEntryProperties bundleEntryProperties;
 
     public void addMigrationStatusLog(MigrationStatus migrationStatus, String conversationId, String messageId, String gp2gpErrorCode) {
-
-        int migrationRequestId = patientMigrationRequestDao.getMigrationRequestId(conversationId);
-        migrationStatusLogDao.addMigrationStatusLog(
-            migrationStatus,
-            dateUtils.getCurrentOffsetDateTime(),
-            migrationRequestId,
-            messageId,
-            gp2gpErrorCode
-        );
-
-        LOGGER.debug("Changed MigrationStatus of PatientMigrationRequest with id=[{}] to [{}]", migrationRequestId, migrationStatus.name());
+        addMigrationStatusLog(patientMigrationRequestDao, migrationStatusLogDao, migrationStatus, conversationId, messageId,
+            gp2gpErrorCode);
     }
 
     public MigrationStatusLog getLatestMigrationStatusLog(String conversationId) {
@@ -46,9 +42,44 @@ public class MigrationStatusLogService {
         return migrationStatusLogDao.getLatestMigrationStatusLogs(migrationRequestId);
     }
 
+    /**
+     * Saves the bundle and inbound message, replaces the bundle's entries and logs the new status in one transaction, so that
+     * a migration is never seen with a status or bundle that its entries do not match. The bundle is only split into one row
+     * per entry here if {@link BundleEntryProperties#isSplitOnSave()}; otherwise its old entries are dropped and it is split
+     * when a page of it is first asked for, see {@link BundleEntryDao}.
+     */
     public void updatePatientMigrationRequestAndAddMigrationStatusLog(String conversationId, String bundle, String inboundMessage,
         MigrationStatus migrationStatus, String messageId) {
-        patientMigrationRequestDao.saveBundleAndInboundMessageData(conversationId, bundle, inboundMessage);
-        addMigrationStatusLog(migrationStatus, conversationId, messageId, null);
+        jdbi.useTransaction(handle -> {
+            var requestDao = handle.attach(PatientMigrationRequestDao.class);
+            requestDao.saveBundleAndInboundMessageData(conversationId, bundle, inboundMessage);
+            if (bundle != null) {
+                var bundleEntryDao = handle.attach(BundleEntryDao.class);
+                bundleEntryDao.deleteBundleEntries(conversationId);
+                if (bundleEntryProperties.isSplitOnSave()) {
+                    bundleEntryDao.saveBundleEntries(conversationId);
+                } else {
+                    bundleEntryDao.clearBundleEnvelope(conversationId);
+                }
+            }
+            addMigrationStatusLog(requestDao, handle.attach(MigrationStatusLogDao.class), migrationStatus, conversationId, messageId,
+                null);
+        });
+    }
+
+    private void addMigrationStatusLog(PatientMigrationRequestDao requestDao, MigrationStatusLogDao statusLogDao,
+        MigrationStatus migrationStatus, String conversationId, String messageId, String gp2gpErrorCode) {
+
+        int migrationRequestId = requestDao.getMigrationRequestId(conversationId);
+        statusLogDao.addMigrationStatusLog(
+            migrationStatus,
+            dateUtils.getCurrentOffsetDateTime(),
+            migrationRequestId,
+            messageId,
+            gp2gpErrorCode
+        );
+        statusLogDao.notifyMigrationStatusChanged(MigrationStatusLogDao.STATUS_CHANGED_CHANNEL, conversationId);
+
+        LOGGER.debug("Changed MigrationStatus of PatientMigrationRequest with id=[{}] to [{}]", migrationRequestId, migrationStatus.name());
     }
 }
@@ -15,8 +15,12 @@ import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
 public class PatientMigrationRequestService {
     private final PatientMigrationRequestDao migrationRequestDao;
 
-    public List<PatientMigrationRequest> getMigrationRequestsByMigrationStatusIn(List<MigrationStatus> migrationStatusList) {
-        return migrationRequestDao.getMigrationRequestsByLatestMigrationStatusIn(migrationStatusList);
+    public List<PatientMigrationRequest> getMigrationRequestHeadersByMigrationStatusIn(List<MigrationStatus> migrationStatusList) {
+        return migrationRequestDao.getMigrationRequestHeadersByLatestMigrationStatusIn(migrationStatusList);
+    }
+
+    public PatientMigrationRequest getMigrationRequest(String conversationId) {
+        return migrationRequestDao.getMigrationRequest(conversationId);
     }
 
     public boolean hasMigrationRequest(String conversationId) {
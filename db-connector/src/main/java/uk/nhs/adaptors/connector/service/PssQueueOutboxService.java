@@ -0,0 +1,87 @@
+package uk.nhs.adaptors.connector.service;
+
+import static uk.nhs.adaptors.common.enums.MigrationStatus.REQUEST_RECEIVED;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.dao.PssQueueOutboxDao;
+import uk.nhs.adaptors.connector.model.PssQueueOutboxMessage;
+
+/**
+ * A transactional outbox for the PSS queue. Migration requests are saved together with the message that starts them, in one
+ * transaction, so that neither is kept without the other and saving does not wait on the broker. A relay then publishes the
+ * messages and removes them. Messages are delivered at least once: one published just before its removal fails is published
+ * again by the next relay.
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class PssQueueOutboxService {
+
+    private final Jdbi jdbi;
+    private final PssQueueOutboxDao pssQueueOutboxDao;
+
+    /**
+     * Adds the migration request, logged as {@code REQUEST_RECEIVED}, and its message for the PSS queue.
+     */
+    public void addNewRequestWithMessage(String patientNhsNumber, String conversationId, String losingOdsCode,
+        String winningOdsCode, OffsetDateTime date, String message) {
+        jdbi.useTransaction(handle -> {
+            var patientMigrationRequestDao = handle.attach(PatientMigrationRequestDao.class);
+            patientMigrationRequestDao.addNewRequest(patientNhsNumber, conversationId, losingOdsCode, winningOdsCode);
+            int addedId = patientMigrationRequestDao.getMigrationRequestId(conversationId);
+            handle.attach(MigrationStatusLogDao.class).addMigrationStatusLog(REQUEST_RECEIVED, date, addedId, null, null);
+            handle.attach(PssQueueOutboxDao.class).addMessage(conversationId, message);
+        });
+    }
+
+    /**
+     * Adds a migration request for each NHS number and conversation ID pair, all between the same practices and each logged as
+     * {@code REQUEST_RECEIVED}, and their messages for the PSS queue. Each insert is sent as one JDBC batch.
+     */
+    public void addNewRequestsWithMessages(List<String> patientNhsNumbers, List<String> conversationIds, String losingOdsCode,
+        String winningOdsCode, OffsetDateTime date, List<String> messages) {
+        jdbi.useTransaction(handle -> {
+            var patientMigrationRequestDao = handle.attach(PatientMigrationRequestDao.class);
+            patientMigrationRequestDao.addNewRequests(patientNhsNumbers, conversationIds, losingOdsCode, winningOdsCode);
+            patientMigrationRequestDao.addRequestReceivedStatusLogs(REQUEST_RECEIVED, date, conversationIds);
+            handle.attach(PssQueueOutboxDao.class).addMessages(conversationIds, messages);
+        });
+    }
+
+    /**
+     * Hands up to {@code limit} of the oldest messages to {@code publisher} and removes them once it returns. The messages stay
+     * locked while they are being published, so relays running at once publish different messages. If {@code publisher} throws,
+     * the messages are kept for the next relay.
+     *
+     * @return how many messages were relayed
+     */
+    public int relayMessages(int limit, Consumer<List<PssQueueOutboxMessage>> publisher) {
+        return jdbi.inTransaction(handle -> {
+            var outboxDao = handle.attach(PssQueueOutboxDao.class);
+            var messages = outboxDao.getNextMessages(limit);
+            if (messages.isEmpty()) {
+                return 0;
+            }
+            publisher.accept(messages);
+            outboxDao.deleteMessages(messages.stream().map(PssQueueOutboxMessage::getId).toList());
+            return messages.size();
+        });
+    }
+
+    public long countMessages() {
+        return pssQueueOutboxDao.countMessages();
+    }
+
+    public long getOldestMessageAgeMillis() {
+        return pssQueueOutboxDao.getOldestMessageAgeMillis();
+    }
+}
@@ -0,0 +1 @@
+SELECT audit.drain_pending_actions(:batchSize);
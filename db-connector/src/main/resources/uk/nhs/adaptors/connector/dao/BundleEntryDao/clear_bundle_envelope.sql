@@ -0,0 +1 @@
+UPDATE patient_migration_request SET bundle_envelope = NULL WHERE conversation_id = :conversationId;
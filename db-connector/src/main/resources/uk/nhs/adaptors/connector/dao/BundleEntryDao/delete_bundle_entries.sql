@@ -0,0 +1,2 @@
+DELETE FROM bundle_entry
+WHERE patient_migration_req_id = (SELECT id FROM patient_migration_request WHERE conversation_id = :conversationId);
@@ -0,0 +1,14 @@
+WITH migration AS (
+    SELECT id, CAST(bundle_resource AS json) AS bundle
+    FROM patient_migration_request
+    WHERE conversation_id = :conversationId
+), entries AS (
+    INSERT INTO bundle_entry (patient_migration_req_id, entry_index, entry)
+    SELECT migration.id, entry.ordinality - 1, entry.value::text
+    FROM migration, json_array_elements(migration.bundle -> 'entry') WITH ORDINALITY AS entry(value, ordinality)
+    ON CONFLICT DO NOTHING
+)
+UPDATE patient_migration_request
+SET bundle_envelope = (CAST(migration.bundle AS jsonb) - 'entry')::text
+FROM migration
+WHERE patient_migration_request.id = migration.id;
@@ -0,0 +1,6 @@
+SELECT e.entry
+FROM bundle_entry e
+JOIN patient_migration_request pmr ON pmr.id = e.patient_migration_req_id
+WHERE pmr.conversation_id = :conversationId AND e.entry_index >= :offset
+ORDER BY e.entry_index
+LIMIT :limit;
@@ -0,0 +1 @@
+SELECT bundle_envelope FROM patient_migration_request WHERE conversation_id = :conversationId;
@@ -0,0 +1,3 @@
+DELETE
+FROM message_checkpoint
+WHERE updated_at < :cutoff;
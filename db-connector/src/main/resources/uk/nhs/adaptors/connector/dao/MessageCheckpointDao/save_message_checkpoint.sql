@@ -0,0 +1,5 @@
+INSERT INTO message_checkpoint(conversation_id, message_id, stage)
+VALUES (:conversationId, :messageId, :stage)
+ON CONFLICT ON CONSTRAINT pk_message_checkpoint
+    DO UPDATE SET stage      = :stage,
+                  updated_at = now();
@@ -0,0 +1,4 @@
+SELECT stage
+FROM message_checkpoint
+WHERE conversation_id = :conversationId
+  AND message_id = :messageId;
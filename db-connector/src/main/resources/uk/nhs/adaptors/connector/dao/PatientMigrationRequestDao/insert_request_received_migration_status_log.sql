@@ -0,0 +1,2 @@
+INSERT INTO migration_status_log(status, date, migration_request_id)
+SELECT :status, :date, id FROM patient_migration_request WHERE conversation_id = :conversationId;
@@ -1,2 +1,5 @@
-UPDATE patient_migration_request SET bundle_resource = :bundle, inbound_message = :inboundMessage
+UPDATE patient_migration_request SET bundle_resource = :bundle,
+    bundle_resource_hash = encode(sha256(convert_to(:bundle, 'UTF8')), 'hex'),
+    inbound_message = :inboundMessage,
+    pre_mapped_bundle_resource = NULL
 WHERE conversation_id = :conversationId;
@@ -0,0 +1,7 @@
+UPDATE patient_migration_request
+SET ehr_extract_message_ref = :messageRef,
+    winning_practice_asid = :winningPracticeAsid,
+    losing_practice_asid = :losingPracticeAsid,
+    ehr_extract_author_ods_code = :authorOdsCode,
+    ehr_extract_timestamp = :timestamp
+WHERE conversation_id = :conversationId;
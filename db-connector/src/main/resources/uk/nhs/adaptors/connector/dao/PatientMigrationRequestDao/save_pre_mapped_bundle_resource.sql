@@ -0,0 +1,4 @@
+UPDATE patient_migration_request
+SET pre_mapped_bundle_resource = :bundle
+WHERE conversation_id = :conversationId
+  AND bundle_resource IS NULL;
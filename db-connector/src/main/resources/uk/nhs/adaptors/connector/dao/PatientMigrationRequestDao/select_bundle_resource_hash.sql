@@ -0,0 +1 @@
+SELECT bundle_resource_hash FROM patient_migration_request WHERE conversation_id = :conversationId;
\ No newline at end of file
@@ -0,0 +1,12 @@
+SELECT latest.patient_nhs_number, latest.conversation_id
+FROM (SELECT DISTINCT ON (patient_nhs_number) id, patient_nhs_number, conversation_id
+      FROM patient_migration_request
+      WHERE patient_nhs_number IN (<patientNhsNumbers>)
+      ORDER BY patient_nhs_number, id DESC) AS latest
+LEFT JOIN LATERAL (SELECT status
+                   FROM migration_status_log
+                   WHERE migration_request_id = latest.id
+                   ORDER BY "date" DESC
+                   LIMIT 1) AS latest_status ON true
+WHERE latest_status.status IS NULL
+   OR latest_status.status IN (<statusList>);
@@ -0,0 +1 @@
+SELECT conversation_id FROM patient_migration_request WHERE conversation_id IN (<conversationIds>);
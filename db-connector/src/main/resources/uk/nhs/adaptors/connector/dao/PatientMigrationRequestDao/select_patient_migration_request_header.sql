@@ -0,0 +1,15 @@
+SELECT id,
+       patient_nhs_number,
+       NULL AS bundle_resource,
+       NULL AS pre_mapped_bundle_resource,
+       NULL AS inbound_message,
+       conversation_id,
+       losing_practice_ods_code,
+       winning_practice_ods_code,
+       ehr_extract_message_ref,
+       winning_practice_asid,
+       losing_practice_asid,
+       ehr_extract_author_ods_code,
+       ehr_extract_timestamp
+FROM patient_migration_request
+WHERE conversation_id = :conversationId;
\ No newline at end of file
@@ -0,0 +1,20 @@
+SELECT id,
+       patient_nhs_number,
+       NULL AS bundle_resource,
+       NULL AS pre_mapped_bundle_resource,
+       NULL AS inbound_message,
+       conversation_id,
+       losing_practice_ods_code,
+       winning_practice_ods_code,
+       ehr_extract_message_ref,
+       winning_practice_asid,
+       losing_practice_asid,
+       ehr_extract_author_ods_code,
+       ehr_extract_timestamp
+FROM patient_migration_request
+WHERE id IN (SELECT migration_request_id
+             FROM (SELECT *,
+                          ROW_NUMBER() OVER (PARTITION BY migration_request_id ORDER BY date DESC) AS row
+                   FROM migration_status_log) AS a
+             WHERE row = 1
+               AND status IN (<statusList>));
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT COUNT(*) FROM pss_queue_outbox;
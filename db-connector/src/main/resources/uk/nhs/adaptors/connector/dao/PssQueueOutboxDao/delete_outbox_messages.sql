@@ -0,0 +1 @@
+DELETE FROM pss_queue_outbox WHERE id IN (<ids>);
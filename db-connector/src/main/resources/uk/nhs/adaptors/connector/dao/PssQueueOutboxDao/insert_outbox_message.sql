@@ -0,0 +1,2 @@
+INSERT INTO pss_queue_outbox(conversation_id, message)
+VALUES (:conversationId, :message);
@@ -0,0 +1,5 @@
+SELECT id, conversation_id, message, (EXTRACT(EPOCH FROM clock_timestamp() - created_at) * 1000)::bigint AS age_millis
+FROM pss_queue_outbox
+ORDER BY id
+LIMIT :limit
+FOR UPDATE SKIP LOCKED;
@@ -0,0 +1,2 @@
+SELECT COALESCE((EXTRACT(EPOCH FROM clock_timestamp() - MIN(created_at)) * 1000)::bigint, 0)
+FROM pss_queue_outbox;
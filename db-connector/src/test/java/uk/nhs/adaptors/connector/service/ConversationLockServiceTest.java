@@ -0,0 +1,106 @@
+package uk.nhs.adaptors.connector.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.JdbiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.nhs.adaptors.connector.dao.ConversationLockDao;
+
+@ExtendWith(MockitoExtension.class)
+public class ConversationLockServiceTest {
+    private static final String CONVERSATION_ID = "0A4D6F3E-2C1B-4E5A-9F8D-7C6B5A4D3E2F";
+
+    @Mock
+    private Jdbi jdbi;
+
+    @Mock
+    private Handle handle;
+
+    @Mock
+    private ConversationLockDao conversationLockDao;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConversationLockService conversationLockService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        conversationLockService = new ConversationLockService(jdbi, meterRegistry);
+        when(jdbi.open()).thenReturn(handle);
+        when(handle.attach(ConversationLockDao.class)).thenReturn(conversationLockDao);
+    }
+
+    @Test
+    public void When_LockClosed_Expect_AdvisoryLockReleasedAndHandleClosed() {
+        when(conversationLockDao.tryAcquireLock(CONVERSATION_ID)).thenReturn(true);
+        when(conversationLockDao.releaseLock(CONVERSATION_ID)).thenReturn(true);
+
+        try (var lock = conversationLockService.lock(CONVERSATION_ID)) {
+            verify(conversationLockDao).tryAcquireLock(CONVERSATION_ID);
+            verify(handle, never()).close();
+        }
+
+        verify(conversationLockDao).releaseLock(CONVERSATION_ID);
+        verify(handle).close();
+        assertThat(meterRegistry.get("conversation.lock.wait").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("conversation.lock.held").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void When_LockTakenAgainOnSameThread_Expect_ReleasedOnlyWhenOutermostLockClosed() {
+        when(conversationLockDao.tryAcquireLock(CONVERSATION_ID)).thenReturn(true);
+        when(conversationLockDao.releaseLock(CONVERSATION_ID)).thenReturn(true);
+
+        try (var outer = conversationLockService.lock(CONVERSATION_ID)) {
+            try (var inner = conversationLockService.lock(CONVERSATION_ID)) {
+                assertThat(inner).isSameAs(outer);
+            }
+            verify(conversationLockDao, never()).releaseLock(CONVERSATION_ID);
+        }
+
+        verify(jdbi, times(1)).open();
+        verify(conversationLockDao, times(1)).tryAcquireLock(CONVERSATION_ID);
+        verify(conversationLockDao, times(1)).releaseLock(CONVERSATION_ID);
+    }
+
+    @Test
+    public void When_AcquiringLockFails_Expect_HandleClosedAndNextLockOpensNewHandle() {
+        when(conversationLockDao.tryAcquireLock(CONVERSATION_ID))
+            .thenThrow(new JdbiException("connection lost") { })
+            .thenReturn(true);
+
+        assertThatThrownBy(() -> conversationLockService.lock(CONVERSATION_ID)).isInstanceOf(JdbiException.class);
+        verify(handle).close();
+
+        conversationLockService.lock(CONVERSATION_ID);
+        verify(jdbi, times(2)).open();
+    }
+
+    @Test
+    public void When_LockHeldElsewhere_Expect_HandleReturnedToPoolBeforeTryingAgain() {
+        when(conversationLockDao.tryAcquireLock(CONVERSATION_ID)).thenReturn(false, false, true);
+
+        var lock = conversationLockService.lock(CONVERSATION_ID);
+
+        verify(jdbi, times(3)).open();
+        verify(handle, times(2)).close();
+        assertThat(meterRegistry.get("conversation.lock.wait").timer().count()).isEqualTo(1);
+
+        when(conversationLockDao.releaseLock(CONVERSATION_ID)).thenReturn(true);
+        lock.close();
+        verify(handle, times(3)).close();
+    }
+}
@@ -1,17 +1,27 @@
 package uk.nhs.adaptors.connector.service;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.OffsetDateTime;
 
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleConsumer;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.connector.config.BundleEntryProperties;
+import uk.nhs.adaptors.connector.dao.BundleEntryDao;
 import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
@@ -29,9 +39,31 @@ public class MigrationStatusLogServiceTest {
     @Mock
     private DateUtils dateUtils;
 
-    @InjectMocks
+    @Mock
+    private Jdbi jdbi;
+
+    @Mock
+    private Handle handle;
+
+    @Mock
+    private PatientMigrationRequestDao transactionRequestDao;
+
+    @Mock
+    private MigrationStatusLogDao transactionStatusLogDao;
+
+    @Mock
+    private BundleEntryDao bundleEntryDao;
+
+    private BundleEntryProperties bundleEntryProperties;
     private MigrationStatusLogService migrationStatusLogService;
 
+    @BeforeEach
+    public void setUp() {
+        bundleEntryProperties = new BundleEntryProperties();
+        migrationStatusLogService = new MigrationStatusLogService(patientMigrationRequestDao, migrationStatusLogDao, dateUtils, jdbi,
+            bundleEntryProperties);
+    }
+
     @Test
     public void testAddMigrationStatusLog() {
         String nhsNumber = "123456";
@@ -44,4 +76,84 @@ public class MigrationStatusLogServiceTest {
 
         verify(migrationStatusLogDao).addMigrationStatusLog(MigrationStatus.MIGRATION_COMPLETED, now, MIGRATION_REQUEST_ID, null, null);
     }
+
+    @Test
+    public void When_AddingMigrationStatusLog_Expect_StatusChangeNotifiedAfterInsert() {
+        String conversationId = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+
+        when(patientMigrationRequestDao.getMigrationRequestId(conversationId)).thenReturn(MIGRATION_REQUEST_ID);
+
+        migrationStatusLogService.addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_RECEIVED, conversationId, null, null);
+
+        var inOrder = inOrder(migrationStatusLogDao);
+        inOrder.verify(migrationStatusLogDao).addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_RECEIVED, null, MIGRATION_REQUEST_ID,
+            null, null);
+        inOrder.verify(migrationStatusLogDao).notifyMigrationStatusChanged(MigrationStatusLogDao.STATUS_CHANGED_CHANNEL, conversationId);
+    }
+
+    @Test
+    public void When_SavingBundleWithSplitOnSave_Expect_EntriesReplacedAndStatusLoggedInOneTransaction() throws Exception {
+        String conversationId = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+        bundleEntryProperties.setSplitOnSave(true);
+
+        givenUseTransaction();
+        when(handle.attach(PatientMigrationRequestDao.class)).thenReturn(transactionRequestDao);
+        when(handle.attach(BundleEntryDao.class)).thenReturn(bundleEntryDao);
+        when(handle.attach(MigrationStatusLogDao.class)).thenReturn(transactionStatusLogDao);
+        when(transactionRequestDao.getMigrationRequestId(conversationId)).thenReturn(MIGRATION_REQUEST_ID);
+
+        migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(conversationId, "{}", "{}",
+            MigrationStatus.EHR_EXTRACT_TRANSLATED, null);
+
+        var inOrder = inOrder(transactionRequestDao, bundleEntryDao, transactionStatusLogDao);
+        inOrder.verify(transactionRequestDao).saveBundleAndInboundMessageData(conversationId, "{}", "{}");
+        inOrder.verify(bundleEntryDao).deleteBundleEntries(conversationId);
+        inOrder.verify(bundleEntryDao).saveBundleEntries(conversationId);
+        inOrder.verify(transactionStatusLogDao).addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_TRANSLATED, null,
+            MIGRATION_REQUEST_ID, null, null);
+        inOrder.verify(transactionStatusLogDao).notifyMigrationStatusChanged(MigrationStatusLogDao.STATUS_CHANGED_CHANNEL,
+            conversationId);
+        verifyNoInteractions(patientMigrationRequestDao, migrationStatusLogDao);
+    }
+
+    @Test
+    public void When_SavingBundle_Expect_OldEntriesDroppedAndBundleLeftToSplitOnDemand() throws Exception {
+        String conversationId = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+
+        givenUseTransaction();
+        when(handle.attach(PatientMigrationRequestDao.class)).thenReturn(transactionRequestDao);
+        when(handle.attach(BundleEntryDao.class)).thenReturn(bundleEntryDao);
+        when(handle.attach(MigrationStatusLogDao.class)).thenReturn(transactionStatusLogDao);
+        when(transactionRequestDao.getMigrationRequestId(conversationId)).thenReturn(MIGRATION_REQUEST_ID);
+
+        migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(conversationId, "{}", "{}",
+            MigrationStatus.EHR_EXTRACT_TRANSLATED, null);
+
+        verify(bundleEntryDao).deleteBundleEntries(conversationId);
+        verify(bundleEntryDao).clearBundleEnvelope(conversationId);
+        verify(bundleEntryDao, never()).saveBundleEntries(conversationId);
+    }
+
+    @Test
+    public void When_SavingInboundMessageWithoutBundle_Expect_NoEntriesSaved() throws Exception {
+        String conversationId = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+
+        givenUseTransaction();
+        when(handle.attach(PatientMigrationRequestDao.class)).thenReturn(transactionRequestDao);
+        when(handle.attach(MigrationStatusLogDao.class)).thenReturn(transactionStatusLogDao);
+        when(transactionRequestDao.getMigrationRequestId(conversationId)).thenReturn(MIGRATION_REQUEST_ID);
+
+        migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(conversationId, null, "{}",
+            MigrationStatus.EHR_EXTRACT_PROCESSING, null);
+
+        verifyNoInteractions(bundleEntryDao);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenUseTransaction() throws Exception {
+        doAnswer(invocation -> {
+            ((HandleConsumer<Exception>) invocation.getArgument(0)).useHandle(handle);
+            return null;
+        }).when(jdbi).useTransaction(any());
+    }
 }
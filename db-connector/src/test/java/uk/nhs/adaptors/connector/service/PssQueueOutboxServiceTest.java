@@ -0,0 +1,159 @@
+package uk.nhs.adaptors.connector.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static uk.nhs.adaptors.common.enums.MigrationStatus.REQUEST_RECEIVED;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.HandleConsumer;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.dao.PssQueueOutboxDao;
+import uk.nhs.adaptors.connector.model.PssQueueOutboxMessage;
+
+@ExtendWith(MockitoExtension.class)
+public class PssQueueOutboxServiceTest {
+    private static final String CONVERSATION_ID = "0A4D6F3E-2C1B-4E5A-9F8D-7C6B5A4D3E2F";
+    private static final String NHS_NUMBER = "9692294951";
+    private static final String LOSING_ODS_CODE = "B943";
+    private static final String WINNING_ODS_CODE = "F765";
+    private static final String MESSAGE = "{\"conversationId\":\"" + CONVERSATION_ID + "\"}";
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2024-01-01T10:00:00Z");
+    private static final int BATCH_SIZE = 100;
+
+    @Mock
+    private Jdbi jdbi;
+
+    @Mock
+    private Handle handle;
+
+    @Mock
+    private PatientMigrationRequestDao patientMigrationRequestDao;
+
+    @Mock
+    private MigrationStatusLogDao migrationStatusLogDao;
+
+    @Mock
+    private PssQueueOutboxDao pssQueueOutboxDao;
+
+    private PssQueueOutboxService pssQueueOutboxService;
+
+    @BeforeEach
+    public void setUp() {
+        pssQueueOutboxService = new PssQueueOutboxService(jdbi, pssQueueOutboxDao);
+    }
+
+    @Test
+    public void When_NewRequestAdded_Expect_RequestStatusAndMessageSavedInOneTransaction() throws Exception {
+        givenUseTransaction();
+        when(handle.attach(PatientMigrationRequestDao.class)).thenReturn(patientMigrationRequestDao);
+        when(handle.attach(MigrationStatusLogDao.class)).thenReturn(migrationStatusLogDao);
+        when(handle.attach(PssQueueOutboxDao.class)).thenReturn(pssQueueOutboxDao);
+        when(patientMigrationRequestDao.getMigrationRequestId(CONVERSATION_ID)).thenReturn(1);
+
+        pssQueueOutboxService.addNewRequestWithMessage(NHS_NUMBER, CONVERSATION_ID, LOSING_ODS_CODE, WINNING_ODS_CODE, NOW, MESSAGE);
+
+        verify(patientMigrationRequestDao).addNewRequest(NHS_NUMBER, CONVERSATION_ID, LOSING_ODS_CODE, WINNING_ODS_CODE);
+        verify(migrationStatusLogDao).addMigrationStatusLog(REQUEST_RECEIVED, NOW, 1, null, null);
+        verify(pssQueueOutboxDao).addMessage(CONVERSATION_ID, MESSAGE);
+    }
+
+    @Test
+    public void When_NewRequestsAdded_Expect_RequestsStatusesAndMessagesSavedAsBatches() throws Exception {
+        givenUseTransaction();
+        when(handle.attach(PatientMigrationRequestDao.class)).thenReturn(patientMigrationRequestDao);
+        when(handle.attach(PssQueueOutboxDao.class)).thenReturn(pssQueueOutboxDao);
+
+        pssQueueOutboxService.addNewRequestsWithMessages(List.of(NHS_NUMBER), List.of(CONVERSATION_ID), LOSING_ODS_CODE,
+            WINNING_ODS_CODE, NOW, List.of(MESSAGE));
+
+        verify(patientMigrationRequestDao).addNewRequests(List.of(NHS_NUMBER), List.of(CONVERSATION_ID), LOSING_ODS_CODE,
+            WINNING_ODS_CODE);
+        verify(patientMigrationRequestDao).addRequestReceivedStatusLogs(REQUEST_RECEIVED, NOW, List.of(CONVERSATION_ID));
+        verify(pssQueueOutboxDao).addMessages(List.of(CONVERSATION_ID), List.of(MESSAGE));
+    }
+
+    @Test
+    public void When_MessagesRelayed_Expect_PublishedThenDeleted() throws Exception {
+        givenInTransaction();
+        when(handle.attach(PssQueueOutboxDao.class)).thenReturn(pssQueueOutboxDao);
+        when(pssQueueOutboxDao.getNextMessages(BATCH_SIZE)).thenReturn(List.of(outboxMessage(1), outboxMessage(2)));
+        var published = new ArrayList<PssQueueOutboxMessage>();
+
+        var relayed = pssQueueOutboxService.relayMessages(BATCH_SIZE, published::addAll);
+
+        assertThat(relayed).isEqualTo(2);
+        assertThat(published.stream().map(PssQueueOutboxMessage::getId).toList()).containsExactly(1L, 2L);
+        verify(pssQueueOutboxDao).deleteMessages(List.of(1L, 2L));
+    }
+
+    @Test
+    public void When_PublishingFails_Expect_MessagesKept() throws Exception {
+        givenInTransaction();
+        when(handle.attach(PssQueueOutboxDao.class)).thenReturn(pssQueueOutboxDao);
+        when(pssQueueOutboxDao.getNextMessages(BATCH_SIZE)).thenReturn(List.of(outboxMessage(1)));
+
+        assertThatThrownBy(() -> pssQueueOutboxService.relayMessages(BATCH_SIZE, messages -> {
+            throw new IllegalStateException("broker unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(pssQueueOutboxDao, never()).deleteMessages(anyList());
+    }
+
+    @Test
+    public void When_OutboxEmpty_Expect_NothingPublished() throws Exception {
+        givenInTransaction();
+        when(handle.attach(PssQueueOutboxDao.class)).thenReturn(pssQueueOutboxDao);
+        when(pssQueueOutboxDao.getNextMessages(BATCH_SIZE)).thenReturn(List.of());
+        var published = new ArrayList<PssQueueOutboxMessage>();
+
+        var relayed = pssQueueOutboxService.relayMessages(BATCH_SIZE, published::addAll);
+
+        assertThat(relayed).isZero();
+        assertThat(published).isEmpty();
+        verify(pssQueueOutboxDao, never()).deleteMessages(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenUseTransaction() throws Exception {
+        doAnswer(invocation -> {
+            ((HandleConsumer<Exception>) invocation.getArgument(0)).useHandle(handle);
+            return null;
+        }).when(jdbi).useTransaction(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenInTransaction() throws Exception {
+        when(jdbi.inTransaction(any())).thenAnswer(invocation ->
+            ((HandleCallback<Object, Exception>) invocation.getArgument(0)).withHandle(handle));
+    }
+
+    private static PssQueueOutboxMessage outboxMessage(long id) {
+        return PssQueueOutboxMessage.builder()
+            .id(id)
+            .conversationId(CONVERSATION_ID)
+            .message(MESSAGE)
+            .age(Duration.ofMillis(id))
+            .build();
+    }
+}
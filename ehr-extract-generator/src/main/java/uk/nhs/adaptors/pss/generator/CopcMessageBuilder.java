@@ -0,0 +1,151 @@
+package uk.nhs.adaptors.pss.generator;
+
+import static uk.nhs.adaptors.pss.generator.Hl7Values.INTERACTION_ROOT;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.cs;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.cv;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.ii;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.ts;
+
+import java.math.BigInteger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.hl7.v3.COPCIN000001UK01ControlActEvent;
+import org.hl7.v3.COPCIN000001UK01Message;
+import org.hl7.v3.COPCIN000001UK01Subject;
+import org.hl7.v3.COPCMT000001UK01PayloadBody;
+import org.hl7.v3.COPCMT000001UK01PayloadInformation;
+import org.hl7.v3.COPCMT000001UK01PertinentInformation;
+import org.hl7.v3.ED;
+import org.hl7.v3.INT;
+import org.hl7.v3.TEL;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import npfit.hl7.localisation.MessageType;
+
+/**
+ * Builds the {@code COPC_IN000001UK01} messages of a large attachment. The index message and each fragment carry the same
+ * payload, naming the file the message stands for; the fragment content itself travels as an attachment alongside.
+ */
+final class CopcMessageBuilder {
+
+    static final String INTERACTION_ID = "COPC_IN000001UK01";
+
+    private static final String VERSION_CODE = "V3NPfIT3.0";
+    private static final String PAYLOAD_CODE_SYSTEM = "2.16.840.1.113883.2.1.3.2.4.17.202";
+    private static final String MESSAGE_TYPE_ROOT = "2.16.840.1.113883.2.1.3.2.4.18.17";
+    private static final String MESSAGE_TYPE = "RCMR_MT000001GB01";
+    private static final String FRAGMENT_NAMESPACE = "urn:nhs:names:services:gp2gp";
+
+    private final GeneratorOptions options;
+    private final RandomValues random;
+    private final Document document;
+
+    CopcMessageBuilder(GeneratorOptions options, RandomValues random) {
+        this.options = options;
+        this.random = random;
+        try {
+            var factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            document = factory.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to create a document for COPC fragment values", e);
+        }
+    }
+
+    /**
+     * A COPC message with the given ebXML message ID, describing the file with the given name.
+     */
+    COPCIN000001UK01Message build(String messageId, String filename) {
+        var payloadBody = new COPCMT000001UK01PayloadBody();
+        payloadBody.setClassCode("OBS");
+        payloadBody.setMoodCode("EVN");
+        payloadBody.setCode(cv("GP2GPLMATTACHMENT", "GP2GP Large Message Attachment", PAYLOAD_CODE_SYSTEM));
+        payloadBody.setId(ii(random.nextId()));
+        payloadBody.setValue(fileReference(filename));
+
+        var pertinentInformation = new COPCMT000001UK01PertinentInformation();
+        pertinentInformation.setTypeCode("PERT");
+        pertinentInformation.setSequenceNumber(sequenceNumber());
+        pertinentInformation.setPertinentPayloadBody(payloadBody);
+
+        var messageType = new MessageType();
+        messageType.setRoot(MESSAGE_TYPE_ROOT);
+        messageType.setExtension(MESSAGE_TYPE);
+
+        var payloadInformation = new COPCMT000001UK01PayloadInformation();
+        payloadInformation.setClassCode("OBS");
+        payloadInformation.setMoodCode("EVN");
+        payloadInformation.setCode(cv("GP2GPLMATTACHMENTINFO", "GP2GP Large Message Attachment Information", PAYLOAD_CODE_SYSTEM));
+        payloadInformation.setId(ii(messageId));
+        payloadInformation.setMessageType(messageType);
+        payloadInformation.setValue(fragmentInformation(messageId, filename));
+        payloadInformation.getPertinentInformation().add(pertinentInformation);
+
+        var subject = new COPCIN000001UK01Subject();
+        subject.setTypeCode("SUBJ");
+        subject.setContextConductionInd(false);
+        subject.setPayloadInformation(payloadInformation);
+
+        var controlActEvent = new COPCIN000001UK01ControlActEvent();
+        controlActEvent.setClassCode("CACT");
+        controlActEvent.setMoodCode("EVN");
+        controlActEvent.getAuthor1().add(Hl7Values.systemAuthor(options.getLosingAsid()));
+        controlActEvent.setSubject(subject);
+
+        var message = new COPCIN000001UK01Message();
+        message.setId(ii(messageId));
+        message.setCreationTime(ts(RandomValues.extractTimestamp()));
+        message.setVersionCode(cs(VERSION_CODE));
+        message.setInteractionId(ii(INTERACTION_ROOT, INTERACTION_ID));
+        message.setProcessingCode(cs("P"));
+        message.setProcessingModeCode(cs("T"));
+        message.setAcceptAckCode(cs("NE"));
+        message.getCommunicationFunctionRcv().add(Hl7Values.receiver(options.getWinningAsid()));
+        message.setCommunicationFunctionSnd(Hl7Values.sender(options.getLosingAsid()));
+        message.setControlActEvent(controlActEvent);
+        return message;
+    }
+
+    private ED fragmentInformation(String messageId, String filename) {
+        var recipients = fragmentElement("Recipients");
+        recipients.appendChild(fragmentElement("Recipient", options.getWinningOdsCode()));
+
+        var fragment = fragmentElement("Gp2gpfragment");
+        fragment.appendChild(fragmentElement("Version", "01"));
+        fragment.appendChild(recipients);
+        fragment.appendChild(fragmentElement("From", options.getLosingOdsCode()));
+        fragment.appendChild(fragmentElement("subject", "Attachment: " + filename));
+        fragment.appendChild(fragmentElement("message-id", messageId));
+
+        var value = new ED();
+        value.getAny().add(fragment);
+        return value;
+    }
+
+    private Element fragmentElement(String name) {
+        return document.createElementNS(FRAGMENT_NAMESPACE, name);
+    }
+
+    private Element fragmentElement(String name, String text) {
+        var element = fragmentElement(name);
+        element.setTextContent(text);
+        return element;
+    }
+
+    private static ED fileReference(String filename) {
+        var reference = new TEL();
+        reference.setValue(filename);
+        var value = new ED();
+        value.setReference(reference);
+        return value;
+    }
+
+    private static INT sequenceNumber() {
+        var sequenceNumber = new INT();
+        sequenceNumber.setValue(BigInteger.ONE);
+        return sequenceNumber;
+    }
+}
@@ -0,0 +1,72 @@
+package uk.nhs.adaptors.pss.generator;
+
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * The ebXML SOAP envelope the MHS adaptor hands over with each message. The translator reads the message ID and conversation
+ * ID from its header, and which attachments to expect from its manifest.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class EbXmlEnvelope {
+
+    private static final String ENVELOPE = """
+        <SOAP:Envelope xmlns:xsi="http://www.w3c.org/2001/XML-Schema-Instance" \
+        xmlns:SOAP="http://schemas.xmlsoap.org/soap/envelope/" \
+        xmlns:eb="http://www.oasis-open.org/committees/ebxml-msg/schema/msg-header-2_0.xsd" \
+        xmlns:hl7ebxml="urn:hl7-org:transport/ebxml/DSTUv1.0" xmlns:xlink="http://www.w3.org/1999/xlink">
+        <SOAP:Header>
+        <eb:MessageHeader SOAP:mustUnderstand="1" eb:version="2.0">
+        <eb:From><eb:PartyId eb:type="urn:nhs:names:partyType:ocs+serviceInstance">%1$s</eb:PartyId></eb:From>
+        <eb:To><eb:PartyId eb:type="urn:nhs:names:partyType:ocs+serviceInstance">%2$s</eb:PartyId></eb:To>
+        <eb:CPAId>S2030731A2137919</eb:CPAId>
+        <eb:ConversationId>%3$s</eb:ConversationId>
+        <eb:Service>urn:nhs:names:services:gp2gp</eb:Service>
+        <eb:Action>%4$s</eb:Action>
+        <eb:MessageData><eb:MessageId>%5$s</eb:MessageId><eb:Timestamp>%6$s</eb:Timestamp></eb:MessageData>
+        <eb:DuplicateElimination/>
+        </eb:MessageHeader>
+        <eb:AckRequested SOAP:mustUnderstand="1" eb:version="2.0" eb:signed="false" \
+        SOAP:actor="urn:oasis:names:tc:ebxml-msg:actor:nextMSH"/>
+        </SOAP:Header>
+        <SOAP:Body>
+        <eb:Manifest SOAP:mustUnderstand="1" eb:version="2.0">
+        <eb:Reference xlink:href="cid:%7$s@spine.nhs.uk">
+        <eb:Schema eb:location="http://www.nhsia.nhs.uk/schemas/HL7-Message.xsd" eb:version="1.0"/>
+        <eb:Description xml:lang="en">HL7 payload</eb:Description>
+        <hl7ebxml:Payload style="HL7" encoding="XML" version="3.0"/>
+        </eb:Reference>
+        %8$s</eb:Manifest>
+        </SOAP:Body>
+        </SOAP:Envelope>""";
+    private static final String REFERENCE = """
+        <eb:Reference%s xlink:href="%s"><eb:Description xml:lang="en">%s</eb:Description></eb:Reference>
+        """;
+    private static final String LOSING_PARTY_ID = "GEN-000001";
+    private static final String WINNING_PARTY_ID = "GEN-000002";
+
+    /**
+     * An attachment entry in the manifest: {@code cid:} for one carried inline, {@code mid:} for one sent as a message of its own.
+     */
+    record Reference(String documentId, String href, String description) {
+    }
+
+    static String build(String conversationId, String action, String messageId, String payloadContentId,
+        List<Reference> references) {
+
+        var manifest = new StringBuilder();
+        for (var reference : references) {
+            var documentId = reference.documentId() == null ? "" : " eb:id=\"" + reference.documentId() + "\"";
+            manifest.append(REFERENCE.formatted(documentId, reference.href(), escape(reference.description())));
+        }
+
+        return ENVELOPE.formatted(LOSING_PARTY_ID, WINNING_PARTY_ID, conversationId, action, messageId,
+            RandomValues.extractEbXmlTimestamp(), payloadContentId, manifest);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
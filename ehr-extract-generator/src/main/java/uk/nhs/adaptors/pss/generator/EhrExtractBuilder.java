@@ -0,0 +1,387 @@
+package uk.nhs.adaptors.pss.generator;
+
+import static uk.nhs.adaptors.pss.generator.Hl7Values.COMPLETE;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.INTERACTION_ROOT;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.NHS_NUMBER_ROOT;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.ODS_ROOT;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.ORGANISATION_ROOT;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.SNOMED_SYSTEM;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.cd;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.center;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.cs;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.cv;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.ii;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.period;
+import static uk.nhs.adaptors.pss.generator.Hl7Values.ts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hl7.v3.ED;
+import org.hl7.v3.PN;
+import org.hl7.v3.RCCTMT120101UK01Agent;
+import org.hl7.v3.RCCTMT120101UK01Organization;
+import org.hl7.v3.RCCTMT120101UK01Person;
+import org.hl7.v3.RCMRIN030000UKControlActEvent;
+import org.hl7.v3.RCMRIN030000UKMessage;
+import org.hl7.v3.RCMRIN030000UKSubject;
+import org.hl7.v3.RCMRMT030101UKAgentDirectory;
+import org.hl7.v3.RCMRMT030101UKAgentRef;
+import org.hl7.v3.RCMRMT030101UKAuthor;
+import org.hl7.v3.RCMRMT030101UKAuthor2;
+import org.hl7.v3.RCMRMT030101UKAuthor3;
+import org.hl7.v3.RCMRMT030101UKComponent;
+import org.hl7.v3.RCMRMT030101UKComponent3;
+import org.hl7.v3.RCMRMT030101UKComponent4;
+import org.hl7.v3.RCMRMT030101UKDestination;
+import org.hl7.v3.RCMRMT030101UKEhrComposition;
+import org.hl7.v3.RCMRMT030101UKEhrExtract;
+import org.hl7.v3.RCMRMT030101UKEhrFolder;
+import org.hl7.v3.RCMRMT030101UKExternalDocument;
+import org.hl7.v3.RCMRMT030101UKNarrativeStatement;
+import org.hl7.v3.RCMRMT030101UKObservationStatement;
+import org.hl7.v3.RCMRMT030101UKPart;
+import org.hl7.v3.RCMRMT030101UKPatient;
+import org.hl7.v3.RCMRMT030101UKPatientSubject;
+import org.hl7.v3.RCMRMT030101UKPlanStatement;
+import org.hl7.v3.RCMRMT030101UKReference;
+import org.hl7.v3.RCMRMT030101UKRequestStatement;
+import org.hl7.v3.RCMRMT030101UKResponsibleParty;
+import org.hl7.v3.TEL;
+import org.hl7.v3.UKCTMT120501UK03AgentOrgSDS;
+import org.hl7.v3.UKCTMT120501UK03OrganizationSDS;
+
+/**
+ * Builds an {@code RCMR_IN030000UK06} extract with one folder, one practitioner authoring every composition, and the
+ * statements placed directly under each composition as most losing systems send them.
+ */
+final class EhrExtractBuilder {
+
+    static final String INTERACTION_ID = "RCMR_IN030000UK06";
+
+    private static final String VERSION_CODE = "V3NPfIT3.1.10";
+    private static final String PRACTICE_NAME = "Generated Medical Practice";
+    private static final int MAX_TEXT_WORDS = 12;
+    private static final String FILE_REFERENCE_PREFIX = "file://localhost/";
+    private static final Code COMPOSITION_CODE = new Code("24591000000103", "Other report");
+    private static final Code ATTACHMENT_CODE = new Code("37251000000104", "Other digital signal");
+    private static final Code REFERRAL_CODE = new Code("3457005", "Patient referral");
+    private static final List<Code> OBSERVATION_CODES = List.of(
+        new Code("163020007", "On examination - blood pressure reading"),
+        new Code("27113001", "Body weight"),
+        new Code("50373000", "Body height measure"),
+        new Code("365981007", "Tobacco smoking behavior - finding"),
+        new Code("228273003", "Finding relating to alcohol drinking behavior"),
+        new Code("271649006", "Systolic blood pressure")
+    );
+    private static final List<Code> PLAN_CODES = List.of(
+        new Code("390906007", "Follow-up encounter"),
+        new Code("182836005", "Review of medication"),
+        new Code("185317003", "Telephone encounter")
+    );
+
+    private final GeneratorOptions options;
+    private final Map<StatementType, Integer> statementMix;
+    private final RandomValues random;
+
+    EhrExtractBuilder(GeneratorOptions options, Map<StatementType, Integer> statementMix, RandomValues random) {
+        this.options = options;
+        this.statementMix = statementMix;
+        this.random = random;
+    }
+
+    RCMRIN030000UKMessage build(String messageId, List<GeneratedAttachment> attachments) {
+        var extractTime = RandomValues.extractTimestamp();
+
+        var subject = new RCMRIN030000UKSubject();
+        subject.getTypeCode().add("SUBJ");
+        subject.setContextConductionInd(false);
+        subject.setEhrExtract(buildEhrExtract(extractTime, attachments));
+
+        var controlActEvent = new RCMRIN030000UKControlActEvent();
+        controlActEvent.getClassCode().add("CACT");
+        controlActEvent.getMoodCode().add("EVN");
+        controlActEvent.getAuthor1().add(Hl7Values.systemAuthor(options.getLosingAsid()));
+        controlActEvent.setSubject(subject);
+
+        var message = new RCMRIN030000UKMessage();
+        message.setId(ii(messageId));
+        message.setCreationTime(ts(extractTime));
+        message.setVersionCode(cs(VERSION_CODE));
+        message.setInteractionId(ii(INTERACTION_ROOT, INTERACTION_ID));
+        message.setProcessingCode(cs("P"));
+        message.setProcessingModeCode(cs("T"));
+        message.setAcceptAckCode(cs("NE"));
+        message.getCommunicationFunctionRcv().add(Hl7Values.receiver(options.getWinningAsid()));
+        message.setCommunicationFunctionSnd(Hl7Values.sender(options.getLosingAsid()));
+        message.setControlActEvent(controlActEvent);
+        return message;
+    }
+
+    private RCMRMT030101UKEhrExtract buildEhrExtract(String extractTime, List<GeneratedAttachment> attachments) {
+        var patient = new RCMRMT030101UKPatient();
+        patient.getClassCode().add("PAT");
+        patient.setId(ii(NHS_NUMBER_ROOT, options.getNhsNumber()));
+        var recordTarget = new RCMRMT030101UKPatientSubject();
+        recordTarget.getTypeCode().add("RCT");
+        recordTarget.setPatient(patient);
+
+        var author = new RCMRMT030101UKAuthor3();
+        author.getTypeCode().add("AUT");
+        author.setTime(ts(extractTime));
+        author.setAgentOrgSDS(agentOrgSds(options.getLosingOdsCode()));
+
+        var destination = new RCMRMT030101UKDestination();
+        destination.getTypeCode().add("DST");
+        destination.setAgentOrgSDS(agentOrgSds(options.getWinningOdsCode()));
+
+        var component = new RCMRMT030101UKComponent();
+        component.getTypeCode().add("COMP");
+        component.setEhrFolder(buildEhrFolder(extractTime, attachments));
+
+        var ehrExtract = new RCMRMT030101UKEhrExtract();
+        ehrExtract.getClassCode().add("EXTRACT");
+        ehrExtract.getMoodCode().add("EVN");
+        ehrExtract.setId(ii(random.nextId()));
+        ehrExtract.setStatusCode(cs(COMPLETE));
+        ehrExtract.setAvailabilityTime(ts(extractTime));
+        ehrExtract.setRecordTarget(recordTarget);
+        ehrExtract.setAuthor(author);
+        ehrExtract.setDestination(destination);
+        ehrExtract.getComponent().add(component);
+        return ehrExtract;
+    }
+
+    private RCMRMT030101UKEhrFolder buildEhrFolder(String extractTime, List<GeneratedAttachment> attachments) {
+        var practitionerId = random.nextId();
+
+        var author = new RCMRMT030101UKAuthor2();
+        author.getTypeCode().add("AUT");
+        author.setTime(ts(extractTime));
+        author.setAgentOrgSDS(agentOrgSds(options.getLosingOdsCode()));
+
+        var agentDirectory = new RCMRMT030101UKAgentDirectory();
+        agentDirectory.getClassCode().add("AGNT");
+        agentDirectory.getPart().add(part(organisationAgent()));
+        agentDirectory.getPart().add(part(practitionerAgent(practitionerId)));
+        var responsibleParty = new RCMRMT030101UKResponsibleParty();
+        responsibleParty.getTypeCode().add("RESP");
+        responsibleParty.setAgentDirectory(agentDirectory);
+
+        var ehrFolder = new RCMRMT030101UKEhrFolder();
+        ehrFolder.getClassCode().add("FOLDER");
+        ehrFolder.getMoodCode().add("EVN");
+        ehrFolder.setId(ii(random.nextId()));
+        ehrFolder.setStatusCode(cs(COMPLETE));
+        ehrFolder.setEffectiveTime(period(RandomValues.earliestRecordTimestamp(), extractTime));
+        ehrFolder.setAvailabilityTime(ts(extractTime));
+        ehrFolder.setAuthor(author);
+        ehrFolder.setResponsibleParty(responsibleParty);
+
+        var compositions = new ArrayList<RCMRMT030101UKEhrComposition>(options.getCompositionCount());
+        for (int i = 0; i < options.getCompositionCount(); i++) {
+            compositions.add(buildEhrComposition(practitionerId));
+        }
+        // spread attachments across compositions so that no single composition carries them all
+        for (int i = 0; i < attachments.size(); i++) {
+            var composition = compositions.get(i % compositions.size());
+            composition.getComponent().add(buildAttachmentStatement(attachments.get(i), composition));
+        }
+
+        for (var composition : compositions) {
+            var component = new RCMRMT030101UKComponent3();
+            component.getTypeCode().add("COMP");
+            component.setEhrComposition(composition);
+            ehrFolder.getComponent().add(component);
+        }
+        return ehrFolder;
+    }
+
+    private RCMRMT030101UKEhrComposition buildEhrComposition(String practitionerId) {
+        var time = random.nextRecordTimestamp();
+
+        var agentRef = new RCMRMT030101UKAgentRef();
+        agentRef.getClassCode().add("AGNT");
+        agentRef.setId(ii(practitionerId));
+        var author = new RCMRMT030101UKAuthor();
+        author.getTypeCode().add("AUT");
+        author.getContextControlCode().add("OP");
+        author.setTime(ts(time));
+        author.setAgentRef(agentRef);
+
+        var composition = new RCMRMT030101UKEhrComposition();
+        composition.getClassCode().add("COMPOSITION");
+        composition.getMoodCode().add("EVN");
+        composition.setId(ii(random.nextId()));
+        composition.setCode(cd(COMPOSITION_CODE.code(), COMPOSITION_CODE.displayName()));
+        composition.setStatusCode(cs(COMPLETE));
+        composition.setEffectiveTime(center(time));
+        composition.setAvailabilityTime(ts(time));
+        composition.setAuthor(author);
+
+        for (int i = 0; i < options.getStatementsPerComposition(); i++) {
+            composition.getComponent().add(buildStatement(random.pickWeighted(statementMix), time));
+        }
+        return composition;
+    }
+
+    private RCMRMT030101UKComponent4 buildStatement(StatementType type, String time) {
+        var component = new RCMRMT030101UKComponent4();
+        component.getTypeCode().add("COMP");
+        switch (type) {
+            case OBSERVATION -> component.setObservationStatement(buildObservationStatement(time));
+            case NARRATIVE -> component.setNarrativeStatement(buildNarrativeStatement(time, random.sentence(textLength())));
+            case PLAN -> component.setPlanStatement(buildPlanStatement(time));
+            case REQUEST -> component.setRequestStatement(buildRequestStatement(time));
+            default -> throw new IllegalArgumentException("Unsupported statement type: " + type);
+        }
+        return component;
+    }
+
+    private RCMRMT030101UKObservationStatement buildObservationStatement(String time) {
+        var code = random.pick(OBSERVATION_CODES);
+
+        var statement = new RCMRMT030101UKObservationStatement();
+        statement.getClassCode().add("OBS");
+        statement.getMoodCode().add("EVN");
+        statement.setId(ii(random.nextId()));
+        statement.setCode(cd(code.code(), code.displayName()));
+        statement.setStatusCode(cs(COMPLETE));
+        statement.setEffectiveTime(center(time));
+        statement.setAvailabilityTime(ts(time));
+        return statement;
+    }
+
+    private RCMRMT030101UKNarrativeStatement buildNarrativeStatement(String time, String text) {
+        var statement = new RCMRMT030101UKNarrativeStatement();
+        statement.getClassCode().add("OBS");
+        statement.getMoodCode().add("EVN");
+        statement.setId(ii(random.nextId()));
+        statement.setText(text);
+        statement.setStatusCode(cs(COMPLETE));
+        statement.setAvailabilityTime(ts(time));
+        return statement;
+    }
+
+    private RCMRMT030101UKPlanStatement buildPlanStatement(String time) {
+        var code = random.pick(PLAN_CODES);
+
+        var statement = new RCMRMT030101UKPlanStatement();
+        statement.getClassCode().add("OBS");
+        statement.getMoodCode().add("INT");
+        statement.setId(ii(random.nextId()));
+        statement.setCode(cd(code.code(), code.displayName()));
+        statement.setText(random.sentence(textLength()));
+        statement.setStatusCode(cs(COMPLETE));
+        statement.setEffectiveTime(center(time));
+        statement.setAvailabilityTime(ts(time));
+        return statement;
+    }
+
+    private RCMRMT030101UKRequestStatement buildRequestStatement(String time) {
+        var statement = new RCMRMT030101UKRequestStatement();
+        statement.getClassCode().add("OBS");
+        statement.getMoodCode().add("RQO");
+        statement.getId().add(ii(random.nextId()));
+        statement.setCode(cd(REFERRAL_CODE.code(), REFERRAL_CODE.displayName()));
+        statement.setText(random.sentence(textLength()));
+        statement.setStatusCode(cs(COMPLETE));
+        statement.setEffectiveTime(center(time));
+        statement.setAvailabilityTime(ts(time));
+        return statement;
+    }
+
+    private RCMRMT030101UKComponent4 buildAttachmentStatement(GeneratedAttachment attachment, RCMRMT030101UKEhrComposition composition) {
+        var reference = new TEL();
+        reference.setValue(FILE_REFERENCE_PREFIX + attachment.getFilename());
+        var text = new ED();
+        text.setMediaType(attachment.getContentType());
+        text.setReference(reference);
+
+        var code = cd(ATTACHMENT_CODE.code(), ATTACHMENT_CODE.displayName());
+        code.setOriginalText("Other Attachment");
+
+        var externalDocument = new RCMRMT030101UKExternalDocument();
+        externalDocument.getClassCode().add("DOC");
+        externalDocument.getMoodCode().add("EVN");
+        externalDocument.setId(ii("_" + attachment.getDocumentId()));
+        externalDocument.setCode(code);
+        externalDocument.setText(text);
+
+        var documentReference = new RCMRMT030101UKReference();
+        documentReference.getTypeCode().add("REFR");
+        documentReference.setReferredToExternalDocument(externalDocument);
+
+        var statement = buildNarrativeStatement(composition.getAvailabilityTime().getValue(), attachment.getContentType());
+        statement.getReference().add(documentReference);
+
+        var component = new RCMRMT030101UKComponent4();
+        component.getTypeCode().add("COMP");
+        component.setNarrativeStatement(statement);
+        return component;
+    }
+
+    private RCCTMT120101UK01Agent organisationAgent() {
+        var agent = new RCCTMT120101UK01Agent();
+        agent.getClassCode().add("AGNT");
+        agent.getId().add(ii(random.nextId()));
+        agent.setCode(cv("394745000", "General practice (organisation)", SNOMED_SYSTEM));
+        agent.setAgentOrganization(organisation());
+        return agent;
+    }
+
+    private RCCTMT120101UK01Agent practitionerAgent(String practitionerId) {
+        var name = new PN();
+        name.setPrefix("Dr");
+        name.setGiven("Alex");
+        name.setFamily("Generated");
+        var person = new RCCTMT120101UK01Person();
+        person.getClassCode().add("PSN");
+        person.getDeterminerCode().add("INSTANCE");
+        person.setName(name);
+
+        var agent = new RCCTMT120101UK01Agent();
+        agent.getClassCode().add("AGNT");
+        agent.getId().add(ii(practitionerId));
+        agent.setCode(cv("309394004", "General Practitioner Principal", SNOMED_SYSTEM));
+        agent.setAgentPerson(person);
+        agent.setRepresentedOrganization(organisation());
+        return agent;
+    }
+
+    private RCCTMT120101UK01Organization organisation() {
+        var organisation = new RCCTMT120101UK01Organization();
+        organisation.getClassCode().add("ORG");
+        organisation.getDeterminerCode().add("INSTANCE");
+        organisation.setId(ii(ORGANISATION_ROOT, options.getLosingOdsCode()));
+        organisation.setName(PRACTICE_NAME);
+        return organisation;
+    }
+
+    private int textLength() {
+        return random.nextInt(MAX_TEXT_WORDS) + 1;
+    }
+
+    private static RCMRMT030101UKPart part(RCCTMT120101UK01Agent agent) {
+        var part = new RCMRMT030101UKPart();
+        part.setTypeCode("PART");
+        part.setAgent(agent);
+        return part;
+    }
+
+    private static UKCTMT120501UK03AgentOrgSDS agentOrgSds(String odsCode) {
+        var organisation = new UKCTMT120501UK03OrganizationSDS();
+        organisation.getClassCode().add("ORG");
+        organisation.getDeterminerCode().add("INSTANCE");
+        organisation.setId(ii(ODS_ROOT, odsCode));
+
+        var agentOrgSds = new UKCTMT120501UK03AgentOrgSDS();
+        agentOrgSds.getClassCode().add("AGNT");
+        agentOrgSds.setAgentOrganizationSDS(organisation);
+        return agentOrgSds;
+    }
+
+    private record Code(String code, String displayName) {
+    }
+}
@@ -0,0 +1,195 @@
+package uk.nhs.adaptors.pss.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates synthetic GP2GP transfers at whatever scale a test needs: an {@code RCMR_IN030000UK06} extract built from the
+ * {@code schema} JAXB classes and, for each attachment too large to travel inline, a COPC index message and its fragments.
+ * Everything about the transfer, from the number of compositions to how attachments are compressed and fragmented, comes from
+ * {@link GeneratorOptions}.
+ */
+public final class EhrExtractGenerator {
+
+    private static final String CONTENT_TYPE = "text/plain";
+    private static final String FRAGMENT_FILENAME = "%s_%d.messageattachment";
+    private static final int BASE64_QUANTUM = 4;
+
+    private final Hl7Marshaller marshaller = new Hl7Marshaller();
+
+    public GeneratedTransfer generate(GeneratorOptions options) {
+        validate(options);
+
+        var random = new RandomValues(options.getSeed());
+        // an EnumMap iterates in declaration order, which keeps weighted picks reproducible whatever map the caller passed
+        Map<StatementType, Integer> statementMix = new EnumMap<>(StatementType.class);
+        statementMix.putAll(options.getStatementMix());
+
+        var attachments = generateAttachments(options, random);
+
+        var messageId = random.nextId();
+        var extract = new EhrExtractBuilder(options, statementMix, random).build(messageId, attachments);
+
+        var inlineAttachments = new ArrayList<GeneratedMessage.Attachment>();
+        var externalAttachments = new ArrayList<GeneratedMessage.ExternalAttachment>();
+        var references = new ArrayList<EbXmlEnvelope.Reference>();
+        var copcMessages = new ArrayList<GeneratedMessage>();
+        var copcMessageBuilder = new CopcMessageBuilder(options, random);
+
+        for (var attachment : attachments) {
+            if (attachment.isLarge()) {
+                references.add(new EbXmlEnvelope.Reference(attachment.getDocumentId(), "mid:" + attachment.getIndexMessageId(),
+                    attachment.description()));
+                externalAttachments.add(GeneratedMessage.ExternalAttachment.builder()
+                    .documentId(attachment.getDocumentId())
+                    .messageId(attachment.getIndexMessageId())
+                    .title(attachment.getFilename())
+                    .description(attachment.description())
+                    .build());
+                copcMessages.addAll(generateCopcMessages(options, attachment, copcMessageBuilder, random));
+            } else {
+                references.add(new EbXmlEnvelope.Reference(attachment.getDocumentId(), "cid:" + random.nextId(),
+                    attachment.description()));
+                inlineAttachments.add(GeneratedMessage.Attachment.builder()
+                    .contentType(attachment.getContentType())
+                    .isBase64(Boolean.TRUE.toString())
+                    .description(attachment.description())
+                    .payload(attachment.getPayload())
+                    .build());
+            }
+        }
+
+        var ehrExtract = GeneratedMessage.builder()
+            .interactionId(EhrExtractBuilder.INTERACTION_ID)
+            .messageId(messageId)
+            .ebXml(EbXmlEnvelope.build(options.getConversationId(), EhrExtractBuilder.INTERACTION_ID, messageId, random.nextId(),
+                references))
+            .payload(marshaller.marshal(extract))
+            .attachments(inlineAttachments.isEmpty() ? null : inlineAttachments)
+            .externalAttachments(externalAttachments.isEmpty() ? null : externalAttachments)
+            .build();
+
+        return GeneratedTransfer.builder()
+            .conversationId(options.getConversationId())
+            .ehrExtract(ehrExtract)
+            .copcMessages(copcMessages)
+            .build();
+    }
+
+    private List<GeneratedAttachment> generateAttachments(GeneratorOptions options, RandomValues random) {
+        var attachments = new ArrayList<GeneratedAttachment>(options.getAttachmentCount());
+        for (int i = 0; i < options.getAttachmentCount(); i++) {
+            var documentId = random.nextId();
+            var content = random.text(options.getAttachmentSize());
+            var payload = Base64.getEncoder().encodeToString(options.isCompressAttachments() ? gzip(content) : content);
+            var large = options.getFragmentSize() > 0 && payload.length() > options.getFragmentSize();
+
+            attachments.add(GeneratedAttachment.builder()
+                .documentId(documentId)
+                .filename(documentId + "_generated-" + (i + 1) + ".txt")
+                .contentType(CONTENT_TYPE)
+                .payload(payload)
+                .compressed(options.isCompressAttachments())
+                .indexMessageId(large ? random.nextId() : null)
+                .build());
+        }
+        return attachments;
+    }
+
+    /**
+     * The index message names every fragment in its manifest; each fragment then carries one slice of the attachment's
+     * payload. Slices are whole base64 quanta, so each one decodes on its own as well as once joined.
+     */
+    private List<GeneratedMessage> generateCopcMessages(GeneratorOptions options, GeneratedAttachment attachment,
+        CopcMessageBuilder copcMessageBuilder, RandomValues random) {
+
+        var indexMessageId = attachment.getIndexMessageId();
+        var payload = attachment.getPayload();
+        var sliceLength = Math.max(BASE64_QUANTUM, options.getFragmentSize() - options.getFragmentSize() % BASE64_QUANTUM);
+
+        var fragments = new ArrayList<GeneratedMessage>();
+        var references = new ArrayList<EbXmlEnvelope.Reference>();
+        var externalAttachments = new ArrayList<GeneratedMessage.ExternalAttachment>();
+
+        for (int start = 0, index = 0; start < payload.length(); start += sliceLength, index++) {
+            var fragmentMessageId = random.nextId();
+            var filename = FRAGMENT_FILENAME.formatted(indexMessageId, index);
+            var description = GeneratedAttachment.fragmentDescription(filename, attachment.getContentType());
+
+            references.add(new EbXmlEnvelope.Reference(null, "mid:" + fragmentMessageId, description));
+            externalAttachments.add(GeneratedMessage.ExternalAttachment.builder()
+                .documentId(indexMessageId)
+                .messageId(fragmentMessageId)
+                .title(filename)
+                .description(description)
+                .build());
+
+            fragments.add(GeneratedMessage.builder()
+                .interactionId(CopcMessageBuilder.INTERACTION_ID)
+                .messageId(fragmentMessageId)
+                .ebXml(EbXmlEnvelope.build(options.getConversationId(), CopcMessageBuilder.INTERACTION_ID, fragmentMessageId,
+                    random.nextId(), List.of(new EbXmlEnvelope.Reference(null, "cid:" + random.nextId(), description))))
+                .payload(marshaller.marshal(copcMessageBuilder.build(fragmentMessageId, filename)))
+                .attachments(List.of(GeneratedMessage.Attachment.builder()
+                    .contentType(attachment.getContentType())
+                    .isBase64(Boolean.TRUE.toString())
+                    .description(description)
+                    .payload(payload.substring(start, Math.min(start + sliceLength, payload.length())))
+                    .build()))
+                .build());
+        }
+
+        var indexMessage = GeneratedMessage.builder()
+            .interactionId(CopcMessageBuilder.INTERACTION_ID)
+            .messageId(indexMessageId)
+            .ebXml(EbXmlEnvelope.build(options.getConversationId(), CopcMessageBuilder.INTERACTION_ID, indexMessageId,
+                random.nextId(), references))
+            .payload(marshaller.marshal(copcMessageBuilder.build(indexMessageId, attachment.getFilename())))
+            .externalAttachments(externalAttachments)
+            .build();
+
+        var messages = new ArrayList<GeneratedMessage>(fragments.size() + 1);
+        messages.add(indexMessage);
+        messages.addAll(fragments);
+        return messages;
+    }
+
+    private static byte[] gzip(byte[] content) {
+        var compressed = new ByteArrayOutputStream();
+        try (var outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void validate(GeneratorOptions options) {
+        requireAtLeast(options.getCompositionCount(), 1, "compositionCount");
+        requireAtLeast(options.getStatementsPerComposition(), 0, "statementsPerComposition");
+        requireAtLeast(options.getAttachmentCount(), 0, "attachmentCount");
+        requireAtLeast(options.getAttachmentSize(), 1, "attachmentSize");
+        if (options.getFragmentSize() != 0) {
+            requireAtLeast(options.getFragmentSize(), BASE64_QUANTUM, "fragmentSize");
+        }
+
+        options.getStatementMix().forEach((type, weight) -> requireAtLeast(weight, 0, "statementMix weight for " + type));
+        var totalWeight = options.getStatementMix().values().stream().mapToInt(Integer::intValue).sum();
+        if (options.getStatementsPerComposition() > 0 && totalWeight == 0) {
+            throw new IllegalArgumentException("statementMix must give at least one statement type a weight");
+        }
+    }
+
+    private static void requireAtLeast(int value, int minimum, String name) {
+        if (value < minimum) {
+            throw new IllegalArgumentException("%s must be at least %d but was %d".formatted(name, minimum, value));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uk.nhs.adaptors.pss.generator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes one generated transfer to a directory as numbered MHS queue messages, for suites that replay files rather than call
+ * the generator. Options are given as {@code --name=value}; run with {@code --help} for the list.
+ */
+public final class GenerateTransferCommand {
+
+    private static final String USAGE = """
+        Usage: generate-transfer --output=<directory> [option...]
+          --conversation-id=<id>             defaults to a random UUID
+          --nhs-number=<number>              defaults to 9729734925
+          --losing-ods-code=<code>           defaults to B83002
+          --winning-ods-code=<code>          defaults to C81007
+          --compositions=<count>             defaults to 10
+          --statements-per-composition=<n>   defaults to 5
+          --statement-mix=<TYPE=weight,...>  types OBSERVATION, NARRATIVE, PLAN, REQUEST; defaults to 4,2,1,1
+          --attachments=<count>              defaults to 0
+          --attachment-size=<bytes>          defaults to 4096
+          --compress                         gzip attachments before encoding
+          --fragment-size=<characters>       send longer attachments as COPC fragments; defaults to 0, all inline
+          --seed=<number>                    defaults to 0
+        """;
+
+    private GenerateTransferCommand() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var arguments = parse(args);
+        if (arguments.containsKey("help") || !arguments.containsKey("output")) {
+            System.out.print(USAGE);
+            return;
+        }
+
+        var options = GeneratorOptions.builder();
+        apply(arguments, "conversation-id", options::conversationId);
+        apply(arguments, "nhs-number", options::nhsNumber);
+        apply(arguments, "losing-ods-code", options::losingOdsCode);
+        apply(arguments, "winning-ods-code", options::winningOdsCode);
+        apply(arguments, "compositions", value -> options.compositionCount(Integer.parseInt(value)));
+        apply(arguments, "statements-per-composition", value -> options.statementsPerComposition(Integer.parseInt(value)));
+        apply(arguments, "statement-mix", value -> options.statementMix(parseStatementMix(value)));
+        apply(arguments, "attachments", value -> options.attachmentCount(Integer.parseInt(value)));
+        apply(arguments, "attachment-size", value -> options.attachmentSize(Integer.parseInt(value)));
+        apply(arguments, "compress", value -> options.compressAttachments(true));
+        apply(arguments, "fragment-size", value -> options.fragmentSize(Integer.parseInt(value)));
+        apply(arguments, "seed", value -> options.seed(Long.parseLong(value)));
+
+        var transfer = new EhrExtractGenerator().generate(options.build());
+
+        var output = Files.createDirectories(Path.of(arguments.get("output")));
+        var messages = transfer.messages();
+        for (int i = 0; i < messages.size(); i++) {
+            var message = messages.get(i);
+            var filename = "%03d-%s-%s.json".formatted(i, message.getInteractionId(), message.getMessageId());
+            Files.writeString(output.resolve(filename), message.toJson(), UTF_8);
+        }
+
+        System.out.printf("Wrote %d messages for conversation %s to %s%n", messages.size(), transfer.getConversationId(), output);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var arguments = new HashMap<String, String>();
+        for (var arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            var separator = arg.indexOf('=');
+            if (separator < 0) {
+                arguments.put(arg.substring(2), "");
+            } else {
+                arguments.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return arguments;
+    }
+
+    private static Map<StatementType, Integer> parseStatementMix(String value) {
+        var statementMix = new EnumMap<StatementType, Integer>(StatementType.class);
+        for (var entry : value.split(",")) {
+            var weight = entry.split("=");
+            statementMix.put(StatementType.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return statementMix;
+    }
+
+    private static void apply(Map<String, String> arguments, String name, Consumer<String> setter) {
+        if (arguments.containsKey(name)) {
+            setter.accept(arguments.get(name));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package uk.nhs.adaptors.pss.generator;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * An attachment referenced from the extract, already compressed and base64 encoded as it travels.
+ */
+@Getter
+@Builder
+final class GeneratedAttachment {
+
+    private static final String DESCRIPTION = "Filename=\"%s\" ContentType=%s Compressed=%s LargeAttachment=%s OriginalBase64=No";
+
+    private final String documentId;
+    private final String filename;
+    private final String contentType;
+    private final String payload;
+    private final boolean compressed;
+    /** Set when the attachment is sent as a COPC index and fragments, to the index message's ID. */
+    private final String indexMessageId;
+
+    boolean isLarge() {
+        return indexMessageId != null;
+    }
+
+    String description() {
+        return DESCRIPTION.formatted(filename, contentType, yesNo(compressed), yesNo(isLarge()));
+    }
+
+    static String fragmentDescription(String filename, String contentType) {
+        return DESCRIPTION.formatted(filename, contentType, yesNo(false), yesNo(false));
+    }
+
+    private static String yesNo(boolean value) {
+        return value ? "Yes" : "No";
+    }
+}
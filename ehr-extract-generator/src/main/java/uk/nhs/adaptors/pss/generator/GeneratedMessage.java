@@ -0,0 +1,66 @@
+package uk.nhs.adaptors.pss.generator;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One message as the MHS adaptor puts it on the inbound queue, in the same JSON shape the translator reads. The interaction
+ * and message IDs are not part of that JSON; they are there for callers ordering, naming or waiting on messages.
+ */
+@Getter
+@Builder
+public final class GeneratedMessage {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @JsonIgnore
+    private final String interactionId;
+    @JsonIgnore
+    private final String messageId;
+    @JsonProperty("ebXML")
+    private final String ebXml;
+    private final String payload;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final List<Attachment> attachments;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("external_attachments")
+    private final List<ExternalAttachment> externalAttachments;
+
+    public String toJson() {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialise generated message " + messageId, e);
+        }
+    }
+
+    @Getter
+    @Builder
+    public static final class Attachment {
+        @JsonProperty("content_type")
+        private final String contentType;
+        @JsonProperty("is_base64")
+        private final String isBase64;
+        private final String description;
+        private final String payload;
+    }
+
+    @Getter
+    @Builder
+    public static final class ExternalAttachment {
+        @JsonProperty("document_id")
+        private final String documentId;
+        @JsonProperty("message_id")
+        private final String messageId;
+        private final String title;
+        private final String description;
+    }
+}
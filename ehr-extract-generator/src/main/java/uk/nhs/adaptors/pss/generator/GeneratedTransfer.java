@@ -0,0 +1,37 @@
+package uk.nhs.adaptors.pss.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Everything the losing practice sends for one transfer: the {@code RCMR_IN030000UK06} extract and, for each large attachment,
+ * a COPC index message followed by its fragments.
+ */
+@Getter
+@Builder
+public final class GeneratedTransfer {
+
+    private final String conversationId;
+    private final GeneratedMessage ehrExtract;
+    private final List<GeneratedMessage> copcMessages;
+
+    /**
+     * True when the translator will request the COPC messages with a continue message before the transfer can complete.
+     */
+    public boolean hasCopcMessages() {
+        return !copcMessages.isEmpty();
+    }
+
+    /**
+     * Every message in the order the losing practice sends them.
+     */
+    public List<GeneratedMessage> messages() {
+        var messages = new ArrayList<GeneratedMessage>(copcMessages.size() + 1);
+        messages.add(ehrExtract);
+        messages.addAll(copcMessages);
+        return messages;
+    }
+}
@@ -0,0 +1,66 @@
+package uk.nhs.adaptors.pss.generator;
+
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * What a generated transfer contains. Every value has a default, so callers only set what their scenario is about. Generating
+ * twice from the same options produces the same messages; only the default conversation ID is random.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class GeneratorOptions {
+
+    private static final int DEFAULT_COMPOSITION_COUNT = 10;
+    private static final int DEFAULT_STATEMENTS_PER_COMPOSITION = 5;
+    private static final int DEFAULT_ATTACHMENT_SIZE = 4096;
+    private static final int DEFAULT_OBSERVATION_WEIGHT = 4;
+    private static final int DEFAULT_NARRATIVE_WEIGHT = 2;
+
+    @Builder.Default
+    private final String conversationId = UUID.randomUUID().toString().toUpperCase();
+    @Builder.Default
+    private final String nhsNumber = "9729734925";
+    @Builder.Default
+    private final String losingOdsCode = "B83002";
+    @Builder.Default
+    private final String winningOdsCode = "C81007";
+    @Builder.Default
+    private final String losingAsid = "715373337545";
+    @Builder.Default
+    private final String winningAsid = "276827251543";
+
+    @Builder.Default
+    private final int compositionCount = DEFAULT_COMPOSITION_COUNT;
+    @Builder.Default
+    private final int statementsPerComposition = DEFAULT_STATEMENTS_PER_COMPOSITION;
+    /** Relative weight of each statement type; a type that is absent or weighted zero is never generated. */
+    @Builder.Default
+    private final Map<StatementType, Integer> statementMix = Map.of(
+        StatementType.OBSERVATION, DEFAULT_OBSERVATION_WEIGHT,
+        StatementType.NARRATIVE, DEFAULT_NARRATIVE_WEIGHT,
+        StatementType.PLAN, 1,
+        StatementType.REQUEST, 1
+    );
+
+    /** Each attachment adds a referencing {@code NarrativeStatement} on top of the statements per composition. */
+    @Builder.Default
+    private final int attachmentCount = 0;
+    /** Size in bytes of each attachment before compression and base64 encoding. */
+    @Builder.Default
+    private final int attachmentSize = DEFAULT_ATTACHMENT_SIZE;
+    @Builder.Default
+    private final boolean compressAttachments = false;
+    /**
+     * Maximum length of the base64 payload carried by one COPC fragment. An attachment whose payload is longer is sent as a
+     * large attachment: a COPC index message followed by its fragments. Zero sends every attachment inline.
+     */
+    @Builder.Default
+    private final int fragmentSize = 0;
+
+    @Builder.Default
+    private final long seed = 0L;
+}
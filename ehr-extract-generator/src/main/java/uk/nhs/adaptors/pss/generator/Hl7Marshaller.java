@@ -0,0 +1,51 @@
+package uk.nhs.adaptors.pss.generator;
+
+import java.io.StringWriter;
+
+import org.hl7.v3.COPCIN000001UK01Message;
+import org.hl7.v3.ObjectFactory;
+import org.hl7.v3.RCMRIN030000UKMessage;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+/**
+ * Writes generated messages as the XML payload the translator unmarshalls. The JAXB context is built once, as it is by far the
+ * most expensive part of marshalling.
+ */
+final class Hl7Marshaller {
+
+    private final ObjectFactory objectFactory = new ObjectFactory();
+    private final JAXBContext context;
+
+    Hl7Marshaller() {
+        try {
+            context = JAXBContext.newInstance(RCMRIN030000UKMessage.class, COPCIN000001UK01Message.class);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Unable to create the JAXB context for generated messages", e);
+        }
+    }
+
+    String marshal(RCMRIN030000UKMessage message) {
+        return marshal(objectFactory.createRCMRIN030000UK06(message));
+    }
+
+    String marshal(COPCIN000001UK01Message message) {
+        return marshal(objectFactory.createCOPCIN000001UK01(message));
+    }
+
+    private String marshal(JAXBElement<?> element) {
+        try {
+            var marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+
+            var xml = new StringWriter();
+            marshaller.marshal(element, xml);
+            return xml.toString();
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Unable to marshal generated " + element.getName().getLocalPart(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package uk.nhs.adaptors.pss.generator;
+
+import org.hl7.v3.CD;
+import org.hl7.v3.CS;
+import org.hl7.v3.CV;
+import org.hl7.v3.II;
+import org.hl7.v3.IVLTS;
+import org.hl7.v3.IVXBTS;
+import org.hl7.v3.MCAIMT040101UK03Author2;
+import org.hl7.v3.MCCIMT010101UK12CommunicationFunctionRcv;
+import org.hl7.v3.MCCIMT010101UK12CommunicationFunctionSnd;
+import org.hl7.v3.MCCIMT010101UK12Device;
+import org.hl7.v3.TS;
+import org.hl7.v3.UKCTMT121001UK01AgentSystemSDS;
+import org.hl7.v3.UKCTMT121001UK01SystemSDS;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shorthand for the HL7 data types every generated message is built from.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Hl7Values {
+
+    static final String SNOMED_SYSTEM = "2.16.840.1.113883.2.1.3.2.4.15";
+    static final String ASID_ROOT = "1.2.826.0.1285.0.2.0.107";
+    static final String ODS_ROOT = "1.2.826.0.1285.0.1.10";
+    static final String ORGANISATION_ROOT = "2.16.840.1.113883.2.1.4.3";
+    static final String NHS_NUMBER_ROOT = "2.16.840.1.113883.2.1.4.1";
+    static final String INTERACTION_ROOT = "2.16.840.1.113883.2.1.3.2.4.12";
+    static final String COMPLETE = "COMPLETE";
+
+    static II ii(String root) {
+        var ii = new II();
+        ii.setRoot(root);
+        return ii;
+    }
+
+    static II ii(String root, String extension) {
+        var ii = ii(root);
+        ii.setExtension(extension);
+        return ii;
+    }
+
+    static TS ts(String value) {
+        var ts = new TS();
+        ts.setValue(value);
+        return ts;
+    }
+
+    static IVLTS center(String value) {
+        var ivlts = new IVLTS();
+        ivlts.setCenter(ts(value));
+        return ivlts;
+    }
+
+    static IVLTS period(String low, String high) {
+        var lowValue = new IVXBTS();
+        lowValue.setValue(low);
+        var highValue = new IVXBTS();
+        highValue.setValue(high);
+
+        var ivlts = new IVLTS();
+        ivlts.setLow(lowValue);
+        ivlts.setHigh(highValue);
+        return ivlts;
+    }
+
+    static CD cd(String code, String displayName) {
+        return cd(new CD(), code, displayName, SNOMED_SYSTEM);
+    }
+
+    static CV cv(String code, String displayName, String codeSystem) {
+        return cd(new CV(), code, displayName, codeSystem);
+    }
+
+    static CS cs(String code) {
+        var cs = new CS();
+        cs.setCode(code);
+        return cs;
+    }
+
+    static MCCIMT010101UK12CommunicationFunctionRcv receiver(String asid) {
+        var receiver = new MCCIMT010101UK12CommunicationFunctionRcv();
+        receiver.setTypeCode("RCV");
+        receiver.setDevice(device(asid));
+        return receiver;
+    }
+
+    static MCCIMT010101UK12CommunicationFunctionSnd sender(String asid) {
+        var sender = new MCCIMT010101UK12CommunicationFunctionSnd();
+        sender.setTypeCode("SND");
+        sender.setDevice(device(asid));
+        return sender;
+    }
+
+    static MCAIMT040101UK03Author2 systemAuthor(String asid) {
+        var system = new UKCTMT121001UK01SystemSDS();
+        system.setId(ii(ASID_ROOT, asid));
+
+        var agentSystem = new UKCTMT121001UK01AgentSystemSDS();
+        agentSystem.setAgentSystemSDS(system);
+
+        var author = new MCAIMT040101UK03Author2();
+        author.setAgentSystemSDS(agentSystem);
+        return author;
+    }
+
+    private static MCCIMT010101UK12Device device(String asid) {
+        var device = new MCCIMT010101UK12Device();
+        device.getId().add(ii(ASID_ROOT, asid));
+        return device;
+    }
+
+    private static <T extends CD> T cd(T cd, String code, String displayName, String codeSystem) {
+        cd.setCode(code);
+        cd.setDisplayName(displayName);
+        cd.setCodeSystem(codeSystem);
+        return cd;
+    }
+}
@@ -0,0 +1,99 @@
+package uk.nhs.adaptors.pss.generator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeded source of every varying value in a transfer, so that a seed reproduces the same IDs, dates, codes and content.
+ */
+final class RandomValues {
+
+    private static final DateTimeFormatter HL7_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter EBXML_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final LocalDateTime EARLIEST_RECORD = LocalDateTime.of(2005, 1, 1, 9, 0);
+    private static final int RECORD_SPAN_MINUTES = 10 * 365 * 24 * 60;
+    /** Later than every generated record time, so the extract is always the most recent thing in it. */
+    private static final LocalDateTime EXTRACT_TIME = EARLIEST_RECORD.plusMinutes(RECORD_SPAN_MINUTES);
+    private static final int ID_BYTES = 16;
+    private static final List<String> WORDS = List.of(
+        "patient", "reports", "pain", "review", "blood", "pressure", "stable", "advised", "follow", "up", "weeks", "clinic",
+        "referral", "letter", "results", "normal", "medication", "continue", "symptoms", "improved", "history", "examination"
+    );
+
+    private final Random random;
+
+    RandomValues(long seed) {
+        random = new Random(seed);
+    }
+
+    String nextId() {
+        var bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        return UUID.nameUUIDFromBytes(bytes).toString().toUpperCase();
+    }
+
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    <T> T pickWeighted(Map<T, Integer> weights) {
+        var total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        var remaining = random.nextInt(total);
+        for (var entry : weights.entrySet()) {
+            remaining -= entry.getValue();
+            if (remaining < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+
+    String sentence(int wordCount) {
+        var sentence = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(pick(WORDS));
+        }
+        return sentence.toString();
+    }
+
+    /**
+     * Clinical-looking text rather than random bytes, so that compressing an attachment shrinks it as it would a real letter.
+     */
+    byte[] text(int size) {
+        var text = new StringBuilder(size);
+        while (text.length() < size) {
+            text.append(sentence(random.nextInt(WORDS.size()) + 1)).append(".\n");
+        }
+        text.setLength(size);
+        return text.toString().getBytes(UTF_8);
+    }
+
+    String nextRecordTimestamp() {
+        return HL7_TIMESTAMP.format(EARLIEST_RECORD.plusMinutes(random.nextInt(RECORD_SPAN_MINUTES)));
+    }
+
+    static String extractTimestamp() {
+        return HL7_TIMESTAMP.format(EXTRACT_TIME);
+    }
+
+    static String extractEbXmlTimestamp() {
+        return EBXML_TIMESTAMP.format(EXTRACT_TIME);
+    }
+
+    static String earliestRecordTimestamp() {
+        return HL7_TIMESTAMP.format(EARLIEST_RECORD);
+    }
+}
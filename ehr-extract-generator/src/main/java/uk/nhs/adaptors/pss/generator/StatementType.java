@@ -0,0 +1,16 @@
+package uk.nhs.adaptors.pss.generator;
+
+/**
+ * The kinds of clinical statement the generator places directly under an {@code ehrComposition}, and what the translator maps
+ * each of them to.
+ */
+public enum StatementType {
+    /** An {@code ObservationStatement}, mapped to an Observation. */
+    OBSERVATION,
+    /** A {@code NarrativeStatement}, mapped to a comment Observation. */
+    NARRATIVE,
+    /** A {@code PlanStatement}, mapped to a ProcedureRequest. */
+    PLAN,
+    /** A {@code RequestStatement}, mapped to a ReferralRequest. */
+    REQUEST
+}
@@ -0,0 +1,199 @@
+package uk.nhs.adaptors.pss.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.hl7.v3.COPCIN000001UK01Message;
+import org.hl7.v3.RCMRIN030000UKMessage;
+import org.hl7.v3.RCMRMT030101UKComponent3;
+import org.hl7.v3.RCMRMT030101UKComponent4;
+import org.hl7.v3.RCMRMT030101UKEhrFolder;
+import org.junit.jupiter.api.Test;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+
+public class EhrExtractGeneratorTest {
+
+    private static final String CONVERSATION_ID = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+    private static final int COMPOSITION_COUNT = 7;
+    private static final int STATEMENTS_PER_COMPOSITION = 3;
+    private static final int ATTACHMENT_SIZE = 10_000;
+    private static final int FRAGMENT_SIZE = 3_000;
+
+    private final EhrExtractGenerator generator = new EhrExtractGenerator();
+
+    @Test
+    public void When_Generating_Expect_ExtractForConfiguredPatientAndPractice() throws JAXBException {
+        var transfer = generator.generate(options().nhsNumber("9446363101").losingOdsCode("D5445").build());
+
+        var message = unmarshal(transfer.getEhrExtract().getPayload(), RCMRIN030000UKMessage.class);
+        var ehrExtract = message.getControlActEvent().getSubject().getEhrExtract();
+
+        assertThat(message.getId().getRoot()).isEqualTo(transfer.getEhrExtract().getMessageId());
+        assertThat(ehrExtract.getRecordTarget().getPatient().getId().getExtension()).isEqualTo("9446363101");
+        assertThat(ehrExtract.getAuthor().getAgentOrgSDS().getAgentOrganizationSDS().getId().getExtension()).isEqualTo("D5445");
+        assertThat(transfer.getEhrExtract().getEbXml())
+            .contains("<eb:ConversationId>" + CONVERSATION_ID + "</eb:ConversationId>")
+            .contains("<eb:Action>RCMR_IN030000UK06</eb:Action>")
+            .contains("<eb:MessageId>" + transfer.getEhrExtract().getMessageId() + "</eb:MessageId>");
+    }
+
+    @Test
+    public void When_Generating_Expect_ConfiguredCompositionAndStatementCounts() throws JAXBException {
+        var transfer = generator.generate(options().build());
+
+        var compositions = ehrFolder(transfer).getComponent();
+
+        assertThat(compositions).hasSize(COMPOSITION_COUNT);
+        assertThat(compositions)
+            .map(RCMRMT030101UKComponent3::getEhrComposition)
+            .allSatisfy(composition -> assertThat(composition.getComponent()).hasSize(STATEMENTS_PER_COMPOSITION));
+    }
+
+    @Test
+    public void When_StatementMixHasOneType_Expect_OnlyThatStatementType() throws JAXBException {
+        var transfer = generator.generate(options().statementMix(Map.of(StatementType.PLAN, 1, StatementType.REQUEST, 0)).build());
+
+        assertThat(statements(transfer))
+            .isNotEmpty()
+            .allSatisfy(statement -> assertThat(statement.getPlanStatement()).isNotNull());
+    }
+
+    @Test
+    public void When_GeneratingTwiceWithSameOptions_Expect_SameMessages() {
+        var options = options().attachmentCount(2).fragmentSize(FRAGMENT_SIZE).build();
+
+        var first = generator.generate(options).messages().stream().map(GeneratedMessage::toJson).toList();
+        var second = generator.generate(options).messages().stream().map(GeneratedMessage::toJson).toList();
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    public void When_GeneratingWithDifferentSeeds_Expect_DifferentExtracts() {
+        var first = generator.generate(options().seed(1L).build());
+        var second = generator.generate(options().seed(2L).build());
+
+        assertThat(first.getEhrExtract().getPayload()).isNotEqualTo(second.getEhrExtract().getPayload());
+    }
+
+    @Test
+    public void When_AttachmentsFitInline_Expect_InlineAttachmentsReferencedFromExtract() {
+        var transfer = generator.generate(options().attachmentCount(2).build());
+
+        var attachments = transfer.getEhrExtract().getAttachments();
+
+        assertThat(transfer.hasCopcMessages()).isFalse();
+        assertThat(transfer.getEhrExtract().getExternalAttachments()).isNull();
+        assertThat(attachments).hasSize(2).allSatisfy(attachment -> {
+            var filename = filename(attachment.getDescription());
+            assertThat(attachment.getDescription()).contains("Compressed=No LargeAttachment=No");
+            assertThat(transfer.getEhrExtract().getPayload()).contains("file://localhost/" + filename);
+            assertThat(Base64.getDecoder().decode(attachment.getPayload())).hasSize(ATTACHMENT_SIZE);
+        });
+    }
+
+    @Test
+    public void When_CompressingAttachments_Expect_GzippedPayloadOfOriginalSize() throws IOException {
+        var transfer = generator.generate(options().attachmentCount(1).compressAttachments(true).build());
+
+        var attachment = transfer.getEhrExtract().getAttachments().getFirst();
+
+        assertThat(attachment.getDescription()).contains("Compressed=Yes");
+        assertThat(gunzip(Base64.getDecoder().decode(attachment.getPayload()))).hasSize(ATTACHMENT_SIZE);
+    }
+
+    @Test
+    public void When_AttachmentExceedsFragmentSize_Expect_IndexAndFragmentsThatReassemble() throws JAXBException {
+        var inline = generator.generate(options().attachmentCount(1).build());
+        var fragmented = generator.generate(options().attachmentCount(1).fragmentSize(FRAGMENT_SIZE).build());
+
+        var externalAttachment = fragmented.getEhrExtract().getExternalAttachments().getFirst();
+        var index = fragmented.getCopcMessages().getFirst();
+        var fragments = fragmented.getCopcMessages().subList(1, fragmented.getCopcMessages().size());
+
+        assertThat(fragmented.getEhrExtract().getAttachments()).isNull();
+        assertThat(externalAttachment.getDescription()).contains("LargeAttachment=Yes");
+        assertThat(fragmented.getEhrExtract().getEbXml()).contains("xlink:href=\"mid:" + index.getMessageId() + "\"");
+
+        assertThat(index.getExternalAttachments())
+            .map(GeneratedMessage.ExternalAttachment::getMessageId)
+            .containsExactlyElementsOf(fragments.stream().map(GeneratedMessage::getMessageId).toList());
+        assertThat(unmarshal(index.getPayload(), COPCIN000001UK01Message.class).getId().getRoot()).isEqualTo(index.getMessageId());
+        assertThat(fragments)
+            .hasSize(5)
+            .allSatisfy(fragment -> assertThat(fragment.getAttachments()).hasSize(1));
+
+        var reassembled = fragments.stream()
+            .map(fragment -> fragment.getAttachments().getFirst().getPayload())
+            .collect(Collectors.joining());
+        assertThat(reassembled).isEqualTo(inline.getEhrExtract().getAttachments().getFirst().getPayload());
+    }
+
+    @Test
+    public void When_SerialisingMessage_Expect_MhsInboundQueueFields() {
+        var transfer = generator.generate(options().attachmentCount(1).fragmentSize(FRAGMENT_SIZE).build());
+
+        assertThat(transfer.getEhrExtract().toJson())
+            .contains("\"ebXML\":", "\"payload\":", "\"external_attachments\":", "\"document_id\":", "\"message_id\":")
+            .doesNotContain("\"attachments\":", "\"interactionId\"", "\"messageId\"");
+        assertThat(transfer.getCopcMessages().getLast().toJson())
+            .contains("\"attachments\":", "\"content_type\":\"text/plain\"", "\"is_base64\":\"true\"");
+    }
+
+    @Test
+    public void When_OptionsAreInvalid_Expect_IllegalArgumentException() {
+        assertThatThrownBy(() -> generator.generate(options().compositionCount(0).build()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("compositionCount");
+        assertThatThrownBy(() -> generator.generate(options().statementMix(Map.of(StatementType.PLAN, 0)).build()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("statementMix");
+    }
+
+    private static GeneratorOptions.GeneratorOptionsBuilder options() {
+        return GeneratorOptions.builder()
+            .conversationId(CONVERSATION_ID)
+            .compositionCount(COMPOSITION_COUNT)
+            .statementsPerComposition(STATEMENTS_PER_COMPOSITION)
+            .attachmentSize(ATTACHMENT_SIZE);
+    }
+
+    private static RCMRMT030101UKEhrFolder ehrFolder(GeneratedTransfer transfer) throws JAXBException {
+        return unmarshal(transfer.getEhrExtract().getPayload(), RCMRIN030000UKMessage.class)
+            .getControlActEvent().getSubject().getEhrExtract().getComponent().getFirst().getEhrFolder();
+    }
+
+    private static List<RCMRMT030101UKComponent4> statements(GeneratedTransfer transfer) throws JAXBException {
+        return ehrFolder(transfer).getComponent().stream()
+            .flatMap(component -> component.getEhrComposition().getComponent().stream())
+            .toList();
+    }
+
+    private static String filename(String description) {
+        var start = description.indexOf("Filename=\"") + "Filename=\"".length();
+        return description.substring(start, description.indexOf('"', start));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (var inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static <T> T unmarshal(String xml, Class<T> type) throws JAXBException {
+        return JAXBContext.newInstance(type).createUnmarshaller().unmarshal(new StreamSource(new StringReader(xml)), type).getValue();
+    }
+}
@@ -24,6 +24,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import uk.nhs.adaptors.pss.generator.EhrExtractGenerator;
+import uk.nhs.adaptors.pss.generator.GeneratedMessage;
+import uk.nhs.adaptors.pss.generator.GeneratorOptions;
 import uk.nhs.adaptors.pss.util.BaseEhrHandler;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
@@ -32,6 +35,11 @@ import uk.nhs.adaptors.pss.util.BaseEhrHandler;
 @AutoConfigureMockMvc
 public final class LargeMessagingIT extends BaseEhrHandler {
 
+    private static final int GENERATED_COMPOSITION_COUNT = 50;
+    private static final int GENERATED_ATTACHMENT_COUNT = 3;
+    private static final int GENERATED_ATTACHMENT_SIZE = 200_000;
+    private static final int GENERATED_FRAGMENT_SIZE = 40_000;
+
     private LargeMessagingIT() {
         setIgnoredJsonPaths(List.of(
             "id",
@@ -167,6 +175,29 @@ public final class LargeMessagingIT extends BaseEhrHandler {
         await().atMost(Duration.ofMinutes(1L)).until(this::isEhrMigrationCompleted);
     }
 
+    @Test
+    public void handleGeneratedUk06WithCompressedFragmentedAttachments() {
+        var transfer = new EhrExtractGenerator().generate(GeneratorOptions.builder()
+            .conversationId(getConversationId())
+            .nhsNumber(getPatientNhsNumber())
+            .losingOdsCode(getLosingODSCode())
+            .winningOdsCode(getWiningODSCode())
+            .compositionCount(GENERATED_COMPOSITION_COUNT)
+            .attachmentCount(GENERATED_ATTACHMENT_COUNT)
+            .attachmentSize(GENERATED_ATTACHMENT_SIZE)
+            .fragmentSize(GENERATED_FRAGMENT_SIZE)
+            .compressAttachments(true)
+            .build());
+
+        sendGeneratedMessageToQueue(transfer.getEhrExtract());
+
+        await().atMost(Duration.ofMinutes(1L)).until(this::hasContinueMessageBeenReceived);
+
+        transfer.getCopcMessages().forEach(this::sendGeneratedMessageToQueue);
+
+        await().atMost(Duration.ofMinutes(1L)).until(this::isEhrMigrationCompleted);
+    }
+
     private static Stream<Arguments> ehrAndCopcMessageResourceFiles() {
         return Stream.of(
             Arguments.of("handleUk06WithFragmentedMids", "/json/LargeMessage/Scenario_4/",
@@ -189,6 +220,11 @@ public final class LargeMessagingIT extends BaseEhrHandler {
         getMhsJmsTemplate().send(session -> session.createTextMessage(jsonMessage));
     }
 
+    private void sendGeneratedMessageToQueue(GeneratedMessage message) {
+        var jsonMessage = message.toJson();
+        getMhsJmsTemplate().send(session -> session.createTextMessage(jsonMessage));
+    }
+
     private boolean hasContinueMessageBeenReceived() {
         var migrationStatusLog = getMigrationStatusLogService().getLatestMigrationStatusLog(getConversationId());
         return CONTINUE_REQUEST_ACCEPTED.equals(migrationStatusLog.getMigrationStatus());
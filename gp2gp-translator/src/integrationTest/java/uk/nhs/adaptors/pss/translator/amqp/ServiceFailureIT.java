@@ -7,6 +7,7 @@ import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
@@ -51,9 +52,9 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.SneakyThrows;
+import reactor.core.publisher.Mono;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.common.model.TransferRequestMessage;
-import uk.nhs.adaptors.pss.translator.config.PssQueueProperties;
 import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
 import uk.nhs.adaptors.pss.translator.service.MhsClientService;
 import uk.nhs.adaptors.pss.translator.task.SendACKMessageHandler;
@@ -83,8 +84,6 @@ public class ServiceFailureIT extends BaseEhrHandler {
 
     @Autowired
     private ObjectMapper objectMapper;
-    @Autowired
-    private PssQueueProperties pssQueueProperties;
 
     @Autowired
     @Qualifier("jmsTemplateMhsDLQ")
@@ -126,15 +125,14 @@ public class ServiceFailureIT extends BaseEhrHandler {
         var conversationId = generateConversationId();
         var patientNhsNumber = generatePatientNhsNumber();
 
-        doThrow(getInternalServerErrorException())
-            .when(mhsClientService).send(any());
+        doReturn(Mono.error(getInternalServerErrorException()))
+            .when(mhsClientService).sendAsync(any());
 
         sendRequestToPssQueue(conversationId, patientNhsNumber);
 
         await().until(() -> hasMigrationStatus(EHR_EXTRACT_REQUEST_ERROR, conversationId));
 
-        verify(mhsClientService, timeout(THIRTY_SECONDS).times(pssQueueProperties.getMaxRedeliveries() + 1)
-        ).send(any());
+        verify(mhsClientService, timeout(THIRTY_SECONDS).times(1)).sendAsync(any());
 
         assertThat(getCurrentMigrationStatus(conversationId))
             .isEqualTo(EHR_EXTRACT_REQUEST_ERROR);
@@ -187,7 +185,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
 
         await().until(this::hasContinueMessageBeenReceived);
 
-        doThrow(MhsServerErrorException.class).when(mhsClientService).send(any());
+        doThrow(MhsServerErrorException.class).when(mhsClientService).sendAndWait(any());
 
         var copcMessageInJsonFormat = fetchMessageInJsonFormat(JSON_LARGE_MESSAGE_SCENARIO_3_COPC_JSON);
         sendInboundMessageToQueue(JSON_LARGE_MESSAGE_SCENARIO_3_COPC_JSON);
@@ -197,7 +195,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
 
         assertNotNull(messageSentToDlq);
         assertEquals(copcMessageInJsonFormat, ((JmsTextMessage) messageSentToDlq).getText());
-        verify(mhsClientService, times(FIVE_WANTED_NUMBER_OF_INVOCATIONS)).send(any());
+        verify(mhsClientService, times(FIVE_WANTED_NUMBER_OF_INVOCATIONS)).sendAndWait(any());
     }
 
     @Test
@@ -212,7 +210,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
             .doThrow(WebClientRequestException.class)
             .doThrow(WebClientRequestException.class)
             .doCallRealMethod()
-            .when(mhsClientService).send(any());
+            .when(mhsClientService).sendAsync(any());
 
         sendRequestToPssQueue(conversationId, patientNhsNumber);
 
@@ -238,7 +236,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
             .doThrow(WebClientRequestException.class)
             .doThrow(WebClientRequestException.class)
             .doCallRealMethod()
-            .when(mhsClientService).send(any());
+            .when(mhsClientService).sendAsync(any());
 
         sendInboundMessageToQueue(JSON_LARGE_MESSAGE_SCENARIO_3_UK_06_JSON);
 
@@ -265,7 +263,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
         .doThrow(WebClientRequestException.class)
         .doThrow(WebClientRequestException.class)
         .doCallRealMethod()
-        .when(mhsClientService).send(any());
+        .when(mhsClientService).sendAndWait(any());
 
         sendInboundMessageToQueue(JSON_LARGE_MESSAGE_SCENARIO_3_COPC_JSON);
 
@@ -288,7 +286,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
             .doThrow(webClientResponseException)
             .doThrow(webClientResponseException)
         .doCallRealMethod()
-        .when(mhsClientService).send(any());
+        .when(mhsClientService).sendAndWait(any());
 
         sendInboundMessageToQueue(JSON_LARGE_MESSAGE_SCENARIO_3_COPC_JSON);
 
@@ -309,7 +307,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
             .doThrow(ConnectionException.class)
             .doThrow(ConnectionException.class)
             .doCallRealMethod()
-            .when(mhsClientService).send(any());
+            .when(mhsClientService).sendAsync(any());
 
         sendRequestToPssQueue(conversationId, patientNhsNumber);
 
@@ -335,7 +333,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
             .doThrow(ConnectionException.class)
             .doThrow(ConnectionException.class)
             .doCallRealMethod()
-            .when(mhsClientService).send(any());
+            .when(mhsClientService).sendAsync(any());
 
         sendInboundMessageToQueue(JSON_LARGE_MESSAGE_SCENARIO_3_UK_06_JSON);
 
@@ -362,7 +360,7 @@ public class ServiceFailureIT extends BaseEhrHandler {
             .doThrow(ConnectionException.class)
             .doThrow(ConnectionException.class)
             .doCallRealMethod()
-            .when(mhsClientService).send(any());
+            .when(mhsClientService).sendAndWait(any());
 
         sendInboundMessageToQueue(JSON_LARGE_MESSAGE_SCENARIO_3_COPC_JSON);
 
@@ -0,0 +1,112 @@
+package uk.nhs.adaptors.pss.translator.amqp;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import uk.nhs.adaptors.pss.translator.config.MhsQueueProperties;
+
+/**
+ * Stops concurrent MHS queue consumers from handling two messages for the same conversation at the same time. Each conversation
+ * being handled has a lock of its own, dropped once no listener thread holds or waits for it, so a busy conversation only holds
+ * up other messages for that conversation.
+ * <p>
+ * A lane is entered once the message has been received and read, so it does not keep a conversation's messages in the order
+ * they arrived; the handlers rely on their checkpoints and the migration status for that. With a single consumer there is
+ * nothing to exclude, and entering a lane does nothing.
+ * <p>
+ * The lane is held on the listener thread itself rather than handed to a worker, so the transacted JMS session still commits
+ * or rolls back with the outcome of the handler.
+ */
+@Component
+public class ConversationLanes {
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, ConversationLock> locks = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final Lane noLane = new Lane(null, null, 0L);
+
+    @Autowired
+    public ConversationLanes(MhsQueueProperties mhsQueueProperties, MeterRegistry meterRegistry) {
+        enabled = mhsQueueProperties.getConcurrentConsumers() > 1;
+
+        Gauge.builder("mhs.queue.lane.depth", depth, AtomicInteger::get)
+            .description("Messages being handled or waiting for their conversation lane")
+            .register(meterRegistry);
+        waitTimer = Timer.builder("mhs.queue.lane.wait")
+            .description("Time a message waited for its conversation lane")
+            .register(meterRegistry);
+        processingTimer = Timer.builder("mhs.queue.lane.processing")
+            .description("Time a message held its conversation lane")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Blocks while another listener thread is handling a message for the conversation. Close the returned lane, on the same
+     * thread, once the message is handled.
+     */
+    public Lane enter(String conversationId) {
+        if (!enabled) {
+            return noLane;
+        }
+
+        depth.incrementAndGet();
+        long waitStart = System.nanoTime();
+        ConversationLock lock = locks.compute(conversationId, (id, existing) -> {
+            ConversationLock conversationLock = existing == null ? new ConversationLock() : existing;
+            conversationLock.users++;
+            return conversationLock;
+        });
+        lock.lock();
+
+        long processingStart = System.nanoTime();
+        waitTimer.record(processingStart - waitStart, NANOSECONDS);
+        return new Lane(conversationId, lock, processingStart);
+    }
+
+    int heldConversations() {
+        return locks.size();
+    }
+
+    private void exit(String conversationId, ConversationLock lock, long processingStart) {
+        processingTimer.record(System.nanoTime() - processingStart, NANOSECONDS);
+        lock.unlock();
+        locks.computeIfPresent(conversationId, (id, existing) -> --existing.users == 0 ? null : existing);
+        depth.decrementAndGet();
+    }
+
+    private static final class ConversationLock extends ReentrantLock {
+        // only read and written inside ConcurrentMap.compute for the conversation
+        private int users;
+    }
+
+    public final class Lane implements AutoCloseable {
+        private final String conversationId;
+        private final ConversationLock lock;
+        private final long processingStart;
+
+        private Lane(String conversationId, ConversationLock lock, long processingStart) {
+            this.conversationId = conversationId;
+            this.lock = lock;
+            this.processingStart = processingStart;
+        }
+
+        @Override
+        public void close() {
+            if (lock != null) {
+                exit(conversationId, lock, processingStart);
+            }
+        }
+    }
+}
@@ -1,38 +1,54 @@
 package uk.nhs.adaptors.pss.translator.amqp;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.io.input.CharSequenceInputStream;
 import org.apache.qpid.jms.message.JmsBytesMessage;
 import org.apache.qpid.jms.message.JmsTextMessage;
 import org.springframework.stereotype.Service;
 
 @Service
 public class JmsReader {
-    public String readMessage(Message message) throws JMSException {
+
+    /**
+     * Opens the body of the message as UTF-8, decoding it as it is read when MHS has base64 encoded it, so that neither the
+     * decoded body nor a copy of the text is held in memory alongside what is parsed from it.
+     */
+    public InputStream openMessage(Message message) throws JMSException {
         if (message instanceof JmsTextMessage jmsTextMessage) {
-            return readTextMessage(jmsTextMessage);
+            return openText(jmsTextMessage.getText());
         }
         if (message instanceof JmsBytesMessage jmsBytesMessage) {
-            return readBytesMessage(jmsBytesMessage);
+            return openBytesMessage(jmsBytesMessage);
         }
         if (message != null) {
-            return message.getBody(String.class);
+            return openText(message.getBody(String.class));
         }
         return null;
     }
 
-    private String readBytesMessage(JmsBytesMessage message) throws JMSException {
+    private InputStream openBytesMessage(JmsBytesMessage message) throws JMSException {
         byte[] bytes = new byte[(int) message.getBodyLength()];
         message.readBytes(bytes);
-        return Base64.isBase64(bytes) ? new String(Base64.decodeBase64(bytes), UTF_8) : new String(bytes, UTF_8);
+        var body = new ByteArrayInputStream(bytes);
+        return Base64.isBase64(bytes) ? new Base64InputStream(body) : body;
     }
 
-    private String readTextMessage(JmsTextMessage message) throws JMSException {
-        var text = message.getText();
-        return Base64.isBase64(text) ? new String(Base64.decodeBase64(text), UTF_8) : text;
+    private InputStream openText(String text) {
+        if (text == null) {
+            return null;
+        }
+        return Base64.isBase64(text)
+            ? new Base64InputStream(new CharSequenceInputStream(text, US_ASCII))
+            : new CharSequenceInputStream(text, UTF_8);
     }
 }
@@ -9,6 +9,7 @@ import org.apache.qpid.jms.message.JmsMessageSupport;
 import org.apache.qpid.jms.policy.JmsRedeliveryPolicy;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -100,8 +101,22 @@ public class AmqpConfiguration {
 
     @Bean("mhsQueueJmsListenerFactory")
     public JmsListenerContainerFactory<?> jmsListenerContainerFactoryMhsQueue(
-        @Qualifier("mhsQueueConnectionFactory") JmsConnectionFactory connectionFactory) {
-        return getDefaultJmsListenerContainerFactory(connectionFactory);
+        @Qualifier("mhsQueueConnectionFactory") JmsConnectionFactory connectionFactory, MhsQueueProperties properties,
+        @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        // each consumer holding a conversation lock keeps a connection and needs another to do its work
+        if (maximumPoolSize <= properties.getConcurrentConsumers()) {
+            throw new IllegalStateException("PS_DB_MAX_POOL_SIZE (" + maximumPoolSize
+                + ") must be greater than MHS_CONCURRENT_CONSUMERS (" + properties.getConcurrentConsumers() + ")");
+        }
+
+        DefaultJmsListenerContainerFactory factory = getDefaultJmsListenerContainerFactory(connectionFactory);
+
+        // ConversationLanes stops two consumers handling messages for the same conversation at once
+        if (properties.getConcurrentConsumers() > 1) {
+            factory.setConcurrency(String.valueOf(properties.getConcurrentConsumers()));
+        }
+
+        return factory;
     }
 
     @NotNull
@@ -0,0 +1,17 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audit")
+public class AuditProperties {
+    private boolean drainEnabled;
+    private int drainBatchSize;
+    private int drainMaxBatchesPerRun;
+}
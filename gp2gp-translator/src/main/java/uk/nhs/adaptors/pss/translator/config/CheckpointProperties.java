@@ -0,0 +1,17 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "checkpoint")
+public class CheckpointProperties {
+    private Duration retention;
+}
@@ -0,0 +1,26 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class HttpClientPoolProperties {
+    private static final int DEFAULT_MAX_CONNECTIONS = 50;
+    private static final int DEFAULT_PENDING_ACQUIRE_MAX_COUNT = 500;
+    private static final Duration DEFAULT_PENDING_ACQUIRE_TIMEOUT = Duration.ofSeconds(45);
+    private static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_MAX_LIFE_TIME = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_EVICT_IN_BACKGROUND = Duration.ofSeconds(30);
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int pendingAcquireMaxCount = DEFAULT_PENDING_ACQUIRE_MAX_COUNT;
+    private Duration pendingAcquireTimeout = DEFAULT_PENDING_ACQUIRE_TIMEOUT;
+    private Duration maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+    private Duration maxLifeTime = DEFAULT_MAX_LIFE_TIME;
+    private Duration evictInBackground = DEFAULT_EVICT_IN_BACKGROUND;
+    private boolean keepAlive = true;
+    private boolean metricsEnabled = true;
+}
@@ -0,0 +1,19 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "mapping")
+public class MappingProperties {
+    /**
+     * Whether a large EHR extract is mapped as soon as it arrives, rather than once every attachment has, so that only the
+     * attachment sizes are left to fill in when the last COPC message comes.
+     */
+    private boolean pipelined;
+}
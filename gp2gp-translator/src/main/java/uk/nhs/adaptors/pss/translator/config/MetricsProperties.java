@@ -0,0 +1,23 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@ConfigurationProperties(prefix = "metrics")
+@Getter
+@Setter
+public class MetricsProperties {
+    /**
+     * Comma separated {@code <ASID>=<vendor>} pairs naming the supplier of each losing system, e.g. {@code 200000000149=EMIS}.
+     */
+    private String losingSystemVendors = "";
+    /**
+     * Comma separated meter names, stages or mappers to publish percentile histograms for, e.g.
+     * {@code bundle.mapping,ObservationMapper,translator.payload.length}. None are published by default.
+     */
+    private String percentileHistograms = "";
+}
@@ -12,5 +12,7 @@ import lombok.Setter;
 @ConfigurationProperties(prefix = "mhs")
 public class MhsOutboundConfiguration {
     private String url;
+    private HttpClientPoolProperties pool = new HttpClientPoolProperties();
+    private OutboundRequestProperties request = new OutboundRequestProperties();
 }
 
@@ -17,6 +17,7 @@ public class MhsQueueProperties {
     private String password;
     private int maxRedeliveries;
     private String dlqPrefix;
+    private int concurrentConsumers = 1;
 
     public String getDLQName() {
         return getDlqPrefix() + getQueueName();
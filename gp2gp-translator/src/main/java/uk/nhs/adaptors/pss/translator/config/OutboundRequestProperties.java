@@ -0,0 +1,20 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class OutboundRequestProperties {
+    private static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    private static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofMillis(500);
+    private static final int DEFAULT_MAX_IN_FLIGHT = 100;
+
+    private Duration responseTimeout = DEFAULT_RESPONSE_TIMEOUT;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private Duration retryBackoff = DEFAULT_RETRY_BACKOFF;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+}
@@ -12,5 +12,7 @@ import lombok.Setter;
 @ConfigurationProperties(prefix = "sds")
 public class SdsConfiguration {
     private String url;
+    private HttpClientPoolProperties pool = new HttpClientPoolProperties();
+    private OutboundRequestProperties request = new OutboundRequestProperties();
     private String apikey;
 }
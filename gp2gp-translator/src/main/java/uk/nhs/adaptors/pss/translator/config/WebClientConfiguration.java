@@ -0,0 +1,57 @@
+package uk.nhs.adaptors.pss.translator.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.netty.resources.ConnectionProvider;
+import uk.nhs.adaptors.pss.translator.service.RequestBuilderService;
+
+/**
+ * Builds the WebClients used for MHS outbound and SDS once at startup, so that every outbound request reuses the same SSL context
+ * and reactor-netty connection pool. Pool gauges (active, idle, pending connections) are registered with Micrometer under the
+ * {@code reactor.netty.connection.provider} prefix, tagged with the pool name.
+ */
+@Configuration
+public class WebClientConfiguration {
+
+    private static final String MHS_POOL_NAME = "mhs-outbound";
+    private static final String SDS_POOL_NAME = "sds";
+
+    @Bean(name = "mhsConnectionProvider", destroyMethod = "dispose")
+    public ConnectionProvider mhsConnectionProvider(RequestBuilderService requestBuilderService,
+        MhsOutboundConfiguration mhsOutboundConfiguration) {
+        return requestBuilderService.buildConnectionProvider(MHS_POOL_NAME, mhsOutboundConfiguration.getPool());
+    }
+
+    @Bean(name = "sdsConnectionProvider", destroyMethod = "dispose")
+    public ConnectionProvider sdsConnectionProvider(RequestBuilderService requestBuilderService, SdsConfiguration sdsConfiguration) {
+        return requestBuilderService.buildConnectionProvider(SDS_POOL_NAME, sdsConfiguration.getPool());
+    }
+
+    @Bean("mhsWebClient")
+    public WebClient mhsWebClient(RequestBuilderService requestBuilderService, MhsOutboundConfiguration mhsOutboundConfiguration,
+        @Qualifier("mhsConnectionProvider") ConnectionProvider connectionProvider) {
+        return WebClient
+            .builder()
+            .exchangeStrategies(requestBuilderService.buildExchangeStrategies())
+            .clientConnector(new ReactorClientHttpConnector(
+                requestBuilderService.buildHttpClient(
+                    connectionProvider, mhsOutboundConfiguration.getPool(), mhsOutboundConfiguration.getRequest())))
+            .baseUrl(mhsOutboundConfiguration.getUrl())
+            .build();
+    }
+
+    @Bean("sdsWebClient")
+    public WebClient sdsWebClient(RequestBuilderService requestBuilderService, SdsConfiguration sdsConfiguration,
+        @Qualifier("sdsConnectionProvider") ConnectionProvider connectionProvider) {
+        return WebClient
+            .builder()
+            .clientConnector(new ReactorClientHttpConnector(
+                requestBuilderService.buildHttpClient(connectionProvider, sdsConfiguration.getPool(), sdsConfiguration.getRequest())))
+            .baseUrl(sdsConfiguration.getUrl())
+            .build();
+    }
+}
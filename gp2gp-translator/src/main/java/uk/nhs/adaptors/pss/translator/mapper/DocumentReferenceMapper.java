@@ -9,6 +9,7 @@ import static uk.nhs.adaptors.pss.translator.util.ResourceUtil.buildIdentifier;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -22,6 +23,7 @@ import org.hl7.fhir.dstu3.model.Meta;
 import org.hl7.fhir.dstu3.model.Organization;
 import org.hl7.fhir.dstu3.model.Patient;
 import org.hl7.fhir.dstu3.model.Reference;
+import org.hl7.fhir.dstu3.model.UnsignedIntType;
 import org.hl7.v3.RCMRMT030101UKEhrComposition;
 import org.hl7.v3.RCMRMT030101UKEhrExtract;
 import org.hl7.v3.RCMRMT030101UKExternalDocument;
@@ -74,6 +76,33 @@ public class DocumentReferenceMapper extends AbstractMapper<DocumentReference> {
         ).toList().isEmpty();
     }
 
+    /**
+     * Finishes document references mapped before their attachments arrived. Each attachment URL is replaced with the one
+     * {@code resolveUrl} gives for it, as is a description built from the URL, and sizes are taken from the attachment logs.
+     */
+    public void updateAttachments(List<DocumentReference> documentReferences, UnaryOperator<String> resolveUrl,
+                                  List<PatientAttachmentLog> attachments) {
+
+        for (var documentReference : documentReferences) {
+            for (var content : documentReference.getContent()) {
+                var attachment = content.getAttachment();
+                if (!attachment.hasUrl()) {
+                    continue;
+                }
+
+                var pendingUrl = attachment.getUrl();
+                var url = resolveUrl.apply(pendingUrl);
+                if (!url.equals(pendingUrl)) {
+                    attachment.setUrl(url);
+                    updateDescription(documentReference, buildFileName(pendingUrl), buildFileName(url));
+                }
+
+                var attachmentSize = getAttachmentSize(attachments, url);
+                attachment.setSizeElement(attachmentSize != null ? new UnsignedIntType(attachmentSize) : null);
+            }
+        }
+    }
+
     private DocumentReference mapDocumentReference(RCMRMT030101UKNarrativeStatement narrativeStatement,
                                                    RCMRMT030101UKEhrComposition ehrComposition, Patient patient,
                                                    List<Encounter> encounterList,
@@ -184,6 +213,14 @@ public class DocumentReferenceMapper extends AbstractMapper<DocumentReference> {
         }
     }
 
+    // a description built from the file name starts with it, whether or not a note about the content type follows
+    private void updateDescription(DocumentReference documentReference, String pendingFileName, String fileName) {
+        var description = documentReference.getDescription();
+        if (description != null && description.startsWith(pendingFileName)) {
+            documentReference.setDescription(fileName + description.substring(pendingFileName.length()));
+        }
+    }
+
     private boolean isAbsentAttachment(RCMRMT030101UKNarrativeStatement narrativeStatement) {
 
         return narrativeStatement.getReference().getFirst()
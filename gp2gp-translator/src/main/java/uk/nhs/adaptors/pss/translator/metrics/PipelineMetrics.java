@@ -0,0 +1,289 @@
+package uk.nhs.adaptors.pss.translator.metrics;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import uk.nhs.adaptors.pss.translator.config.MetricsProperties;
+
+/**
+ * Times the stages of inbound message processing and records the sizes of what flows through them.
+ * <p>
+ * {@link #startMessage()} binds a message to the calling thread. Measurements taken while it is bound, including those completed
+ * on other threads from a {@link Timing} started on this one, are held until the message is closed and then recorded with the
+ * interaction ID and losing-system vendor learnt while handling it, so that every stage of a message carries the same tags.
+ * Measurements taken outside a message are recorded straight away, tagged {@value #UNKNOWN}.
+ * <p>
+ * Percentile histograms are only published for the meters, stages and mappers listed in
+ * {@link MetricsProperties#getPercentileHistograms()}, as each adds a few dozen buckets to every tag combination.
+ */
+@Component
+public class PipelineMetrics {
+
+    static final String STAGE_TIMER = "translator.stage.duration";
+    static final String MAPPER_TIMER = "translator.mapper.duration";
+    static final String PAYLOAD_LENGTH_SUMMARY = "translator.payload.length";
+    static final String ATTACHMENT_SIZE_SUMMARY = "translator.attachment.size";
+    static final String BUNDLE_ENTRIES_SUMMARY = "translator.bundle.entries";
+
+    static final String UNKNOWN = "unknown";
+    static final String OTHER_VENDOR = "other";
+
+    private static final String INTERACTION_TAG = "interaction";
+    private static final String VENDOR_TAG = "vendor";
+    private static final String STAGE_TAG = "stage";
+    private static final String MAPPER_TAG = "mapper";
+    private static final String PAYLOAD_TAG = "payload";
+
+    private final ThreadLocal<MessageMetrics> currentMessage = new ThreadLocal<>();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, String> vendorsByAsid;
+    private final Set<String> percentileHistograms;
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry meterRegistry, MetricsProperties metricsProperties) {
+        this.meterRegistry = meterRegistry;
+        this.vendorsByAsid = parseVendors(metricsProperties.getLosingSystemVendors());
+        this.percentileHistograms = parseNames(metricsProperties.getPercentileHistograms());
+    }
+
+    /**
+     * Pipeline metrics that record nothing, for running the pipeline where nobody reads the measurements.
+     */
+    public static PipelineMetrics noop() {
+        return new PipelineMetrics(new CompositeMeterRegistry(), new MetricsProperties());
+    }
+
+    /**
+     * Binds a new message to the calling thread. Close the returned message, on the same thread, once it has been handled.
+     */
+    public MessageMetrics startMessage() {
+        var message = new MessageMetrics(currentMessage.get());
+        currentMessage.set(message);
+        return message;
+    }
+
+    public void tagInteraction(String interactionId) {
+        var message = currentMessage.get();
+        if (message != null && interactionId != null) {
+            message.interactionId = interactionId;
+        }
+    }
+
+    public void tagLosingSystem(String asid) {
+        var message = currentMessage.get();
+        if (message != null && asid != null) {
+            message.vendor = vendorsByAsid.getOrDefault(asid, OTHER_VENDOR);
+        }
+    }
+
+    /**
+     * Starts timing a stage that completes later, possibly on another thread.
+     */
+    public Timing start(PipelineStage stage) {
+        return new Timing(currentMessage.get(), STAGE_TIMER, STAGE_TAG, stage.getTagValue());
+    }
+
+    public <T, E extends Exception> T time(PipelineStage stage, TimedCall<T, E> call) throws E {
+        var timing = start(stage);
+        try {
+            return call.call();
+        } finally {
+            timing.stop();
+        }
+    }
+
+    public <E extends Exception> void run(PipelineStage stage, TimedAction<E> action) throws E {
+        var timing = start(stage);
+        try {
+            action.run();
+        } finally {
+            timing.stop();
+        }
+    }
+
+    /**
+     * Times a call to a mapper, tagged with the simple name of the mapper's class.
+     */
+    public <T> T timeMapper(Object mapper, Supplier<T> call) {
+        var timing = new Timing(currentMessage.get(), MAPPER_TIMER, MAPPER_TAG, ClassUtils.getUserClass(mapper).getSimpleName());
+        try {
+            return call.get();
+        } finally {
+            timing.stop();
+        }
+    }
+
+    public void runMapper(Object mapper, Runnable action) {
+        timeMapper(mapper, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the length, in characters, of a message payload, extract or encoded bundle.
+     */
+    public void recordPayloadLength(String payload, int length) {
+        record(currentMessage.get(), new Measurement(PAYLOAD_LENGTH_SUMMARY, PAYLOAD_TAG, payload, length));
+    }
+
+    public void recordAttachmentSize(int bytes) {
+        record(currentMessage.get(), new Measurement(ATTACHMENT_SIZE_SUMMARY, null, null, bytes));
+    }
+
+    public void recordBundleEntries(int entries) {
+        record(currentMessage.get(), new Measurement(BUNDLE_ENTRIES_SUMMARY, null, null, entries));
+    }
+
+    private void record(MessageMetrics message, Measurement measurement) {
+        if (message == null) {
+            write(measurement, UNKNOWN, UNKNOWN);
+        } else if (!message.add(measurement)) {
+            write(measurement, message.interactionId, message.vendor);
+        }
+    }
+
+    private void write(Measurement measurement, String interactionId, String vendor) {
+        Tags tags = Tags.of(INTERACTION_TAG, interactionId, VENDOR_TAG, vendor);
+        if (measurement.tag() != null) {
+            tags = tags.and(measurement.tag(), measurement.tagValue());
+        }
+
+        switch (measurement.name()) {
+        boolean histogram = percentileHistograms.contains(measurement.name())
+            || measurement.tagValue() != null && percentileHistograms.contains(measurement.tagValue());
+
+        switch (measurement.name()) {
+            case STAGE_TIMER, MAPPER_TIMER -> Timer.builder(measurement.name())
+                .tags(tags)
+                .publishPercentileHistogram(histogram)
+                .register(meterRegistry)
+                .record((long) measurement.value(), NANOSECONDS);
+            case ATTACHMENT_SIZE_SUMMARY -> summary(measurement.name(), tags, "bytes", histogram).record(measurement.value());
+            case BUNDLE_ENTRIES_SUMMARY -> summary(measurement.name(), tags, "entries", histogram).record(measurement.value());
+            default -> summary(measurement.name(), tags, "characters", histogram).record(measurement.value());
+        }
+    }
+
+    private DistributionSummary summary(String name, Tags tags, String baseUnit, boolean histogram) {
+        return DistributionSummary.builder(name)
+            .tags(tags)
+            .baseUnit(baseUnit)
+            .publishPercentileHistogram(histogram)
+            .register(meterRegistry);
+    }
+
+    private static Set<String> parseNames(String names) {
+        if (names == null || names.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(names.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Map<String, String> parseVendors(String losingSystemVendors) {
+        Map<String, String> vendors = new HashMap<>();
+        if (losingSystemVendors == null) {
+            return vendors;
+        }
+
+        for (String pair : losingSystemVendors.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                vendors.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+        }
+        return vendors;
+    }
+
+    @FunctionalInterface
+    public interface TimedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface TimedAction<E extends Exception> {
+        void run() throws E;
+    }
+
+    private record Measurement(String name, String tag, String tagValue, double value) {
+    }
+
+    public final class MessageMetrics implements AutoCloseable {
+        private final MessageMetrics previous;
+        private final List<Measurement> measurements = new ArrayList<>();
+        private volatile String interactionId = UNKNOWN;
+        private volatile String vendor = UNKNOWN;
+        private boolean closed;
+
+        private MessageMetrics(MessageMetrics previous) {
+            this.previous = previous;
+        }
+
+        // false once the message has been recorded, so that late measurements are written directly instead
+        private synchronized boolean add(Measurement measurement) {
+            if (closed) {
+                return false;
+            }
+            measurements.add(measurement);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (currentMessage.get() == this) {
+                if (previous == null) {
+                    currentMessage.remove();
+                } else {
+                    currentMessage.set(previous);
+                }
+            }
+
+            List<Measurement> recorded;
+            synchronized (this) {
+                closed = true;
+                recorded = List.copyOf(measurements);
+                measurements.clear();
+            }
+            recorded.forEach(measurement -> write(measurement, interactionId, vendor));
+        }
+    }
+
+    public final class Timing {
+        private final MessageMetrics message;
+        private final String name;
+        private final String tag;
+        private final String tagValue;
+        private final long start = System.nanoTime();
+
+        private Timing(MessageMetrics message, String name, String tag, String tagValue) {
+            this.message = message;
+            this.name = name;
+            this.tag = tag;
+            this.tagValue = tagValue;
+        }
+
+        public void stop() {
+            record(message, new Measurement(name, tag, tagValue, System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package uk.nhs.adaptors.pss.translator.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum PipelineStage {
+    JMS_READ("jms.read"),
+    EBXML_PARSE("ebxml.parse"),
+    JAXB_UNMARSHAL("jaxb.unmarshal"),
+    ATTACHMENT_DECODE("attachment.decode"),
+    ATTACHMENT_DECOMPRESS("attachment.decompress"),
+    ATTACHMENT_UPLOAD("attachment.upload"),
+    REFERENCE_REWRITE("reference.rewrite"),
+    SKELETON_MERGE("skeleton.merge"),
+    BUNDLE_MAPPING("bundle.mapping"),
+    FHIR_PARSE("fhir.parse"),
+    FHIR_ENCODE("fhir.encode"),
+    DB_PERSIST("db.persist"),
+    MHS_SEND("mhs.send");
+
+    private final String tagValue;
+}
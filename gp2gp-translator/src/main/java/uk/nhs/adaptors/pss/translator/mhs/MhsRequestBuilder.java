@@ -4,21 +4,17 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ReactiveHttpOutputMessage;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import io.netty.handler.ssl.SslContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import reactor.netty.http.client.HttpClient;
-import uk.nhs.adaptors.pss.translator.config.MhsOutboundConfiguration;
 import uk.nhs.adaptors.pss.translator.mhs.model.OutboundMessage;
-import uk.nhs.adaptors.pss.translator.service.RequestBuilderService;
 
 @Slf4j
 @Component
@@ -36,8 +32,8 @@ public class MhsRequestBuilder {
     private static final String CONTENT_TYPE = "Content-type";
     private static final String MESSAGE_ID = "Message-Id";
 
-    private final RequestBuilderService requestBuilderService;
-    private final MhsOutboundConfiguration mhsOutboundConfiguration;
+    @Qualifier("mhsWebClient")
+    private final WebClient mhsWebClient;
 
     public WebClient.RequestHeadersSpec<?> buildSendEhrExtractRequest(
         String conversationId, String toOdsCode, OutboundMessage outboundMessage, String messageId) {
@@ -57,11 +53,7 @@ public class MhsRequestBuilder {
 
     private WebClient.RequestHeadersSpec<?> buildSendRequest(
         String conversationId, String toOdsCode, OutboundMessage outboundMessage, String interactionId, String messageId) {
-        SslContext sslContext = requestBuilderService.buildSSLContext();
-        HttpClient httpClient = HttpClient.create().secure(t -> t.sslContext(sslContext));
-        WebClient client = buildWebClient(httpClient);
-
-        WebClient.RequestBodySpec uri = client.method(HttpMethod.POST).uri("/");
+        WebClient.RequestBodySpec uri = mhsWebClient.method(HttpMethod.POST).uri("/");
 
         BodyInserter<Object, ReactiveHttpOutputMessage> bodyInserter = BodyInserters.fromValue(outboundMessage);
 
@@ -75,13 +67,4 @@ public class MhsRequestBuilder {
             .header(MESSAGE_ID, messageId)
             .body(bodyInserter);
     }
-
-    private WebClient buildWebClient(HttpClient httpClient) {
-        return WebClient
-            .builder()
-            .exchangeStrategies(requestBuilderService.buildExchangeStrategies())
-            .clientConnector(new ReactorClientHttpConnector(httpClient))
-            .baseUrl(mhsOutboundConfiguration.getUrl())
-            .build();
-    }
 }
@@ -0,0 +1,203 @@
+package uk.nhs.adaptors.pss.translator.model;
+
+import java.text.ParseException;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The fields of an ebXML attachment description, e.g.
+ * {@code Filename="x.txt" ContentType=text/plain Compressed=No LargeAttachment=No OriginalBase64=Yes Length=4718}.
+ * <p>
+ * {@link #parse(String)} reads every field in one scan over the description. For each field it keeps the first occurrence
+ * whose value is valid, which is the value the per-field regular expressions previously used in
+ * {@link uk.nhs.adaptors.pss.translator.util.XmlParseUtilService} returned. Parse a description once and pass the descriptor
+ * around rather than re-reading the string for each field.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class AttachmentDescriptor {
+
+    private static final String FILENAME_KEY = "Filename";
+    private static final String CONTENT_TYPE_KEY = "ContentType";
+    private static final String COMPRESSED_KEY = "Compressed";
+    private static final String LARGE_ATTACHMENT_KEY = "LargeAttachment";
+    private static final String ORIGINAL_BASE64_KEY = "OriginalBase64";
+    private static final String LENGTH_KEY = "Length";
+    private static final String SKELETON_PROPERTY = "x-gp2gp-skeleton:yes";
+    private static final String YES = "Yes";
+    private static final String NO = "No";
+
+    @Getter
+    private final String description;
+    private final String filename;
+    private final String contentType;
+    private final Boolean compressed;
+    private final Boolean largeAttachment;
+    private final Boolean originalBase64;
+    @Getter
+    private final int length;
+    private final boolean skeleton;
+
+    public static AttachmentDescriptor parse(String description) {
+        String filename = null;
+        String contentType = null;
+        Boolean compressed = null;
+        Boolean largeAttachment = null;
+        Boolean originalBase64 = null;
+        String length = null;
+
+        for (int equals = description.indexOf('='); equals >= 0; equals = description.indexOf('=', equals + 1)) {
+            if (filename == null && keyEndsAt(description, FILENAME_KEY, equals)) {
+                filename = readQuotedValue(description, equals + 1);
+            } else if (contentType == null && keyEndsAt(description, CONTENT_TYPE_KEY, equals)) {
+                contentType = readValue(description, equals + 1, true);
+            } else if (compressed == null && keyEndsAt(description, COMPRESSED_KEY, equals)) {
+                compressed = readYesNo(description, equals + 1);
+            } else if (largeAttachment == null && keyEndsAt(description, LARGE_ATTACHMENT_KEY, equals)) {
+                largeAttachment = readYesNo(description, equals + 1);
+            } else if (originalBase64 == null && keyEndsAt(description, ORIGINAL_BASE64_KEY, equals)) {
+                originalBase64 = readYesNo(description, equals + 1);
+            }
+
+            if (length == null && keyEndsAt(description, LENGTH_KEY, equals)) {
+                length = readValue(description, equals + 1, false);
+            }
+        }
+
+        return new AttachmentDescriptor(description, filename, contentType, compressed, largeAttachment, originalBase64,
+            parseLength(length), containsSkeletonProperty(description));
+    }
+
+    public boolean hasFilename() {
+        return filename != null;
+    }
+
+    /**
+     * EMIS descriptions carry only the file name, with no {@code Filename} or {@code Compressed} fields.
+     */
+    public boolean isEmisStyle() {
+        return filename == null && compressed == null;
+    }
+
+    public String getFilename() throws ParseException {
+        return require(filename, "Unable to parse originalFilename field in description");
+    }
+
+    /**
+     * Fragment descriptions do not always carry a {@code Filename} field, in which case the whole description is used.
+     */
+    public String getFilenameOrDescription() {
+        return filename != null ? filename : description;
+    }
+
+    public String getContentType() throws ParseException {
+        return require(contentType, "Unable to parse ContentType");
+    }
+
+    public boolean isCompressed() throws ParseException {
+        return require(compressed, "Unable to parse isCompressed field in description");
+    }
+
+    public boolean isLargeAttachment() throws ParseException {
+        return require(largeAttachment, "Unable to parse isLargeAttachment");
+    }
+
+    public boolean isOriginalBase64() throws ParseException {
+        return require(originalBase64, "Unable to parse isBase64");
+    }
+
+    public boolean isSkeleton() {
+        return skeleton;
+    }
+
+    private static <T> T require(T value, String errorMessage) throws ParseException {
+        if (value == null) {
+            throw new ParseException(errorMessage, 0);
+        }
+        return value;
+    }
+
+    private static boolean keyEndsAt(String description, String key, int equals) {
+        return equals >= key.length() && description.regionMatches(equals - key.length(), key, 0, key.length());
+    }
+
+    // matches "([\S]{1}[^"]*)" - a quote, at least one non-whitespace character, then everything up to the closing quote
+    private static String readQuotedValue(String description, int start) {
+        if (start + 1 >= description.length() || description.charAt(start) != '"' || isWhitespace(description.charAt(start + 1))) {
+            return null;
+        }
+
+        int closingQuote = description.indexOf('"', start + 2);
+        return closingQuote < 0 ? null : description.substring(start + 1, closingQuote);
+    }
+
+    // matches ([A-Za-z\d\-/.]*) for content types and ([\d]*) otherwise
+    private static String readValue(String description, int start, boolean isContentType) {
+        int end = start;
+        while (end < description.length() && isValueCharacter(description.charAt(end), isContentType)) {
+            end++;
+        }
+        return description.substring(start, end);
+    }
+
+    private static Boolean readYesNo(String description, int start) {
+        if (description.startsWith(YES, start)) {
+            return true;
+        }
+        return description.startsWith(NO, start) ? false : null;
+    }
+
+    private static int parseLength(String length) {
+        if (length == null) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(length);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // equivalent to description.replaceAll("\\s+", "").toLowerCase().contains(SKELETON_PROPERTY) without building either string
+    private static boolean containsSkeletonProperty(String description) {
+        for (int start = 0; start < description.length(); start++) {
+            if (isWhitespace(description.charAt(start))) {
+                continue;
+            }
+
+            int matched = 0;
+            for (int i = start; i < description.length() && matched < SKELETON_PROPERTY.length(); i++) {
+                char character = description.charAt(i);
+                if (isWhitespace(character)) {
+                    continue;
+                }
+                if (Character.toLowerCase(character) != SKELETON_PROPERTY.charAt(matched)) {
+                    break;
+                }
+                matched++;
+            }
+
+            if (matched == SKELETON_PROPERTY.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isValueCharacter(char character, boolean isContentType) {
+        boolean isDigit = character >= '0' && character <= '9';
+        if (!isContentType) {
+            return isDigit;
+        }
+        return isDigit || character >= 'A' && character <= 'Z' || character >= 'a' && character <= 'z'
+            || character == '-' || character == '/' || character == '.';
+    }
+
+    // the characters matched by \s in a java.util.regex.Pattern
+    private static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\t' || character == '\n' || character == '\u000B' || character == '\f'
+            || character == '\r';
+    }
+}
@@ -5,7 +5,6 @@ import java.text.ParseException;
 import lombok.Builder;
 import lombok.Getter;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
-import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
 
 @Getter
 @Builder
@@ -23,30 +22,32 @@ public class InlineAttachment {
             throw new ParseException("Unable to parse NULL description", 0);
         }
 
+        AttachmentDescriptor descriptor = AttachmentDescriptor.parse(attachment.getDescription());
+
         return InlineAttachment.builder()
-                .originalFilename(parseFilename(attachment.getDescription()))
+                .originalFilename(parseFilename(descriptor))
                 .contentType(attachment.getContentType())
-                .isCompressed(parseCompressed(attachment.getDescription()))
+                .isCompressed(parseCompressed(descriptor))
                 .isBase64(Boolean.parseBoolean(attachment.getIsBase64()))
                 .description(attachment.getDescription())
                 .payload(attachment.getPayload())
-                .length(XmlParseUtilService.parseFileLength(attachment.getDescription()))
+                .length(descriptor.getLength())
                 .build();
     }
 
-    private static String parseFilename(String description) throws ParseException {
-        if (XmlParseUtilService.isDescriptionEmisStyle(description)) {
-            return description;
+    private static String parseFilename(AttachmentDescriptor descriptor) throws ParseException {
+        if (descriptor.isEmisStyle()) {
+            return descriptor.getDescription();
         }
 
-        return XmlParseUtilService.parseFilename(description);
+        return descriptor.getFilename();
     }
 
-    private static boolean parseCompressed(String description) throws ParseException {
-        if (XmlParseUtilService.isDescriptionEmisStyle(description)) {
+    private static boolean parseCompressed(AttachmentDescriptor descriptor) throws ParseException {
+        if (descriptor.isEmisStyle()) {
             return false;
         }
 
-        return XmlParseUtilService.parseCompressed(description);
+        return descriptor.isCompressed();
     }
 }
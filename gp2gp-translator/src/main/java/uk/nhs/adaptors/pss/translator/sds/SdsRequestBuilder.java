@@ -4,15 +4,12 @@ import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import io.netty.handler.ssl.SslContext;
 import lombok.RequiredArgsConstructor;
-import reactor.netty.http.client.HttpClient;
 import uk.nhs.adaptors.pss.translator.config.SdsConfiguration;
-import uk.nhs.adaptors.pss.translator.service.RequestBuilderService;
 
 @Component
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -29,13 +26,12 @@ public class SdsRequestBuilder {
     private static final String CORRELATION_ID = "X-Correlation-Id";
     private static final String API_KEY_HEADER = "apikey";
 
-    private final RequestBuilderService requestBuilderService;
+    @Qualifier("sdsWebClient")
+    private final WebClient sdsWebClient;
     private final SdsConfiguration sdsConfiguration;
 
     public WebClient.RequestHeadersSpec<?> buildEndpointGetRequest(String messageType, String nhsMhsPartyKey, String conversationId) {
-        WebClient client = fetchWebClient();
-
-        WebClient.RequestBodySpec uri = client.method(GET).uri(
+        WebClient.RequestBodySpec uri = sdsWebClient.method(GET).uri(
             uriBuilder -> uriBuilder
                 .path(ROUTING_AND_READABILITY_ENDPOINT)
                 .queryParam(IDENTIFIER_HEADER, INTERACTION_ID_IDENTIFIER.concat(messageType))
@@ -50,9 +46,7 @@ public class SdsRequestBuilder {
     }
 
     public WebClient.RequestHeadersSpec<?> buildDeviceGetRequest(String messageType, String odsCode, String conversationId) {
-        WebClient client = fetchWebClient();
-
-        WebClient.RequestBodySpec uri = client.method(GET).uri(
+        WebClient.RequestBodySpec uri = sdsWebClient.method(GET).uri(
             uriBuilder -> uriBuilder
                 .path(ACCREDITED_SYSTEMS_INFORMATION_DEVICE_ENDPOINT)
                 .queryParam(IDENTIFIER_HEADER, INTERACTION_ID_IDENTIFIER.concat(messageType))
@@ -65,19 +59,4 @@ public class SdsRequestBuilder {
             .header(CORRELATION_ID, conversationId)
             .header(API_KEY_HEADER, sdsConfiguration.getApikey());
     }
-
-    private WebClient fetchWebClient() {
-        SslContext sslContext = requestBuilderService.buildSSLContext();
-        HttpClient httpClient = HttpClient.create().secure(t -> t.sslContext(sslContext));
-        return buildWebClient(httpClient);
-    }
-
-
-    private WebClient buildWebClient(HttpClient httpClient) {
-        return WebClient
-            .builder()
-            .clientConnector(new ReactorClientHttpConnector(httpClient))
-            .baseUrl(sdsConfiguration.getUrl())
-            .build();
-    }
 }
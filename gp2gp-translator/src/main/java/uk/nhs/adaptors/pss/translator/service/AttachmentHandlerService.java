@@ -1,5 +1,9 @@
 package uk.nhs.adaptors.pss.translator.service;
 
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.ATTACHMENT_DECODE;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.ATTACHMENT_DECOMPRESS;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.ATTACHMENT_UPLOAD;
+
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -20,6 +24,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.InlineAttachment;
 import uk.nhs.adaptors.pss.translator.storage.StorageDataUploadWrapper;
@@ -32,6 +37,7 @@ import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
 public class AttachmentHandlerService {
 
     private final StorageManagerService storageManagerService;
+    private final PipelineMetrics pipelineMetrics;
 
     public void storeAttachments(List<InboundMessage.Attachment> attachments, String conversationId) throws ValidationException,
                                                                                                     InlineAttachmentProcessingException {
@@ -48,18 +54,15 @@ public class AttachmentHandlerService {
                 try {
                     InlineAttachment inlineAttachment = InlineAttachment.fromInboundMessageAttachment(attachment);
 
-                    if (inlineAttachment.isBase64()) {
-                        decodedPayload = Base64.getMimeDecoder().decode(inlineAttachment.getPayload());
-                    } else {
-                        decodedPayload = inlineAttachment.getPayload().getBytes(StandardCharsets.UTF_8);
-                    }
+                    decodedPayload = pipelineMetrics.time(ATTACHMENT_DECODE, () -> decode(inlineAttachment));
 
                     if (inlineAttachment.isCompressed()) {
-                        GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(decodedPayload));
-                        payload = inputStream.readAllBytes();
+                        byte[] compressedPayload = decodedPayload;
+                        payload = pipelineMetrics.time(ATTACHMENT_DECOMPRESS, () -> decompress(compressedPayload));
                     } else {
                         payload = decodedPayload;
                     }
+                    pipelineMetrics.recordAttachmentSize(payload.length);
 
                     StorageDataUploadWrapper dataWrapper = new StorageDataUploadWrapper(
                         attachment.getContentType(),
@@ -68,7 +71,7 @@ public class AttachmentHandlerService {
                     );
 
                     String filename = inlineAttachment.getOriginalFilename();
-                    storageManagerService.uploadFile(filename, dataWrapper, conversationId);
+                    pipelineMetrics.run(ATTACHMENT_UPLOAD, () -> storageManagerService.uploadFile(filename, dataWrapper, conversationId));
 
                 } catch (StorageException ex) {
                     throw new InlineAttachmentProcessingException("Unable to upload inline attachment to storage: " + ex.getMessage(), ex);
@@ -104,13 +107,26 @@ public class AttachmentHandlerService {
         );
 
         try {
-            storageManagerService.uploadFile(fileName, dataWrapper, conversationId);
+            pipelineMetrics.run(ATTACHMENT_UPLOAD, () -> storageManagerService.uploadFile(fileName, dataWrapper, conversationId));
         } catch (StorageException ex) {
             throw new InlineAttachmentProcessingException("Unable to upload inline attachment to storage without processing: "
                 + ex.getMessage(), ex);
         }
     }
 
+    private static byte[] decode(InlineAttachment inlineAttachment) {
+        if (inlineAttachment.isBase64()) {
+            return Base64.getMimeDecoder().decode(inlineAttachment.getPayload());
+        }
+        return inlineAttachment.getPayload().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] decompress(byte[] compressedPayload) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressedPayload))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
     public byte[] getAttachment(String filename, String conversationId) {
         if (!StringUtils.hasText(filename)) {
             throw new IllegalArgumentException("filename must not be empty");
@@ -1,10 +1,13 @@
 package uk.nhs.adaptors.pss.translator.service;
 
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.REFERENCE_REWRITE;
+
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -20,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.InlineAttachment;
 import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
@@ -30,7 +34,10 @@ import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class AttachmentReferenceUpdaterService {
 
+    private static final String PENDING_LOCATION_PREFIX = "urn:pss-adaptor:pending-attachment:";
+
     private final StorageManagerService storageManagerService;
+    private final PipelineMetrics pipelineMetrics;
 
     public String replaceOriginalFilenameWithStorageFilenameInEhrExtract(
             List<InboundMessage.Attachment> attachments,
@@ -38,6 +45,45 @@ public class AttachmentReferenceUpdaterService {
             String ehrExtract)
             throws ValidationException, AttachmentNotFoundException, InlineAttachmentProcessingException {
 
+        var timing = pipelineMetrics.start(REFERENCE_REWRITE);
+        try {
+            return replaceReferences(attachments, conversationId, ehrExtract,
+                filename -> storageManagerService.getFileLocation(filename, conversationId));
+        } finally {
+            timing.stop();
+        }
+    }
+
+    /**
+     * As {@link #replaceOriginalFilenameWithStorageFilenameInEhrExtract}, but for an extract mapped before its attachments
+     * arrive. Storage locations can expire, so each reference is replaced with a pending location that
+     * {@link #resolvePendingLocation} turns into the storage location once the bundle is complete.
+     */
+    public String replaceOriginalFilenameWithPendingLocationInEhrExtract(
+            List<InboundMessage.Attachment> attachments,
+            String conversationId,
+            String ehrExtract)
+            throws ValidationException, AttachmentNotFoundException, InlineAttachmentProcessingException {
+
+        var timing = pipelineMetrics.start(REFERENCE_REWRITE);
+        try {
+            return replaceReferences(attachments, conversationId, ehrExtract, filename -> PENDING_LOCATION_PREFIX + filename);
+        } finally {
+            timing.stop();
+        }
+    }
+
+    public String resolvePendingLocation(String location, String conversationId) {
+        if (location == null || !location.startsWith(PENDING_LOCATION_PREFIX)) {
+            return location;
+        }
+        return storageManagerService.getFileLocation(location.substring(PENDING_LOCATION_PREFIX.length()), conversationId);
+    }
+
+    private String replaceReferences(List<InboundMessage.Attachment> attachments, String conversationId, String ehrExtract,
+            UnaryOperator<String> locationOfFile)
+            throws ValidationException, AttachmentNotFoundException, InlineAttachmentProcessingException {
+
         if (conversationId == null || conversationId.isEmpty()) {
             throw new ValidationException("ConversationId cannot be null or empty");
         }
@@ -62,7 +108,7 @@ public class AttachmentReferenceUpdaterService {
 
             if (expectedFilenames.contains(decodedFilename)) {
 
-                String fileLocation = storageManagerService.getFileLocation(decodedFilename, conversationId);
+                String fileLocation = locationOfFile.apply(decodedFilename);
                 String updatedReferenceElement = wrapWithReferenceElement(xmlEscape(fileLocation));
 
                 resultPayload = resultPayload.replace(originalFilenameMatch.group(0), updatedReferenceElement);
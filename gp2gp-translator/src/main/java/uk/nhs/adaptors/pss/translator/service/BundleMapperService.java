@@ -1,6 +1,7 @@
 package uk.nhs.adaptors.pss.translator.service;
 
 
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.BUNDLE_MAPPING;
 import static uk.nhs.adaptors.pss.translator.util.OrganizationUtil.organisationIsNotDuplicate;
 
 import java.util.Collection;
@@ -10,9 +11,11 @@ import java.util.stream.Collectors;
 import java.util.TreeSet;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.function.UnaryOperator;
 
 import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.dstu3.model.DocumentReference;
 import org.hl7.fhir.dstu3.model.DomainResource;
 import org.hl7.fhir.dstu3.model.Encounter;
 import org.hl7.fhir.dstu3.model.ListResource;
@@ -55,6 +58,7 @@ import uk.nhs.adaptors.pss.translator.mapper.diagnosticreport.SpecimenMapper;
 import uk.nhs.adaptors.pss.translator.mapper.TemplateMapper;
 import uk.nhs.adaptors.pss.translator.mapper.UnknownPractitionerHandler;
 import uk.nhs.adaptors.pss.translator.mapper.medication.MedicationRequestMapper;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @Slf4j
 @Service
@@ -88,98 +92,139 @@ public class BundleMapperService {
     private final SpecimenMapper specimenMapper;
     private final SpecimenCompoundsMapper specimenCompoundsMapper;
     private final DuplicateObservationStatementMapper duplicateObservationStatementMapper;
+    private final PipelineMetrics pipelineMetrics;
 
     public Bundle mapToBundle(RCMRIN030000UKMessage xmlMessage, String losingPracticeOdsCode,
                               List<PatientAttachmentLog> attachments) throws BundleMappingException {
+        var timing = pipelineMetrics.start(BUNDLE_MAPPING);
         try {
 
             Bundle bundle = generator.generateBundle();
             final RCMRMT030101UKEhrExtract ehrExtract = getEhrExtract(xmlMessage);
-            duplicateObservationStatementMapper.mergeDuplicateObservationStatements(ehrExtract);
+            pipelineMetrics.runMapper(duplicateObservationStatementMapper,
+                () -> duplicateObservationStatementMapper.mergeDuplicateObservationStatements(ehrExtract));
             final RCMRMT030101UKEhrFolder ehrFolder = getEhrFolder(xmlMessage);
 
-            var locations = mapLocations(ehrFolder, losingPracticeOdsCode);
+            var locations = pipelineMetrics.timeMapper(locationMapper, () -> mapLocations(ehrFolder, losingPracticeOdsCode));
 
-            var agents = mapAgentDirectories(ehrFolder);
-            var patient = mapPatient(getEhrExtract(xmlMessage), getPatientOrganization(agents));
+            var agents = pipelineMetrics.timeMapper(agentDirectoryMapper, () -> mapAgentDirectories(ehrFolder));
+            var patient = pipelineMetrics.timeMapper(patientMapper,
+                () -> mapPatient(getEhrExtract(xmlMessage), getPatientOrganization(agents)));
             addEntry(bundle, patient);
 
-            Organization authorOrg = organizationMapper.mapAuthorOrganization(losingPracticeOdsCode, agents);
+            Organization authorOrg = pipelineMetrics.timeMapper(organizationMapper,
+                () -> organizationMapper.mapAuthorOrganization(losingPracticeOdsCode, agents));
             if (documentReferenceMapper.hasDocumentReferences(ehrExtract) && organisationIsNotDuplicate(authorOrg, agents)) {
                 addEntry(bundle, authorOrg);
             }
             addEntries(bundle, agents);
 
-            var mappedEncounterEhrCompositions = mapEncounters(ehrExtract, patient, losingPracticeOdsCode, locations);
+            var mappedEncounterEhrCompositions = pipelineMetrics.timeMapper(encounterMapper,
+                () -> mapEncounters(ehrExtract, patient, losingPracticeOdsCode, locations));
             var encounters = handleMappedEncounterResources(mappedEncounterEhrCompositions, bundle);
 
             addEntries(bundle, locations);
 
-            var procedureRequests = procedureRequestMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var procedureRequests = pipelineMetrics.timeMapper(procedureRequestMapper,
+                () -> procedureRequestMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, procedureRequests);
 
-            var referralRequests = referralRequestMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var referralRequests = pipelineMetrics.timeMapper(referralRequestMapper,
+                () -> referralRequestMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, referralRequests);
 
-            var medicationResources = medicationRequestMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var medicationResources = pipelineMetrics.timeMapper(medicationRequestMapper,
+                () -> medicationRequestMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, medicationResources);
 
-            var bloodPressures = bloodPressureMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var bloodPressures = pipelineMetrics.timeMapper(bloodPressureMapper,
+                () -> bloodPressureMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, bloodPressures);
 
-            var observations = observationMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var observations = pipelineMetrics.timeMapper(observationMapper,
+                () -> observationMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, observations);
 
-            var immunizations = immunizationMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var immunizations = pipelineMetrics.timeMapper(immunizationMapper,
+                () -> immunizationMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, immunizations);
 
-            var conditions = conditionMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var conditions = pipelineMetrics.timeMapper(conditionMapper,
+                () -> conditionMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, conditions);
 
-            var observationComments = observationCommentMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var observationComments = pipelineMetrics.timeMapper(observationCommentMapper,
+                () -> observationCommentMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
 
-            var documentReferences = documentReferenceMapper.mapResources(ehrExtract, patient, encounters, authorOrg, attachments);
+            var documentReferences = pipelineMetrics.timeMapper(documentReferenceMapper,
+                () -> documentReferenceMapper.mapResources(ehrExtract, patient, encounters, authorOrg, attachments));
             addEntries(bundle, documentReferences);
 
-            var templates = templateMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var templates = pipelineMetrics.timeMapper(templateMapper,
+                () -> templateMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, templates);
 
-            var allergyIntolerances = allergyIntoleranceMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode);
+            var allergyIntolerances = pipelineMetrics.timeMapper(allergyIntoleranceMapper,
+                () -> allergyIntoleranceMapper.mapResources(ehrExtract, patient, encounters, losingPracticeOdsCode));
             addEntries(bundle, allergyIntolerances);
 
             mapDiagnosticReports(bundle, ehrExtract, patient, encounters, observations, observationComments, losingPracticeOdsCode);
 
-            conditionMapper.addReferences(bundle, conditions, ehrExtract);
-            conditionMapper.addHierarchyReferencesToConditions(conditions, ehrExtract);
-            unknownPractitionerHandler.updateUnknownPractitionersRefs(bundle);
-            templateMapper.addReferences(templates, observations, ehrExtract);
-
+            pipelineMetrics.runMapper(conditionMapper, () -> {
+                conditionMapper.addReferences(bundle, conditions, ehrExtract);
+                conditionMapper.addHierarchyReferencesToConditions(conditions, ehrExtract);
+            });
+            pipelineMetrics.runMapper(unknownPractitionerHandler,
+                () -> unknownPractitionerHandler.updateUnknownPractitionersRefs(bundle));
+            pipelineMetrics.runMapper(templateMapper, () -> templateMapper.addReferences(templates, observations, ehrExtract));
 
             LOGGER.debug("Mapped Bundle with [{}] entries", bundle.getEntry().size());
+            pipelineMetrics.recordBundleEntries(bundle.getEntry().size());
 
             return bundle;
         } catch (Exception e) {
             e.printStackTrace();
             throw new BundleMappingException(e.getMessage());
+        } finally {
+            timing.stop();
         }
     }
 
+    /**
+     * Finishes a bundle mapped before its attachments arrived, by resolving the attachment URLs of its document references
+     * and filling in their sizes. Nothing else in the bundle depends on the attachments.
+     */
+    public void updateAttachments(Bundle bundle, UnaryOperator<String> resolveUrl, List<PatientAttachmentLog> attachments) {
+        var documentReferences = bundle.getEntry().stream()
+            .map(BundleEntryComponent::getResource)
+            .filter(DocumentReference.class::isInstance)
+            .map(DocumentReference.class::cast)
+            .toList();
+        pipelineMetrics.runMapper(documentReferenceMapper,
+            () -> documentReferenceMapper.updateAttachments(documentReferences, resolveUrl, attachments));
+    }
+
     private void mapDiagnosticReports(Bundle bundle, RCMRMT030101UKEhrExtract ehrExtract, Patient patient, List<Encounter> encounters,
                                       List<Observation> observations, List<Observation> observationComments, String practiceCode) {
-        var diagnosticReports = diagnosticReportMapper.mapResources(ehrExtract, patient, encounters, practiceCode, observationComments);
-
-        diagnosticReportMapper.handleChildObservationComments(ehrExtract, observationComments);
-
-        var specimens = specimenMapper.mapSpecimens(ehrExtract, diagnosticReports, patient, practiceCode);
+        var diagnosticReports = pipelineMetrics.timeMapper(diagnosticReportMapper, () -> {
+            var reports = diagnosticReportMapper.mapResources(ehrExtract, patient, encounters, practiceCode, observationComments);
+            diagnosticReportMapper.handleChildObservationComments(ehrExtract, observationComments);
+            return reports;
+        });
+
+        var specimens = pipelineMetrics.timeMapper(specimenMapper,
+            () -> specimenMapper.mapSpecimens(ehrExtract, diagnosticReports, patient, practiceCode));
         addEntries(bundle, diagnosticReports);
         addEntries(bundle, specimens);
 
-        observationComments = specimenMapper.removeSurplusObservationComments(ehrExtract, observationComments);
+        var remainingObservationComments = pipelineMetrics.timeMapper(specimenMapper,
+            () -> specimenMapper.removeSurplusObservationComments(ehrExtract, observationComments));
 
-        var batteryObservations = specimenCompoundsMapper.handleSpecimenChildComponents(ehrExtract, observations, observationComments,
-            diagnosticReports, patient, encounters, practiceCode);
+        var batteryObservations = pipelineMetrics.timeMapper(specimenCompoundsMapper,
+            () -> specimenCompoundsMapper.handleSpecimenChildComponents(ehrExtract, observations, remainingObservationComments,
+                diagnosticReports, patient, encounters, practiceCode));
 
-        addEntries(bundle, observationComments);
+        addEntries(bundle, remainingObservationComments);
         addEntries(bundle, batteryObservations);
     }
 
@@ -2,6 +2,10 @@ package uk.nhs.adaptors.pss.translator.service;
 
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_TRANSLATED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.MIGRATION_COMPLETED;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.DB_PERSIST;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.FHIR_ENCODE;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.FHIR_PARSE;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.JAXB_UNMARSHAL;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.EHR_EXTRACT_CANNOT_BE_PROCESSED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED;
 import static uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil.unmarshallString;
@@ -14,6 +18,7 @@ import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.ValidationException;
 import javax.xml.transform.TransformerException;
 
+import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.v3.RCMRIN030000UKMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -34,7 +39,9 @@ import uk.nhs.adaptors.connector.service.PatientAttachmentLogService;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
 
 @Slf4j
 @Service
@@ -51,8 +58,11 @@ public class InboundMessageMergingService {
     private final PatientMigrationRequestDao migrationRequestDao;
     private final NackAckPrepInterface nackAckPreparationService;
     private final SkeletonProcessingService skeletonProcessingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final InboundMessageUtil inboundMessageUtil;
 
     private static final String CONVERSATION_ID_HAS_NOT_BEEN_GIVEN = "Conversation Id has not been given";
+    private static final String BUNDLE_PAYLOAD = "bundle";
 
     public boolean canMergeCompleteBundle(String conversationId) throws ValidationException {
 
@@ -71,61 +81,133 @@ public class InboundMessageMergingService {
         }
 
         PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequest(conversationId);
-        var inboundMessage = objectMapper.readValue(migrationRequest.getInboundMessage(), InboundMessage.class);
-        RCMRIN030000UKMessage payload = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
+        if (migrationRequest.getBundleResource() != null) {
+            LOGGER.info("Bundle has already been created for conversation_id=[{}], skipping merge", conversationId);
+            return;
+        }
+
+        // the inline attachments were stored when the EHR extract arrived, so their content is not needed to merge
+        var inboundMessage = inboundMessageUtil.readMessageWithoutAttachmentPayloads(migrationRequest.getInboundMessage());
 
         try {
             var attachmentLogs = getUndeletedLogsForConversation(conversationId);
-
-            Optional<PatientAttachmentLog> skeletonLog = attachmentLogs.stream()
-                .filter(PatientAttachmentLog::getSkeleton).findFirst();
-
-            if (skeletonLog.isPresent()) {
-                inboundMessage = skeletonProcessingService
-                    .updateInboundMessageWithSkeleton(skeletonLog.get(), inboundMessage, conversationId);
-            }
+            inboundMessage = mergeSkeleton(inboundMessage, attachmentLogs, conversationId);
 
             // process attachments
-            var bypassPayloadLoadingArray = new String[attachmentLogs.size()];
-            Arrays.fill(bypassPayloadLoadingArray, "");
-
-            var messageAttachments = attachmentHandlerService.buildInboundAttachmentsFromAttachmentLogs(
-                    attachmentLogs,
-                    Arrays.asList(bypassPayloadLoadingArray),
-                    conversationId
-            );
             var newPayloadStr = attachmentReferenceUpdaterService.replaceOriginalFilenameWithStorageFilenameInEhrExtract(
-                    messageAttachments,
+                    buildMessageAttachments(attachmentLogs, conversationId),
                     conversationId,
                     inboundMessage.getPayload()
             );
-
-            // process bundle
             inboundMessage.setPayload(newPayloadStr);
-            payload = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
 
             var attachments = patientAttachmentLogService.findAttachmentLogs(conversationId);
 
-            var bundle = bundleMapperService.mapToBundle(payload, migrationRequest.getLosingPracticeOdsCode(), attachments);
-            migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(
+            Bundle bundle;
+            String preMappedBundle = migrationRequest.getPreMappedBundleResource();
+            if (preMappedBundle != null) {
+                // mapped when the EHR extract arrived, so only the attachments were waiting on the COPC messages
+                bundle = pipelineMetrics.time(FHIR_PARSE, () -> fhirParser.parseResource(preMappedBundle, Bundle.class));
+                bundleMapperService.updateAttachments(bundle,
+                    location -> attachmentReferenceUpdaterService.resolvePendingLocation(location, conversationId), attachments);
+            } else {
+                RCMRIN030000UKMessage payload = unmarshallEhrExtract(inboundMessage.getPayload());
+                bundle = bundleMapperService.mapToBundle(payload, migrationRequest.getLosingPracticeOdsCode(), attachments);
+            }
+
+            String bundleJson = encodeBundle(bundle);
+            String inboundMessageJson = objectMapper.writeValueAsString(inboundMessage);
+
+            pipelineMetrics.run(DB_PERSIST, () -> migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(
                     conversationId,
-                    fhirParser.encodeToJson(bundle),
-                    objectMapper.writeValueAsString(inboundMessage),
+                    bundleJson,
+                    inboundMessageJson,
                     EHR_EXTRACT_TRANSLATED,
                     null
-            );
+            ));
             migrationStatusLogService.addMigrationStatusLog(MIGRATION_COMPLETED, conversationId, null, null);
 
         } catch (InlineAttachmentProcessingException | SAXException | TransformerException
                  | JAXBException | AttachmentNotFoundException | JsonProcessingException e) {
 
             LOGGER.error("failed to merge Large Message Parts", e);
-            nackAckPreparationService.sendNackMessage(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED, payload, conversationId);
+            nackAckPreparationService.sendNackMessage(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED, migrationRequest);
 
         } catch (BundleMappingException e) {
             LOGGER.error("failed to map to bundle", e);
-            nackAckPreparationService.sendNackMessage(EHR_EXTRACT_CANNOT_BE_PROCESSED, payload, conversationId);
+            nackAckPreparationService.sendNackMessage(EHR_EXTRACT_CANNOT_BE_PROCESSED, migrationRequest);
+        }
+    }
+
+    /**
+     * Maps the bundle of a large EHR extract while its COPC messages are still arriving, so that {@link #mergeAndBundleMessage}
+     * only has to fill in the attachment URLs and sizes. Extracts still waiting on a skeleton are left to be mapped in full at
+     * merge time, as are any that fail to map here, so that the merge reports the failure.
+     */
+    public void preMapBundle(String conversationId) throws ValidationException {
+
+        var attachmentLogs = getUndeletedLogsForConversation(conversationId);
+        boolean skeletonPending = attachmentLogs.stream()
+            .anyMatch(log -> Boolean.TRUE.equals(log.getSkeleton()) && !Boolean.TRUE.equals(log.getUploaded()));
+        if (skeletonPending) {
+            LOGGER.info("Skeleton has not arrived for conversation_id=[{}], bundle will be mapped at merge", conversationId);
+            return;
+        }
+
+        try {
+            PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequest(conversationId);
+            var inboundMessage = mergeSkeleton(
+                inboundMessageUtil.readMessageWithoutAttachmentPayloads(migrationRequest.getInboundMessage()), attachmentLogs,
+                conversationId);
+            var pendingPayload = attachmentReferenceUpdaterService.replaceOriginalFilenameWithPendingLocationInEhrExtract(
+                buildMessageAttachments(attachmentLogs, conversationId),
+                conversationId,
+                inboundMessage.getPayload()
+            );
+
+            var payload = unmarshallEhrExtract(pendingPayload);
+            var attachments = patientAttachmentLogService.findAttachmentLogs(conversationId);
+            var bundle = bundleMapperService.mapToBundle(payload, migrationRequest.getLosingPracticeOdsCode(), attachments);
+
+            String bundleJson = encodeBundle(bundle);
+            pipelineMetrics.run(DB_PERSIST, () -> migrationRequestDao.savePreMappedBundle(conversationId, bundleJson));
+        } catch (Exception e) {
+            LOGGER.warn("Unable to map bundle ahead of attachments for conversation_id=[{}], bundle will be mapped at merge",
+                conversationId, e);
+        }
+    }
+
+    private InboundMessage mergeSkeleton(InboundMessage inboundMessage, List<PatientAttachmentLog> attachmentLogs,
+        String conversationId) throws SAXException, TransformerException {
+
+        Optional<PatientAttachmentLog> skeletonLog = attachmentLogs.stream()
+            .filter(PatientAttachmentLog::getSkeleton).findFirst();
+
+        if (skeletonLog.isPresent()) {
+            return skeletonProcessingService.updateInboundMessageWithSkeleton(skeletonLog.get(), inboundMessage, conversationId);
         }
+        return inboundMessage;
+    }
+
+    private List<InboundMessage.Attachment> buildMessageAttachments(List<PatientAttachmentLog> attachmentLogs, String conversationId) {
+        var bypassPayloadLoadingArray = new String[attachmentLogs.size()];
+        Arrays.fill(bypassPayloadLoadingArray, "");
+
+        return attachmentHandlerService.buildInboundAttachmentsFromAttachmentLogs(
+                attachmentLogs,
+                Arrays.asList(bypassPayloadLoadingArray),
+                conversationId
+        );
+    }
+
+    private String encodeBundle(Bundle bundle) {
+        String bundleJson = pipelineMetrics.time(FHIR_ENCODE, () -> fhirParser.encodeToCompactJson(bundle));
+        pipelineMetrics.recordPayloadLength(BUNDLE_PAYLOAD, bundleJson.length());
+        return bundleJson;
+    }
+
+    private RCMRIN030000UKMessage unmarshallEhrExtract(String ehrExtract) throws JAXBException {
+        return pipelineMetrics.time(JAXB_UNMARSHAL, () -> unmarshallString(ehrExtract, RCMRIN030000UKMessage.class));
     }
 
     private List<PatientAttachmentLog> getUndeletedLogsForConversation(String conversationId) throws ValidationException {
@@ -1,16 +1,45 @@
 package uk.nhs.adaptors.pss.translator.service;
 
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.MHS_SEND;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import uk.nhs.adaptors.pss.translator.config.MhsOutboundConfiguration;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @Service
 @Slf4j
 public class MhsClientService {
 
-    public String send(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
-        LOGGER.info("Sending MHS Outbound Request");
-        return request.retrieve().bodyToMono(String.class).block();
+    private final OutboundRequestSender requestSender;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    public MhsClientService(MhsOutboundConfiguration mhsOutboundConfiguration, PipelineMetrics pipelineMetrics) {
+        this.requestSender = new OutboundRequestSender(mhsOutboundConfiguration.getRequest());
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Sends the request without blocking: the returned {@link Mono} emits the MHS response body, or the error left once the
+     * configured retries are used up.
+     */
+    public Mono<String> sendAsync(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
+        return Mono.defer(() -> {
+            LOGGER.info("Sending MHS Outbound Request");
+            var timing = pipelineMetrics.start(MHS_SEND);
+            return requestSender.send(request).doFinally(signal -> timing.stop());
+        });
+    }
+
+    /**
+     * Sends the request and blocks the calling thread until MHS has answered.
+     */
+    public String sendAndWait(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
+        return sendAsync(request).block();
     }
 }
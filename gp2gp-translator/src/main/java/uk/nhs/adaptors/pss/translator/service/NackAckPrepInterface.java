@@ -2,6 +2,11 @@ package uk.nhs.adaptors.pss.translator.service;
 
 import org.hl7.v3.COPCIN000001UK01Message;
 import org.hl7.v3.RCMRIN030000UKMessage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.xml.bind.JAXBException;
+import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
 import uk.nhs.adaptors.pss.translator.model.NACKReason;
 
@@ -17,7 +22,17 @@ public interface NackAckPrepInterface {
     NACKMessageData prepareNackMessageData(NACKReason reason, COPCIN000001UK01Message payload,
                                            String conversationId);
 
+    /**
+     * Prepares a NACK for the EHR extract of the given migration from the header fields saved when the extract was received,
+     * reading the extract back only for migrations received before those fields were saved.
+     */
+    NACKMessageData prepareNackMessageData(NACKReason reason, PatientMigrationRequest migrationRequest)
+        throws JsonProcessingException, JAXBException;
+
     boolean sendNackMessage(NACKReason reason, RCMRIN030000UKMessage payload, String conversationId);
 
+    boolean sendNackMessage(NACKReason reason, PatientMigrationRequest migrationRequest)
+        throws JsonProcessingException, JAXBException;
+
     boolean sendNackMessage(NACKReason reason, COPCIN000001UK01Message payload, String conversationId);
 }
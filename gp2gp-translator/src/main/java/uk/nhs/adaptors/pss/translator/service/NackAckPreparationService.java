@@ -2,20 +2,27 @@ package uk.nhs.adaptors.pss.translator.service;
 
 import static uk.nhs.adaptors.common.enums.MigrationStatus.COPC_ACKNOWLEDGED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.FINAL_ACK_SENT;
+import static uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil.unmarshallString;
 
 import org.hl7.v3.COPCIN000001UK01Message;
 import org.hl7.v3.RCMRIN030000UKMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.xml.bind.JAXBException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.pss.translator.model.ACKMessageData;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
+import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.NACKReason;
 import uk.nhs.adaptors.pss.translator.task.SendACKMessageHandler;
 import uk.nhs.adaptors.pss.translator.task.SendNACKMessageHandler;
+import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
 
 @Slf4j
@@ -26,6 +33,7 @@ public class NackAckPreparationService implements NackAckPrepInterface {
     private final SendNACKMessageHandler sendNACKMessageHandler;
     private final SendACKMessageHandler sendACKMessageHandler;
     private final MigrationStatusLogService migrationStatusLogService;
+    private final InboundMessageUtil inboundMessageUtil;
 
     public boolean sendAckMessage(RCMRIN030000UKMessage payload, String conversationId) {
 
@@ -126,6 +134,25 @@ public class NackAckPreparationService implements NackAckPrepInterface {
                 .build();
     }
 
+    public NACKMessageData prepareNackMessageData(NACKReason reason, PatientMigrationRequest migrationRequest)
+        throws JsonProcessingException, JAXBException {
+
+        if (migrationRequest.getEhrExtractMessageRef() == null) {
+            InboundMessage inboundMessage = inboundMessageUtil.readMessageWithoutAttachmentPayloads(migrationRequest.getInboundMessage());
+            RCMRIN030000UKMessage payload = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
+            return prepareNackMessageData(reason, payload, migrationRequest.getConversationId());
+        }
+
+        return NACKMessageData.builder()
+                .conversationId(migrationRequest.getConversationId())
+                .nackCode(reason.getCode())
+                .toOdsCode(migrationRequest.getEhrExtractAuthorOdsCode())
+                .messageRef(migrationRequest.getEhrExtractMessageRef())
+                .toAsid(migrationRequest.getLosingPracticeAsid())
+                .fromAsid(migrationRequest.getWinningPracticeAsid())
+                .build();
+    }
+
     public boolean sendNackMessage(NACKReason reason, RCMRIN030000UKMessage payload, String conversationId) {
 
         LOGGER.debug("Sending NACK message with acknowledgement code [{}] for message EHR Extract message [{}]", reason.getCode(),
@@ -154,4 +181,18 @@ public class NackAckPreparationService implements NackAckPrepInterface {
         ));
     }
 
+    public boolean sendNackMessage(NACKReason reason, PatientMigrationRequest migrationRequest)
+        throws JsonProcessingException, JAXBException {
+
+        NACKMessageData messageData = prepareNackMessageData(reason, migrationRequest);
+
+        LOGGER.debug("Sending NACK message with acknowledgement code [{}] for message EHR Extract message [{}]", reason.getCode(),
+                messageData.getMessageRef());
+
+        migrationStatusLogService.addMigrationStatusLog(reason.getMigrationStatus(), messageData.getConversationId(), null,
+                reason.getCode());
+
+        return sendNACKMessageHandler.prepareAndSendMessage(messageData);
+    }
+
 }
@@ -0,0 +1,68 @@
+package uk.nhs.adaptors.pss.translator.service;
+
+import java.net.ConnectException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import uk.nhs.adaptors.pss.translator.config.OutboundRequestProperties;
+
+/**
+ * Sends WebClient requests without blocking, bounding the number of requests in flight. A request is only retried, with
+ * exponential backoff, when it was never sent: when it could not connect, or when too many requests were already in flight.
+ * The requests are not idempotent, so responses, read timeouts and other failures once a request may have reached the server
+ * are not retried. Once retries are exhausted the last failure is propagated unchanged, so callers keep seeing
+ * {@link WebClientResponseException} and {@link WebClientRequestException} as they would for a single attempt, and
+ * {@link RejectedExecutionException} if no request slot became free.
+ */
+public class OutboundRequestSender {
+
+    private final OutboundRequestProperties properties;
+    private final Semaphore inFlightPermits;
+
+    public OutboundRequestSender(OutboundRequestProperties properties) {
+        this.properties = properties;
+        this.inFlightPermits = new Semaphore(properties.getMaxInFlight());
+    }
+
+    public Mono<String> send(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
+        return Mono.usingWhen(
+                Mono.fromCallable(this::acquirePermit),
+                permit -> request.retrieve().bodyToMono(String.class),
+                permit -> Mono.fromRunnable(inFlightPermits::release))
+            .retryWhen(Retry.backoff(properties.getMaxRetries(), properties.getRetryBackoff())
+                .filter(OutboundRequestSender::isRetryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    public int getAvailablePermits() {
+        return inFlightPermits.availablePermits();
+    }
+
+    private boolean acquirePermit() {
+        if (!inFlightPermits.tryAcquire()) {
+            throw new InFlightLimitException(
+                "More than " + properties.getMaxInFlight() + " outbound requests in flight, unable to send request");
+        }
+        return true;
+    }
+
+    private static boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof InFlightLimitException) {
+            return true;
+        }
+        return throwable instanceof WebClientRequestException requestException
+            && requestException.getCause() instanceof ConnectException;
+    }
+
+    private static final class InFlightLimitException extends RejectedExecutionException {
+        private InFlightLimitException(String message) {
+            super(message);
+        }
+    }
+}
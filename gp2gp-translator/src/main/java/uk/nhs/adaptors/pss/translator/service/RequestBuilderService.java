@@ -6,6 +6,10 @@ import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import lombok.SneakyThrows;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import uk.nhs.adaptors.pss.translator.config.HttpClientPoolProperties;
+import uk.nhs.adaptors.pss.translator.config.OutboundRequestProperties;
 
 @Service
 public class RequestBuilderService {
@@ -23,4 +27,25 @@ public class RequestBuilderService {
             .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(BYTE_COUNT))
             .build();
     }
+
+    public ConnectionProvider buildConnectionProvider(String name, HttpClientPoolProperties pool) {
+        return ConnectionProvider.builder(name)
+            .maxConnections(pool.getMaxConnections())
+            .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .maxLifeTime(pool.getMaxLifeTime())
+            .evictInBackground(pool.getEvictInBackground())
+            .metrics(pool.isMetricsEnabled())
+            .build();
+    }
+
+    public HttpClient buildHttpClient(ConnectionProvider connectionProvider, HttpClientPoolProperties pool,
+        OutboundRequestProperties request) {
+        SslContext sslContext = buildSSLContext();
+        return HttpClient.create(connectionProvider)
+            .keepAlive(pool.isKeepAlive())
+            .responseTimeout(request.getResponseTimeout())
+            .secure(t -> t.sslContext(sslContext));
+    }
 }
@@ -62,7 +62,7 @@ public class SDSService {
 
         try {
             LOGGER.debug("Sending party key request to SDS");
-            return sdsClientService.send(request);
+            return sdsClientService.sendAndWait(request);
         } catch (WebClientResponseException e) {
             LOGGER.error("Received an ERROR response from SDS: [{}]", e.getMessage());
             throw new SdsRetrievalException(String.format("Error getting messageType [%s] info from SDS", messageType));
@@ -79,7 +79,7 @@ public class SDSService {
 
         try {
             LOGGER.debug("Sending persist duration request to SDS");
-            return sdsClientService.send(request);
+            return sdsClientService.sendAndWait(request);
         } catch (WebClientResponseException e) {
             LOGGER.error("Received an ERROR response from SDS: [{}]", e.getMessage());
             throw new SdsRetrievalException(String.format("Error getting messageType [%s] info from SDS", messageType));
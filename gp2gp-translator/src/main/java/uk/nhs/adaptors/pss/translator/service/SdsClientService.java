@@ -1,12 +1,30 @@
 package uk.nhs.adaptors.pss.translator.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import reactor.core.publisher.Mono;
+import uk.nhs.adaptors.pss.translator.config.SdsConfiguration;
+
 @Service
 public class SdsClientService {
 
-    public String send(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
-        return request.retrieve().bodyToMono(String.class).block();
+    private final OutboundRequestSender requestSender;
+
+    @Autowired
+    public SdsClientService(SdsConfiguration sdsConfiguration) {
+        this.requestSender = new OutboundRequestSender(sdsConfiguration.getRequest());
+    }
+
+    public Mono<String> sendAsync(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
+        return requestSender.send(request);
+    }
+
+    /**
+     * Sends the request and blocks the calling thread until SDS has answered.
+     */
+    public String sendAndWait(WebClient.RequestHeadersSpec<? extends WebClient.RequestHeadersSpec<?>> request) {
+        return sendAsync(request).block();
     }
 }
@@ -1,20 +1,25 @@
 package uk.nhs.adaptors.pss.translator.service;
 
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.SKELETON_MERGE;
+
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.EbxmlReference;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
+import uk.nhs.adaptors.pss.translator.util.XmlSpliceUtil;
 
 @Slf4j
 @Service
@@ -25,13 +30,18 @@ public class SkeletonProcessingService {
 
     private final AttachmentHandlerService attachmentHandlerService;
     private final XmlParseUtilService xmlParseUtilService;
-    private final XPathService xPathService;
-
+    private final PipelineMetrics pipelineMetrics;
 
     public InboundMessage updateInboundMessageWithSkeleton(PatientAttachmentLog skeletonLog,
         InboundMessage inboundMessage, String conversationId)
         throws SAXException, TransformerException {
 
+        return pipelineMetrics.time(SKELETON_MERGE, () -> mergeSkeleton(skeletonLog, inboundMessage, conversationId));
+    }
+
+    private InboundMessage mergeSkeleton(PatientAttachmentLog skeletonLog, InboundMessage inboundMessage, String conversationId)
+        throws TransformerException {
+
         // merge skeleton message into original payload
         var skeletonAttachment = attachmentHandlerService.getAttachment(
             skeletonLog.getFilename(), conversationId);
@@ -42,15 +52,14 @@ public class SkeletonProcessingService {
             // this behaviour is not a part of the specification but we have found this format in some messages
             var replaceEntirePayload = skeletonFileAsString
                 .substring(0, XML_CONCAT_CONSTANT_LENGTH).contains("<RCMR_IN030000UK06");
-            var skeletonExtractDocument = xPathService.parseDocumentFromXml(skeletonFileAsString);
 
             if (replaceEntirePayload) {
                 // replace the entire inbound message payload
-                inboundMessage.setPayload(xmlParseUtilService.getStringFromDocument(skeletonExtractDocument));
+                inboundMessage.setPayload(XmlSpliceUtil.copyDocument(skeletonFileAsString));
             } else {
                 // get ebxml references to find document id from skeleton message
                 inboundMessage = insertSkeletonIntoInboundMessagePayload(skeletonLog,
-                    inboundMessage, skeletonExtractDocument);
+                    inboundMessage, skeletonFileAsString);
             }
             return inboundMessage;
 
@@ -62,8 +71,8 @@ public class SkeletonProcessingService {
     }
 
     private InboundMessage insertSkeletonIntoInboundMessagePayload(PatientAttachmentLog skeletonLog,
-        InboundMessage inboundMessage, Document skeletonExtractDocument)
-        throws SAXException, TransformerException {
+        InboundMessage inboundMessage, String skeletonExtract)
+        throws SAXException, TransformerConfigurationException, XMLStreamException {
 
         List<EbxmlReference> attachmentReferenceDescription = xmlParseUtilService.getEbxmlAttachmentsData(inboundMessage);
         var ebxmlSkeletonReference = attachmentReferenceDescription
@@ -75,20 +84,11 @@ public class SkeletonProcessingService {
             throw new IllegalArgumentException("inboundMessage does not contain a skeleton attachment reference");
         }
 
+        // streams the payload, swapping in the skeleton for the element that references it, rather than editing a DOM of the
+        // whole payload; skeleton EHRs can run to hundreds of megabytes
         var skeletonDocumentId = ebxmlSkeletonReference.get().getDocumentId();
-        var payloadXml = xPathService.parseDocumentFromXml(inboundMessage.getPayload());
-        var valueNodes = xPathService.getNodes(payloadXml, "//*/@*[.='" + skeletonDocumentId + "']/parent::*/parent::*");
-        var payloadNodeToReplace = valueNodes.item(0);
-        var payloadNodeToReplaceParent = payloadNodeToReplace.getParentNode();
-
-        var skeletonExtractNodes = skeletonExtractDocument.getElementsByTagName("*");
-        var primarySkeletonNode = skeletonExtractNodes.item(0);
-
-        // using xPathServices breaks the xml document pointer, reset it
-        payloadXml = payloadNodeToReplaceParent.getOwnerDocument();
-        var importedToPayloadNode = payloadXml.importNode(primarySkeletonNode, true);
-        payloadNodeToReplaceParent.replaceChild(importedToPayloadNode, payloadNodeToReplace);
-        inboundMessage.setPayload(xmlParseUtilService.getStringFromDocument(payloadXml));
+        inboundMessage.setPayload(XmlSpliceUtil.replaceElementReferencing(inboundMessage.getPayload(), skeletonDocumentId,
+            skeletonExtract));
 
         return inboundMessage;
     }
@@ -0,0 +1,178 @@
+package uk.nhs.adaptors.pss.translator.storage;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores attachments as files below the directory named by the container name, for deployments without object storage.
+ * <p>
+ * Files are sharded by conversation, as {@code <root>/<first two characters of conversation id>/<conversation id>/<file name>},
+ * with names percent-encoded so that they cannot escape the root. Each upload is written to a temporary file in the target
+ * directory and renamed over the target, so readers see either the previous or the new content and never a partial file.
+ * With fsync enabled the file and its directory are flushed to disk before an upload returns.
+ */
+@Slf4j
+public class FileSystemStorageService implements StorageService {
+
+    private static final int SHARD_LENGTH = 2;
+    private static final char CONVERSATION_ID_SEPARATOR = '_';
+    private static final String UNSHARDED_DIRECTORY = "unsharded";
+    private static final String TEMP_FILE_PREFIX = ".";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path rootDirectory;
+    private final boolean fsync;
+
+    public FileSystemStorageService(StorageServiceConfiguration configuration) {
+        if (configuration.getContainerName() == null || configuration.getContainerName().isBlank()) {
+            throw new StorageException("The container name must be set to the root directory for File System Storage", null);
+        }
+
+        rootDirectory = Path.of(configuration.getContainerName()).toAbsolutePath().normalize();
+        fsync = configuration.isFsync();
+
+        try {
+            Files.createDirectories(rootDirectory);
+        } catch (IOException e) {
+            throw new StorageException("Unable to create File System Storage directory " + rootDirectory, e);
+        }
+    }
+
+    public void uploadFile(String filename, byte[] fileAsString) throws StorageException {
+        Path target = resolve(filename);
+        Path temporaryFile = null;
+
+        try {
+            Files.createDirectories(target.getParent());
+            temporaryFile = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+
+            try (FileChannel channel = FileChannel.open(temporaryFile, WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(fileAsString);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+
+            Files.move(temporaryFile, target, ATOMIC_MOVE, REPLACE_EXISTING);
+            if (fsync) {
+                forceDirectory(target.getParent());
+            }
+        } catch (IOException e) {
+            deleteTemporaryFile(temporaryFile);
+            throw new StorageException("Error occurred uploading to File System Storage", e);
+        }
+    }
+
+    public byte[] downloadFile(String filename) throws StorageException {
+        try (FileChannel channel = FileChannel.open(resolve(filename), READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new StorageException(String.format("File \"%s\" is too large to download", filename), null);
+            }
+
+            byte[] content = new byte[(int) size];
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new StorageException(String.format("File \"%s\" was truncated while downloading", filename), null);
+                }
+            }
+            return content;
+        } catch (NoSuchFileException e) {
+            throw new StorageException(String.format("Attempting to download file \"%s\" but does not exist.", filename), e);
+        } catch (IOException e) {
+            throw new StorageException("Error occurred downloading from File System Storage", e);
+        }
+    }
+
+    public void deleteFile(String filename) {
+        try {
+            Files.deleteIfExists(resolve(filename));
+        } catch (IOException e) {
+            throw new StorageException("Error occurred deleting from File System Storage", e);
+        }
+    }
+
+    // like the local storage, the location is the file name the file is stored and downloaded by, so that the path of the
+    // root directory does not end up in the attachment URLs of the bundle
+    public String getFileLocation(String filename) {
+        return filename;
+    }
+
+    // file names are created by the StorageManagerService as <conversation id>_<file name>
+    private Path resolve(String filename) {
+        int separator = filename.indexOf(CONVERSATION_ID_SEPARATOR);
+        if (separator <= 0) {
+            return rootDirectory.resolve(UNSHARDED_DIRECTORY).resolve(encode(filename));
+        }
+
+        String conversationId = filename.substring(0, separator);
+        String shard = conversationId.substring(0, Math.min(SHARD_LENGTH, conversationId.length()));
+        return rootDirectory
+            .resolve(encode(shard))
+            .resolve(encode(conversationId))
+            .resolve(encode(filename.substring(separator + 1)));
+    }
+
+    // keeps letters, digits, '-', '_' and '.' other than at the start, so names can neither be "." or ".." nor clash with
+    // temporary files
+    private static String encode(String name) {
+        if (name.isEmpty()) {
+            throw new StorageException("File names for File System Storage must not be empty", null);
+        }
+
+        byte[] bytes = name.getBytes(UTF_8);
+        StringBuilder encoded = new StringBuilder(bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            int value = Byte.toUnsignedInt(bytes[i]);
+            if (isSafe(value) && !(i == 0 && value == '.')) {
+                encoded.append((char) value);
+            } else {
+                encoded.append(String.format("%%%02X", value));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static boolean isSafe(int value) {
+        return value >= 'a' && value <= 'z' || value >= 'A' && value <= 'Z' || value >= '0' && value <= '9'
+            || value == '-' || value == '_' || value == '.';
+    }
+
+    // makes the rename durable; not every platform allows a directory to be opened for this, in which case the rename is left
+    // to be flushed by the file system
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to sync File System Storage directory [{}]", directory, e);
+        }
+    }
+
+    private static void deleteTemporaryFile(Path temporaryFile) {
+        if (temporaryFile == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete temporary file [{}]", temporaryFile, e);
+        }
+    }
+}
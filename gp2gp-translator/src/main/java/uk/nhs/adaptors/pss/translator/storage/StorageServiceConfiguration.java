@@ -17,5 +17,6 @@ public class StorageServiceConfiguration {
     private String accountReference;
     private String accountSecret;
     private Integer retryLimit;
+    private boolean fsync = true;
 
 }
\ No newline at end of file
@@ -23,6 +23,9 @@ public class StorageServiceFactory implements FactoryBean<StorageService> {
             case AZURE:
                 storageService = new AzureStorageService(configuration);
                 break;
+            case FILESYSTEM:
+                storageService = new FileSystemStorageService(configuration);
+                break;
             default:
                 storageService = new LocalStorageService();
         }
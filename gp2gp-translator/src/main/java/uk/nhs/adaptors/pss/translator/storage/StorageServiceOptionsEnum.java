@@ -6,6 +6,7 @@ import lombok.Getter;
 public enum StorageServiceOptionsEnum {
     S3("S3"),
     AZURE("Azure"),
+    FILESYSTEM("FileSystem"),
     LOCALMOCK("LocalMock");
 
     private final String stringValue;
@@ -1,7 +1,11 @@
 package uk.nhs.adaptors.pss.translator.task;
 
+import static uk.nhs.adaptors.common.enums.MessageStage.ACK_SENT;
+import static uk.nhs.adaptors.common.enums.MessageStage.ATTACHMENTS_STORED;
+import static uk.nhs.adaptors.common.enums.MessageStage.FRAGMENTS_MERGED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.COPC_MESSAGE_PROCESSING;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.COPC_MESSAGE_RECEIVED;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.JAXB_UNMARSHAL;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_GENERAL_FAILURE;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_REASSEMBLY_FAILURE;
@@ -18,7 +22,6 @@ import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.ValidationException;
 
 import org.hl7.v3.COPCIN000001UK01Message;
-import org.hl7.v3.RCMRIN030000UKMessage;
 import org.jdbi.v3.core.ConnectionException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -30,9 +33,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.common.enums.MessageStage;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
 import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
+import uk.nhs.adaptors.connector.service.ConversationLockService;
+import uk.nhs.adaptors.connector.service.MessageCheckpointService;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.connector.service.PatientAttachmentLogService;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentLogException;
@@ -41,7 +47,9 @@ import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
 import uk.nhs.adaptors.pss.translator.exception.ExternalAttachmentProcessingException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
 import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.model.AttachmentDescriptor;
 import uk.nhs.adaptors.pss.translator.model.EbxmlReference;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
 import uk.nhs.adaptors.pss.translator.model.NACKReason;
@@ -52,8 +60,6 @@ import uk.nhs.adaptors.pss.translator.service.InboundMessageMergingService;
 import uk.nhs.adaptors.pss.translator.service.NackAckPrepInterface;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 import uk.nhs.adaptors.pss.translator.storage.StorageException;
-import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
-import uk.nhs.adaptors.pss.translator.util.OutboundMessageUtil;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
 
 @Slf4j
@@ -72,24 +78,27 @@ public class COPCMessageHandler {
     private final XPathService xPathService;
     private final XmlParseUtilService xmlParseUtilService;
     private final FailedProcessHandlingService failedProcessHandlingService;
-    private final OutboundMessageUtil outboundMessageUtil;
-    private final InboundMessageUtil inboundMessageUtil;
     private final SendNACKMessageHandler sendNACKMessageHandler;
 
     private final IdGeneratorService idGeneratorService;
+    private final ConversationLockService conversationLockService;
+    private final PipelineMetrics pipelineMetrics;
+    private final MessageCheckpointService messageCheckpointService;
 
     public void handleMessage(InboundMessage inboundMessage, String conversationId)
             throws JAXBException, InlineAttachmentProcessingException, SAXException, AttachmentLogException,
                 AttachmentNotFoundException, BundleMappingException, JsonProcessingException {
 
-        COPCIN000001UK01Message payload = unmarshallString(inboundMessage.getPayload(), COPCIN000001UK01Message.class);
+        COPCIN000001UK01Message payload = pipelineMetrics.time(JAXB_UNMARSHAL,
+            () -> unmarshallString(inboundMessage.getPayload(), COPCIN000001UK01Message.class));
+        tagLosingSystem(payload);
 
         if (failedProcessHandlingService.hasProcessFailed(conversationId)) {
             failedProcessHandlingService.handleFailedProcess(payload, conversationId);
             return;
         }
 
-        PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequest(conversationId);
+        PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequestHeader(conversationId);
         migrationStatusLogService.addMigrationStatusLog(COPC_MESSAGE_RECEIVED, conversationId, null, null);
 
         try {
@@ -98,39 +107,58 @@ public class COPCMessageHandler {
             PatientAttachmentLog patientAttachmentLog = patientAttachmentLogService.findAttachmentLog(messageId, conversationId);
             migrationStatusLogService.addMigrationStatusLog(COPC_MESSAGE_PROCESSING, conversationId, messageId, null);
 
-            // If there is no PatientAttachmentLog for this message then we have received a message out of order
-            if (patientAttachmentLog == null) {
-                addLogForEarlyFragmentAndStore(inboundMessage, conversationId, payload, ebXmlDocument, migrationRequest.getId());
-            } else {
-                if (isManifestMessage(inboundMessage.getAttachments(), inboundMessage.getExternalAttachments())) {
-                    extractFragmentsAndLog(migrationRequest, patientAttachmentLog, conversationId, inboundMessage);
-                } else {
-                    var inlineAttachments = inboundMessage.getAttachments();
+            // a redelivered message carries on from the last stage it completed
+            MessageStage lastStage = messageCheckpointService.getLastStage(conversationId, messageId);
 
-                    if (!inlineAttachments.isEmpty()) {
-                        // we are expecting inline attachments to only have one attachment in the storeCOPCAttachment method below
-                        // so use isBase64 flag of the first inline attachment
-                        patientAttachmentLog.setIsBase64(Boolean.valueOf(inlineAttachments.getFirst().getIsBase64()));
+            if (!ATTACHMENTS_STORED.isCompleted(lastStage)) {
+                // If there is no PatientAttachmentLog for this message then we have received a message out of order
+                if (patientAttachmentLog == null) {
+                    addLogForEarlyFragmentAndStore(inboundMessage, conversationId, payload, ebXmlDocument, migrationRequest.getId());
+                } else {
+                    if (isManifestMessage(inboundMessage.getAttachments(), inboundMessage.getExternalAttachments())) {
+                        extractFragmentsAndLog(migrationRequest, patientAttachmentLog, conversationId, inboundMessage);
+                    } else {
+                        var inlineAttachments = inboundMessage.getAttachments();
+
+                        if (!inlineAttachments.isEmpty()) {
+                            // we are expecting inline attachments to only have one attachment in the storeCOPCAttachment method below
+                            // so use isBase64 flag of the first inline attachment
+                            patientAttachmentLog.setIsBase64(Boolean.valueOf(inlineAttachments.getFirst().getIsBase64()));
+                        }
+
+                        storeCOPCAttachment(patientAttachmentLog, inboundMessage, conversationId);
+                        patientAttachmentLog.setUploaded(true);
+
+                        var size = (Integer) inboundMessage.getAttachments()
+                            .stream()
+                            .mapToInt(a -> a.getPayload().length()).sum();
+
+                        patientAttachmentLog.setPostProcessedLengthNum(size);
+                        patientAttachmentLogService.updateAttachmentLog(patientAttachmentLog, conversationId);
                     }
+                }
+                messageCheckpointService.checkpoint(conversationId, messageId, ATTACHMENTS_STORED);
+            }
 
-                    storeCOPCAttachment(patientAttachmentLog, inboundMessage, conversationId);
-                    patientAttachmentLog.setUploaded(true);
-
-                    var size = (Integer) inboundMessage.getAttachments()
-                        .stream()
-                        .mapToInt(a -> a.getPayload().length()).sum();
-
-                    patientAttachmentLog.setPostProcessedLengthNum(size);
-                    patientAttachmentLogService.updateAttachmentLog(patientAttachmentLog, conversationId);
+            // the fragment logs are deleted once merged, so a redelivered message must not look for them again
+            if (!FRAGMENTS_MERGED.isCompleted(lastStage)) {
+                // held across replicas so that two fragments arriving together cannot both see "all uploaded" and merge twice
+                try (var lock = conversationLockService.lock(conversationId)) {
+                    checkAndMergeFileParts(inboundMessage, conversationId);
                 }
+                messageCheckpointService.checkpoint(conversationId, messageId, FRAGMENTS_MERGED);
             }
 
-            checkAndMergeFileParts(inboundMessage, conversationId);
-            nackAckPreparationService.sendAckMessage(payload, conversationId, migrationRequest.getLosingPracticeOdsCode());
+            if (!ACK_SENT.isCompleted(lastStage)) {
+                nackAckPreparationService.sendAckMessage(payload, conversationId, migrationRequest.getLosingPracticeOdsCode());
+                messageCheckpointService.checkpoint(conversationId, messageId, ACK_SENT);
+            }
 
             // merge and uncompress large EHR message
-            if (inboundMessageMergingService.canMergeCompleteBundle(conversationId)) {
-                inboundMessageMergingService.mergeAndBundleMessage(conversationId);
+            try (var lock = conversationLockService.lock(conversationId)) {
+                if (inboundMessageMergingService.canMergeCompleteBundle(conversationId)) {
+                    inboundMessageMergingService.mergeAndBundleMessage(conversationId);
+                }
             }
 
         } catch (WebClientRequestException | ConnectionException | MhsServerErrorException e) {
@@ -285,6 +313,13 @@ public class COPCMessageHandler {
         );
     }
 
+    // the losing system is the sender of the COPC message
+    private void tagLosingSystem(COPCIN000001UK01Message payload) {
+        if (payload != null && payload.getCommunicationFunctionSnd() != null) {
+            pipelineMetrics.tagLosingSystem(XmlParseUtilService.parseToAsid(payload));
+        }
+    }
+
     private Document getEbXmlDocument(InboundMessage inboundMessage) throws SAXException {
         return xPathService.parseDocumentFromXml(inboundMessage.getEbXML());
     }
@@ -388,7 +423,7 @@ public class COPCMessageHandler {
         for (var index = 1; index < attachmentReferenceDescription.size(); index++) {
 
             var payloadReference = attachmentReferenceDescription.get(index);
-            var descriptionString = "";
+            AttachmentDescriptor descriptor;
             var messageId = "";
             var fileUpload = false;
             boolean isBase64 = true;
@@ -398,8 +433,8 @@ public class COPCMessageHandler {
             if (payloadReference.getHref().contains("cid:")) {
                 // EMIS does not use unique IDs for cid references, so we have to generate our own
                 messageId = "ADAPTOR_GENERATED_" + idGeneratorService.generateUuid().toUpperCase();
-                descriptionString = message.getAttachments().getFirst().getDescription();
-                filename = createFilenameForFragment(XmlParseUtilService.parseFragmentFilename(descriptionString));
+                descriptor = AttachmentDescriptor.parse(message.getAttachments().getFirst().getDescription());
+                filename = createFilenameForFragment(descriptor.getFilenameOrDescription());
                 isBase64 = Boolean.parseBoolean(message.getAttachments().getFirst().getIsBase64());
 
                 // upload the file
@@ -424,19 +459,19 @@ public class COPCMessageHandler {
                 }
 
                 var externalAttachment = externalAttachmentResult.get();
-                descriptionString = externalAttachment.getDescription();
-                filename = createFilenameForFragment(XmlParseUtilService.parseFragmentFilename(descriptionString));
+                descriptor = AttachmentDescriptor.parse(externalAttachment.getDescription());
+                filename = createFilenameForFragment(descriptor.getFilenameOrDescription());
             }
 
             PatientAttachmentLog fragmentLog = patientAttachmentLogService.findAttachmentLog(messageId, conversationId);
 
             if (fragmentLog != null) {
-                updateFragmentLog(fragmentLog, parentAttachmentLog, descriptionString, index - 1, parentAttachmentLog.getLargeAttachment());
+                updateFragmentLog(fragmentLog, parentAttachmentLog, descriptor, index - 1, parentAttachmentLog.getLargeAttachment());
                 patientAttachmentLogService.updateAttachmentLog(fragmentLog, conversationId);
             } else {
                 PatientAttachmentLog newFragmentLog = buildPatientAttachmentLog(
                     messageId,
-                    descriptionString,
+                    descriptor,
                     migrationRequest.getId(),
                     index - 1,
                     fileUpload,
@@ -453,17 +488,17 @@ public class COPCMessageHandler {
         }
     }
 
-    private void updateFragmentLog(PatientAttachmentLog childLog, PatientAttachmentLog parentLog, String descriptionString,
+    private void updateFragmentLog(PatientAttachmentLog childLog, PatientAttachmentLog parentLog, AttachmentDescriptor descriptor,
                                    int orderNum, Boolean isLargeAttachment) throws ParseException {
         childLog.setParentMid(parentLog.getMid());
-        childLog.setCompressed(XmlParseUtilService.parseCompressed(descriptionString));
+        childLog.setCompressed(descriptor.isCompressed());
         childLog.setLargeAttachment(isLargeAttachment);
         childLog.setSkeleton(parentLog.getSkeleton());
-        childLog.setOriginalBase64(XmlParseUtilService.parseOriginalBase64(descriptionString));
+        childLog.setOriginalBase64(descriptor.isOriginalBase64());
         childLog.setOrderNum(orderNum);
     }
 
-    private PatientAttachmentLog buildPatientAttachmentLog(String mid, String description, Integer patientId,
+    private PatientAttachmentLog buildPatientAttachmentLog(String mid, AttachmentDescriptor descriptor, Integer patientId,
         Integer attachmentOrder, boolean uploaded, String filename, PatientAttachmentLog parentAttachmentLog) throws ParseException {
 
         return PatientAttachmentLog.builder()
@@ -471,10 +506,10 @@ public class COPCMessageHandler {
             .filename(filename)
             .parentMid(parentAttachmentLog.getMid())
             .patientMigrationReqId(patientId)
-            .contentType(XmlParseUtilService.parseContentType(description))
-            .compressed(XmlParseUtilService.parseCompressed(description))
+            .contentType(descriptor.getContentType())
+            .compressed(descriptor.isCompressed())
             .largeAttachment(parentAttachmentLog.getLargeAttachment())
-            .originalBase64(XmlParseUtilService.parseOriginalBase64(description))
+            .originalBase64(descriptor.isOriginalBase64())
             .skeleton(false)
             .uploaded(uploaded)
             .orderNum(attachmentOrder)
@@ -482,24 +517,16 @@ public class COPCMessageHandler {
     }
 
     private void failMigration(String conversationId, NACKReason reason) throws JsonProcessingException, JAXBException {
-        PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequest(conversationId);
-
-        InboundMessage inboundMessage = inboundMessageUtil.readMessage(migrationRequest.getInboundMessage());
-        RCMRIN030000UKMessage ehrExtract = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
-        String ehrExtractMessageId = outboundMessageUtil.parseMessageRef(ehrExtract);
-
-        NACKMessageData messageData = NACKMessageData
-            .builder()
-            .nackCode(reason.getCode())
-            .fromAsid(outboundMessageUtil.parseFromAsid(ehrExtract))
-            .toAsid(outboundMessageUtil.parseToAsid(ehrExtract))
-            .toOdsCode(outboundMessageUtil.parseToOdsCode(ehrExtract))
-            .messageRef(ehrExtractMessageId)
-            .conversationId(conversationId)
-            .build();
+        PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequestHeader(conversationId);
+        if (migrationRequest.getEhrExtractMessageRef() == null) {
+            // migrations received before the EHR extract header was saved need the whole row, to read the header from the extract
+            migrationRequest = migrationRequestDao.getMigrationRequest(conversationId);
+        }
+
+        NACKMessageData messageData = nackAckPreparationService.prepareNackMessageData(reason, migrationRequest);
 
         LOGGER.debug("An attachment failed to be processed, failing migration for EHR Extract [{}] with reason code [{}]",
-            ehrExtractMessageId, reason.getCode());
+            messageData.getMessageRef(), reason.getCode());
 
         sendNACKMessageHandler.prepareAndSendMessage(messageData);
     }
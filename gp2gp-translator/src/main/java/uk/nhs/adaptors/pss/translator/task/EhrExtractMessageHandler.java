@@ -12,29 +12,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
+import reactor.core.publisher.Mono;
 
+import uk.nhs.adaptors.common.enums.MessageStage;
 import uk.nhs.adaptors.common.util.fhir.FhirParser;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
 import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
+import uk.nhs.adaptors.connector.service.MessageCheckpointService;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.connector.service.PatientAttachmentLogService;
+import uk.nhs.adaptors.pss.translator.config.MappingProperties;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
 import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.model.AttachmentDescriptor;
 import uk.nhs.adaptors.pss.translator.model.ContinueRequestData;
 import uk.nhs.adaptors.pss.translator.service.AttachmentHandlerService;
 import uk.nhs.adaptors.pss.translator.service.AttachmentReferenceUpdaterService;
 import uk.nhs.adaptors.pss.translator.service.BundleMapperService;
 import uk.nhs.adaptors.pss.translator.service.FailedProcessHandlingService;
+import uk.nhs.adaptors.pss.translator.service.InboundMessageMergingService;
 import uk.nhs.adaptors.pss.translator.service.NackAckPrepInterface;
 import uk.nhs.adaptors.pss.translator.service.SkeletonProcessingService;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 import uk.nhs.adaptors.pss.translator.storage.StorageException;
 import uk.nhs.adaptors.pss.translator.util.DateFormatUtil;
+import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
 
 import jakarta.xml.bind.JAXBException;
@@ -43,11 +51,21 @@ import javax.xml.transform.TransformerException;
 
 import java.text.ParseException;
 import java.time.Instant;
-
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import static uk.nhs.adaptors.common.enums.MessageStage.ATTACHMENTS_STORED;
+import static uk.nhs.adaptors.common.enums.MessageStage.BUNDLE_PERSISTED;
+import static uk.nhs.adaptors.common.enums.MessageStage.CONTINUE_REQUEST_SENT;
+import static uk.nhs.adaptors.common.enums.MessageStage.EHR_EXTRACT_PERSISTED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_PROCESSING;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_RECEIVED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_TRANSLATED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.MIGRATION_COMPLETED;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.DB_PERSIST;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.FHIR_ENCODE;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.JAXB_UNMARSHAL;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.EHR_EXTRACT_CANNOT_BE_PROCESSED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
 import static uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil.unmarshallString;
@@ -70,8 +88,15 @@ public class EhrExtractMessageHandler {
     private final NackAckPrepInterface nackAckPreparationService;
     private final SkeletonProcessingService skeletonProcessingService;
     private final FailedProcessHandlingService failedProcessHandlingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final InboundMessageMergingService inboundMessageMergingService;
+    private final MappingProperties mappingProperties;
+    private final MessageCheckpointService messageCheckpointService;
+    private final InboundMessageUtil inboundMessageUtil;
 
     private static final String MESSAGE_ID_PATH = "/Envelope/Header/MessageHeader/MessageData/MessageId";
+    private static final String EHR_EXTRACT_PAYLOAD = "ehr.extract";
+    private static final String BUNDLE_PAYLOAD = "bundle";
 
     public void handleMessage(InboundMessage inboundMessage, String conversationId)
         throws
@@ -83,7 +108,9 @@ public class EhrExtractMessageHandler {
         ParseException,
         SAXException, TransformerException {
 
-        RCMRIN030000UKMessage payload = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
+        RCMRIN030000UKMessage payload = unmarshallEhrExtract(inboundMessage.getPayload());
+        pipelineMetrics.recordPayloadLength(EHR_EXTRACT_PAYLOAD, inboundMessage.getPayload().length());
+        tagLosingSystem(payload);
         PatientMigrationRequest migrationRequest = migrationRequestDao.getMigrationRequest(conversationId);
         MigrationStatusLog migrationStatusLog = migrationStatusLogService.getLatestMigrationStatusLog(conversationId);
 
@@ -97,22 +124,32 @@ public class EhrExtractMessageHandler {
         try {
             Document ebXmlDocument = getEbXmlDocument(inboundMessage);
             String messageId = xPathService.getNodeValue(ebXmlDocument, MESSAGE_ID_PATH);
+            saveEhrExtractHeader(payload, ebXmlDocument, conversationId);
 
             boolean hasExternalAttachment = !(inboundMessage.getExternalAttachments() == null
                 || inboundMessage.getExternalAttachments().isEmpty());
 
+            // a redelivered message carries on from the last stage it completed
+            MessageStage lastStage = messageCheckpointService.getLastStage(conversationId, messageId);
+
             // Manage attachments against the EHR message returning a skeleton log if skeleton CID is found
-            PatientAttachmentLog skeletonCIDAttachmentLog =
-                processInternalAttachmentsAndReturnSkeletonLog(inboundMessage, migrationRequest, conversationId, messageId);
+            PatientAttachmentLog skeletonCIDAttachmentLog;
+            if (ATTACHMENTS_STORED.isCompleted(lastStage)) {
+                skeletonCIDAttachmentLog = findSkeletonLog(conversationId, messageId);
+            } else {
+                skeletonCIDAttachmentLog =
+                    processInternalAttachmentsAndReturnSkeletonLog(inboundMessage, migrationRequest, conversationId, messageId);
+                messageCheckpointService.checkpoint(conversationId, messageId, ATTACHMENTS_STORED);
+            }
 
             if (!hasExternalAttachment) {
                 // If there are no external attachments, process the entire message now
                 processAndCompleteEHRMessage(inboundMessage, conversationId, skeletonCIDAttachmentLog,
-                                             migrationRequest, messageId);
+                                             migrationRequest, messageId, lastStage);
             } else {
                 //process MID messages and send continue message if external messages exist
                 processExternalAttachmentsAndSendContinueMessage(inboundMessage,
-                    migrationRequest, migrationStatusLog, payload, conversationId, messageId);
+                    migrationRequest, migrationStatusLog, payload, conversationId, messageId, lastStage);
             }
 
         } catch (BundleMappingException
@@ -163,13 +200,46 @@ public class EhrExtractMessageHandler {
         return skeletonCIDAttachmentLog;
     }
 
+    private void saveEhrExtractHeader(RCMRIN030000UKMessage payload, Document ebXmlDocument, String conversationId) {
+        migrationRequestDao.saveEhrExtractHeader(
+            conversationId,
+            XmlParseUtilService.parseMessageRef(payload),
+            XmlParseUtilService.parseFromAsid(payload),
+            XmlParseUtilService.parseToAsid(payload),
+            XmlParseUtilService.parseToOdsCode(payload),
+            parseMessageTimestamp(ebXmlDocument, conversationId)
+        );
+    }
+
+    private OffsetDateTime parseMessageTimestamp(Document ebXmlDocument, String conversationId) {
+        try {
+            ZonedDateTime timestamp = inboundMessageUtil.parseMessageTimestamp(ebXmlDocument);
+            return timestamp == null ? null : timestamp.toOffsetDateTime();
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Unable to parse the timestamp of the EHR extract for conversation [{}]", conversationId);
+            return null;
+        }
+    }
+
+    private PatientAttachmentLog findSkeletonLog(String conversationId, String messageId) {
+        return patientAttachmentLogService.findAttachmentLogs(conversationId).stream()
+            .filter(log -> messageId.equals(log.getMid()) && Boolean.TRUE.equals(log.getSkeleton()))
+            .findFirst()
+            .orElse(null);
+    }
+
     private void processAndCompleteEHRMessage(InboundMessage inboundMessage,
         String conversationId, PatientAttachmentLog skeletonCIDAttachmentLog,
-        PatientMigrationRequest migrationRequest, String messageId)
+        PatientMigrationRequest migrationRequest, String messageId, MessageStage lastStage)
         throws JAXBException, TransformerException,
         SAXException, AttachmentNotFoundException, InlineAttachmentProcessingException,
         BundleMappingException, JsonProcessingException {
 
+        if (BUNDLE_PERSISTED.isCompleted(lastStage)) {
+            LOGGER.info("Bundle has already been persisted and the migration completed for message_id=[{}]", messageId);
+            return;
+        }
+
         // if we have a skeleton message log, add it to our inbound message
         if (skeletonCIDAttachmentLog != null) {
             inboundMessage = skeletonProcessingService
@@ -189,20 +259,25 @@ public class EhrExtractMessageHandler {
         var attachments = patientAttachmentLogService.findAttachmentLogs(conversationId);
 
         // now we have the transformed payload, lets create our bundle
-        Bundle bundle = null;
-        RCMRIN030000UKMessage payload = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
-        bundle = bundleMapperService.mapToBundle(payload, migrationRequest.getLosingPracticeOdsCode(), attachments);
+        RCMRIN030000UKMessage payload = unmarshallEhrExtract(inboundMessage.getPayload());
+        Bundle bundle = bundleMapperService.mapToBundle(payload, migrationRequest.getLosingPracticeOdsCode(), attachments);
+
+        String bundleJson = pipelineMetrics.time(FHIR_ENCODE, () -> fhirParser.encodeToCompactJson(bundle));
+        pipelineMetrics.recordPayloadLength(BUNDLE_PAYLOAD, bundleJson.length());
+        String inboundMessageJson = objectMapper.writeValueAsString(inboundMessage);
 
         // update the db migration request
-        migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(
+        pipelineMetrics.run(DB_PERSIST, () -> migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(
             conversationId,
-            fhirParser.encodeToJson(bundle),
-            objectMapper.writeValueAsString(inboundMessage),
+            bundleJson,
+            inboundMessageJson,
             EHR_EXTRACT_TRANSLATED,
             messageId
-        );
-
+        ));
         migrationStatusLogService.addMigrationStatusLog(MIGRATION_COMPLETED, conversationId, null, null);
+
+        // recorded once the migration is completed, so that a message redelivered past it does not complete the migration again
+        messageCheckpointService.checkpoint(conversationId, messageId, BUNDLE_PERSISTED);
     }
 
     private void processExternalAttachmentsAndSendContinueMessage(InboundMessage inboundMessage,
@@ -210,26 +285,36 @@ public class EhrExtractMessageHandler {
                                                                   MigrationStatusLog migrationStatusLog,
                                                                   RCMRIN030000UKMessage payload,
                                                                   String conversationId,
-                                                                  String messageId)
-                                                                  throws ParseException, JsonProcessingException {
+                                                                  String messageId,
+                                                                  MessageStage lastStage)
+                                                                  throws ParseException, JsonProcessingException,
+                                                                  ValidationException {
 
-        for (InboundMessage.ExternalAttachment externalAttachment: inboundMessage.getExternalAttachments()) {
-            PatientAttachmentLog patientAttachmentLog;
+        if (CONTINUE_REQUEST_SENT.isCompleted(lastStage)) {
+            LOGGER.info("Continue request has already been sent for message_id=[{}]", messageId);
+            return;
+        }
+
+        if (!EHR_EXTRACT_PERSISTED.isCompleted(lastStage)) {
+            for (InboundMessage.ExternalAttachment externalAttachment: inboundMessage.getExternalAttachments()) {
+                PatientAttachmentLog patientAttachmentLog;
 
-            if (patientAttachmentLogService.findAttachmentLog(externalAttachment.getMessageId(), conversationId) == null) {
-                //save COPC_UK01 messages
-                patientAttachmentLog = buildPatientAttachmentLogFromExternalAttachment(migrationRequest, externalAttachment);
-                patientAttachmentLogService.addAttachmentLog(patientAttachmentLog);
+                if (patientAttachmentLogService.findAttachmentLog(externalAttachment.getMessageId(), conversationId) == null) {
+                    //save COPC_UK01 messages
+                    patientAttachmentLog = buildPatientAttachmentLogFromExternalAttachment(migrationRequest, externalAttachment);
+                    patientAttachmentLogService.addAttachmentLog(patientAttachmentLog);
+                }
             }
-        }
 
-        migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(
-            conversationId,
-            null,
-            objectMapper.writeValueAsString(inboundMessage),
-            EHR_EXTRACT_PROCESSING,
-            messageId
-        );
+            migrationStatusLogService.updatePatientMigrationRequestAndAddMigrationStatusLog(
+                conversationId,
+                null,
+                objectMapper.writeValueAsString(inboundMessage),
+                EHR_EXTRACT_PROCESSING,
+                messageId
+            );
+            messageCheckpointService.checkpoint(conversationId, messageId, EHR_EXTRACT_PERSISTED);
+        }
 
         String patientNhsNumber = XmlParseUtilService.parseNhsNumber(payload);
         sendContinueRequest(
@@ -239,7 +324,15 @@ public class EhrExtractMessageHandler {
             migrationRequest.getWinningPracticeOdsCode(),
             migrationStatusLog.getDate().toInstant(),
             messageId
-        );
+        )
+            .doOnSuccess(ignored -> messageCheckpointService.checkpoint(conversationId, messageId, CONTINUE_REQUEST_SENT))
+            .subscribe(
+                ignored -> { },
+                error -> handleContinueRequestFailure(error, payload, conversationId));
+
+        if (mappingProperties.isPipelined()) {
+            inboundMessageMergingService.preMapBundle(conversationId);
+        }
     }
 
     // Parent MID should be null against an EHR message so that they are not detected in the merge process
@@ -248,10 +341,9 @@ public class EhrExtractMessageHandler {
         PatientMigrationRequest migrationRequest,
         InboundMessage.Attachment attachment) throws ParseException {
 
-        String description = attachment.getDescription();
-        Boolean isEmis = XmlParseUtilService.isDescriptionEmisStyle(description);
+        AttachmentDescriptor descriptor = AttachmentDescriptor.parse(attachment.getDescription());
 
-        if (isEmis) {
+        if (descriptor.isEmisStyle()) {
             return PatientAttachmentLog.builder()
                     .mid(messageId)
                     .filename(attachment.getDescription())
@@ -271,16 +363,16 @@ public class EhrExtractMessageHandler {
 
         return PatientAttachmentLog.builder()
             .mid(messageId)
-            .filename(XmlParseUtilService.parseFilename(attachment.getDescription()))
+            .filename(descriptor.getFilename())
             .parentMid(null)
             .patientMigrationReqId(migrationRequest.getId())
-            .contentType(XmlParseUtilService.parseContentType(attachment.getDescription()))
-            .compressed(XmlParseUtilService.parseCompressed(attachment.getDescription()))
-            .largeAttachment(XmlParseUtilService.parseLargeAttachment(attachment.getDescription()))
-            .originalBase64(XmlParseUtilService.parseOriginalBase64(attachment.getDescription()))
-            .skeleton(XmlParseUtilService.parseIsSkeleton(attachment.getDescription()))
+            .contentType(descriptor.getContentType())
+            .compressed(descriptor.isCompressed())
+            .largeAttachment(descriptor.isLargeAttachment())
+            .originalBase64(descriptor.isOriginalBase64())
+            .skeleton(descriptor.isSkeleton())
             .uploaded(true)
-            .lengthNum(XmlParseUtilService.parseFileLength(attachment.getDescription()))
+            .lengthNum(descriptor.getLength())
             .postProcessedLengthNum(attachment.getPayload().length())
             .orderNum(0)
             .build();
@@ -290,23 +382,25 @@ public class EhrExtractMessageHandler {
         PatientMigrationRequest migrationRequest,
         InboundMessage.ExternalAttachment externalAttachment) throws ParseException {
 
+        AttachmentDescriptor descriptor = AttachmentDescriptor.parse(externalAttachment.getDescription());
+
         return PatientAttachmentLog.builder()
                 .mid(externalAttachment.getMessageId())
-                .filename(XmlParseUtilService.parseFilename(externalAttachment.getDescription()))
+                .filename(descriptor.getFilename())
                 .parentMid(null)
                 .patientMigrationReqId(migrationRequest.getId())
-                .contentType(XmlParseUtilService.parseContentType(externalAttachment.getDescription()))
-                .compressed(XmlParseUtilService.parseCompressed(externalAttachment.getDescription()))
-                .largeAttachment(XmlParseUtilService.parseLargeAttachment(externalAttachment.getDescription()))
-                .originalBase64(XmlParseUtilService.parseOriginalBase64(externalAttachment.getDescription()))
-                .skeleton(XmlParseUtilService.parseIsSkeleton(externalAttachment.getDescription()))
+                .contentType(descriptor.getContentType())
+                .compressed(descriptor.isCompressed())
+                .largeAttachment(descriptor.isLargeAttachment())
+                .originalBase64(descriptor.isOriginalBase64())
+                .skeleton(descriptor.isSkeleton())
                 .uploaded(false)
-                .lengthNum(XmlParseUtilService.parseFileLength(externalAttachment.getDescription()))
+                .lengthNum(descriptor.getLength())
                 .orderNum(0)
                 .build();
     }
 
-    public void sendContinueRequest(
+    public Mono<Void> sendContinueRequest(
         RCMRIN030000UKMessage payload,
         String conversationId,
         String patientNhsNumber,
@@ -314,7 +408,7 @@ public class EhrExtractMessageHandler {
         Instant mcciIN010000UK13creationTime,
         String ehrExtractId
     ) {
-        sendContinueRequestHandler.prepareAndSendRequest(
+        return sendContinueRequestHandler.prepareAndSendRequest(
             prepareContinueRequestData(
                 payload,
                 conversationId,
@@ -326,6 +420,13 @@ public class EhrExtractMessageHandler {
         );
     }
 
+    private void handleContinueRequestFailure(Throwable error, RCMRIN030000UKMessage payload, String conversationId) {
+        LOGGER.error("Unable to send continue request for conversation_id=[{}]", conversationId, error);
+        if (error instanceof MhsServerErrorException) {
+            nackAckPreparationService.sendNackMessage(UNEXPECTED_CONDITION, payload, conversationId);
+        }
+    }
+
     private ContinueRequestData prepareContinueRequestData(
         RCMRIN030000UKMessage payload,
         String conversationId,
@@ -355,4 +456,15 @@ public class EhrExtractMessageHandler {
         return xPathService.parseDocumentFromXml(inboundMessage.getEbXML());
     }
 
+    private RCMRIN030000UKMessage unmarshallEhrExtract(String ehrExtract) throws JAXBException {
+        return pipelineMetrics.time(JAXB_UNMARSHAL, () -> unmarshallString(ehrExtract, RCMRIN030000UKMessage.class));
+    }
+
+    // the losing system is the sender of the EHR extract
+    private void tagLosingSystem(RCMRIN030000UKMessage payload) {
+        if (payload != null && payload.getCommunicationFunctionSnd() != null) {
+            pipelineMetrics.tagLosingSystem(XmlParseUtilService.parseToAsid(payload));
+        }
+    }
+
 }
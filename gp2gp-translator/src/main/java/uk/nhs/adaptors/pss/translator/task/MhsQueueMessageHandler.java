@@ -1,12 +1,15 @@
 package uk.nhs.adaptors.pss.translator.task;
 
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_GENERAL_PROCESSING_ERROR;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.EBXML_PARSE;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.JMS_READ;
 
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.xml.bind.JAXBException;
 import javax.xml.transform.TransformerException;
 
+import org.apache.commons.io.input.CountingInputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
@@ -20,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.connector.service.PatientMigrationRequestService;
+import uk.nhs.adaptors.pss.translator.amqp.ConversationLanes;
 import uk.nhs.adaptors.pss.translator.amqp.JmsReader;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentLogException;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
@@ -27,11 +31,14 @@ import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
 import uk.nhs.adaptors.pss.translator.exception.ConversationIdNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
 import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.util.Locale;
 
@@ -45,6 +52,7 @@ public class MhsQueueMessageHandler {
     private static final String CONTINUE_ATTACHMENT_INTERACTION_ID = "COPC_IN000001UK01";
     private static final String CONVERSATION_ID_PATH = "/Envelope/Header/MessageHeader/ConversationId";
     private static final String INTERACTION_ID_PATH = "/Envelope/Header/MessageHeader/Action";
+    private static final String INBOUND_MESSAGE_PAYLOAD = "inbound.message";
 
     private final ObjectMapper objectMapper;
     private final JmsReader jmsReader;
@@ -55,33 +63,45 @@ public class MhsQueueMessageHandler {
     private final COPCMessageHandler continueMessageHandler;
     private final MigrationStatusLogService migrationStatusLogService;
     private final PatientMigrationRequestService migrationRequestService;
+    private final ConversationLanes conversationLanes;
+    private final PipelineMetrics pipelineMetrics;
 
     public boolean handleMessage(Message message) {
+        try (var messageMetrics = pipelineMetrics.startMessage()) {
+            return handleInboundMessage(message);
+        }
+    }
+
+    private boolean handleInboundMessage(Message message) {
 
         String conversationId = ""; // We need access to conversation n our catch statements
 
         try {
             InboundMessage inboundMessage = readMessage(message);
-            Document ebXmlDocument = xPathService.parseDocumentFromXml(inboundMessage.getEbXML());
+            Document ebXmlDocument = pipelineMetrics.time(EBXML_PARSE,
+                () -> xPathService.parseDocumentFromXml(inboundMessage.getEbXML()));
             conversationId = xPathService.getNodeValue(ebXmlDocument, CONVERSATION_ID_PATH);
             conversationId = conversationId.toUpperCase(Locale.ROOT);
             applyConversationId(conversationId);
             String interactionId = xPathService.getNodeValue(ebXmlDocument, INTERACTION_ID_PATH);
-
-            if (!migrationRequestService.hasMigrationRequest(conversationId)) {
-
-                throw new ConversationIdNotFoundException("Conversation ID" + conversationId
-                    + "does not have a migration status log entry", conversationId);
-            }
-
-            if (ACKNOWLEDGEMENT_INTERACTION_ID.equals(interactionId)) {
-                acknowledgmentMessageHandler.handleMessage(inboundMessage, conversationId);
-            } else if (EHR_EXTRACT_INTERACTION_ID06.equals(interactionId) || EHR_EXTRACT_INTERACTION_ID07.equals(interactionId)) {
-                ehrExtractMessageHandler.handleMessage(inboundMessage, conversationId);
-            } else if (CONTINUE_ATTACHMENT_INTERACTION_ID.equals(interactionId)) {
-                continueMessageHandler.handleMessage(inboundMessage, conversationId);
-            } else {
-                LOGGER.info("Handling message with [{}] interaction id not implemented", interactionId);
+            pipelineMetrics.tagInteraction(interactionId);
+
+            try (var lane = conversationLanes.enter(conversationId)) {
+                if (!migrationRequestService.hasMigrationRequest(conversationId)) {
+
+                    throw new ConversationIdNotFoundException("Conversation ID" + conversationId
+                        + "does not have a migration status log entry", conversationId);
+                }
+
+                if (ACKNOWLEDGEMENT_INTERACTION_ID.equals(interactionId)) {
+                    acknowledgmentMessageHandler.handleMessage(inboundMessage, conversationId);
+                } else if (EHR_EXTRACT_INTERACTION_ID06.equals(interactionId) || EHR_EXTRACT_INTERACTION_ID07.equals(interactionId)) {
+                    ehrExtractMessageHandler.handleMessage(inboundMessage, conversationId);
+                } else if (CONTINUE_ATTACHMENT_INTERACTION_ID.equals(interactionId)) {
+                    continueMessageHandler.handleMessage(inboundMessage, conversationId);
+                } else {
+                    LOGGER.info("Handling message with [{}] interaction id not implemented", interactionId);
+                }
             }
             return true;
         } catch (JMSException | JAXBException | SAXException e) {
@@ -120,9 +140,20 @@ public class MhsQueueMessageHandler {
         }
     }
 
+    // the body is bound as it is read, so the JMS read stage includes binding the inbound message
     private InboundMessage readMessage(Message message) throws JMSException, JsonProcessingException {
-        var body = jmsReader.readMessage(message);
-        return objectMapper.readValue(body, InboundMessage.class);
+        var timing = pipelineMetrics.start(JMS_READ);
+        try (var body = new CountingInputStream(jmsReader.openMessage(message))) {
+            var inboundMessage = objectMapper.readValue(body, InboundMessage.class);
+            pipelineMetrics.recordPayloadLength(INBOUND_MESSAGE_PAYLOAD, body.getCount());
+            return inboundMessage;
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            timing.stop();
+        }
     }
 
     private void applyConversationId(String conversationId) {
@@ -39,7 +39,7 @@ public class SendACKMessageHandler {
             messageId);
 
         try {
-            mhsClientService.send(request);
+            mhsClientService.sendAndWait(request);
         } catch (WebClientResponseException e) {
             LOGGER.error("Received an ERROR response from MHS: [{}]", e.getMessage());
 
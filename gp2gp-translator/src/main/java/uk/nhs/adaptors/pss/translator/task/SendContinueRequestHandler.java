@@ -7,6 +7,8 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
@@ -28,8 +30,13 @@ public class SendContinueRequestHandler {
     private final ContinueRequestService continueRequestService;
     private final IdGeneratorService idGeneratorService;
 
+    /**
+     * Builds the continue request and returns the send to MHS without subscribing to it. The CONTINUE_REQUEST_ACCEPTED or
+     * CONTINUE_REQUEST_ERROR status is written when MHS answers; a 5xx answer ends the returned {@link Mono} with a
+     * {@link MhsServerErrorException}.
+     */
     @SneakyThrows
-    public void prepareAndSendRequest(ContinueRequestData data) {
+    public Mono<Void> prepareAndSendRequest(ContinueRequestData data) {
 
         String messageId = idGeneratorService.generateUuid().toUpperCase();
 
@@ -38,27 +45,33 @@ public class SendContinueRequestHandler {
         var request = requestBuilder.buildSendContinueRequest(
             data.getConversationId(), data.getToOdsCode(), outboundMessage, messageId);
 
-        try {
-            mhsClientService.send(request);
-        } catch (WebClientResponseException webClientResponseException) {
-            LOGGER.error("Received an ERROR response from MHS: [{}]", webClientResponseException.getMessage());
-            migrationStatusLogService.addMigrationStatusLog(MigrationStatus.CONTINUE_REQUEST_ERROR,
-                                                            data.getConversationId(),
-                                                            null,
-                                                            UNEXPECTED_CONDITION.getCode());
-
-            if (webClientResponseException.getStatusCode().is5xxServerError()) {
-                throw new MhsServerErrorException("Unable to sent continue message");
-            }
-
-            throw webClientResponseException;
-        }
+        return mhsClientService.sendAsync(request)
+            .publishOn(Schedulers.boundedElastic())
+            .onErrorMap(WebClientResponseException.class, exception -> handleErrorResponse(data.getConversationId(), exception))
+            .then(Mono.fromRunnable(() -> handleAccepted(data.getConversationId())));
+    }
 
-        LOGGER.info("Got response from MHS - 202 Accepted");
+    private void handleAccepted(String conversationId) {
+        LOGGER.info("Got response from MHS - 202 Accepted for conversation_id=[{}]", conversationId);
         migrationStatusLogService.addMigrationStatusLog(
                 MigrationStatus.CONTINUE_REQUEST_ACCEPTED,
-                data.getConversationId(),
+                conversationId,
                 null,
                 null);
     }
+
+    private RuntimeException handleErrorResponse(String conversationId, WebClientResponseException webClientResponseException) {
+        LOGGER.error("Received an ERROR response from MHS for conversation_id=[{}]: [{}]", conversationId,
+            webClientResponseException.getMessage());
+        migrationStatusLogService.addMigrationStatusLog(MigrationStatus.CONTINUE_REQUEST_ERROR,
+                                                        conversationId,
+                                                        null,
+                                                        UNEXPECTED_CONDITION.getCode());
+
+        if (webClientResponseException.getStatusCode().is5xxServerError()) {
+            return new MhsServerErrorException("Unable to sent continue message");
+        }
+
+        return webClientResponseException;
+    }
 }
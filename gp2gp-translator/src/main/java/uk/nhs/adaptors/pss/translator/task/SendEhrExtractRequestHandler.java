@@ -2,13 +2,14 @@ package uk.nhs.adaptors.pss.translator.task;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.common.model.TransferRequestMessage;
+import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.pss.translator.mhs.MhsRequestBuilder;
 import uk.nhs.adaptors.pss.translator.mhs.model.OutboundMessage;
@@ -28,9 +29,24 @@ public class SendEhrExtractRequestHandler {
     private final MigrationStatusLogService migrationStatusLogService;
     private final IdGeneratorService idGeneratorService;
 
+    /**
+     * Builds the EHR extract request and hands it to MHS without waiting for the answer, so the listener thread is free as soon
+     * as the request is on its way. The ACCEPTED or ERROR status is written once MHS has answered, or once the retries configured
+     * for MHS are used up.
+     * <p>
+     * The PSS queue outbox can deliver a transfer request more than once, so a request for a transfer that has already moved
+     * past REQUEST_RECEIVED is acknowledged without being sent again.
+     */
     @SneakyThrows
     public boolean prepareAndSendRequest(TransferRequestMessage message) {
         String conversationId = message.getConversationId();
+        MigrationStatusLog latestStatusLog = migrationStatusLogService.getLatestMigrationStatusLog(conversationId);
+        if (latestStatusLog != null && latestStatusLog.getMigrationStatus() != MigrationStatus.REQUEST_RECEIVED) {
+            LOGGER.info("EHR extract request for conversation_id=[{}] has already been sent, migration status is [{}]",
+                conversationId, latestStatusLog.getMigrationStatus());
+            return true;
+        }
+
         String toOdsCode = message.getToOds();
         String messageId = idGeneratorService.generateUuid().toUpperCase();
 
@@ -39,20 +55,26 @@ public class SendEhrExtractRequestHandler {
         var outboundMessage = new OutboundMessage(ehrExtractRequest);
         var request = requestBuilder.buildSendEhrExtractRequest(conversationId, toOdsCode, outboundMessage, messageId);
 
-        try {
-            var response = mhsClientService.send(request);
-            LOGGER.debug(response);
-        } catch (WebClientResponseException wcre) {
-            LOGGER.error("Received an ERROR response from MHS: [{}]", wcre.getMessage());
-            migrationStatusLogService.addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_REQUEST_ERROR,
-                                                            conversationId,
-                                                            null,
-                                                            UNEXPECTED_CONDITION.getCode());
-            return false;
-        }
+        mhsClientService.sendAsync(request)
+            .publishOn(Schedulers.boundedElastic())
+            .subscribe(
+                response -> LOGGER.debug(response),
+                error -> handleError(conversationId, error),
+                () -> handleAccepted(conversationId));
 
-        LOGGER.info("Got response from MHS - 202 Accepted");
-        migrationStatusLogService.addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED, conversationId, null, null);
         return true;
     }
+
+    private void handleAccepted(String conversationId) {
+        LOGGER.info("Got response from MHS - 202 Accepted for conversation_id=[{}]", conversationId);
+        migrationStatusLogService.addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED, conversationId, null, null);
+    }
+
+    private void handleError(String conversationId, Throwable error) {
+        LOGGER.error("Unable to send EHR extract request for conversation_id=[{}]: [{}]", conversationId, error.getMessage());
+        migrationStatusLogService.addMigrationStatusLog(MigrationStatus.EHR_EXTRACT_REQUEST_ERROR,
+                                                        conversationId,
+                                                        null,
+                                                        UNEXPECTED_CONDITION.getCode());
+    }
 }
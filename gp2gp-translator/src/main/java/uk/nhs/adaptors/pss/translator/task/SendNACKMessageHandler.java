@@ -40,7 +40,7 @@ public class SendNACKMessageHandler {
 
         try {
 
-            String response = mhsClientService.send(request);
+            String response = mhsClientService.sendAndWait(request);
 
             LOGGER.debug(response);
         } catch (WebClientResponseException e) {
@@ -0,0 +1,44 @@
+package uk.nhs.adaptors.pss.translator.task.scheduled;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.connector.dao.AuditDao;
+import uk.nhs.adaptors.pss.translator.config.AuditProperties;
+
+/**
+ * Moves audit entries queued by the audit trigger (when {@code audit.audit_settings.async} is enabled) into
+ * {@code audit.logged_actions} in batches, outside the transactions that produced them.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+@ConditionalOnProperty(value = "audit.drainEnabled", havingValue = "true")
+public class AuditQueueDrainHandler {
+
+    private final AuditDao auditDao;
+    private final AuditProperties auditProperties;
+
+    @Scheduled(fixedDelayString = "${audit.drainFixedDelay}")
+    public void drainPendingAuditActions() {
+        int batchSize = auditProperties.getDrainBatchSize();
+        int totalDrained = 0;
+
+        for (int batch = 0; batch < auditProperties.getDrainMaxBatchesPerRun(); batch++) {
+            int drained = auditDao.drainPendingActions(batchSize);
+            totalDrained += drained;
+
+            if (drained < batchSize) {
+                break;
+            }
+        }
+
+        if (totalDrained > 0) {
+            LOGGER.debug("Moved [{}] pending audit entries into audit.logged_actions", totalDrained);
+        }
+    }
+}
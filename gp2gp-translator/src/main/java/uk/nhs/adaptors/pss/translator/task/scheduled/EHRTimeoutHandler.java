@@ -15,7 +15,6 @@ import static uk.nhs.adaptors.common.enums.MigrationStatus.REQUEST_RECEIVED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_TIMEOUT;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
-import static uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil.unmarshallString;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
@@ -25,7 +24,6 @@ import java.util.List;
 
 import jakarta.xml.bind.JAXBException;
 
-import org.hl7.v3.RCMRIN030000UKMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -48,10 +46,10 @@ import uk.nhs.adaptors.pss.translator.exception.SdsRetrievalException;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
 import uk.nhs.adaptors.pss.translator.model.NACKReason;
+import uk.nhs.adaptors.pss.translator.service.NackAckPrepInterface;
 import uk.nhs.adaptors.pss.translator.service.PersistDurationService;
 import uk.nhs.adaptors.pss.translator.task.SendNACKMessageHandler;
 import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
-import uk.nhs.adaptors.pss.translator.util.OutboundMessageUtil;
 
 @Slf4j
 @Component
@@ -65,7 +63,7 @@ public class EHRTimeoutHandler {
     private final MDCService mdcService;
     private final TimeoutProperties timeoutProperties;
     private final SendNACKMessageHandler sendNACKMessageHandler;
-    private final OutboundMessageUtil outboundMessageUtil;
+    private final NackAckPrepInterface nackAckPreparationService;
     private final InboundMessageUtil inboundMessageUtil;
     private final MigrationStatusLogService migrationStatusLogService;
     private final PatientAttachmentLogService patientAttachmentLogService;
@@ -91,16 +89,16 @@ public class EHRTimeoutHandler {
         LOGGER.info("running scheduled task to check for timeouts");
 
         List<PatientMigrationRequest> preEhrParsedRequests = migrationRequestService
-            .getMigrationRequestsByMigrationStatusIn(PRE_EHR_PARSED_STATUS_LIST);
+            .getMigrationRequestHeadersByMigrationStatusIn(PRE_EHR_PARSED_STATUS_LIST);
         preEhrParsedRequests.forEach(this::handleRequestTimeout);
 
         // Ehr Extract Translated is not the final state for an EHR, so we cannot guarantee it has attachments
         List<PatientMigrationRequest> translatedRequests = migrationRequestService
-            .getMigrationRequestsByMigrationStatusIn(List.of(EHR_EXTRACT_TRANSLATED));
+            .getMigrationRequestHeadersByMigrationStatusIn(List.of(EHR_EXTRACT_TRANSLATED));
         translatedRequests.forEach(migrationRequest -> handleMigrationTimeout(migrationRequest, UNEXPECTED_CONDITION));
 
         List<PatientMigrationRequest> requestsWithAttachments = migrationRequestService
-            .getMigrationRequestsByMigrationStatusIn(REQUESTS_WITH_ATTACHMENTS_STATUS_LIST);
+            .getMigrationRequestHeadersByMigrationStatusIn(REQUESTS_WITH_ATTACHMENTS_STATUS_LIST);
         requestsWithAttachments.forEach(migrationRequest -> handleMigrationTimeout(migrationRequest,
             LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED));
     }
@@ -134,16 +132,16 @@ public class EHRTimeoutHandler {
         }
     }
 
-    private void handleMigrationTimeout(PatientMigrationRequest migrationRequest, NACKReason reason) {
+    private void handleMigrationTimeout(PatientMigrationRequest migrationRequestHeader, NACKReason reason) {
 
-        String conversationId = migrationRequest.getConversationId();
+        String conversationId = migrationRequestHeader.getConversationId();
         mdcService.applyConversationId(conversationId);
 
         try {
             long timeout;
-            Duration ehrPersistDuration = persistDurationService.getPersistDurationFor(migrationRequest, EHR_EXTRACT_MESSAGE_NAME);
-            InboundMessage message = inboundMessageUtil.readMessage(migrationRequest.getInboundMessage());
-            ZonedDateTime messageTimestamp = inboundMessageUtil.parseMessageTimestamp(message.getEbXML());
+            Duration ehrPersistDuration = persistDurationService.getPersistDurationFor(migrationRequestHeader, EHR_EXTRACT_MESSAGE_NAME);
+            PatientMigrationRequest migrationRequest = withEhrExtractHeader(migrationRequestHeader);
+            ZonedDateTime messageTimestamp = getEhrExtractTimestamp(migrationRequest);
             ZonedDateTime currentTime = ZonedDateTime.now(messageTimestamp.getZone());
             long numberCOPCMessages = patientAttachmentLogService.countAttachmentsForMigrationRequest(migrationRequest.getId());
 
@@ -165,7 +163,7 @@ public class EHRTimeoutHandler {
 
             if (timeoutDateTime.isBefore(currentTime)) {
                 LOGGER.info("Migration timed out at [{}]", timeoutDateTime);
-                sendNackMessage(message, conversationId, reason);
+                sendNackMessage(migrationRequest, reason);
             }
         } catch (SdsRetrievalException e) {
             LOGGER.error("Error retrieving persist duration: [{}]", e.getMessage());
@@ -178,19 +176,30 @@ public class EHRTimeoutHandler {
         }
     }
 
-    private void sendNackMessage(InboundMessage inboundMessage, String conversationId, NACKReason reason) throws JAXBException {
+    private PatientMigrationRequest withEhrExtractHeader(PatientMigrationRequest migrationRequestHeader) {
+        if (migrationRequestHeader.getEhrExtractMessageRef() != null && migrationRequestHeader.getEhrExtractTimestamp() != null) {
+            return migrationRequestHeader;
+        }
+
+        // migrations received before the EHR extract header was saved need the whole row, to read the header from the extract
+        return migrationRequestService.getMigrationRequest(migrationRequestHeader.getConversationId());
+    }
+
+    private ZonedDateTime getEhrExtractTimestamp(PatientMigrationRequest migrationRequest) throws JsonProcessingException, SAXException {
+        if (migrationRequest.getEhrExtractTimestamp() != null) {
+            return migrationRequest.getEhrExtractTimestamp().toZonedDateTime();
+        }
 
-        RCMRIN030000UKMessage payload = unmarshallString(inboundMessage.getPayload(), RCMRIN030000UKMessage.class);
+        // migrations received before the timestamp was saved still have to read it from the EHR extract
+        InboundMessage message = inboundMessageUtil.readMessageWithoutAttachmentPayloads(migrationRequest.getInboundMessage());
+        return inboundMessageUtil.parseMessageTimestamp(message.getEbXML());
+    }
 
-        NACKMessageData messageData = NACKMessageData
-            .builder()
-            .nackCode(reason.getCode())
-            .fromAsid(outboundMessageUtil.parseFromAsid(payload))
-            .toAsid(outboundMessageUtil.parseToAsid(payload))
-            .toOdsCode(outboundMessageUtil.parseToOdsCode(payload))
-            .messageRef(outboundMessageUtil.parseMessageRef(payload))
-            .conversationId(conversationId)
-            .build();
+    private void sendNackMessage(PatientMigrationRequest migrationRequest, NACKReason reason)
+        throws JsonProcessingException, JAXBException {
+
+        String conversationId = migrationRequest.getConversationId();
+        NACKMessageData messageData = nackAckPreparationService.prepareNackMessageData(reason, migrationRequest);
 
         LOGGER.debug("EHR Extract message timed out: sending NACK message");
         if (sendNACKMessageHandler.prepareAndSendMessage(messageData)) {
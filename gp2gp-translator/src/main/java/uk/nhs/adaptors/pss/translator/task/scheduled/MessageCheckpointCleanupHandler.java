@@ -0,0 +1,35 @@
+package uk.nhs.adaptors.pss.translator.task.scheduled;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.connector.service.MessageCheckpointService;
+import uk.nhs.adaptors.pss.translator.config.CheckpointProperties;
+
+/**
+ * Deletes the checkpoints of inbound MHS messages that have not completed a stage within the retention period. By then the
+ * broker has long stopped redelivering the message, so its checkpoint would never be read again.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class MessageCheckpointCleanupHandler {
+
+    private final MessageCheckpointService messageCheckpointService;
+    private final CheckpointProperties checkpointProperties;
+    private final DateUtils dateUtils;
+
+    @Scheduled(cron = "${checkpoint.cleanupCronTime}")
+    public void deleteExpiredCheckpoints() {
+        var cutoff = dateUtils.getCurrentOffsetDateTime().minus(checkpointProperties.getRetention());
+        int deleted = messageCheckpointService.deleteCheckpointsUpdatedBefore(cutoff);
+
+        if (deleted > 0) {
+            LOGGER.info("Deleted [{}] message checkpoints last updated before [{}]", deleted, cutoff);
+        }
+    }
+}
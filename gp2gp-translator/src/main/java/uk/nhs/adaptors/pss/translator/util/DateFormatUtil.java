@@ -9,28 +9,48 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import org.hl7.fhir.dstu3.model.DateTimeType;
 import org.hl7.fhir.dstu3.model.InstantType;
 
 import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.experimental.UtilityClass;
 import uk.nhs.adaptors.pss.translator.model.DateFormat;
 
 @UtilityClass
 public class DateFormatUtil {
     private static final ZoneId UK_ZONE_ID = ZoneId.of("Europe/London");
+    private static final ZoneRules UK_ZONE_RULES = UK_ZONE_ID.getRules();
+    private static final TimeZone UTC_TIME_ZONE = getTimeZone(UTC);
     private static final int YEAR_PRECISION = 4;
     private static final int MONTH_PRECISION = 6;
     private static final int DAY_PRECISION = 8;
     private static final int HOUR_PRECISION = 10;
     private static final int MINUTE_PRECISION = 12;
+    private static final int SECOND_PRECISION = 14;
     private static final int MILLISECOND_PRECISION = 18;
+    private static final int SHORT_OFFSET_LENGTH = 2;
+    private static final int LONG_OFFSET_LENGTH = 4;
+    private static final int MIN_GREGORIAN_YEAR = 1583;
+    private static final int DECIMAL_RADIX = 10;
+    private static final int MAX_HOUR = 23;
+    private static final int MAX_MINUTE_OR_SECOND = 59;
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int MILLIS_PER_SECOND = 1000;
     private static final String DATETIME_TIMEZONE_MILLISECONDS_FORMAT = "yyyyMMddHHmmss.SSSX";
     private static final String DATETIME_TIMEZONE_SECONDS_FORMAT = "yyyyMMddHHmmssX";
     private static final String DATETIME_TIMEZONE_MINUTES_FORMAT = "yyyyMMddHHmmX";
@@ -51,40 +71,152 @@ public class DateFormatUtil {
     private static final DateTimeFormatter HL7_SECONDS_COMPUTER_READABLE = DateTimeFormatter.ofPattern(HL7_DATETIME_FORMAT);
 
     public static DateTimeType parseToDateTimeType(String dateToParse) {
-        DateFormat format = getFormat(dateToParse);
-        SimpleDateFormat formatter = getFormatter(format);
+        ParsedDate parsedDate = parse(dateToParse);
+        return new DateTimeType(parsedDate.getDate(), parsedDate.getPrecision(), UTC_TIME_ZONE);
+    }
 
+    public static InstantType parseToInstantType(String dateToParse) {
+        return new InstantType(parse(dateToParse).getDate(), MILLI, UTC_TIME_ZONE);
+    }
+
+    public static Date parsePathwaysDate(String dateStr) {
         try {
-            Date date = formatter.parse(dateToParse);
-            return new DateTimeType(date, format.getPrecision(), getTimeZone(UTC));
-        } catch (ParseException e) {
-            throw new IllegalStateException(String.format(ERROR_MESSAGE, dateToParse), e);
+            return Date.from(Instant.parse(dateStr));
+        } catch (DateTimeParseException exc) {
+            LocalDateTime parse = LocalDateTime.parse(dateStr);
+            return Date.from(Instant.from(parse.atZone(UK_ZONE_ID)));
         }
     }
 
-    public static InstantType parseToInstantType(String dateToParse) {
+    public static String toHl7Format(Instant instant) {
+        return instant.atZone(UK_ZONE_ID).format(HL7_SECONDS_COMPUTER_READABLE);
+    }
+
+    private ParsedDate parse(String dateToParse) {
+        ParsedDate parsedDate = parseWellFormed(dateToParse);
+        return parsedDate != null ? parsedDate : parseWithFormatter(dateToParse);
+    }
+
+    private ParsedDate parseWithFormatter(String dateToParse) {
         DateFormat format = getFormat(dateToParse);
         SimpleDateFormat formatter = getFormatter(format);
 
         try {
-            Date date = formatter.parse(dateToParse);
-            return new InstantType(date, MILLI, getTimeZone(UTC));
+            return new ParsedDate(formatter.parse(dateToParse), format.getPrecision());
         } catch (ParseException e) {
             throw new IllegalStateException(String.format(ERROR_MESSAGE, dateToParse), e);
         }
     }
 
-    public static Date parsePathwaysDate(String dateStr) {
-        try {
-            return Date.from(Instant.parse(dateStr));
-        } catch (DateTimeParseException exc) {
-            LocalDateTime parse = LocalDateTime.parse(dateStr);
-            return Date.from(Instant.from(parse.atZone(UK_ZONE_ID)));
+    /**
+     * Parses a timestamp without building a {@link SimpleDateFormat}, giving the same instant and precision as
+     * {@link #parseWithFormatter(String)}. Returns null for anything that is not a well-formed HL7 TS value with in-range fields,
+     * so that lenient parsing of unusual input is still left to {@link SimpleDateFormat}.
+     */
+    private ParsedDate parseWellFormed(String date) {
+        int offsetIndex = date.indexOf('+');
+        if (offsetIndex < 0) {
+            offsetIndex = date.indexOf('-');
+        }
+        boolean hasOffset = offsetIndex >= 0;
+        int dateLength = hasOffset ? offsetIndex : date.length();
+
+        TemporalPrecisionEnum precision = hasOffset ? getPrecisionWithTimezone(dateLength) : getPrecisionWithoutTimezone(dateLength);
+        if (precision == null) {
+            return null;
         }
+
+        int year = readDigits(date, 0, YEAR_PRECISION);
+        int month = dateLength > YEAR_PRECISION ? readDigits(date, YEAR_PRECISION, MONTH_PRECISION) : 1;
+        int day = dateLength > MONTH_PRECISION ? readDigits(date, MONTH_PRECISION, DAY_PRECISION) : 1;
+        int hour = dateLength > DAY_PRECISION ? readDigits(date, DAY_PRECISION, HOUR_PRECISION) : 0;
+        int minute = dateLength > HOUR_PRECISION ? readDigits(date, HOUR_PRECISION, MINUTE_PRECISION) : 0;
+        int second = dateLength > MINUTE_PRECISION ? readDigits(date, MINUTE_PRECISION, SECOND_PRECISION) : 0;
+        int millisecond = 0;
+        if (dateLength == MILLISECOND_PRECISION) {
+            millisecond = date.charAt(SECOND_PRECISION) == '.' ? readDigits(date, SECOND_PRECISION + 1, MILLISECOND_PRECISION) : -1;
+        }
+
+        if (year < MIN_GREGORIAN_YEAR || month < 1 || month > Month.DECEMBER.getValue()
+            || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+            || hour < 0 || hour > MAX_HOUR || minute < 0 || minute > MAX_MINUTE_OR_SECOND
+            || second < 0 || second > MAX_MINUTE_OR_SECOND || millisecond < 0) {
+            return null;
+        }
+
+        LocalDateTime localDateTime = LocalDateTime.of(year, month, day, hour, minute, second);
+        int offsetSeconds;
+        if (hasOffset) {
+            offsetSeconds = readOffsetSeconds(date, offsetIndex);
+            if (offsetSeconds == Integer.MIN_VALUE) {
+                return null;
+            }
+        } else if (dateLength == MONTH_PRECISION || dateLength == DAY_PRECISION) {
+            offsetSeconds = 0;
+        } else {
+            offsetSeconds = getUkOffset(localDateTime).getTotalSeconds();
+        }
+
+        long epochSecond = localDateTime.toEpochSecond(ZoneOffset.UTC) - offsetSeconds;
+        return new ParsedDate(new Date(epochSecond * MILLIS_PER_SECOND + millisecond), precision);
     }
 
-    public static String toHl7Format(Instant instant) {
-        return instant.atZone(UK_ZONE_ID).format(HL7_SECONDS_COMPUTER_READABLE);
+    private TemporalPrecisionEnum getPrecisionWithoutTimezone(int dateLength) {
+        return switch (dateLength) {
+            case YEAR_PRECISION -> TemporalPrecisionEnum.YEAR;
+            case MONTH_PRECISION -> TemporalPrecisionEnum.MONTH;
+            case DAY_PRECISION -> TemporalPrecisionEnum.DAY;
+            case HOUR_PRECISION, MINUTE_PRECISION, SECOND_PRECISION -> TemporalPrecisionEnum.SECOND;
+            case MILLISECOND_PRECISION -> MILLI;
+            default -> null;
+        };
+    }
+
+    private TemporalPrecisionEnum getPrecisionWithTimezone(int dateLength) {
+        return switch (dateLength) {
+            case HOUR_PRECISION, MINUTE_PRECISION, SECOND_PRECISION -> TemporalPrecisionEnum.SECOND;
+            case MILLISECOND_PRECISION -> MILLI;
+            default -> null;
+        };
+    }
+
+    private int readDigits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            result = result * DECIMAL_RADIX + (character - '0');
+        }
+        return result;
+    }
+
+    private int readOffsetSeconds(String date, int offsetIndex) {
+        int offsetLength = date.length() - offsetIndex - 1;
+        if (offsetLength != SHORT_OFFSET_LENGTH && offsetLength != LONG_OFFSET_LENGTH) {
+            return Integer.MIN_VALUE;
+        }
+
+        int hours = readDigits(date, offsetIndex + 1, offsetIndex + 1 + SHORT_OFFSET_LENGTH);
+        int minutes = offsetLength == LONG_OFFSET_LENGTH ? readDigits(date, offsetIndex + 1 + SHORT_OFFSET_LENGTH, date.length()) : 0;
+        if (hours < 0 || hours > MAX_HOUR || minutes < 0 || minutes > MAX_MINUTE_OR_SECOND) {
+            return Integer.MIN_VALUE;
+        }
+
+        int offsetSeconds = hours * SECONDS_PER_HOUR + minutes * SECONDS_PER_MINUTE;
+        return date.charAt(offsetIndex) == '-' ? -offsetSeconds : offsetSeconds;
+    }
+
+    /**
+     * Matches {@link java.util.GregorianCalendar}: local times in the spring gap and the autumn overlap are both read as GMT.
+     */
+    private ZoneOffset getUkOffset(LocalDateTime localDateTime) {
+        ZoneOffsetTransition transition = UK_ZONE_RULES.getTransition(localDateTime);
+        if (transition == null) {
+            return UK_ZONE_RULES.getOffset(localDateTime);
+        }
+        return transition.isGap() ? transition.getOffsetBefore() : transition.getOffsetAfter();
     }
 
     private DateFormat getFormat(String date) {
@@ -149,4 +281,11 @@ public class DateFormatUtil {
 
         return formatter;
     }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class ParsedDate {
+        private final Date date;
+        private final TemporalPrecisionEnum precision;
+    }
 }
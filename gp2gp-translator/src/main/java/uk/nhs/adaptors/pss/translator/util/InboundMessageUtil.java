@@ -9,28 +9,58 @@ import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
-import lombok.AllArgsConstructor;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 
 @Component
-@AllArgsConstructor(onConstructor = @__(@Autowired))
 public class InboundMessageUtil {
 
     private static final String PATH_TO_TIMESTAMP = "/Envelope/Header/MessageHeader/MessageData/Timestamp";
-    private ObjectMapper objectMapper;
 
-    private XPathService xPathService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader withoutAttachmentPayloadsReader;
+    private final XPathService xPathService;
+
+    @Autowired
+    public InboundMessageUtil(ObjectMapper objectMapper, XPathService xPathService) {
+        this.objectMapper = objectMapper;
+        this.xPathService = xPathService;
+        this.withoutAttachmentPayloadsReader = objectMapper.copy()
+            .addMixIn(InboundMessage.Attachment.class, AttachmentWithoutPayload.class)
+            .addMixIn(InboundMessage.Attachment.AttachmentBuilder.class, AttachmentWithoutPayload.class)
+            .readerFor(InboundMessage.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
 
     public InboundMessage readMessage(String message) throws JsonProcessingException {
         return objectMapper.readValue(message, InboundMessage.class);
     }
 
+    /**
+     * Reads the message leaving every {@code attachments[].payload} as null. The payloads are skipped by the parser rather than
+     * bound, so the attachment content is never copied into a {@link String}.
+     * Use this when only the ebXML, the EHR payload or the attachment metadata is needed.
+     */
+    public InboundMessage readMessageWithoutAttachmentPayloads(String message) throws JsonProcessingException {
+        return withoutAttachmentPayloadsReader.readValue(message);
+    }
+
     public ZonedDateTime parseMessageTimestamp(String ebXML) throws SAXException, DateTimeParseException {
-        Document document = xPathService.parseDocumentFromXml(ebXML);
-        return ZonedDateTime.parse(xPathService.getNodeValue(document, PATH_TO_TIMESTAMP));
+        return parseMessageTimestamp(xPathService.parseDocumentFromXml(ebXML));
+    }
+
+    public ZonedDateTime parseMessageTimestamp(Document ebXmlDocument) throws DateTimeParseException {
+        return ZonedDateTime.parse(xPathService.getNodeValue(ebXmlDocument, PATH_TO_TIMESTAMP));
+    }
+
+    // the attachment builder is what binds the JSON, the attachment itself is named too in case it is ever bound directly
+    @JsonIgnoreProperties("payload")
+    private abstract static class AttachmentWithoutPayload {
     }
 }
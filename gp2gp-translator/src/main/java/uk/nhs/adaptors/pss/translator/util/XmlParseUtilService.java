@@ -4,8 +4,6 @@ import java.io.StringWriter;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -26,6 +24,7 @@ import org.xml.sax.SAXException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.model.AttachmentDescriptor;
 import uk.nhs.adaptors.pss.translator.model.EbxmlReference;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 
@@ -36,51 +35,20 @@ public class XmlParseUtilService {
 
     private final XPathService xPathService;
 
-    private static final String FILENAME_PATTERN = "Filename=\"([\\S]{1}[^\"]*)\"";
-
-    private static final String COMPRESSED_PATTERN = "Compressed=(Yes|No)";
-
     public static boolean parseOriginalBase64(String description) throws ParseException {
-        Pattern pattern = Pattern.compile("OriginalBase64=(Yes|No)");
-        Matcher matcher = pattern.matcher(description);
-
-        if (matcher.find()) {
-            return matcher.group(1).equals("Yes");
-        }
-
-        throw new ParseException("Unable to parse isBase64", 0);
+        return AttachmentDescriptor.parse(description).isOriginalBase64();
     }
 
     public static boolean parseLargeAttachment(String description) throws ParseException {
-        Pattern pattern = Pattern.compile("LargeAttachment=(Yes|No)");
-        Matcher matcher = pattern.matcher(description);
-
-        if (matcher.find()) {
-            return matcher.group(1).equals("Yes");
-        }
-
-        throw new ParseException("Unable to parse isLargeAttachment", 0);
+        return AttachmentDescriptor.parse(description).isLargeAttachment();
     }
 
     public static boolean parseCompressed(String description) throws ParseException {
-        Pattern pattern = Pattern.compile(COMPRESSED_PATTERN);
-        Matcher matcher = pattern.matcher(description);
-
-        if (matcher.find()) {
-            return matcher.group(1).equals("Yes");
-        }
-
-        throw new ParseException("Unable to parse isCompressed field in description", 0);
+        return AttachmentDescriptor.parse(description).isCompressed();
     }
 
     public static String parseContentType(String description) throws ParseException {
-        Pattern pattern = Pattern.compile("ContentType=([A-Za-z\\d\\-/.]*)");
-        Matcher matcher = pattern.matcher(description);
-
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        throw new ParseException("Unable to parse ContentType", 0);
+        return AttachmentDescriptor.parse(description).getContentType();
     }
 
     public static String parseNhsNumber(RCMRIN030000UKMessage payload) {
@@ -94,48 +62,19 @@ public class XmlParseUtilService {
     }
 
     public static String parseFilename(String description) throws ParseException {
-        Pattern pattern = Pattern.compile(FILENAME_PATTERN);
-        Matcher matcher = pattern.matcher(description);
-
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-
-        throw new ParseException("Unable to parse originalFilename field in description", 0);
+        return AttachmentDescriptor.parse(description).getFilename();
     }
 
     public static Boolean isDescriptionEmisStyle(String description) {
-        Pattern pattern = Pattern.compile(FILENAME_PATTERN);
-        Matcher matcher = pattern.matcher(description);
-        boolean hasFilename = matcher.find();
-        pattern = Pattern.compile(COMPRESSED_PATTERN);
-        matcher = pattern.matcher(description);
-        boolean hasCompressed = matcher.find();
-
-        if (!hasFilename && !hasCompressed) {
-            return true;
-        }
-
-        return false;
+        return AttachmentDescriptor.parse(description).isEmisStyle();
     }
 
     public static int parseFileLength(String description) {
-        Pattern pattern = Pattern.compile("Length=([\\d]*)");
-        Matcher matcher = pattern.matcher(description);
-
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group(1));
-            } catch (NumberFormatException e) {
-                return 0;
-            }
-        }
-        return 0;
+        return AttachmentDescriptor.parse(description).getLength();
     }
 
     public static boolean parseIsSkeleton(String description) {
-        final String EB_SKELETON_PROP = "X-GP2GP-Skeleton:Yes".toLowerCase();
-        return description.replaceAll("\\s+", "").toLowerCase().contains(EB_SKELETON_PROP);
+        return AttachmentDescriptor.parse(description).isSkeleton();
     }
 
     public static String parseFromAsid(COPCIN000001UK01Message payload) {
@@ -215,11 +154,7 @@ public class XmlParseUtilService {
     }
 
     public static String parseFragmentFilename(String description) {
-        try {
-            return parseFilename(description);
-        } catch (ParseException e) {
-            return description;
-        }
+        return AttachmentDescriptor.parse(description).getFilenameOrDescription();
     }
 
     public List<EbxmlReference> getEbxmlAttachmentsData(InboundMessage inboundMessage) throws SAXException {
@@ -0,0 +1,333 @@
+package uk.nhs.adaptors.pss.translator.util;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.COMMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.PROCESSING_INSTRUCTION;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Streaming counterparts of parsing a document with {@link uk.nhs.adaptors.pss.translator.service.XPathService#parseDocumentFromXml},
+ * editing the DOM and writing it back out with {@link XmlParseUtilService#getStringFromDocument}.
+ * <p>
+ * Documents are read with StAX and written through the same identity serializer the DOM path uses, so the output is identical,
+ * but only the chain of open elements is held in memory rather than a DOM of the whole document. Events are fed to the
+ * serializer in the order a DOM would produce them.
+ */
+@UtilityClass
+public class XmlSpliceUtil {
+
+    private static final String REPORT_CDATA_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+    private static final String XMLNS = "xmlns";
+    private static final String XMLNS_PREFIX = "xmlns:";
+    private static final String XML_PREFIX = "xml";
+    private static final String CDATA_TYPE = "CDATA";
+    private static final String STANDALONE_NO = "no";
+    private static final int INITIAL_DEPTH = 16;
+
+    /**
+     * Serializes the document as it would be after a round trip through a DOM.
+     */
+    public static String copyDocument(String xml) throws XMLStreamException, SAXException, TransformerConfigurationException {
+        return replaceElement(xml, -1, null);
+    }
+
+    /**
+     * Replaces the first element, in document order, with a child element carrying an attribute whose value is
+     * {@code referencedValue} by the root element of {@code replacementXml}. This is the element the XPath
+     * {@code //*}{@code /@*[.='referencedValue']/parent::*}{@code /parent::*} selects.
+     *
+     * @throws IllegalArgumentException when no element references the value
+     */
+    public static String replaceElementReferencing(String xml, String referencedValue, String replacementXml)
+        throws XMLStreamException, SAXException, TransformerConfigurationException {
+
+        int target = findElementReferencing(xml, referencedValue);
+        if (target < 0) {
+            throw new IllegalArgumentException("XML document does not contain an element referencing " + referencedValue);
+        }
+        return replaceElement(xml, target, replacementXml);
+    }
+
+    // an element's start tag comes before its children's, so the element found must be the one with the lowest index among all
+    // parents of referencing elements, which are only known once their children are read
+    private static int findElementReferencing(String xml, String referencedValue) throws XMLStreamException {
+        XMLStreamReader reader = createReader(xml);
+        try {
+            int[] openElements = new int[INITIAL_DEPTH];
+            int depth = 0;
+            int elementIndex = 0;
+            int target = -1;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == START_ELEMENT) {
+                    if (depth > 0 && (target < 0 || openElements[depth - 1] < target) && hasAttributeValue(reader, referencedValue)) {
+                        target = openElements[depth - 1];
+                    }
+                    if (depth == openElements.length) {
+                        openElements = Arrays.copyOf(openElements, depth * 2);
+                    }
+                    openElements[depth++] = elementIndex++;
+                } else if (event == END_ELEMENT) {
+                    depth--;
+                }
+            }
+            return target;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String replaceElement(String xml, int target, String replacementXml)
+        throws XMLStreamException, SAXException, TransformerConfigurationException {
+
+        StringWriter writer = new StringWriter();
+        DomOrderWriter domOrderWriter = new DomOrderWriter(createSerializer(writer));
+        XMLStreamReader reader = createReader(xml);
+        try {
+            domOrderWriter.startDocument();
+            int elementIndex = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == START_ELEMENT && elementIndex++ == target) {
+                    copyRootElement(replacementXml, domOrderWriter);
+                    skipElement(reader);
+                } else {
+                    domOrderWriter.write(reader, event);
+                }
+            }
+            domOrderWriter.endDocument();
+        } finally {
+            reader.close();
+        }
+        return writer.toString();
+    }
+
+    private static void copyRootElement(String xml, DomOrderWriter domOrderWriter) throws XMLStreamException, SAXException {
+        XMLStreamReader reader = createReader(xml);
+        try {
+            // a DOM import of the root element leaves behind anything before it
+            int event;
+            do {
+                event = reader.next();
+            } while (event != START_ELEMENT);
+
+            int depth = domOrderWriter.getDepth();
+            domOrderWriter.write(reader, event);
+            while (domOrderWriter.getDepth() > depth) {
+                domOrderWriter.write(reader, reader.next());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static boolean hasAttributeValue(XMLStreamReader reader, String value) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            // XPath does not treat namespace declarations as attributes
+            String name = getAttributeName(reader, i);
+            if (value.equals(reader.getAttributeValue(i)) && !name.equals(XMLNS) && !name.startsWith(XMLNS_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getElementName(XMLStreamReader reader) {
+        return qualify(reader.getPrefix(), reader.getLocalName());
+    }
+
+    private static String getAttributeName(XMLStreamReader reader, int index) {
+        return qualify(reader.getAttributePrefix(index), reader.getAttributeLocalName(index));
+    }
+
+    private static String qualify(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    // the same tests the DOM serializer applies to attribute names
+    private static boolean isNamespaceDeclaration(String attributeName) {
+        return attributeName.startsWith(XMLNS);
+    }
+
+    private static String getDeclaredPrefix(String attributeName) {
+        int colon = attributeName.lastIndexOf(':');
+        return colon > 0 ? attributeName.substring(colon + 1) : "";
+    }
+
+    // the JDK parser rather than whichever StAX implementation is on the classpath, as it matches the one behind the DOM path
+    private static XMLStreamReader createReader(String xml) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(REPORT_CDATA_PROPERTY, true);
+        return factory.createXMLStreamReader(new StringReader(xml));
+    }
+
+    private static TransformerHandler createSerializer(StringWriter writer) throws TransformerConfigurationException {
+        TransformerHandler handler = ((SAXTransformerFactory) TransformerFactory.newInstance()).newTransformerHandler();
+        handler.getTransformer().setOutputProperty(OutputKeys.STANDALONE, STANDALONE_NO);
+        handler.setResult(new StreamResult(writer));
+        return handler;
+    }
+
+    /**
+     * Feeds StAX events to the serializer as a DOM would: no text outside the root element, and on each element the namespace
+     * declarations not already in scope followed by the other attributes, each sorted by name.
+     */
+    private static final class DomOrderWriter {
+        private final TransformerHandler handler;
+        private final List<String[]> declarations = new ArrayList<>();
+        private int[] declarationCounts = new int[INITIAL_DEPTH];
+        private int depth;
+
+        private DomOrderWriter(TransformerHandler handler) {
+            this.handler = handler;
+        }
+
+        private int getDepth() {
+            return depth;
+        }
+
+        private void startDocument() throws SAXException {
+            handler.startDocument();
+        }
+
+        private void endDocument() throws SAXException {
+            handler.endDocument();
+        }
+
+        private void write(XMLStreamReader reader, int event) throws SAXException {
+            switch (event) {
+                case START_ELEMENT -> startElement(reader);
+                case END_ELEMENT -> endElement(reader);
+                case CHARACTERS, SPACE -> {
+                    if (depth > 0) {
+                        handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case CDATA -> {
+                    handler.startCDATA();
+                    handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    handler.endCDATA();
+                }
+                case COMMENT -> handler.comment(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                case PROCESSING_INSTRUCTION -> handler.processingInstruction(reader.getPITarget(), reader.getPIData());
+                default -> {
+                    // document start and end are written separately, and a DOM does not keep the DTD
+                }
+            }
+        }
+
+        private void startElement(XMLStreamReader reader) throws SAXException {
+            String elementName = getElementName(reader);
+            int count = reader.getAttributeCount();
+            String[] names = new String[count];
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = getAttributeName(reader, i);
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(i -> names[i]));
+            if (depth == 0) {
+                moveOwnPrefixDeclarationFirst(elementName, names, order);
+            }
+
+            AttributesImpl attributes = new AttributesImpl();
+            int declared = 0;
+            for (int i : order) {
+                if (isNamespaceDeclaration(names[i])) {
+                    String prefix = getDeclaredPrefix(names[i]);
+                    String uri = reader.getAttributeValue(i);
+                    if (declare(prefix, uri)) {
+                        declared++;
+                        if (prefix.isEmpty() || !uri.isEmpty()) {
+                            attributes.addAttribute("", "", prefix.isEmpty() ? XMLNS : XMLNS_PREFIX + prefix, CDATA_TYPE, uri);
+                        }
+                    }
+                }
+            }
+            for (int i : order) {
+                if (!isNamespaceDeclaration(names[i])) {
+                    attributes.addAttribute("", "", names[i], CDATA_TYPE, reader.getAttributeValue(i));
+                }
+            }
+
+            if (depth == declarationCounts.length) {
+                declarationCounts = Arrays.copyOf(declarationCounts, depth * 2);
+            }
+            declarationCounts[depth++] = declared;
+            handler.startElement("", "", elementName, attributes);
+        }
+
+        private void endElement(XMLStreamReader reader) throws SAXException {
+            handler.endElement("", "", getElementName(reader));
+            int declared = declarationCounts[--depth];
+            declarations.subList(declarations.size() - declared, declarations.size()).clear();
+        }
+
+        // the serializer writes the declaration of the root element's own prefix ahead of the others
+        private static void moveOwnPrefixDeclarationFirst(String elementName, String[] names, Integer[] order) {
+            int colon = elementName.indexOf(':');
+            String ownPrefix = colon > 0 ? elementName.substring(0, colon) : "";
+            for (int position = 0; position < order.length; position++) {
+                int index = order[position];
+                if (isNamespaceDeclaration(names[index]) && getDeclaredPrefix(names[index]).equals(ownPrefix)) {
+                    System.arraycopy(order, 0, order, 1, position);
+                    order[0] = index;
+                    return;
+                }
+            }
+        }
+
+        // the serializer never redeclares the reserved xml prefixes, nor a prefix already bound to the same namespace
+        private boolean declare(String prefix, String uri) {
+            if (prefix.startsWith(XML_PREFIX)) {
+                return false;
+            }
+            for (int i = declarations.size() - 1; i >= 0; i--) {
+                if (declarations.get(i)[0].equals(prefix)) {
+                    return !declarations.get(i)[1].equals(uri) && declarations.add(new String[] {prefix, uri});
+                }
+            }
+            return !(prefix.isEmpty() && uri.isEmpty()) && declarations.add(new String[] {prefix, uri});
+        }
+    }
+}
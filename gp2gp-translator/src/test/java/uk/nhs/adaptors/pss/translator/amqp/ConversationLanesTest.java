@@ -0,0 +1,107 @@
+package uk.nhs.adaptors.pss.translator.amqp;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.nhs.adaptors.pss.translator.config.MhsQueueProperties;
+
+public class ConversationLanesTest {
+    private static final int CONCURRENT_CONSUMERS = 4;
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final long BLOCKED_CHECK_MILLIS = 200;
+    private static final String CONVERSATION_ID = "C0A2D3E4-5B6F-4A7B-8C9D-0E1F2A3B4C5D";
+    private static final String OTHER_CONVERSATION_ID = "D1B3E4F5-6C7A-4B8C-9D0E-1F2A3B4C5D6E";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConversationLanes conversationLanes;
+
+    @BeforeEach
+    public void setUp() {
+        conversationLanes = createConversationLanes(CONCURRENT_CONSUMERS);
+    }
+
+    @Test
+    public void When_EnteringLaneForSameConversation_Expect_SecondEntryWaitsForFirstToClose() throws InterruptedException {
+        CountDownLatch secondEntered = new CountDownLatch(1);
+
+        try (var lane = conversationLanes.enter(CONVERSATION_ID)) {
+            CompletableFuture.runAsync(() -> {
+                try (var secondLane = conversationLanes.enter(CONVERSATION_ID)) {
+                    secondEntered.countDown();
+                }
+            });
+
+            await().atMost(TIMEOUT_SECONDS, SECONDS).until(() -> laneDepth() == 2);
+            assertThat(secondEntered.await(BLOCKED_CHECK_MILLIS, MILLISECONDS)).isFalse();
+        }
+
+        assertThat(secondEntered.await(TIMEOUT_SECONDS, SECONDS)).isTrue();
+        await().atMost(TIMEOUT_SECONDS, SECONDS).until(() -> laneDepth() == 0);
+    }
+
+    @Test
+    public void When_EnteringLaneForAnotherConversation_Expect_NotBlocked() throws InterruptedException {
+        CountDownLatch otherEntered = new CountDownLatch(1);
+
+        try (var lane = conversationLanes.enter(CONVERSATION_ID)) {
+            CompletableFuture.runAsync(() -> {
+                try (var otherLane = conversationLanes.enter(OTHER_CONVERSATION_ID)) {
+                    otherEntered.countDown();
+                }
+            });
+
+            assertThat(otherEntered.await(TIMEOUT_SECONDS, SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    public void When_LaneClosed_Expect_TimesRecordedAndConversationLockDropped() {
+        try (var lane = conversationLanes.enter(CONVERSATION_ID)) {
+            assertThat(laneDepth()).isEqualTo(1);
+            assertThat(conversationLanes.heldConversations()).isEqualTo(1);
+        }
+
+        assertThat(meterRegistry.get("mhs.queue.lane.wait").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mhs.queue.lane.processing").timer().count()).isEqualTo(1);
+        assertThat(laneDepth()).isZero();
+        assertThat(conversationLanes.heldConversations()).isZero();
+    }
+
+    @Test
+    public void When_SingleConsumer_Expect_EnteringLaneDoesNotBlock() throws InterruptedException {
+        conversationLanes = createConversationLanes(1);
+        CountDownLatch secondEntered = new CountDownLatch(1);
+
+        try (var lane = conversationLanes.enter(CONVERSATION_ID)) {
+            CompletableFuture.runAsync(() -> {
+                try (var secondLane = conversationLanes.enter(CONVERSATION_ID)) {
+                    secondEntered.countDown();
+                }
+            });
+
+            assertThat(secondEntered.await(TIMEOUT_SECONDS, SECONDS)).isTrue();
+            assertThat(conversationLanes.heldConversations()).isZero();
+        }
+    }
+
+    private ConversationLanes createConversationLanes(int concurrentConsumers) {
+        MhsQueueProperties properties = new MhsQueueProperties();
+        properties.setConcurrentConsumers(concurrentConsumers);
+        meterRegistry = new SimpleMeterRegistry();
+        return new ConversationLanes(properties, meterRegistry);
+    }
+
+    private double laneDepth() {
+        return meterRegistry.get("mhs.queue.lane.depth").gauge().value();
+    }
+}
@@ -0,0 +1,66 @@
+package uk.nhs.adaptors.pss.translator.amqp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+
+import jakarta.jms.JMSException;
+
+import org.apache.qpid.jms.message.JmsBytesMessage;
+import org.apache.qpid.jms.message.JmsTextMessage;
+import org.junit.jupiter.api.Test;
+
+public class JmsReaderTest {
+
+    private static final String BODY = "{\"ebXML\": \"<Envelope/>\", \"payload\": \"caf\u00e9\"}";
+
+    private final JmsReader jmsReader = new JmsReader();
+
+    @Test
+    public void When_OpeningTextMessage_Expect_BodyReadAsUtf8() throws JMSException, IOException {
+        var message = mock(JmsTextMessage.class);
+        when(message.getText()).thenReturn(BODY);
+
+        assertThat(read(jmsReader.openMessage(message))).isEqualTo(BODY);
+    }
+
+    @Test
+    public void When_OpeningBase64TextMessage_Expect_BodyDecodedAsRead() throws JMSException, IOException {
+        var message = mock(JmsTextMessage.class);
+        when(message.getText()).thenReturn(Base64.getEncoder().encodeToString(BODY.getBytes(UTF_8)));
+
+        assertThat(read(jmsReader.openMessage(message))).isEqualTo(BODY);
+    }
+
+    @Test
+    public void When_OpeningBase64BytesMessage_Expect_BodyDecodedAsRead() throws JMSException, IOException {
+        byte[] encoded = Base64.getEncoder().encode(BODY.getBytes(UTF_8));
+        var message = mock(JmsBytesMessage.class);
+        when(message.getBodyLength()).thenReturn((long) encoded.length);
+        when(message.readBytes(any(byte[].class))).thenAnswer(invocation -> {
+            byte[] bytes = invocation.getArgument(0);
+            System.arraycopy(encoded, 0, bytes, 0, encoded.length);
+            return encoded.length;
+        });
+
+        assertThat(read(jmsReader.openMessage(message))).isEqualTo(BODY);
+    }
+
+    @Test
+    public void When_OpeningNullMessage_Expect_Null() throws JMSException {
+        assertThat(jmsReader.openMessage(null)).isNull();
+    }
+
+    private static String read(InputStream body) throws IOException {
+        try (body) {
+            return new String(body.readAllBytes(), UTF_8);
+        }
+    }
+}
@@ -61,6 +61,7 @@ class DocumentReferenceMapperTest {
     private static final String FILENAME = "31B75ED0-6E88-11EA-9384-E83935108FD5_patient-attachment.txt";
     private static final String URL = "file://localhost/31B75ED0-6E88-11EA-9384-E83935108FD5_patient-attachment.txt";
     private static final Integer ATTACHMENT_SIZE = 128000;
+    private static final String STORAGE_LOCATION = "https://location.com/";
     private static final String CONTENT_TYPE = "text/plain";
     private static final String ENCOUNTER_ID = "62A39454-299F-432E-993E-5A6232B4E099";
     private static final String PATIENT_ID = "45329454-299F-432E-993E-5A6232B4E099";
@@ -127,6 +128,26 @@ class DocumentReferenceMapperTest {
         assertAttachmentData(documentReference);
     }
 
+    @Test
+    void When_AttachmentUploadedAfterMapping_Expect_AttachmentUrlAndSizeUpdated() {
+        var ehrExtract = unmarshallEhrExtract("narrative_statement_has_referred_to_external_document.xml");
+        var attachmentNotYetUploaded = PatientAttachmentLog.builder()
+            .filename(FILENAME)
+            .mid("1")
+            .build();
+        List<DocumentReference> documentReferences = documentReferenceMapper.mapResources(ehrExtract, createPatient(),
+            getEncounterList(), AUTHOR_ORG, List.of(attachmentNotYetUploaded));
+
+        assertFalse(documentReferences.getFirst().getContent().getFirst().getAttachment().hasSize());
+
+        documentReferenceMapper.updateAttachments(documentReferences, url -> url.replace("file://localhost/", STORAGE_LOCATION),
+            createAttachmentList());
+
+        var attachment = documentReferences.getFirst().getContent().getFirst().getAttachment();
+        assertThat(attachment.getUrl()).isEqualTo(STORAGE_LOCATION + FILENAME);
+        assertThat(attachment.getSize()).isEqualTo(ATTACHMENT_SIZE);
+    }
+
     @Test
     void mapNarrativeStatementToDocumentReferenceWithAbsentAttachment() {
         var ehrExtract = unmarshallEhrExtract("narrative_statement_has_referred_to_external_document_with_absent_attachment.xml");
@@ -0,0 +1,141 @@
+package uk.nhs.adaptors.pss.translator.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.BUNDLE_MAPPING;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.FHIR_ENCODE;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.JAXB_UNMARSHAL;
+import static uk.nhs.adaptors.pss.translator.metrics.PipelineStage.MHS_SEND;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.nhs.adaptors.pss.translator.config.MetricsProperties;
+
+public class PipelineMetricsTest {
+
+    private static final String INTERACTION_ID = "RCMR_IN030000UK06";
+    private static final String EMIS_ASID = "200000000149";
+    private static final String TPP_ASID = "200000000205";
+    private static final int BUNDLE_ENTRIES = 261;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PipelineMetrics pipelineMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        var metricsProperties = new MetricsProperties();
+        metricsProperties.setLosingSystemVendors(EMIS_ASID + "=EMIS, " + TPP_ASID + "=TPP");
+        metricsProperties.setPercentileHistograms("bundle.mapping, PatientMapper");
+
+        meterRegistry = new SimpleMeterRegistry();
+        pipelineMetrics = new PipelineMetrics(meterRegistry, metricsProperties);
+    }
+
+    @Test
+    public void When_MessageClosed_Expect_StagesRecordedWithTagsLearntDuringMessage() {
+        try (var message = pipelineMetrics.startMessage()) {
+            pipelineMetrics.run(JAXB_UNMARSHAL, () -> { });
+            pipelineMetrics.tagInteraction(INTERACTION_ID);
+            pipelineMetrics.tagLosingSystem(EMIS_ASID);
+
+            assertThat(meterRegistry.find(PipelineMetrics.STAGE_TIMER).timers()).isEmpty();
+        }
+
+        assertThat(meterRegistry.get(PipelineMetrics.STAGE_TIMER)
+            .tags("stage", "jaxb.unmarshal", "interaction", INTERACTION_ID, "vendor", "EMIS")
+            .timer()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void When_LosingSystemNotConfigured_Expect_OtherVendor() {
+        try (var message = pipelineMetrics.startMessage()) {
+            pipelineMetrics.tagLosingSystem("999999999999");
+            pipelineMetrics.recordBundleEntries(BUNDLE_ENTRIES);
+        }
+
+        var bundleEntries = meterRegistry.get(PipelineMetrics.BUNDLE_ENTRIES_SUMMARY)
+            .tags("interaction", "unknown", "vendor", "other")
+            .summary();
+        assertThat(bundleEntries.count()).isEqualTo(1);
+        assertThat(bundleEntries.totalAmount()).isEqualTo(BUNDLE_ENTRIES);
+    }
+
+    @Test
+    public void When_RecordedOutsideMessage_Expect_RecordedImmediatelyAsUnknown() {
+        var encoded = pipelineMetrics.time(FHIR_ENCODE, () -> "{}");
+
+        assertThat(encoded).isEqualTo("{}");
+        assertThat(meterRegistry.get(PipelineMetrics.STAGE_TIMER)
+            .tags("stage", "fhir.encode", "interaction", "unknown", "vendor", "unknown")
+            .timer()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void When_TimingStoppedAfterMessageClosed_Expect_RecordedWithMessageTags() {
+        PipelineMetrics.Timing timing;
+        try (var message = pipelineMetrics.startMessage()) {
+            pipelineMetrics.tagInteraction(INTERACTION_ID);
+            pipelineMetrics.tagLosingSystem(TPP_ASID);
+            timing = pipelineMetrics.start(MHS_SEND);
+        }
+
+        timing.stop();
+
+        assertThat(meterRegistry.get(PipelineMetrics.STAGE_TIMER)
+            .tags("stage", "mhs.send", "interaction", INTERACTION_ID, "vendor", "TPP")
+            .timer()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void When_MapperTimed_Expect_MapperTimerTaggedWithMapper() {
+        try (var message = pipelineMetrics.startMessage()) {
+            pipelineMetrics.tagInteraction(INTERACTION_ID);
+            var patientMapper = new PatientMapper();
+            pipelineMetrics.timeMapper(patientMapper, () -> "patient");
+            pipelineMetrics.runMapper(patientMapper, () -> { });
+        }
+
+        assertThat(meterRegistry.get(PipelineMetrics.MAPPER_TIMER)
+            .tags("mapper", "PatientMapper", "interaction", INTERACTION_ID)
+            .timer()
+            .count()).isEqualTo(2);
+    }
+
+    @Test
+    public void When_PercentileHistogramsListed_Expect_OnlyListedTimersPublishHistogram() {
+        pipelineMetrics.run(BUNDLE_MAPPING, () -> { });
+        pipelineMetrics.run(FHIR_ENCODE, () -> { });
+        pipelineMetrics.runMapper(new PatientMapper(), () -> { });
+
+        assertThat(histogramBuckets(PipelineMetrics.STAGE_TIMER, "stage", "bundle.mapping")).isPositive();
+        assertThat(histogramBuckets(PipelineMetrics.STAGE_TIMER, "stage", "fhir.encode")).isZero();
+        assertThat(histogramBuckets(PipelineMetrics.MAPPER_TIMER, "mapper", "PatientMapper")).isPositive();
+    }
+
+    @Test
+    public void When_MessageClosed_Expect_NoLongerBoundToThread() {
+        try (var message = pipelineMetrics.startMessage()) {
+            pipelineMetrics.tagInteraction(INTERACTION_ID);
+        }
+
+        pipelineMetrics.tagInteraction("MCCI_IN010000UK13");
+        pipelineMetrics.recordPayloadLength("inbound.message", 1);
+
+        assertThat(meterRegistry.get(PipelineMetrics.PAYLOAD_LENGTH_SUMMARY)
+            .tags("payload", "inbound.message", "interaction", "unknown")
+            .summary()
+            .count()).isEqualTo(1);
+    }
+
+    private int histogramBuckets(String timer, String tag, String tagValue) {
+        return meterRegistry.get(timer).tags(tag, tagValue).timer().takeSnapshot().histogramCounts().length;
+    }
+
+    private static final class PatientMapper {
+    }
+}
@@ -0,0 +1,74 @@
+package uk.nhs.adaptors.pss.translator.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.text.ParseException;
+
+import org.junit.jupiter.api.Test;
+
+public class AttachmentDescriptorTest {
+    private static final int LENGTH = 4718592;
+    private static final String DESCRIPTION = """
+        Filename="E39E79A2-FA96-48FF-9373-7BBCB9D036E7_0.messageattachment"
+        ContentType=application/vnd.openxmlformats-officedocument.wordprocessingml.document
+        Compressed=Yes
+        LargeAttachment=No
+        OriginalBase64=Yes
+        Length=4718592
+        DomainData="X-GP2GP-Skeleton: Yes"
+        """;
+
+    @Test
+    public void When_ParsingFullDescription_Expect_AllFieldsRead() throws ParseException {
+        var descriptor = AttachmentDescriptor.parse(DESCRIPTION);
+
+        assertThat(descriptor.hasFilename()).isTrue();
+        assertThat(descriptor.getFilename()).isEqualTo("E39E79A2-FA96-48FF-9373-7BBCB9D036E7_0.messageattachment");
+        assertThat(descriptor.getContentType()).isEqualTo("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+        assertThat(descriptor.isCompressed()).isTrue();
+        assertThat(descriptor.isLargeAttachment()).isFalse();
+        assertThat(descriptor.isOriginalBase64()).isTrue();
+        assertThat(descriptor.getLength()).isEqualTo(LENGTH);
+        assertThat(descriptor.isSkeleton()).isTrue();
+        assertThat(descriptor.isEmisStyle()).isFalse();
+        assertThat(descriptor.getDescription()).isEqualTo(DESCRIPTION);
+    }
+
+    @Test
+    public void When_ParsingEmisDescription_Expect_EmisStyleAndMissingFieldsThrow() {
+        var descriptor = AttachmentDescriptor.parse("7CCB2C8A-9E55-4DB6-9D0B-8D1E3AE4C4D9_image.jpg");
+
+        assertThat(descriptor.isEmisStyle()).isTrue();
+        assertThat(descriptor.hasFilename()).isFalse();
+        assertThat(descriptor.getFilenameOrDescription()).isEqualTo("7CCB2C8A-9E55-4DB6-9D0B-8D1E3AE4C4D9_image.jpg");
+        assertThat(descriptor.getLength()).isZero();
+        assertThat(descriptor.isSkeleton()).isFalse();
+        assertThatThrownBy(descriptor::getFilename).isInstanceOf(ParseException.class)
+            .hasMessageContaining("Unable to parse originalFilename");
+        assertThatThrownBy(descriptor::getContentType).isInstanceOf(ParseException.class);
+        assertThatThrownBy(descriptor::isCompressed).isInstanceOf(ParseException.class);
+        assertThatThrownBy(descriptor::isLargeAttachment).isInstanceOf(ParseException.class);
+        assertThatThrownBy(descriptor::isOriginalBase64).isInstanceOf(ParseException.class);
+    }
+
+    @Test
+    public void When_FirstOccurrenceOfFieldIsInvalid_Expect_LaterValidOccurrenceUsed() throws ParseException {
+        var descriptor = AttachmentDescriptor.parse("Filename=\" leading-space.txt\" Compressed=Maybe Filename=\"valid.txt\" Compressed=No");
+
+        assertThat(descriptor.getFilename()).isEqualTo("valid.txt");
+        assertThat(descriptor.isCompressed()).isFalse();
+    }
+
+    @Test
+    public void When_LengthIsEmptyOrTooLarge_Expect_Zero() {
+        assertThat(AttachmentDescriptor.parse("Length= Length=12").getLength()).isZero();
+        assertThat(AttachmentDescriptor.parse("Length=99999999999").getLength()).isZero();
+    }
+
+    @Test
+    public void When_SkeletonPropertyHasWhitespaceAndMixedCase_Expect_Skeleton() {
+        assertThat(AttachmentDescriptor.parse("x-gp2gp- Skeleton :\tyES").isSkeleton()).isTrue();
+        assertThat(AttachmentDescriptor.parse("X-GP2GP-Skeleton: No").isSkeleton()).isFalse();
+    }
+}
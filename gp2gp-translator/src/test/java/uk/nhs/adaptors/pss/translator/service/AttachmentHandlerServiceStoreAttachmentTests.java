@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.Spy;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
@@ -17,6 +18,7 @@ import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.storage.StorageDataUploadWrapper;
 import uk.nhs.adaptors.pss.translator.storage.StorageException;
 import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 import jakarta.xml.bind.ValidationException;
 import java.io.IOException;
@@ -54,6 +56,9 @@ public class AttachmentHandlerServiceStoreAttachmentTests {
     @Mock
     private StorageManagerService storageManagerService;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private AttachmentHandlerService attachmentHandlerService;
 
@@ -9,10 +9,12 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class AttachmentHandlerServiceTests {
@@ -24,6 +26,9 @@ public class AttachmentHandlerServiceTests {
     private static final int MESSAGE_1_LENGTH = 4040;
     private static final int MESSAGE_2_LENGTH = 220;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private AttachmentHandlerService attachmentHandlerService;
 
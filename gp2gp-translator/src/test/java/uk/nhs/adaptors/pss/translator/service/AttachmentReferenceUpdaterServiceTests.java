@@ -11,6 +11,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
@@ -27,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.xml.sax.InputSource;
 
@@ -34,6 +36,7 @@ import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class AttachmentReferenceUpdaterServiceTests {
@@ -47,6 +50,9 @@ public class AttachmentReferenceUpdaterServiceTests {
     @Mock
     private StorageManagerService storageManagerService;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private AttachmentReferenceUpdaterService attachmentReferenceUpdaterService;
 
@@ -200,6 +206,35 @@ public class AttachmentReferenceUpdaterServiceTests {
         assertDoesNotThrow(() -> documentBuilder.parse(inputSource));
     }
 
+    @Test
+    public void When_PendingLocationsGiven_Expect_StorageLocationsResolvedLater()
+            throws AttachmentNotFoundException, ValidationException, InlineAttachmentProcessingException {
+
+        var content = getFileContent(PAYLOAD_XML);
+        var pendingLocation = "urn:pss-adaptor:pending-attachment:277F29F1-FEAB-4D38-8266-FEB7A1E6227D_LICENSE.txt";
+
+        var result = attachmentReferenceUpdaterService.replaceOriginalFilenameWithPendingLocationInEhrExtract(
+            mockAttachment, CONVERSATION_ID, content
+        );
+
+        verifyNoInteractions(storageManagerService);
+        assertTrue(result.contains("<reference value=\"" + pendingLocation + "\""));
+        assertFalse(result.contains("file://localhost/277F29F1-FEAB-4D38-8266-FEB7A1E6227D_LICENSE.txt"));
+
+        when(storageManagerService.getFileLocation("277F29F1-FEAB-4D38-8266-FEB7A1E6227D_LICENSE.txt", CONVERSATION_ID))
+            .thenReturn("https://location.com");
+
+        assertEquals("https://location.com", attachmentReferenceUpdaterService.resolvePendingLocation(pendingLocation, CONVERSATION_ID));
+    }
+
+    @Test
+    public void When_LocationIsNotPending_Expect_LocationUnchanged() {
+        var location = "https://location.com";
+
+        assertEquals(location, attachmentReferenceUpdaterService.resolvePendingLocation(location, CONVERSATION_ID));
+        verifyNoInteractions(storageManagerService);
+    }
+
     @Test
     public void When_MultipleAttachmentsGiven_Expect_GetFileLocationHitMultipleTimes()
             throws AttachmentNotFoundException, ValidationException, InlineAttachmentProcessingException {
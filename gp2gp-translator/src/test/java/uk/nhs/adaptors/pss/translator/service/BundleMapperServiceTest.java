@@ -31,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import lombok.SneakyThrows;
@@ -57,6 +58,7 @@ import uk.nhs.adaptors.pss.translator.mapper.diagnosticreport.DiagnosticReportMa
 import uk.nhs.adaptors.pss.translator.mapper.diagnosticreport.SpecimenCompoundsMapper;
 import uk.nhs.adaptors.pss.translator.mapper.diagnosticreport.SpecimenMapper;
 import uk.nhs.adaptors.pss.translator.mapper.medication.MedicationRequestMapper;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class BundleMapperServiceTest {
@@ -115,6 +117,9 @@ public class BundleMapperServiceTest {
     @Mock
     private DuplicateObservationStatementMapper duplicateObservationStatementMapper;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private BundleMapperService bundleMapperService;
 
@@ -13,8 +13,10 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_TRANSLATED;
 import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.EHR_EXTRACT_CANNOT_BE_PROCESSED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED;
@@ -25,11 +27,13 @@ import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.ValidationException;
 import javax.xml.transform.TransformerException;
 
+import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.v3.RCMRIN030000UKMessage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -53,7 +57,9 @@ import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.NACKReason;
 import uk.nhs.adaptors.pss.translator.storage.StorageManagerService;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
+import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
 import uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class InboundMessageMergingServiceTests {
@@ -61,6 +67,8 @@ public class InboundMessageMergingServiceTests {
     private static final String CONVERSATION_ID = randomUUID().toString();
     private static final String NHS_NUMBER = "1111";
     private static final String FILENAME = "test_main.txt";
+    private static final String PRE_MAPPED_BUNDLE = "{\"resourceType\":\"Bundle\",\"id\":\"pre-mapped\"}";
+    private static final String MERGED_BUNDLE = "{\"resourceType\":\"Bundle\",\"id\":\"merged\"}";
 
     @Mock
     private NodeList nodeList;
@@ -102,6 +110,11 @@ public class InboundMessageMergingServiceTests {
     private XmlUnmarshallUtil xmlUnmarshallUtil;
     @Mock
     private SkeletonProcessingService skeletonProcessingService;
+    @Mock
+    private InboundMessageUtil inboundMessageUtil;
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
 
     @InjectMocks
     private InboundMessageMergingService inboundMessageMergingService;
@@ -116,12 +129,34 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(attachmentReferenceUpdaterService.replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any()))
             .thenReturn(inboundMessage.getPayload());
 
     }
 
+    @SneakyThrows
+    private void prepareMappingMocks() {
+        var bundle = new Bundle();
+        when(bundleMapperService.mapToBundle(any(RCMRIN030000UKMessage.class), any(), anyList())).thenReturn(bundle);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(MERGED_BUNDLE);
+    }
+
+    @SneakyThrows
+    private void preparePreMappingMocks(InboundMessage inboundMessage, ArrayList<PatientAttachmentLog> attachments) {
+        var inboundMessageAsString = objectMapper.writeValueAsString(inboundMessage);
+        var patientMigrationRequest = PatientMigrationRequest
+                .builder()
+                .inboundMessage(inboundMessageAsString)
+                .build();
+
+        when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
+        when(migrationRequestDao.getMigrationRequest(CONVERSATION_ID)).thenReturn(patientMigrationRequest);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
+        when(attachmentReferenceUpdaterService.replaceOriginalFilenameWithPendingLocationInEhrExtract(any(), eq(CONVERSATION_ID), any()))
+            .thenReturn(inboundMessage.getPayload());
+    }
+
     @Test
     public void When_HappyPathWithSkeleton_Expect_ThrowNoErrors() throws JAXBException, JsonProcessingException, TransformerException,
         SAXException {
@@ -133,11 +168,12 @@ public class InboundMessageMergingServiceTests {
         inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
 
         prepareMocks(inboundMessage, attachments);
+        prepareMappingMocks();
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
 
-        verify(nackAckPreparationService, never()).sendNackMessage(any(NACKReason.class), any(RCMRIN030000UKMessage.class), any());
+        verify(nackAckPreparationService, never()).sendNackMessage(any(NACKReason.class), any(PatientMigrationRequest.class));
         verify(migrationStatusLogService,
                 times(1)).updatePatientMigrationRequestAndAddMigrationStatusLog(any(), any(), any(), any(), isNull());
     }
@@ -154,6 +190,7 @@ public class InboundMessageMergingServiceTests {
         inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
 
         prepareMocks(inboundMessage, attachments);
+        prepareMappingMocks();
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
@@ -172,18 +209,32 @@ public class InboundMessageMergingServiceTests {
         inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
 
         prepareMocks(inboundMessage, attachments);
+        prepareMappingMocks();
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
 
-        verify(nackAckPreparationService, never()).sendNackMessage(any(NACKReason.class), any(RCMRIN030000UKMessage.class), any());
+        verify(nackAckPreparationService, never()).sendNackMessage(any(NACKReason.class), any(PatientMigrationRequest.class));
         verify(attachmentHandlerService, never()).getAttachment(any(), any());
         verify(skeletonProcessingService, times(0)).updateInboundMessageWithSkeleton(any(), any(), any());
         verify(migrationStatusLogService,
                 times(1)).updatePatientMigrationRequestAndAddMigrationStatusLog(any(), any(), any(), any(), isNull());
     }
 
+    @Test
+    public void When_BundleAlreadyCreatedForConversation_Expect_MergeSkipped() throws JAXBException, JsonProcessingException {
+        var patientMigrationRequest = PatientMigrationRequest
+                .builder()
+                .bundleResource("{\"resourceType\":\"Bundle\"}")
+                .build();
+        when(migrationRequestDao.getMigrationRequest(CONVERSATION_ID)).thenReturn(patientMigrationRequest);
+
+        inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
+
+        verifyNoInteractions(objectMapper, inboundMessageUtil, bundleMapperService, migrationStatusLogService, nackAckPreparationService);
+    }
+
     @Test
     public void When_UpdateInboundMessageWithSkeletonThrowsSAXException_Expect_SendNack() throws JAXBException,
         JsonProcessingException, SAXException, TransformerException, AttachmentNotFoundException, InlineAttachmentProcessingException {
@@ -203,11 +254,11 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
 
         doThrow(SAXException.class).when(skeletonProcessingService).updateInboundMessageWithSkeleton(any(), any(), any());
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
-        verify(nackAckPreparationService, times(1)).sendNackMessage(any(NACKReason.class), any(RCMRIN030000UKMessage.class), any());
+        verify(nackAckPreparationService, times(1)).sendNackMessage(any(NACKReason.class), any(PatientMigrationRequest.class));
     }
 
 
@@ -229,14 +280,14 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
 
         doThrow(ValidationException.class).when(attachmentReferenceUpdaterService)
             .replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any());
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
-        verify(nackAckPreparationService, times(1)).sendNackMessage(any(NACKReason.class), any(RCMRIN030000UKMessage.class), any());
+        verify(nackAckPreparationService, times(1)).sendNackMessage(any(NACKReason.class), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -257,7 +308,7 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
 
         doThrow(InlineAttachmentProcessingException.class)
@@ -266,7 +317,7 @@ public class InboundMessageMergingServiceTests {
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
         verify(nackAckPreparationService, times(1))
-                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(RCMRIN030000UKMessage.class), any());
+                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -287,7 +338,7 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
 
         doThrow(AttachmentNotFoundException.class).when(attachmentReferenceUpdaterService)
@@ -295,7 +346,7 @@ public class InboundMessageMergingServiceTests {
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
         verify(nackAckPreparationService, times(1))
-                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(RCMRIN030000UKMessage.class), any());
+                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -318,13 +369,13 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
 
         doThrow(TransformerException.class).when(skeletonProcessingService).updateInboundMessageWithSkeleton(any(), any(), any());
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
         verify(nackAckPreparationService, times(1))
-                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(RCMRIN030000UKMessage.class), any());
+                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -345,13 +396,13 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(attachmentReferenceUpdaterService.replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any())).thenReturn("");
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
         verify(nackAckPreparationService, times(1))
-                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(RCMRIN030000UKMessage.class), any());
+                .sendNackMessage(eq(LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -372,7 +423,7 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(attachmentReferenceUpdaterService.replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any()))
             .thenReturn(inboundMessage.getPayload());
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
@@ -381,7 +432,7 @@ public class InboundMessageMergingServiceTests {
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
         verify(nackAckPreparationService, times(1))
-                .sendNackMessage(eq(EHR_EXTRACT_CANNOT_BE_PROCESSED), any(RCMRIN030000UKMessage.class), any());
+                .sendNackMessage(eq(EHR_EXTRACT_CANNOT_BE_PROCESSED), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -402,15 +453,16 @@ public class InboundMessageMergingServiceTests {
 
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
         when(migrationRequestDao.getMigrationRequest(any())).thenReturn(patientMigrationRequest);
-        when(objectMapper.readValue(inboundMessageAsString, InboundMessage.class)).thenReturn(inboundMessage);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(inboundMessageAsString)).thenReturn(inboundMessage);
         when(attachmentReferenceUpdaterService.replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any()))
             .thenReturn(inboundMessage.getPayload());
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
+        prepareMappingMocks();
 
         doThrow(JsonProcessingException.class).when(objectMapper).writeValueAsString(any(InboundMessage.class));
 
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
-        verify(nackAckPreparationService, times(1)).sendNackMessage(any(NACKReason.class), any(RCMRIN030000UKMessage.class), any());
+        verify(nackAckPreparationService, times(1)).sendNackMessage(any(NACKReason.class), any(PatientMigrationRequest.class));
     }
 
     @Test
@@ -458,6 +510,7 @@ public class InboundMessageMergingServiceTests {
         inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
 
         prepareMocks(inboundMessage, attachments);
+        prepareMappingMocks();
 
         // no need for skeleton here
         when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(attachments);
@@ -465,7 +518,79 @@ public class InboundMessageMergingServiceTests {
         inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
 
         verify(attachmentReferenceUpdaterService).replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any());
-        verify(nackAckPreparationService, never()).sendNackMessage(any(NACKReason.class), any(RCMRIN030000UKMessage.class), any());
+        verify(nackAckPreparationService, never()).sendNackMessage(any(NACKReason.class), any(PatientMigrationRequest.class));
+    }
+
+
+    @Test
+    public void When_BundleWasPreMapped_Expect_AttachmentSizesUpdatedWithoutMappingAgain() throws JAXBException,
+        JsonProcessingException, BundleMappingException {
+        var inboundMessage = new InboundMessage();
+        var attachments = createPatientAttachmentList(true, false);
+        var bundle = new Bundle();
+
+        inboundMessage.setPayload(readInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
+
+        prepareMocks(inboundMessage, attachments);
+        when(migrationRequestDao.getMigrationRequest(any())).thenReturn(PatientMigrationRequest.builder()
+            .preMappedBundleResource(PRE_MAPPED_BUNDLE)
+            .build());
+        when(fhirParser.parseResource(PRE_MAPPED_BUNDLE, Bundle.class)).thenReturn(bundle);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(MERGED_BUNDLE);
+
+        inboundMessageMergingService.mergeAndBundleMessage(CONVERSATION_ID);
+
+        verify(bundleMapperService).updateAttachments(eq(bundle), any(), eq(attachments));
+        verify(bundleMapperService, never()).mapToBundle(any(), any(), any());
+        verify(migrationStatusLogService).updatePatientMigrationRequestAndAddMigrationStatusLog(
+            eq(CONVERSATION_ID), eq(MERGED_BUNDLE), any(), eq(EHR_EXTRACT_TRANSLATED), isNull());
+    }
+
+    @Test
+    public void When_PreMappingBundle_Expect_PreMappedBundleSaved() throws JAXBException, BundleMappingException {
+        var inboundMessage = new InboundMessage();
+        var attachments = createPatientAttachmentList(false, false);
+        var bundle = new Bundle();
+
+        inboundMessage.setPayload(readInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
+
+        preparePreMappingMocks(inboundMessage, attachments);
+        when(bundleMapperService.mapToBundle(any(RCMRIN030000UKMessage.class), any(), eq(attachments))).thenReturn(bundle);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(PRE_MAPPED_BUNDLE);
+
+        inboundMessageMergingService.preMapBundle(CONVERSATION_ID);
+
+        verify(attachmentReferenceUpdaterService, never()).replaceOriginalFilenameWithStorageFilenameInEhrExtract(any(), any(), any());
+        verify(migrationRequestDao).savePreMappedBundle(CONVERSATION_ID, PRE_MAPPED_BUNDLE);
+        verifyNoInteractions(migrationStatusLogService, nackAckPreparationService);
+    }
+
+    @Test
+    public void When_PreMappingBundleBeforeSkeletonArrives_Expect_NothingMapped() throws JAXBException {
+        when(patientAttachmentLogService.findAttachmentLogs(CONVERSATION_ID)).thenReturn(createPatientAttachmentList(false, true));
+
+        inboundMessageMergingService.preMapBundle(CONVERSATION_ID);
+
+        verifyNoInteractions(migrationRequestDao, bundleMapperService, attachmentReferenceUpdaterService);
+    }
+
+    @Test
+    public void When_PreMappingBundleFails_Expect_NothingSavedAndNoNack() throws JAXBException, BundleMappingException {
+        var inboundMessage = new InboundMessage();
+        var attachments = createPatientAttachmentList(false, false);
+
+        inboundMessage.setPayload(readInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
+
+        preparePreMappingMocks(inboundMessage, attachments);
+        doThrow(BundleMappingException.class).when(bundleMapperService).mapToBundle(any(RCMRIN030000UKMessage.class), any(), anyList());
+
+        inboundMessageMergingService.preMapBundle(CONVERSATION_ID);
+
+        verify(migrationRequestDao, never()).savePreMappedBundle(any(), any());
+        verifyNoInteractions(migrationStatusLogService, nackAckPreparationService);
     }
 
 
@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,12 +36,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import lombok.SneakyThrows;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
+import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
+import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
 import uk.nhs.adaptors.pss.translator.model.NACKReason;
 import uk.nhs.adaptors.pss.translator.task.SendNACKMessageHandler;
+import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
 
 @ExtendWith(MockitoExtension.class)
 class NackAckPreparationServiceTest {
@@ -59,6 +65,9 @@ class NackAckPreparationServiceTest {
     @Mock
     private SendNACKMessageHandler sendNACKMessageHandler;
 
+    @Mock
+    private InboundMessageUtil inboundMessageUtil;
+
     @InjectMocks
     private NackAckPreparationService nackAckPreparationService;
 
@@ -392,6 +401,69 @@ class NackAckPreparationServiceTest {
         assertEquals(ERROR_EXTRACT_CANNOT_BE_PROCESSED, migrationStatusCaptor.getValue());
     }
 
+    @Test
+    public void When_PrepareNackMessageData_WithSavedEhrExtractHeader_Expect_InboundMessageNotRead()
+            throws JsonProcessingException, JAXBException {
+        PatientMigrationRequest migrationRequest = PatientMigrationRequest.builder()
+                .conversationId(CONVERSATION_ID)
+                .ehrExtractMessageRef(TEST_MESSAGE_REF)
+                .winningPracticeAsid(TEST_FROM_ASID)
+                .losingPracticeAsid(TEST_TO_ASID)
+                .ehrExtractAuthorOdsCode(TEST_TO_ODS)
+                .build();
+
+        NACKMessageData messageData = nackAckPreparationService.prepareNackMessageData(EHR_EXTRACT_CANNOT_BE_PROCESSED, migrationRequest);
+
+        assertEquals(expectedNackMessageData(), messageData);
+        verify(inboundMessageUtil, never()).readMessageWithoutAttachmentPayloads(any());
+    }
+
+    @Test
+    public void When_PrepareNackMessageData_WithoutSavedEhrExtractHeader_Expect_HeaderParsedFromInboundMessage()
+            throws JsonProcessingException, JAXBException {
+        PatientMigrationRequest migrationRequest = PatientMigrationRequest.builder()
+                .conversationId(CONVERSATION_ID)
+                .inboundMessage("inbound message")
+                .build();
+        InboundMessage inboundMessage = new InboundMessage();
+        inboundMessage.setPayload(readInboundMessagePayloadFromFile());
+
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads("inbound message")).thenReturn(inboundMessage);
+
+        NACKMessageData messageData = nackAckPreparationService.prepareNackMessageData(EHR_EXTRACT_CANNOT_BE_PROCESSED, migrationRequest);
+
+        assertEquals(expectedNackMessageData(), messageData);
+    }
+
+    @Test
+    public void When_SendNackMessage_WithMigrationRequest_Expect_ShouldUpdateLogAndSend() throws JsonProcessingException, JAXBException {
+        PatientMigrationRequest migrationRequest = PatientMigrationRequest.builder()
+                .conversationId(CONVERSATION_ID)
+                .ehrExtractMessageRef(TEST_MESSAGE_REF)
+                .winningPracticeAsid(TEST_FROM_ASID)
+                .losingPracticeAsid(TEST_TO_ASID)
+                .ehrExtractAuthorOdsCode(TEST_TO_ODS)
+                .build();
+
+        when(sendNACKMessageHandler.prepareAndSendMessage(any(NACKMessageData.class))).thenReturn(true);
+
+        assertTrue(nackAckPreparationService.sendNackMessage(EHR_EXTRACT_CANNOT_BE_PROCESSED, migrationRequest));
+        verify(migrationStatusLogService)
+            .addMigrationStatusLog(ERROR_EXTRACT_CANNOT_BE_PROCESSED, CONVERSATION_ID, null, EHR_EXTRACT_CANNOT_BE_PROCESSED.getCode());
+        verify(sendNACKMessageHandler).prepareAndSendMessage(expectedNackMessageData());
+    }
+
+    private NACKMessageData expectedNackMessageData() {
+        return NACKMessageData.builder()
+                .nackCode(EHR_EXTRACT_CANNOT_BE_PROCESSED.getCode())
+                .toOdsCode(TEST_TO_ODS)
+                .toAsid(TEST_TO_ASID)
+                .fromAsid(TEST_FROM_ASID)
+                .conversationId(CONVERSATION_ID)
+                .messageRef(TEST_MESSAGE_REF)
+                .build();
+    }
+
     @SneakyThrows
     private String readInboundMessagePayloadFromFile() {
         return readResourceAsString("/xml/inbound_message_payload.xml").replace("{{nhsNumber}}", NHS_NUMBER);
@@ -0,0 +1,134 @@
+package uk.nhs.adaptors.pss.translator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Mono;
+import uk.nhs.adaptors.pss.translator.config.OutboundRequestProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboundRequestSenderTest {
+
+    private static final int MAX_RETRIES = 2;
+    private static final int MAX_IN_FLIGHT = 3;
+
+    @Mock
+    private WebClient.RequestHeadersSpec request;
+
+    @Mock
+    private WebClient.ResponseSpec responseSpec;
+
+    private OutboundRequestSender requestSender;
+    private AtomicInteger attempts;
+
+    @BeforeEach
+    public void setup() {
+        OutboundRequestProperties properties = new OutboundRequestProperties();
+        properties.setMaxRetries(MAX_RETRIES);
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        properties.setMaxInFlight(MAX_IN_FLIGHT);
+        requestSender = new OutboundRequestSender(properties);
+        attempts = new AtomicInteger();
+
+        when(request.retrieve()).thenReturn(responseSpec);
+    }
+
+    @Test
+    public void When_Send_WithSuccess_Expect_ResponseBodyReturnedAndPermitReleased() {
+        respondWith(Mono.just("response"));
+
+        assertThat(requestSender.send(request).block()).isEqualTo("response");
+        assertThat(attempts.get()).isOne();
+        assertThat(requestSender.getAvailablePermits()).isEqualTo(MAX_IN_FLIGHT);
+    }
+
+    @Test
+    public void When_Send_WithServerError_Expect_NotRetriedAndPermitReleased() {
+        respondWith(Mono.error(buildResponseException(INTERNAL_SERVER_ERROR)));
+
+        assertThatThrownBy(() -> requestSender.send(request).block())
+            .isInstanceOf(WebClientResponseException.class);
+        assertThat(attempts.get()).isOne();
+        assertThat(requestSender.getAvailablePermits()).isEqualTo(MAX_IN_FLIGHT);
+    }
+
+    @Test
+    public void When_Send_WithClientError_Expect_NotRetried() {
+        respondWith(Mono.error(buildResponseException(BAD_REQUEST)));
+
+        assertThatThrownBy(() -> requestSender.send(request).block())
+            .isInstanceOf(WebClientResponseException.class);
+        assertThat(attempts.get()).isOne();
+    }
+
+    @Test
+    public void When_Send_WithConnectionFailure_Expect_RetriedThenOriginalExceptionThrown() {
+        respondWith(Mono.error(buildRequestException(new ConnectException("Connection refused"))));
+
+        assertThatThrownBy(() -> requestSender.send(request).block())
+            .isInstanceOf(WebClientRequestException.class);
+        assertThat(attempts.get()).isEqualTo(MAX_RETRIES + 1);
+        assertThat(requestSender.getAvailablePermits()).isEqualTo(MAX_IN_FLIGHT);
+    }
+
+    @Test
+    public void When_Send_WithReadTimeout_Expect_NotRetried() {
+        respondWith(Mono.error(buildRequestException(new TimeoutException("Read timed out"))));
+
+        assertThatThrownBy(() -> requestSender.send(request).block())
+            .isInstanceOf(WebClientRequestException.class);
+        assertThat(attempts.get()).isOne();
+    }
+
+    @Test
+    public void When_Send_WithTooManyRequestsInFlight_Expect_RejectedWithoutSending() {
+        respondWith(Mono.never());
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            requestSender.send(request).subscribe();
+        }
+
+        assertThatThrownBy(() -> requestSender.send(request).block())
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThat(attempts.get()).isEqualTo(MAX_IN_FLIGHT);
+        assertThat(requestSender.getAvailablePermits()).isZero();
+    }
+
+    private void respondWith(Mono<String> response) {
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return response;
+        }));
+    }
+
+    private WebClientRequestException buildRequestException(Exception cause) {
+        return new WebClientRequestException(cause, HttpMethod.POST, URI.create("http://localhost/"), new HttpHeaders());
+    }
+
+    private WebClientResponseException buildResponseException(HttpStatus status) {
+        return new WebClientResponseException(status.value(), status.getReasonPhrase(), new HttpHeaders(), new byte[] {},
+            Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,49 @@
+package uk.nhs.adaptors.pss.translator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.netty.resources.ConnectionProvider;
+import uk.nhs.adaptors.pss.translator.config.HttpClientPoolProperties;
+import uk.nhs.adaptors.pss.translator.config.OutboundRequestProperties;
+
+public class RequestBuilderServiceTest {
+
+    private static final int MAX_CONNECTIONS = 7;
+
+    private final RequestBuilderService requestBuilderService = new RequestBuilderService();
+    private ConnectionProvider connectionProvider;
+
+    @AfterEach
+    public void tearDown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+
+    @Test
+    public void When_BuildConnectionProvider_Expect_PoolSizedFromProperties() {
+        HttpClientPoolProperties pool = new HttpClientPoolProperties();
+        pool.setMaxConnections(MAX_CONNECTIONS);
+        pool.setMetricsEnabled(false);
+
+        connectionProvider = requestBuilderService.buildConnectionProvider("test-pool", pool);
+
+        assertThat(connectionProvider.name()).isEqualTo("test-pool");
+        assertThat(connectionProvider.maxConnections()).isEqualTo(MAX_CONNECTIONS);
+    }
+
+    @Test
+    public void When_BuildHttpClient_Expect_ClientUsesSuppliedConnectionProvider() {
+        HttpClientPoolProperties pool = new HttpClientPoolProperties();
+        pool.setMetricsEnabled(false);
+        connectionProvider = requestBuilderService.buildConnectionProvider("test-pool", pool);
+
+        var httpClient = requestBuilderService.buildHttpClient(connectionProvider, pool, new OutboundRequestProperties());
+
+        assertThat(httpClient.configuration().connectionProvider()).isSameAs(connectionProvider);
+        assertThat(httpClient.configuration().isSecure()).isTrue();
+    }
+}
@@ -91,7 +91,7 @@ public class SDSServiceTest {
 
     @Test
     public void When_GetPersistDurationForEHRExtract_WithWebClientResponseException_Expect_ThrowsSdsRetrievalException() {
-        when(sdsClientService.send(any())).thenThrow(new WebClientResponseException(
+        when(sdsClientService.sendAndWait(any())).thenThrow(new WebClientResponseException(
                 HttpStatus.BAD_REQUEST.value(),
                 "BAD REQUEST",
                 new HttpHeaders(),
@@ -105,7 +105,7 @@ public class SDSServiceTest {
 
     @Test
     public void When_GetPersistDurationFor_WhenEHRExtractValidInput_Expect_CorrectDuration() {
-        when(sdsClientService.send(any())).thenReturn(sdsResponseEHRExtract);
+        when(sdsClientService.sendAndWait(any())).thenReturn(sdsResponseEHRExtract);
         when(fhirParser.parseResource(any(), eq(Bundle.class))).thenReturn(ehrResponseBundle);
 
         Duration parsedDuration = sdsService.getPersistDurationFor(EHR_EXTRACT_MESSAGE_TYPE, TEST_ODS_CODE, TEST_CONVERSATION_ID);
@@ -125,7 +125,7 @@ public class SDSServiceTest {
 
     @Test
     public void When_GetPersistDurationFor_WhenCOPCValidInput_Expect_CorrectDuration() {
-        when(sdsClientService.send(any())).thenReturn(sdsResponseCopcMessage);
+        when(sdsClientService.sendAndWait(any())).thenReturn(sdsResponseCopcMessage);
         when(fhirParser.parseResource(any(), eq(Bundle.class))).thenReturn(copcResponseBundle);
 
         Duration parsedDuration = sdsService.getPersistDurationFor(COPC_MESSAGE_TYPE, TEST_ODS_CODE, TEST_CONVERSATION_ID);
@@ -135,7 +135,7 @@ public class SDSServiceTest {
 
     @Test
     public void When_GetPersistDurationFor_WhenNoResults_Expect_SdsRetrievalException() {
-        when(sdsClientService.send(any())).thenReturn(sdsResponseNoResults);
+        when(sdsClientService.sendAndWait(any())).thenReturn(sdsResponseNoResults);
         when(fhirParser.parseResource(any(), eq(Bundle.class))).thenReturn(noResultsBundle);
 
         assertThrows(SdsRetrievalException.class,
@@ -144,7 +144,7 @@ public class SDSServiceTest {
 
     @Test
     public void When_GetPersistDurationFor_FHIRValidationException_Expect_SdsRetrievalException() {
-        when(sdsClientService.send(any())).thenReturn(sdsResponseEHRExtract);
+        when(sdsClientService.sendAndWait(any())).thenReturn(sdsResponseEHRExtract);
         when(fhirParser.parseResource(any(), eq(Bundle.class))).thenThrow(FhirValidationException.class);
 
         assertThrows(SdsRetrievalException.class,
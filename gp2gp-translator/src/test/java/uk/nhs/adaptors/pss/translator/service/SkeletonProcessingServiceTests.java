@@ -2,6 +2,7 @@ package uk.nhs.adaptors.pss.translator.service;
 
 import static java.util.UUID.randomUUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,10 +23,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -40,6 +39,7 @@ import uk.nhs.adaptors.connector.service.PatientAttachmentLogService;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.EbxmlReference;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class SkeletonProcessingServiceTests {
@@ -47,11 +47,8 @@ public class SkeletonProcessingServiceTests {
     private static final String CONVERSATION_ID = randomUUID().toString();
     private static final String NHS_NUMBER = "1111";
     private static final String FILENAME = "test_main.txt";
+    private static final String SKELETON_DOCUMENT_ID = "31B75ED0-6E88-11EA-9384-E83935108FD5";
 
-    @Mock
-    private NodeList nodeList;
-    @Mock
-    private Node node;
     @Mock
     private PatientAttachmentLogService patientAttachmentLogService;
     @Mock
@@ -63,13 +60,7 @@ public class SkeletonProcessingServiceTests {
     @Mock
     private BundleMapperService bundleMapperService;
     @Mock
-    private XPathService xPathService;
-    @Mock
-    private Document ebXmlDocument;
-    @Mock
     private InboundMessage inboundMessageMock;
-    @Mock
-    private Document document;
 
     @Mock
     private AttachmentHandlerService attachmentHandlerService;
@@ -78,6 +69,9 @@ public class SkeletonProcessingServiceTests {
     @Mock
     private MigrationStatusLogService migrationStatusLogService;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private SkeletonProcessingService skeletonProcessingService;
 
@@ -93,24 +87,16 @@ public class SkeletonProcessingServiceTests {
 
     private void prepareSkeletonNonRCMRMocks(InboundMessage inboundMessage) throws SAXException, TransformerException {
 
-        var reference = new EbxmlReference("First instance is always a payload", "mid:1", "docId");
+        var reference = new EbxmlReference("First instance is always a payload", "mid:1", SKELETON_DOCUMENT_ID);
         var ebXmlAttachments = Arrays.asList(reference);
         var fileAsBytes = readInboundMessageSkeletonPayloadFromFile().getBytes(StandardCharsets.UTF_8);
         when(attachmentHandlerService.getAttachment(any(), any())).thenReturn(fileAsBytes);
         when(xmlParseUtilService.getEbxmlAttachmentsData(any())).thenReturn(ebXmlAttachments);
-        when(xPathService.parseDocumentFromXml(any())).thenReturn(ebXmlDocument);
-        when(xPathService.getNodes(any(), any())).thenReturn(nodeList);
-        when(nodeList.item(0)).thenReturn(node);
-        when(ebXmlDocument.getElementsByTagName("*")).thenReturn(nodeList);
-        when(xmlParseUtilService.getStringFromDocument(any())).thenReturn(inboundMessage.getPayload());
-        when(node.getOwnerDocument()).thenReturn(ebXmlDocument);
-        when(node.getParentNode()).thenReturn(node);
     }
 
     private void prepareSkeletonRCMRMocks(InboundMessage inboundMessage) throws SAXException, TransformerException {
 
         var fileAsBytes = readInboundMessagePayloadFromFile().getBytes(StandardCharsets.UTF_8);
-        when(xmlParseUtilService.getStringFromDocument(any())).thenReturn(inboundMessage.getPayload());
         when(attachmentHandlerService.getAttachment(any(), any())).thenReturn(fileAsBytes);
     }
 
@@ -159,7 +145,10 @@ public class SkeletonProcessingServiceTests {
         var newInboundMessage =
             skeletonProcessingService.updateInboundMessageWithSkeleton(attachmentLog, inboundMessage, CONVERSATION_ID);
 
-        assertEquals(newInboundMessage.getPayload(), readInboundMessagePayloadFromFile());
+        var xPathService = new XPathService();
+        var expectedPayload = new XmlParseUtilService(xPathService)
+            .getStringFromDocument(xPathService.parseDocumentFromXml(readInboundMessagePayloadFromFile()));
+        assertEquals(expectedPayload, newInboundMessage.getPayload());
     }
 
     @Test
@@ -189,6 +178,22 @@ public class SkeletonProcessingServiceTests {
         skeletonProcessingService.updateInboundMessageWithSkeleton(attachmentLog, inboundMessage, CONVERSATION_ID);
     }
 
+    @Test
+    public void When_SkeletonAsSectionMessage_Expect_ReferencingElementReplacedWithSkeleton() throws TransformerException, SAXException {
+        var inboundMessage = new InboundMessage();
+        var attachmentLog = createSkeletonPatientAttachmentLog();
+
+        inboundMessage.setPayload(readInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
+
+        prepareNonRCMRMocks(inboundMessage);
+        var newInboundMessage =
+            skeletonProcessingService.updateInboundMessageWithSkeleton(attachmentLog, inboundMessage, CONVERSATION_ID);
+
+        assertThat(newInboundMessage.getPayload())
+            .containsPattern("<reference typeCode=\"REFR\">\\s*<NarrativeStatement classCode=\"OBS\" moodCode=\"EVN\">");
+    }
+
     @Test
     public void When_SkeletonAsSectionMessageAndEBXMLSkeletonReferenceIsEmpty_Expect_IllegalArgumentException()
         throws SAXException {
@@ -203,7 +208,6 @@ public class SkeletonProcessingServiceTests {
         var fileAsBytes = readInboundMessageSkeletonPayloadFromFile().getBytes(StandardCharsets.UTF_8);
         when(attachmentHandlerService.getAttachment(any(), any())).thenReturn(fileAsBytes);
         when(xmlParseUtilService.getEbxmlAttachmentsData(any())).thenReturn(ebXmlAttachments);
-        when(xPathService.parseDocumentFromXml(any())).thenReturn(ebXmlDocument);
 
         var emptyAttachmentsData = new ArrayList<EbxmlReference>();
         when(xmlParseUtilService.getEbxmlAttachmentsData(any())).thenReturn(
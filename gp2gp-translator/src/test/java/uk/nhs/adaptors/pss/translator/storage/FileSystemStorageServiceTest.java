@@ -0,0 +1,118 @@
+package uk.nhs.adaptors.pss.translator.storage;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileSystemStorageServiceTest {
+    private static final String CONVERSATION_ID = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+    private static final String FILENAME = CONVERSATION_ID + "_31B75ED0-6E88-11EA-9384-E83935108FD5_patient-attachment.txt";
+    private static final int LARGE_FILE_SIZE = 3 * 1024 * 1024;
+
+    @TempDir
+    private Path rootDirectory;
+
+    private FileSystemStorageService storageService;
+
+    @BeforeEach
+    public void setUp() {
+        var configuration = new StorageServiceConfiguration();
+        configuration.setContainerName(rootDirectory.toString());
+        storageService = new FileSystemStorageService(configuration);
+    }
+
+    @Test
+    public void When_FileUploaded_Expect_FileStoredInConversationDirectory() throws IOException {
+        storageService.uploadFile(FILENAME, "content".getBytes(UTF_8));
+
+        Path conversationDirectory = rootDirectory.resolve("6E").resolve(CONVERSATION_ID);
+        assertThat(conversationDirectory.resolve("31B75ED0-6E88-11EA-9384-E83935108FD5_patient-attachment.txt"))
+            .hasContent("content");
+        try (Stream<Path> files = Files.list(conversationDirectory)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    public void When_FileUploaded_Expect_SameContentDownloaded() {
+        storageService.uploadFile(FILENAME, "content".getBytes(UTF_8));
+
+        assertThat(storageService.downloadFile(FILENAME)).isEqualTo("content".getBytes(UTF_8));
+    }
+
+    @Test
+    public void When_LargeFileUploaded_Expect_SameContentDownloaded() {
+        byte[] content = new byte[LARGE_FILE_SIZE];
+        new Random(0).nextBytes(content);
+
+        storageService.uploadFile(FILENAME, content);
+
+        assertThat(storageService.downloadFile(FILENAME)).isEqualTo(content);
+    }
+
+    @Test
+    public void When_FileUploadedTwice_Expect_LatestContentDownloaded() {
+        storageService.uploadFile(FILENAME, "first content".getBytes(UTF_8));
+        storageService.uploadFile(FILENAME, "second".getBytes(UTF_8));
+
+        assertThat(storageService.downloadFile(FILENAME)).isEqualTo("second".getBytes(UTF_8));
+    }
+
+    @Test
+    public void When_EmptyFileUploaded_Expect_EmptyContentDownloaded() {
+        storageService.uploadFile(FILENAME, new byte[0]);
+
+        assertThat(storageService.downloadFile(FILENAME)).isEmpty();
+    }
+
+    @Test
+    public void When_FileDeleted_Expect_DownloadThrowsStorageException() {
+        storageService.uploadFile(FILENAME, "content".getBytes(UTF_8));
+
+        storageService.deleteFile(FILENAME);
+
+        assertThatThrownBy(() -> storageService.downloadFile(FILENAME))
+            .isInstanceOf(StorageException.class)
+            .hasMessageContaining("does not exist");
+    }
+
+    @Test
+    public void When_FileDoesNotExist_Expect_DeleteDoesNotThrow() {
+        storageService.deleteFile(FILENAME);
+    }
+
+    @Test
+    public void When_FilenameContainsPathSegments_Expect_FileStoredWithinConversationDirectory() {
+        String filename = CONVERSATION_ID + "_../../../etc/passwd";
+
+        storageService.uploadFile(filename, "content".getBytes(UTF_8));
+
+        assertThat(rootDirectory.resolve("6E").resolve(CONVERSATION_ID).resolve("%2E.%2F..%2F..%2Fetc%2Fpasswd")).hasContent("content");
+    }
+
+    @Test
+    public void When_GettingFileLocation_Expect_FilenameWithoutRootDirectory() {
+        storageService.uploadFile(FILENAME, "content".getBytes(UTF_8));
+
+        assertThat(storageService.getFileLocation(FILENAME)).isEqualTo(FILENAME);
+    }
+
+    @Test
+    public void When_ContainerNameNotSet_Expect_StorageException() {
+        var configuration = new StorageServiceConfiguration();
+
+        assertThatThrownBy(() -> new FileSystemStorageService(configuration))
+            .isInstanceOf(StorageException.class);
+    }
+}
@@ -18,13 +18,13 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static uk.nhs.adaptors.common.enums.MessageStage.ACK_SENT;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.COPC_MESSAGE_RECEIVED;
 import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_ATTACHMENTS_NOT_RECEIVED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.LARGE_MESSAGE_GENERAL_FAILURE;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
 
-import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -34,7 +34,6 @@ import jakarta.xml.bind.ValidationException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hl7.v3.COPCIN000001UK01Message;
-import org.hl7.v3.RCMRIN030000UKMessage;
 import org.jdbi.v3.core.ConnectionException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +43,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.web.reactive.function.client.WebClientRequestException;
@@ -56,6 +56,8 @@ import lombok.SneakyThrows;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
 import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
+import uk.nhs.adaptors.connector.service.ConversationLockService;
+import uk.nhs.adaptors.connector.service.MessageCheckpointService;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.connector.service.PatientAttachmentLogService;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentLogException;
@@ -67,6 +69,7 @@ import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.EbxmlReference;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
+import uk.nhs.adaptors.pss.translator.model.NACKReason;
 import uk.nhs.adaptors.pss.translator.service.AttachmentHandlerService;
 import uk.nhs.adaptors.pss.translator.service.FailedProcessHandlingService;
 import uk.nhs.adaptors.pss.translator.service.IdGeneratorService;
@@ -74,10 +77,9 @@ import uk.nhs.adaptors.pss.translator.service.InboundMessageMergingService;
 import uk.nhs.adaptors.pss.translator.service.NackAckPrepInterface;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 import uk.nhs.adaptors.pss.translator.storage.StorageException;
-import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
-import uk.nhs.adaptors.pss.translator.util.OutboundMessageUtil;
 import uk.nhs.adaptors.pss.translator.util.XmlParseUtilService;
 import uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @SuppressWarnings("InstantiationOfUtilityClass")
 @ExtendWith(MockitoExtension.class)
@@ -119,13 +121,16 @@ class COPCMessageHandlerTest {
 
     private Document ebXmlDocument;
     @Mock
-    private OutboundMessageUtil outboundMessageUtil;
-    @Mock
-    private InboundMessageUtil inboundMessageUtil;
-    @Mock
     private SendNACKMessageHandler sendNACKMessageHandler;
     @Mock
     private IdGeneratorService idGeneratorService;
+    @Mock
+    private ConversationLockService conversationLockService;
+    @Mock
+    private MessageCheckpointService messageCheckpointService;
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private COPCMessageHandler copcMessageHandler;
     @Captor
@@ -149,10 +154,6 @@ class COPCMessageHandlerTest {
 
     @Mock
     private COPCIN000001UK01Message mockCOPCMessage;
-    @Mock
-    private RCMRIN030000UKMessage mockEhrExtract;
-    @Mock
-    private InboundMessage mockInboundMessage;
 
     @Test
     public void When_CIDFragmentPartIsReceivedBeforeFragmentIndex_Expect_PartialLogToBeCreated()
@@ -412,6 +413,35 @@ class COPCMessageHandlerTest {
 
         copcMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
         verify(inboundMessageMergingService, times(1)).mergeAndBundleMessage(CONVERSATION_ID);
+        verify(conversationLockService, times(2)).lock(CONVERSATION_ID);
+        verify(messageCheckpointService).checkpoint(CONVERSATION_ID, inboundMessageId, ACK_SENT);
+    }
+
+    @Test
+    public void When_RedeliveredMessageHasAlreadyBeenAcknowledged_Expect_OnlyMergeChecked()
+        throws AttachmentNotFoundException, JAXBException, BundleMappingException, JsonProcessingException,
+               InlineAttachmentProcessingException, SAXException, AttachmentLogException {
+
+        var inboundMessage = new InboundMessage();
+        inboundMessage.setPayload(readCopcInboundMessageFromFile());
+        inboundMessage.setEbXML(readLargeInboundMessageEbXmlFromFile());
+
+        prepareMocks();
+
+        when(xPathService.parseDocumentFromXml(inboundMessage.getEbXML())).thenReturn(ebXmlDocument);
+        when(xPathService.getNodeValue(ebXmlDocument, "/Envelope/Header/MessageHeader/MessageData/MessageId"))
+            .thenReturn(MESSAGE_ID);
+        when(messageCheckpointService.getLastStage(CONVERSATION_ID, MESSAGE_ID)).thenReturn(ACK_SENT);
+        when(inboundMessageMergingService.canMergeCompleteBundle(CONVERSATION_ID)).thenReturn(true);
+
+        copcMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        verify(attachmentHandlerService, never()).storeAttachments(any(), any());
+        verify(patientAttachmentLogService, never()).updateAttachmentLog(any(), any());
+        verify(patientAttachmentLogService, never()).findAttachmentLogs(any());
+        verify(nackAckPreparationServiceMock, never()).sendAckMessage(any(COPCIN000001UK01Message.class), any(), any());
+        verify(messageCheckpointService, never()).checkpoint(any(), any(), any());
+        verify(inboundMessageMergingService).mergeAndBundleMessage(CONVERSATION_ID);
     }
 
     @Test
@@ -1075,7 +1105,7 @@ class COPCMessageHandlerTest {
                 () -> XmlUnmarshallUtil.unmarshallString(anyString(), eq(COPCIN000001UK01Message.class))
             ).thenReturn(mockCOPCMessage);
 
-            prepareFailProcessMocks(mockedXmlUnmarshall);
+            prepareFailProcessMocks();
 
             doThrow(SAXException.class)
                 .when(xPathService).parseDocumentFromXml(any());
@@ -1108,7 +1138,7 @@ class COPCMessageHandlerTest {
                 () -> XmlUnmarshallUtil.unmarshallString(anyString(), eq(COPCIN000001UK01Message.class))
             ).thenReturn(mockCOPCMessage);
 
-            prepareFailProcessMocks(mockedXmlUnmarshall);
+            prepareFailProcessMocks();
 
             doThrow(ValidationException.class)
                 .when(attachmentHandlerService)
@@ -1132,7 +1162,6 @@ class COPCMessageHandlerTest {
         JAXBException, InlineAttachmentProcessingException, AttachmentNotFoundException, BundleMappingException, AttachmentLogException {
 
         MockedStatic<XmlUnmarshallUtil> mockedXmlUnmarshall = Mockito.mockStatic(XmlUnmarshallUtil.class);
-        MockedStatic<XmlParseUtilService> mockedXmlParseUtilService = Mockito.mockStatic(XmlParseUtilService.class);
         InboundMessage message = new InboundMessage();
 
         message.setExternalAttachments(List.of(
@@ -1145,12 +1174,10 @@ class COPCMessageHandlerTest {
                 () -> XmlUnmarshallUtil.unmarshallString(anyString(), eq(COPCIN000001UK01Message.class))
             ).thenReturn(mockCOPCMessage);
 
-            mockedXmlParseUtilService.when(
-                () -> XmlParseUtilService.parseContentType(anyString())
-            ).thenThrow(ParseException.class);
-
             prepareFragmentMocks(message);
-            prepareFailProcessMocks(mockedXmlUnmarshall);
+            message.getAttachments().getFirst().setDescription("Filename=\"E39E79A2-FA96-48FF-9373-7BBCB9D036E7_1.messageattachment\" "
+                + "Compressed=No LargeAttachment=No OriginalBase64=Yes");
+            prepareFailProcessMocks();
 
             var messageId = "CBBAE92D-C7E8-4A9C-8887-F5AEBA1F8CE1";
             when(patientAttachmentLogService.findAttachmentLog(messageId, CONVERSATION_ID))
@@ -1169,7 +1196,6 @@ class COPCMessageHandlerTest {
 
         } finally {
             mockedXmlUnmarshall.close();
-            mockedXmlParseUtilService.close();
         }
     }
 
@@ -1189,7 +1215,7 @@ class COPCMessageHandlerTest {
                 () -> XmlUnmarshallUtil.unmarshallString(anyString(), eq(COPCIN000001UK01Message.class))
             ).thenReturn(mockCOPCMessage);
 
-            prepareFailProcessMocks(mockedXmlUnmarshall);
+            prepareFailProcessMocks();
 
             doThrow(new InlineAttachmentProcessingException(
                 "Test Inline Attachment Processing Exception", new StorageException("Test storage exception", new Exception()))
@@ -1225,7 +1251,7 @@ class COPCMessageHandlerTest {
                 () -> XmlUnmarshallUtil.unmarshallString(anyString(), eq(COPCIN000001UK01Message.class))
             ).thenReturn(mockCOPCMessage);
 
-            prepareFailProcessMocks(mockedXmlUnmarshall);
+            prepareFailProcessMocks();
 
             doThrow(InlineAttachmentProcessingException.class)
                 .when(attachmentHandlerService)
@@ -1400,9 +1426,10 @@ class COPCMessageHandlerTest {
                 .id(1)
                 .losingPracticeOdsCode(LOSING_ODE_CODE)
                 .winningPracticeOdsCode(WINNING_ODE_CODE)
+                .ehrExtractMessageRef("72E85E0E-C9E2-4C1F-A1A4-0CB2A5F1B2A0")
                 .build();
 
-        when(migrationRequestDao.getMigrationRequest(CONVERSATION_ID)).thenReturn(migrationRequest);
+        when(migrationRequestDao.getMigrationRequestHeader(CONVERSATION_ID)).thenReturn(migrationRequest);
     }
 
     private void prepareAttachmentLogs() {
@@ -1471,18 +1498,15 @@ class COPCMessageHandlerTest {
         return patientAttachmentLogs;
     }
 
-    private void prepareFailProcessMocks(MockedStatic<XmlUnmarshallUtil> mockedXmlUnmarshall) throws JsonProcessingException {
-
-        mockedXmlUnmarshall.when(
-            () -> XmlUnmarshallUtil.unmarshallString(anyString(), eq(RCMRIN030000UKMessage.class))
-        ).thenReturn(mockEhrExtract);
-
-        when(outboundMessageUtil.parseFromAsid(any())).thenReturn(StringUtils.EMPTY);
-        when(outboundMessageUtil.parseMessageRef(any())).thenReturn(StringUtils.EMPTY);
-        when(outboundMessageUtil.parseToAsid(any())).thenReturn(StringUtils.EMPTY);
-        when(outboundMessageUtil.parseToOdsCode(any())).thenReturn(StringUtils.EMPTY);
-
-        when(inboundMessageUtil.readMessage(any())).thenReturn(mockInboundMessage);
-        when(mockInboundMessage.getPayload()).thenReturn(StringUtils.EMPTY);
+    private void prepareFailProcessMocks() throws JsonProcessingException, JAXBException {
+        when(nackAckPreparationServiceMock.prepareNackMessageData(any(NACKReason.class), any(PatientMigrationRequest.class)))
+            .thenAnswer(invocation -> NACKMessageData.builder()
+                .nackCode(invocation.getArgument(0, NACKReason.class).getCode())
+                .conversationId(CONVERSATION_ID)
+                .fromAsid(StringUtils.EMPTY)
+                .toAsid(StringUtils.EMPTY)
+                .toOdsCode(StringUtils.EMPTY)
+                .messageRef(StringUtils.EMPTY)
+                .build());
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package uk.nhs.adaptors.pss.translator.task;
 
 import static java.util.UUID.randomUUID;
 
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -12,19 +13,26 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
+import static uk.nhs.adaptors.common.enums.MessageStage.ATTACHMENTS_STORED;
+import static uk.nhs.adaptors.common.enums.MessageStage.BUNDLE_PERSISTED;
+import static uk.nhs.adaptors.common.enums.MessageStage.CONTINUE_REQUEST_SENT;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_RECEIVED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_TRANSLATED;
+import static uk.nhs.adaptors.common.enums.MigrationStatus.MIGRATION_COMPLETED;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
 
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,13 +43,16 @@ import javax.xml.transform.TransformerException;
 import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.v3.RCMRIN030000UKMessage;
 import org.jdbi.v3.core.ConnectionException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.w3c.dom.Document;
@@ -52,11 +63,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ca.uhn.fhir.parser.DataFormatException;
 import lombok.SneakyThrows;
+import reactor.core.publisher.Mono;
 import uk.nhs.adaptors.common.util.fhir.FhirParser;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.connector.model.PatientAttachmentLog;
 import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
+import uk.nhs.adaptors.connector.service.MessageCheckpointService;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.connector.service.PatientAttachmentLogService;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
@@ -68,10 +81,14 @@ import uk.nhs.adaptors.pss.translator.service.AttachmentHandlerService;
 import uk.nhs.adaptors.pss.translator.service.AttachmentReferenceUpdaterService;
 import uk.nhs.adaptors.pss.translator.service.BundleMapperService;
 import uk.nhs.adaptors.pss.translator.service.FailedProcessHandlingService;
+import uk.nhs.adaptors.pss.translator.service.InboundMessageMergingService;
 import uk.nhs.adaptors.pss.translator.service.NackAckPrepInterface;
 import uk.nhs.adaptors.pss.translator.service.SkeletonProcessingService;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
 import uk.nhs.adaptors.pss.translator.storage.StorageException;
+import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
+import uk.nhs.adaptors.pss.translator.config.MappingProperties;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class EhrExtractMessageHandlerTest {
@@ -119,6 +136,9 @@ public class EhrExtractMessageHandlerTest {
     @Mock
     private Document ebXmlDocument;
 
+    @Spy
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+
     @InjectMocks
     private EhrExtractMessageHandler ehrExtractMessageHandler;
 
@@ -132,10 +152,23 @@ public class EhrExtractMessageHandlerTest {
     private PatientAttachmentLog patientAttachmentLog;
     @Mock
     private FailedProcessHandlingService failedProcessHandlingService;
+    @Mock
+    private InboundMessageMergingService inboundMessageMergingService;
+    @Mock
+    private MappingProperties mappingProperties;
+    @Mock
+    private MessageCheckpointService messageCheckpointService;
+    @Mock
+    private InboundMessageUtil inboundMessageUtil;
 
     @Captor
     private ArgumentCaptor<PatientAttachmentLog> patientAttachmentLogCaptor;
 
+    @BeforeEach
+    public void setUp() {
+        lenient().when(sendContinueRequestHandler.prepareAndSendRequest(any())).thenReturn(Mono.empty());
+    }
+
     @Test
     public void  When_HandleMessageWithValidDataIsCalled_Expect_CallsMigrationStatusLogServiceAddMigrationStatusLog()
         throws
@@ -167,6 +200,37 @@ public class EhrExtractMessageHandlerTest {
         );
     }
 
+    @Test
+    public void When_HandleMessageWithValidDataIsCalled_Expect_EhrExtractHeaderSaved()
+        throws
+        JsonProcessingException,
+        JAXBException,
+        InlineAttachmentProcessingException,
+        BundleMappingException,
+        AttachmentNotFoundException,
+        ParseException,
+        SAXException, TransformerException {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        prepareMocks(inboundMessage);
+        var timestamp = ZonedDateTime.parse("2013-10-25T16:59:29Z");
+
+        when(xPathService.parseDocumentFromXml(inboundMessage.getEbXML())).thenReturn(ebXmlDocument);
+        when(xPathService.getNodeValue(ebXmlDocument, MESSAGE_ID_PATH)).thenReturn(MESSAGE_ID);
+        when(inboundMessageUtil.parseMessageTimestamp(ebXmlDocument)).thenReturn(timestamp);
+
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        verify(migrationRequestDao).saveEhrExtractHeader(
+            CONVERSATION_ID,
+            "31FA3430-6E88-11EA-9384-E83935108FD5",
+            "200000001161",
+            "200000000149",
+            "M85019",
+            timestamp.toOffsetDateTime()
+        );
+    }
+
     @Test
     public void When_HandleMessageWithValidDataIsCalled_Expect_CallsBundleMapperServiceMapToBundle()
         throws
@@ -410,7 +474,7 @@ public class EhrExtractMessageHandlerTest {
             inboundMessage.getAttachments(), CONVERSATION_ID, inboundMessage.getPayload()
         )).thenReturn(inboundMessage.getPayload());
 
-        doThrow(new DataFormatException()).when(fhirParser).encodeToJson(bundle);
+        doThrow(new DataFormatException()).when(fhirParser).encodeToCompactJson(bundle);
 
         assertThrows(DataFormatException.class,
                      () -> ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID));
@@ -443,6 +507,9 @@ public class EhrExtractMessageHandlerTest {
                         inboundMessage.getAttachments(), CONVERSATION_ID, inboundMessage.getPayload()
                 )).thenReturn(inboundMessage.getPayload());
 
+        when(bundleMapperService.mapToBundle(any(RCMRIN030000UKMessage.class), eq(LOSING_ODE_CODE), any())).thenReturn(bundle);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(BUNDLE_STRING);
+
         EhrExtractMessageHandler ehrExtractMessageHandlerSpy = Mockito.spy(ehrExtractMessageHandler);
         ehrExtractMessageHandlerSpy.handleMessage(inboundMessage, CONVERSATION_ID);
 
@@ -487,6 +554,8 @@ public class EhrExtractMessageHandlerTest {
 
         when(xPathService.getNodeValue(any(), any())).thenReturn("MESSAGE-ID");
         when(skeletonProcessingService.updateInboundMessageWithSkeleton(any(), any(), any())).thenReturn(inboundMessage);
+        when(bundleMapperService.mapToBundle(any(RCMRIN030000UKMessage.class), eq(LOSING_ODE_CODE), any())).thenReturn(bundle);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(BUNDLE_STRING);
         when(attachmentReferenceUpdaterService
             .replaceOriginalFilenameWithStorageFilenameInEhrExtract(
                 inboundMessage.getAttachments(), CONVERSATION_ID, inboundMessage.getPayload()
@@ -506,6 +575,9 @@ public class EhrExtractMessageHandlerTest {
             ParseException,
             SAXException, TransformerException {
 
+        Bundle bundle = new Bundle();
+        bundle.setId("Test");
+
         InboundMessage inboundMessage = new InboundMessage();
         var attachment = new InboundMessage.Attachment("text/xml", "true", "test.txt", "abcdefghi");
 
@@ -519,6 +591,8 @@ public class EhrExtractMessageHandlerTest {
         prepareMigrationRequestAndMigrationStatusMocks();
 
         when(xPathService.getNodeValue(any(), any())).thenReturn("MESSAGE-ID");
+        when(bundleMapperService.mapToBundle(any(RCMRIN030000UKMessage.class), eq(LOSING_ODE_CODE), any())).thenReturn(bundle);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(BUNDLE_STRING);
         when(attachmentReferenceUpdaterService
                 .replaceOriginalFilenameWithStorageFilenameInEhrExtract(
                         inboundMessage.getAttachments(), CONVERSATION_ID, inboundMessage.getPayload()
@@ -573,6 +647,133 @@ public class EhrExtractMessageHandlerTest {
         verify(bundleMapperService, times(0)).mapToBundle(any(), any(), any());
     }
 
+    @Test
+    public void When_HandleLargeMessageWithPipelinedMapping_Expect_BundlePreMappedAfterContinueRequest()
+        throws JAXBException, BundleMappingException, AttachmentNotFoundException, ParseException, JsonProcessingException,
+        InlineAttachmentProcessingException, SAXException, TransformerException {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        inboundMessage.setPayload(readLargeInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readLargeInboundMessageEbXmlFromFile());
+        inboundMessage.setExternalAttachments(List.of(
+            new InboundMessage.ExternalAttachment(
+                "68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs",
+                "66B41202-C358-4B4C-93C6-7A10803F9584",
+                "68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs.ukExample1",
+                "Filename=\"68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs.ukExample1.gzip\" "
+                    + "ContentType=text/xml Compressed=Yes LargeAttachment=No OriginalBase64=Yes")
+        ));
+
+        prepareMigrationRequestAndMigrationStatusMocks();
+        when(mappingProperties.isPipelined()).thenReturn(true);
+
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        var inOrder = Mockito.inOrder(sendContinueRequestHandler, inboundMessageMergingService);
+        inOrder.verify(sendContinueRequestHandler).prepareAndSendRequest(any());
+        inOrder.verify(inboundMessageMergingService).preMapBundle(CONVERSATION_ID);
+        verify(bundleMapperService, times(0)).mapToBundle(any(), any(), any());
+    }
+
+    @Test
+    public void When_RedeliveredMessageHasAlreadyStoredAttachments_Expect_AttachmentsNotStoredAgain()
+        throws JAXBException, BundleMappingException, AttachmentNotFoundException, ParseException, JsonProcessingException,
+        InlineAttachmentProcessingException, SAXException, TransformerException {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        prepareMocks(inboundMessage);
+
+        when(xPathService.parseDocumentFromXml(inboundMessage.getEbXML())).thenReturn(ebXmlDocument);
+        when(xPathService.getNodeValue(ebXmlDocument, "/Envelope/Header/MessageHeader/MessageData/MessageId"))
+            .thenReturn(MESSAGE_ID);
+        when(messageCheckpointService.getLastStage(CONVERSATION_ID, MESSAGE_ID)).thenReturn(ATTACHMENTS_STORED);
+
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        verify(attachmentHandlerService, never()).storeAttachments(any(), any());
+        verify(patientAttachmentLogService, never()).addAttachmentLog(any());
+        verify(bundleMapperService).mapToBundle(any(RCMRIN030000UKMessage.class), eq(LOSING_ODE_CODE), any());
+        verify(messageCheckpointService).checkpoint(CONVERSATION_ID, MESSAGE_ID, BUNDLE_PERSISTED);
+    }
+
+    @Test
+    public void When_RedeliveredMessageHasAlreadyPersistedBundle_Expect_NotMappedOrCompletedAgain()
+        throws JAXBException, BundleMappingException, AttachmentNotFoundException, ParseException, JsonProcessingException,
+        InlineAttachmentProcessingException, SAXException, TransformerException {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        inboundMessage.setPayload(readInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readInboundMessageEbXmlFromFile());
+        inboundMessage.setAttachments(new ArrayList<>());
+        inboundMessage.setExternalAttachments(new ArrayList<>());
+
+        prepareMigrationRequestAndMigrationStatusMocks();
+        when(xPathService.parseDocumentFromXml(inboundMessage.getEbXML())).thenReturn(ebXmlDocument);
+        when(xPathService.getNodeValue(ebXmlDocument, "/Envelope/Header/MessageHeader/MessageData/MessageId"))
+            .thenReturn(MESSAGE_ID);
+        when(messageCheckpointService.getLastStage(CONVERSATION_ID, MESSAGE_ID)).thenReturn(BUNDLE_PERSISTED);
+
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        verify(bundleMapperService, never()).mapToBundle(any(), any(), any());
+        verify(migrationStatusLogService, never()).updatePatientMigrationRequestAndAddMigrationStatusLog(any(), any(), any(), any(),
+            any());
+        verify(migrationStatusLogService, never()).addMigrationStatusLog(eq(MIGRATION_COMPLETED), any(), any(), any());
+    }
+
+    @Test
+    public void When_MessageRedeliveredAfterMigrationCompleted_Expect_MigrationCompletedOnce()
+        throws JAXBException, BundleMappingException, AttachmentNotFoundException, ParseException, JsonProcessingException,
+        InlineAttachmentProcessingException, SAXException, TransformerException {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        prepareMocks(inboundMessage);
+
+        when(xPathService.parseDocumentFromXml(inboundMessage.getEbXML())).thenReturn(ebXmlDocument);
+        when(xPathService.getNodeValue(ebXmlDocument, "/Envelope/Header/MessageHeader/MessageData/MessageId"))
+            .thenReturn(MESSAGE_ID);
+        when(messageCheckpointService.getLastStage(CONVERSATION_ID, MESSAGE_ID))
+            .thenReturn(ATTACHMENTS_STORED)
+            .thenReturn(BUNDLE_PERSISTED);
+
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        InOrder inOrder = Mockito.inOrder(migrationStatusLogService, messageCheckpointService);
+        inOrder.verify(migrationStatusLogService).addMigrationStatusLog(MIGRATION_COMPLETED, CONVERSATION_ID, null, null);
+        inOrder.verify(messageCheckpointService).checkpoint(CONVERSATION_ID, MESSAGE_ID, BUNDLE_PERSISTED);
+        verify(migrationStatusLogService, times(1)).addMigrationStatusLog(eq(MIGRATION_COMPLETED), any(), any(), any());
+        verify(bundleMapperService, times(1)).mapToBundle(any(RCMRIN030000UKMessage.class), eq(LOSING_ODE_CODE), any());
+    }
+
+    @Test
+    public void When_RedeliveredLargeMessageHasAlreadySentContinueRequest_Expect_ContinueRequestNotSentAgain()
+        throws JAXBException, BundleMappingException, AttachmentNotFoundException, ParseException, JsonProcessingException,
+        InlineAttachmentProcessingException, SAXException, TransformerException {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        inboundMessage.setPayload(readLargeInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readLargeInboundMessageEbXmlFromFile());
+        inboundMessage.setExternalAttachments(List.of(
+            new InboundMessage.ExternalAttachment(
+                "68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs",
+                "66B41202-C358-4B4C-93C6-7A10803F9584",
+                "68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs.ukExample1",
+                "Filename=\"68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs.ukExample1.gzip\" "
+                    + "ContentType=text/xml Compressed=Yes LargeAttachment=No OriginalBase64=Yes")
+        ));
+
+        prepareMigrationRequestAndMigrationStatusMocks();
+        when(messageCheckpointService.getLastStage(eq(CONVERSATION_ID), any())).thenReturn(CONTINUE_REQUEST_SENT);
+
+        ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID);
+
+        verify(patientAttachmentLogService, never()).addAttachmentLog(any());
+        verify(migrationStatusLogService, never()).updatePatientMigrationRequestAndAddMigrationStatusLog(any(), any(), any(), any(),
+            any());
+        verify(sendContinueRequestHandler, never()).prepareAndSendRequest(any());
+    }
+
     @Test
     public void When_HandleLargeMessageWithValidDataIsCalled_Expect_AddAttachmentExactNumberOfTimesAsExternalAttachmentsList()
         throws
@@ -727,6 +928,37 @@ public class EhrExtractMessageHandlerTest {
         verify(nackAckPreparationServiceMock).sendNackMessage(eq(UNEXPECTED_CONDITION), any(RCMRIN030000UKMessage.class), anyString());
     }
 
+    @Test
+    public void When_HandleMessage_WithContinueRequestRejectedByMhs_Expect_NackSentAndNoContinueCheckpoint() {
+
+        InboundMessage inboundMessage = new InboundMessage();
+        List<InboundMessage.ExternalAttachment> externalAttachmentsTestList = new ArrayList<>();
+        externalAttachmentsTestList.add(
+            new InboundMessage.ExternalAttachment(
+                "68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs",
+                "66B41202-C358-4B4C-93C6-7A10803F9584",
+                "68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs.ukExample1",
+                "Filename=\"68E2A39F-7A24-449D-83CC-1B7CF1A9DAD7spine.nhs.ukExample1.gzip\" "
+                    + "ContentType=text/xml Compressed=Yes LargeAttachment=No OriginalBase64=Yes "
+                    + "DomainData=\"X-GP2GP-Skeleton: Yes\"")
+        );
+
+        inboundMessage.setPayload(readLargeInboundMessagePayloadFromFile());
+        inboundMessage.setEbXML(readLargeInboundMessageEbXmlFromFile());
+        inboundMessage.setExternalAttachments(externalAttachmentsTestList);
+
+        prepareMigrationRequestAndMigrationStatusMocks();
+
+        when(sendContinueRequestHandler.prepareAndSendRequest(any()))
+            .thenReturn(Mono.error(new MhsServerErrorException("Unable to sent continue message")));
+
+        assertThatCode(() -> ehrExtractMessageHandler.handleMessage(inboundMessage, CONVERSATION_ID))
+            .doesNotThrowAnyException();
+
+        verify(nackAckPreparationServiceMock).sendNackMessage(eq(UNEXPECTED_CONDITION), any(RCMRIN030000UKMessage.class), anyString());
+        verify(messageCheckpointService, never()).checkpoint(any(), any(), eq(CONTINUE_REQUEST_SENT));
+    }
+
     @Test
     public void When_HandleMessage_WithDuplicateMessage_Expect_AttachmentIsNotLoggedMoreThanOnce() throws AttachmentNotFoundException,
         JAXBException, BundleMappingException, ParseException, JsonProcessingException, TransformerException,
@@ -798,7 +1030,7 @@ public class EhrExtractMessageHandlerTest {
         prepareMigrationRequestAndMigrationStatusMocks();
 
         // imported from main on merge
-        when(fhirParser.encodeToJson(bundle)).thenReturn(BUNDLE_STRING);
+        when(fhirParser.encodeToCompactJson(bundle)).thenReturn(BUNDLE_STRING);
         when(objectMapper.writeValueAsString(inboundMessage)).thenReturn(INBOUND_MESSAGE_STRING);
         when(bundleMapperService.mapToBundle(any(RCMRIN030000UKMessage.class), eq(LOSING_ODE_CODE), any())).thenReturn(bundle);
         when(attachmentReferenceUpdaterService
@@ -1,11 +1,14 @@
 package uk.nhs.adaptors.pss.translator.task;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.UUID.randomUUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -14,6 +17,8 @@ import static org.mockito.Mockito.when;
 import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.util.Locale;
 
@@ -26,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
@@ -35,10 +41,12 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.SneakyThrows;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.connector.service.PatientMigrationRequestService;
+import uk.nhs.adaptors.pss.translator.amqp.ConversationLanes;
 import uk.nhs.adaptors.pss.translator.amqp.JmsReader;
 import uk.nhs.adaptors.pss.translator.exception.AttachmentNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.BundleMappingException;
@@ -46,6 +54,8 @@ import uk.nhs.adaptors.pss.translator.exception.ConversationIdNotFoundException;
 import uk.nhs.adaptors.pss.translator.exception.InlineAttachmentProcessingException;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.service.XPathService;
+import uk.nhs.adaptors.pss.translator.config.MetricsProperties;
+import uk.nhs.adaptors.pss.translator.metrics.PipelineMetrics;
 
 @ExtendWith(MockitoExtension.class)
 public class MhsQueueMessageHandlerTest {
@@ -92,6 +102,14 @@ public class MhsQueueMessageHandlerTest {
     @Mock
     private PatientMigrationRequestService migrationRequestService;
 
+    @Mock
+    private ConversationLanes conversationLanes;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PipelineMetrics pipelineMetrics = new PipelineMetrics(meterRegistry, new MetricsProperties());
+
     @InjectMocks
     private MhsQueueMessageHandler mhsQueueMessageHandler;
 
@@ -116,10 +134,33 @@ public class MhsQueueMessageHandlerTest {
 
         assertTrue(result);
         verify(mdcService).applyConversationId(CONVERSATION_ID_UPPER);
+        verify(conversationLanes).enter(CONVERSATION_ID_UPPER);
         verify(ehrExtractMessageHandler).handleMessage(inboundMessage, CONVERSATION_ID_UPPER);
         verifyNoInteractions(acknowledgmentMessageHandler);
     }
 
+    @Test
+    public void When_MessageHandled_Expect_StagesRecordedWithInteractionId() {
+        inboundMessage = new InboundMessage();
+        prepareMocks(ACKNOWLEDGEMENT_INTERACTION_ID);
+        when(migrationRequestService.hasMigrationRequest(any())).thenReturn(true);
+
+        mhsQueueMessageHandler.handleMessage(message);
+
+        assertThat(meterRegistry.get("translator.stage.duration")
+            .tags("stage", "jms.read", "interaction", ACKNOWLEDGEMENT_INTERACTION_ID, "vendor", "unknown")
+            .timer()
+            .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("translator.stage.duration")
+            .tags("stage", "ebxml.parse", "interaction", ACKNOWLEDGEMENT_INTERACTION_ID)
+            .timer()
+            .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("translator.payload.length")
+            .tags("payload", "inbound.message")
+            .summary()
+            .totalAmount()).isEqualTo(INBOUND_MESSAGE_STRING.length());
+    }
+
     @Test
     public void handleEhrExtractMessageWhenEhrExtractMessageHandlerThrowsErrorShouldReturnFalse()
         throws
@@ -218,8 +259,8 @@ public class MhsQueueMessageHandlerTest {
 
     @Test
     public void handleMessageWhenObjectMapperThrowsErrorShouldReturnFalse() throws JMSException, JsonProcessingException {
-        when(jmsReader.readMessage(message)).thenReturn(INBOUND_MESSAGE_STRING);
-        when(objectMapper.readValue(INBOUND_MESSAGE_STRING, InboundMessage.class)).thenThrow(new JsonMappingException(null, "hello"));
+        when(jmsReader.openMessage(message)).thenReturn(inboundMessageBody());
+        when(objectMapper.readValue(any(InputStream.class), eq(InboundMessage.class))).thenThrow(new JsonMappingException(null, "hello"));
 
         boolean result = mhsQueueMessageHandler.handleMessage(message);
 
@@ -267,13 +308,20 @@ public class MhsQueueMessageHandlerTest {
         String ebXmlString = "<xml>";
         inboundMessage.setPayload(readInboundMessagePayloadFromFile());
         inboundMessage.setEbXML(ebXmlString);
-        when(jmsReader.readMessage(message)).thenReturn(INBOUND_MESSAGE_STRING);
-        when(objectMapper.readValue(INBOUND_MESSAGE_STRING, InboundMessage.class)).thenReturn(inboundMessage);
+        when(jmsReader.openMessage(message)).thenReturn(inboundMessageBody());
+        when(objectMapper.readValue(any(InputStream.class), eq(InboundMessage.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, InputStream.class).readAllBytes();
+            return inboundMessage;
+        });
         when(xPathService.parseDocumentFromXml(ebXmlString)).thenReturn(ebXmlDocument);
         when(xPathService.getNodeValue(ebXmlDocument, CONVERSATION_ID_PATH)).thenReturn(CONVERSATION_ID);
         when(xPathService.getNodeValue(ebXmlDocument, INTERACTION_ID_PATH)).thenReturn(interactionId);
     }
 
+    private static InputStream inboundMessageBody() {
+        return new ByteArrayInputStream(INBOUND_MESSAGE_STRING.getBytes(UTF_8));
+    }
+
     @SneakyThrows
     private String readInboundMessagePayloadFromFile() {
         return readResourceAsString("/xml/inbound_message_payload.xml").replace("{{nhsNumber}}", NHS_NUMBER);
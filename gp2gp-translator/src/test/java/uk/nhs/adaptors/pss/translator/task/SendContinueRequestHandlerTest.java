@@ -3,6 +3,7 @@ package uk.nhs.adaptors.pss.translator.task;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,7 +26,6 @@ import uk.nhs.adaptors.pss.translator.service.MhsClientService;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
@@ -89,12 +89,11 @@ public class SendContinueRequestHandlerTest {
                 .mcciIN010000UK13creationTime(MCCI_IN010000UK13_CREATIONTIME)
                 .build();
 
-        doThrow(new WebClientResponseException(BAD_REQUEST.value(), BAD_REQUEST.getReasonPhrase(), headers,
-            "test body".getBytes(UTF_8), UTF_8))
-            .when(mhsClientService).send(any());
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.error(new WebClientResponseException(BAD_REQUEST.value(),
+            BAD_REQUEST.getReasonPhrase(), headers, "test body".getBytes(UTF_8), UTF_8)));
 
         assertThrows(WebClientResponseException.class, () ->
-            sendContinueRequestHandler.prepareAndSendRequest(continueRequestData)
+            sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block()
         );
     }
 
@@ -112,10 +111,11 @@ public class SendContinueRequestHandlerTest {
                 .mcciIN010000UK13creationTime(MCCI_IN010000UK13_CREATIONTIME)
                 .build();
 
-        when(mhsClientService.send(any())).thenThrow(WebClientResponseException.class);
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.error(new WebClientResponseException(BAD_REQUEST.value(),
+            BAD_REQUEST.getReasonPhrase(), headers, "test body".getBytes(UTF_8), UTF_8)));
 
         try {
-            sendContinueRequestHandler.prepareAndSendRequest(continueRequestData);
+            sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block();
         } catch (Exception e) {
         }
 
@@ -139,8 +139,9 @@ public class SendContinueRequestHandlerTest {
                 .toOdsCode(LOSING_ODS_CODE)
                 .mcciIN010000UK13creationTime(MCCI_IN010000UK13_CREATIONTIME)
                 .build();
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.just(""));
 
-        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData);
+        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block();
     }
 
     @Test
@@ -156,9 +157,10 @@ public class SendContinueRequestHandlerTest {
                 .toOdsCode(LOSING_ODS_CODE)
                 .mcciIN010000UK13creationTime(MCCI_IN010000UK13_CREATIONTIME)
                 .build();
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.just(""));
 
-        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData);
-        verify(mhsClientService).send(any());
+        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block();
+        verify(mhsClientService).sendAsync(any());
     }
 
     @Test
@@ -174,8 +176,9 @@ public class SendContinueRequestHandlerTest {
                 .toOdsCode(LOSING_ODS_CODE)
                 .mcciIN010000UK13creationTime(MCCI_IN010000UK13_CREATIONTIME)
                 .build();
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.just(""));
 
-        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData);
+        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block();
         verify(migrationStatusLogService).addMigrationStatusLog(MigrationStatus.CONTINUE_REQUEST_ACCEPTED, CONVERSATION_ID, null, null);
     }
 
@@ -192,16 +195,16 @@ public class SendContinueRequestHandlerTest {
             .mcciIN010000UK13creationTime(MCCI_IN010000UK13_CREATIONTIME)
             .build();
 
-        when(mhsClientService.send(any())).thenThrow(
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.error(
             new WebClientResponseException(
                 INTERNAL_SERVER_ERROR.value(),
                 INTERNAL_SERVER_ERROR.getReasonPhrase(),
                 new HttpHeaders(),
                 new byte[] {},
-                Charset.defaultCharset())
+                Charset.defaultCharset()))
         );
 
-        assertThatThrownBy(() -> sendContinueRequestHandler.prepareAndSendRequest(continueRequestData))
+        assertThatThrownBy(() -> sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block())
             .isInstanceOf(MhsServerErrorException.class);
     }
 
@@ -222,8 +225,9 @@ public class SendContinueRequestHandlerTest {
         var outboundMessage = new OutboundMessage(testPayload);
 
         when(continueRequestService.buildContinueRequest(any(), any())).thenReturn(testPayload);
+        when(mhsClientService.sendAsync(any())).thenReturn(Mono.just(""));
 
-        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData);
+        sendContinueRequestHandler.prepareAndSendRequest(continueRequestData).block();
         verify(continueRequestService).buildContinueRequest(continueRequestData, MESSAGE_ID.toUpperCase());
         verify(requestBuilder).buildSendContinueRequest(CONVERSATION_ID, LOSING_ODS_CODE, outboundMessage, MESSAGE_ID.toUpperCase());
     }
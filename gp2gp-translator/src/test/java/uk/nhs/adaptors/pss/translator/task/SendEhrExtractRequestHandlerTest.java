@@ -1,9 +1,10 @@
 package uk.nhs.adaptors.pss.translator.task;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -22,8 +23,10 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import static uk.nhs.adaptors.pss.translator.model.NACKReason.UNEXPECTED_CONDITION;
 
 import lombok.SneakyThrows;
+import reactor.core.publisher.Mono;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.common.model.TransferRequestMessage;
+import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.connector.service.MigrationStatusLogService;
 import uk.nhs.adaptors.pss.translator.mhs.MhsRequestBuilder;
 import uk.nhs.adaptors.pss.translator.mhs.model.OutboundMessage;
@@ -38,6 +41,7 @@ public class SendEhrExtractRequestHandlerTest {
     private static final String TEST_PAYLOAD_BODY = "TEST_PAYLOAD_BODY";
     private static final String CONVERSATION_ID = "abc-236";
     private static final String TEST_MESSAGE_ID = "message-id";
+    private static final long TIMEOUT_MILLIS = 1000;
 
     @Mock
     private MhsRequestBuilder builder;
@@ -70,6 +74,8 @@ public class SendEhrExtractRequestHandlerTest {
             .conversationId(CONVERSATION_ID)
             .build();
 
+        when(migrationStatusLogService.getLatestMigrationStatusLog(CONVERSATION_ID))
+            .thenReturn(statusLog(MigrationStatus.REQUEST_RECEIVED));
         when(idGeneratorService.generateUuid()).thenReturn(TEST_MESSAGE_ID);
 
         when(ehrExtractRequestService.buildEhrExtractRequest(eq(pssQueueMessage), eq(TEST_MESSAGE_ID.toUpperCase())))
@@ -81,10 +87,12 @@ public class SendEhrExtractRequestHandlerTest {
 
     @Test
     public void whenSendMessageThenTrueIsReturned() {
+        when(mhsClientService.sendAsync(request)).thenReturn(Mono.just(""));
+
         var isMessageSentSuccessfully = sendEhrExtractRequestHandler.prepareAndSendRequest(pssQueueMessage);
 
         assertTrue(isMessageSentSuccessfully);
-        verify(migrationStatusLogService).addMigrationStatusLog(
+        verify(migrationStatusLogService, timeout(TIMEOUT_MILLIS)).addMigrationStatusLog(
             MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED,
             CONVERSATION_ID,
             null,
@@ -93,24 +101,51 @@ public class SendEhrExtractRequestHandlerTest {
     }
 
     @Test
-    public void whenSendMessageThenErrorFalseIsReturned() {
-        when(mhsClientService.send(request)).thenThrow(
+    public void whenSendMessageFailsThenTrueIsReturnedAndErrorIsLogged() {
+        when(mhsClientService.sendAsync(request)).thenReturn(Mono.error(
             new WebClientResponseException(
                 HttpStatus.BAD_REQUEST.value(),
                 "BAD REQUEST",
                 new HttpHeaders(),
                 new byte[]{},
-                Charset.defaultCharset())
+                Charset.defaultCharset()))
         );
 
         var isMessageSentSuccessfully = sendEhrExtractRequestHandler.prepareAndSendRequest(pssQueueMessage);
 
-        assertFalse(isMessageSentSuccessfully);
-        verify(migrationStatusLogService).addMigrationStatusLog(
+        assertTrue(isMessageSentSuccessfully);
+        verify(migrationStatusLogService, timeout(TIMEOUT_MILLIS)).addMigrationStatusLog(
             MigrationStatus.EHR_EXTRACT_REQUEST_ERROR,
             CONVERSATION_ID,
             null,
             UNEXPECTED_CONDITION.getCode()
         );
     }
+
+    @Test
+    public void whenSameTransferRequestDeliveredTwiceThenEhrExtractRequestSentOnce() {
+        when(mhsClientService.sendAsync(request)).thenReturn(Mono.just(""));
+        when(migrationStatusLogService.getLatestMigrationStatusLog(CONVERSATION_ID))
+            .thenReturn(statusLog(MigrationStatus.REQUEST_RECEIVED))
+            .thenReturn(statusLog(MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED));
+
+        assertTrue(sendEhrExtractRequestHandler.prepareAndSendRequest(pssQueueMessage));
+        verify(migrationStatusLogService, timeout(TIMEOUT_MILLIS)).addMigrationStatusLog(
+            MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED,
+            CONVERSATION_ID,
+            null,
+            null
+        );
+
+        assertTrue(sendEhrExtractRequestHandler.prepareAndSendRequest(pssQueueMessage));
+
+        verify(mhsClientService, times(1)).sendAsync(request);
+        verify(ehrExtractRequestService, times(1)).buildEhrExtractRequest(any(), any());
+    }
+
+    private MigrationStatusLog statusLog(MigrationStatus migrationStatus) {
+        return MigrationStatusLog.builder()
+            .migrationStatus(migrationStatus)
+            .build();
+    }
 }
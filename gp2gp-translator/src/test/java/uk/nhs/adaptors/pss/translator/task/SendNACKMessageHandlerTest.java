@@ -87,7 +87,7 @@ public class SendNACKMessageHandlerTest {
 
     @Test
     public void When_SendMessage_WithClientError_Expect_FalseIsReturned() {
-        when(mhsClientService.send(request)).thenThrow(
+        when(mhsClientService.sendAndWait(request)).thenThrow(
             new WebClientResponseException(
                 HttpStatus.BAD_REQUEST.value(),
                 "BAD REQUEST",
@@ -101,7 +101,7 @@ public class SendNACKMessageHandlerTest {
 
     @Test
     public void When_SendMessage_WithServerError_Expect_ExceptionThrown() {
-        when(mhsClientService.send(request)).thenThrow(
+        when(mhsClientService.sendAndWait(request)).thenThrow(
             new WebClientResponseException(
                 INTERNAL_SERVER_ERROR.value(),
                 INTERNAL_SERVER_ERROR.getReasonPhrase(),
@@ -0,0 +1,55 @@
+package uk.nhs.adaptors.pss.translator.task.scheduled;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.nhs.adaptors.connector.dao.AuditDao;
+import uk.nhs.adaptors.pss.translator.config.AuditProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditQueueDrainHandlerTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_BATCHES = 3;
+
+    @Mock
+    private AuditDao auditDao;
+
+    @Mock
+    private AuditProperties auditProperties;
+
+    @InjectMocks
+    private AuditQueueDrainHandler auditQueueDrainHandler;
+
+    @BeforeEach
+    public void setup() {
+        when(auditProperties.getDrainBatchSize()).thenReturn(BATCH_SIZE);
+        when(auditProperties.getDrainMaxBatchesPerRun()).thenReturn(MAX_BATCHES);
+    }
+
+    @Test
+    public void When_QueueSmallerThanBatch_Expect_SingleDrainCall() {
+        when(auditDao.drainPendingActions(BATCH_SIZE)).thenReturn(BATCH_SIZE - 1);
+
+        auditQueueDrainHandler.drainPendingAuditActions();
+
+        verify(auditDao, times(1)).drainPendingActions(BATCH_SIZE);
+    }
+
+    @Test
+    public void When_QueueHasMoreThanMaxBatches_Expect_DrainStopsAtMaxBatches() {
+        when(auditDao.drainPendingActions(BATCH_SIZE)).thenReturn(BATCH_SIZE);
+
+        auditQueueDrainHandler.drainPendingAuditActions();
+
+        verify(auditDao, times(MAX_BATCHES)).drainPendingActions(BATCH_SIZE);
+    }
+}
@@ -8,7 +8,9 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,7 +41,6 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
 
-import org.hl7.v3.RCMRIN030000UKMessage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -49,8 +50,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -58,6 +57,7 @@ import org.xml.sax.SAXException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import jakarta.xml.bind.JAXBException;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.common.util.DateUtils;
@@ -71,11 +71,11 @@ import uk.nhs.adaptors.pss.translator.exception.MhsServerErrorException;
 import uk.nhs.adaptors.pss.translator.exception.SdsRetrievalException;
 import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
 import uk.nhs.adaptors.pss.translator.model.NACKMessageData;
+import uk.nhs.adaptors.pss.translator.model.NACKReason;
+import uk.nhs.adaptors.pss.translator.service.NackAckPrepInterface;
 import uk.nhs.adaptors.pss.translator.service.PersistDurationService;
 import uk.nhs.adaptors.pss.translator.task.SendNACKMessageHandler;
 import uk.nhs.adaptors.pss.translator.util.InboundMessageUtil;
-import uk.nhs.adaptors.pss.translator.util.OutboundMessageUtil;
-import uk.nhs.adaptors.pss.translator.util.XmlUnmarshallUtil;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -109,7 +109,7 @@ public class EHRTimeoutHandlerTest {
     @Mock
     private SendNACKMessageHandler sendNACKMessageHandler;
     @Mock
-    private OutboundMessageUtil outboundMessageUtil;
+    private NackAckPrepInterface nackAckPreparationService;
     @Mock
     private InboundMessageUtil inboundMessageUtil;
     @Mock
@@ -120,8 +120,6 @@ public class EHRTimeoutHandlerTest {
     private InboundMessage mockInboundMessage;
     @Mock(name = "mockInboundMessage2")
     private InboundMessage mockInboundMessage2;
-    @Mock
-    private RCMRIN030000UKMessage mockedPayload;
     @Mock(name = "mockRequest")
     private PatientMigrationRequest mockRequest;
     @Mock(name = "mockRequest2")
@@ -150,26 +148,31 @@ public class EHRTimeoutHandlerTest {
         );
     }
 
-    private void setupMocks() throws JsonProcessingException {
+    private void setupMocks() throws JsonProcessingException, JAXBException {
         when(persistDurationService.getPersistDurationFor(any(), eq(EHR_EXTRACT_MESSAGE_NAME)))
             .thenReturn(Duration.ofHours(EHR_EXTRACT_PERSIST_DURATION));
         when(persistDurationService.getPersistDurationFor(any(), eq(COPC_MESSAGE_NAME)))
             .thenReturn(Duration.ofHours(COPC_PERSIST_DURATION));
         when(timeoutProperties.getEhrExtractWeighting()).thenReturn(1);
         when(timeoutProperties.getCopcWeighting()).thenReturn(1);
-        when(outboundMessageUtil.parseFromAsid(any())).thenReturn("");
-        when(outboundMessageUtil.parseMessageRef(any())).thenReturn("");
-        when(outboundMessageUtil.parseToAsid(any())).thenReturn("");
-        when(outboundMessageUtil.parseToOdsCode(any())).thenReturn("");
+        when(nackAckPreparationService.prepareNackMessageData(any(NACKReason.class), any(PatientMigrationRequest.class)))
+            .thenAnswer(invocation -> NACKMessageData.builder()
+                .nackCode(invocation.getArgument(0, NACKReason.class).getCode())
+                .conversationId(invocation.getArgument(1, PatientMigrationRequest.class).getConversationId())
+                .fromAsid("")
+                .toAsid("")
+                .toOdsCode("")
+                .messageRef("")
+                .build());
 
         // inbound messages
         when(mockRequest.getInboundMessage())
             .thenReturn(INBOUND_MESSAGE_STRING);
         when(mockRequest2.getInboundMessage())
             .thenReturn(INBOUND_MESSAGE_STRING_TWO);
-        when(inboundMessageUtil.readMessage(INBOUND_MESSAGE_STRING))
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(INBOUND_MESSAGE_STRING))
             .thenReturn(mockInboundMessage);
-        when(inboundMessageUtil.readMessage(INBOUND_MESSAGE_STRING_TWO))
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(INBOUND_MESSAGE_STRING_TWO))
             .thenReturn(mockInboundMessage2);
     }
 
@@ -180,6 +183,31 @@ public class EHRTimeoutHandlerTest {
         verify(sendNACKMessageHandler, times(1)).prepareAndSendMessage(any());
     }
 
+    @Test
+    public void When_CheckForTimeouts_WithEhrExtractHeaderSaved_Expect_SavedTimestampUsedAndWholeRowNotRead()
+        throws JsonProcessingException {
+        String conversationId = UUID.randomUUID().toString();
+        when(mockRequest.getEhrExtractMessageRef()).thenReturn("MESSAGE-REF");
+        when(mockRequest.getEhrExtractTimestamp()).thenReturn(TEN_DAYS_AGO.toOffsetDateTime());
+
+        callCheckForTimeoutsWithOneRequest(EHR_EXTRACT_TRANSLATED, TEN_DAYS_TIME, 0, conversationId);
+
+        verify(sendNACKMessageHandler, times(1)).prepareAndSendMessage(any());
+        verify(migrationRequestService, never()).getMigrationRequest(any());
+        verify(inboundMessageUtil, never()).readMessageWithoutAttachmentPayloads(any());
+    }
+
+    @Test
+    public void When_CheckForTimeouts_WithoutEhrExtractHeader_Expect_WholeRowReadForExtract() throws JsonProcessingException {
+        String conversationId = UUID.randomUUID().toString();
+
+        callCheckForTimeoutsWithOneRequest(EHR_EXTRACT_TRANSLATED, TEN_DAYS_AGO, 0, conversationId);
+
+        verify(migrationRequestService).getMigrationRequest(conversationId);
+        verify(inboundMessageUtil).readMessageWithoutAttachmentPayloads(INBOUND_MESSAGE_STRING);
+        verify(sendNACKMessageHandler, times(1)).prepareAndSendMessage(any());
+    }
+
     @Test
     public void When_CheckForTimeouts_WithEhrExtractTranslatedTimeout_Expect_NackCode99() {
         String conversationId = UUID.randomUUID().toString();
@@ -208,7 +236,7 @@ public class EHRTimeoutHandlerTest {
             .build();
         List<PatientMigrationRequest> requests = List.of(mockRequest);
 
-        when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(migrationStatus))))
+        when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(argThat(list -> list.contains(migrationStatus))))
             .thenReturn(requests);
         when(dateUtils.getCurrentOffsetDateTime()).thenReturn(OffsetDateTime.now());
         when(mockRequest.getConversationId()).thenReturn(conversationId);
@@ -358,7 +386,7 @@ public class EHRTimeoutHandlerTest {
     @Test
     public void When_CheckForTimeouts_WithSdsRetrievalException_Expect_MigrationLogNotUpdated() {
         List<PatientMigrationRequest> requests = List.of(mockRequest);
-        when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_PROCESSING))))
+        when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_PROCESSING))))
             .thenReturn(requests);
         when(persistDurationService.getPersistDurationFor(any(), eq(EHR_EXTRACT_MESSAGE_NAME)))
             .thenThrow(new SdsRetrievalException("Test exception"));
@@ -372,11 +400,12 @@ public class EHRTimeoutHandlerTest {
     public void When_CheckForTimeouts_WithJsonProcessingException_Expect_MigrationLogUpdated() throws JsonProcessingException {
         String conversationId = UUID.randomUUID().toString();
         List<PatientMigrationRequest> requests = List.of(mockRequest);
-        when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
+        when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
             .thenReturn(requests);
         when(mockRequest.getConversationId()).thenReturn(conversationId);
+        when(migrationRequestService.getMigrationRequest(conversationId)).thenReturn(mockRequest);
 
-        doThrow(JsonProcessingException.class).when(inboundMessageUtil).readMessage(any());
+        doThrow(JsonProcessingException.class).when(inboundMessageUtil).readMessageWithoutAttachmentPayloads(any());
 
         ehrTimeoutHandler.checkForTimeouts();
 
@@ -391,12 +420,13 @@ public class EHRTimeoutHandlerTest {
     public void When_CheckForTimeouts_WithSAXException_Expect_MigrationLogUpdated() throws SAXException, JsonProcessingException {
         String conversationId = UUID.randomUUID().toString();
         List<PatientMigrationRequest> requests = List.of(mockRequest);
-        when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
+        when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
             .thenReturn(requests);
         when(mockRequest.getConversationId()).thenReturn(conversationId);
-        when(inboundMessageUtil.readMessage(any())).thenReturn(mockInboundMessage);
+        when(migrationRequestService.getMigrationRequest(conversationId)).thenReturn(mockRequest);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(any())).thenReturn(mockInboundMessage);
 
-        doThrow(SAXException.class).when(inboundMessageUtil).parseMessageTimestamp(any());
+        doThrow(SAXException.class).when(inboundMessageUtil).parseMessageTimestamp(nullable(String.class));
 
         ehrTimeoutHandler.checkForTimeouts();
 
@@ -411,12 +441,13 @@ public class EHRTimeoutHandlerTest {
     public void When_CheckForTimeouts_WithDateTimeParseException_Expect_MigrationLogUpdated() throws SAXException, JsonProcessingException {
         String conversationId = UUID.randomUUID().toString();
         List<PatientMigrationRequest> requests = List.of(mockRequest);
-        when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
+        when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
             .thenReturn(requests);
         when(mockRequest.getConversationId()).thenReturn(conversationId);
-        when(inboundMessageUtil.readMessage(any())).thenReturn(mockInboundMessage);
+        when(migrationRequestService.getMigrationRequest(conversationId)).thenReturn(mockRequest);
+        when(inboundMessageUtil.readMessageWithoutAttachmentPayloads(any())).thenReturn(mockInboundMessage);
 
-        doThrow(DateTimeParseException.class).when(inboundMessageUtil).parseMessageTimestamp(any());
+        doThrow(DateTimeParseException.class).when(inboundMessageUtil).parseMessageTimestamp(nullable(String.class));
 
         ehrTimeoutHandler.checkForTimeouts();
 
@@ -430,22 +461,15 @@ public class EHRTimeoutHandlerTest {
     private void callCheckForTimeoutsWithOneRequest(MigrationStatus migrationStatus, ZonedDateTime requestTimestamp,
         long numberOfAttachments, String conversationId) {
 
-        MockedStatic<XmlUnmarshallUtil> mockedXmlUnmarshall = Mockito.mockStatic(XmlUnmarshallUtil.class);
-
         try {
 
             // Arrange
 
             setupMocks();
 
-            // mock static method
-            mockedXmlUnmarshall.when(
-                () -> XmlUnmarshallUtil.unmarshallString(any(), eq(RCMRIN030000UKMessage.class))
-            ).thenReturn(mockedPayload);
-
             // request
             List<PatientMigrationRequest> requests = List.of(mockRequest);
-            when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(migrationStatus))))
+            when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(argThat(list -> list.contains(migrationStatus))))
                 .thenReturn(requests);
 
             // timestamp
@@ -457,37 +481,30 @@ public class EHRTimeoutHandlerTest {
             when(patientAttachmentLogService.countAttachmentsForMigrationRequest(mockRequest.getId())).thenReturn(numberOfAttachments);
             // random conversation id for mocked request
             when(mockRequest.getConversationId()).thenReturn(conversationId);
+            // requests without a saved EHR extract header are read again in full
+            when(migrationRequestService.getMigrationRequest(conversationId)).thenReturn(mockRequest);
 
             // Act
 
             ehrTimeoutHandler.checkForTimeouts();
 
-        } catch (JsonProcessingException | SAXException e) {
+        } catch (JsonProcessingException | SAXException | JAXBException e) {
             throw new RuntimeException(e);
-        } finally {
-            mockedXmlUnmarshall.close();
         }
     }
 
     private void callCheckForTimeoutWithTwoRequests(ZonedDateTime firstRequestTimestamp, ZonedDateTime secondRequestTimestamp) {
 
-        MockedStatic<XmlUnmarshallUtil> mockedXmlUnmarshall = Mockito.mockStatic(XmlUnmarshallUtil.class);
-
         try {
 
             // Arrange
 
             setupMocks();
 
-            // mock static method
-            mockedXmlUnmarshall.when(
-                () -> XmlUnmarshallUtil.unmarshallString(any(), eq(RCMRIN030000UKMessage.class))
-            ).thenReturn(mockedPayload);
-
             // requests
             List<PatientMigrationRequest> requests = List.of(mockRequest, mockRequest2);
-            when(migrationRequestService.getMigrationRequestsByMigrationStatusIn(argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED))))
-                .thenReturn(requests);
+            when(migrationRequestService.getMigrationRequestHeadersByMigrationStatusIn(
+                argThat(list -> list.contains(EHR_EXTRACT_TRANSLATED)))).thenReturn(requests);
 
             // timestamps
             when(mockInboundMessage.getEbXML())
@@ -503,17 +520,20 @@ public class EHRTimeoutHandlerTest {
             when(patientAttachmentLogService.countAttachmentsForMigrationRequest(anyInt())).thenReturn((long) 0);
 
             // random conversation id for mocked request
-            when(mockRequest.getConversationId()).thenReturn(UUID.randomUUID().toString());
-            when(mockRequest2.getConversationId()).thenReturn(UUID.randomUUID().toString());
+            String conversationId = UUID.randomUUID().toString();
+            String conversationId2 = UUID.randomUUID().toString();
+            when(mockRequest.getConversationId()).thenReturn(conversationId);
+            when(mockRequest2.getConversationId()).thenReturn(conversationId2);
+            // requests without a saved EHR extract header are read again in full
+            when(migrationRequestService.getMigrationRequest(conversationId)).thenReturn(mockRequest);
+            when(migrationRequestService.getMigrationRequest(conversationId2)).thenReturn(mockRequest2);
 
             // Act
 
             ehrTimeoutHandler.checkForTimeouts();
 
-        } catch (JsonProcessingException | SAXException e) {
+        } catch (JsonProcessingException | SAXException | JAXBException e) {
             throw new RuntimeException(e);
-        } finally {
-            mockedXmlUnmarshall.close();
         }
     }
 }
@@ -0,0 +1,47 @@
+package uk.nhs.adaptors.pss.translator.task.scheduled;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.connector.service.MessageCheckpointService;
+import uk.nhs.adaptors.pss.translator.config.CheckpointProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageCheckpointCleanupHandlerTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 3, 8, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final Duration RETENTION = Duration.ofDays(7);
+
+    @Mock
+    private MessageCheckpointService messageCheckpointService;
+
+    @Mock
+    private CheckpointProperties checkpointProperties;
+
+    @Mock
+    private DateUtils dateUtils;
+
+    @InjectMocks
+    private MessageCheckpointCleanupHandler messageCheckpointCleanupHandler;
+
+    @Test
+    public void When_CleanupRuns_Expect_CheckpointsOlderThanRetentionDeleted() {
+        when(dateUtils.getCurrentOffsetDateTime()).thenReturn(NOW);
+        when(checkpointProperties.getRetention()).thenReturn(RETENTION);
+
+        messageCheckpointCleanupHandler.deleteExpiredCheckpoints();
+
+        verify(messageCheckpointService).deleteCheckpointsUpdatedBefore(NOW.minus(RETENTION));
+    }
+}
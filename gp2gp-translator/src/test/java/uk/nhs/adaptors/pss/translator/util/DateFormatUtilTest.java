@@ -12,9 +12,12 @@ import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvFileSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.hl7.fhir.dstu3.model.DateTimeType;
 import org.junit.runner.RunWith;
 
+import ca.uhn.fhir.model.api.TemporalPrecisionEnum;
 import junitparams.JUnitParamsRunner;
 
 @RunWith(JUnitParamsRunner.class)
@@ -31,6 +34,26 @@ public class DateFormatUtilTest {
         assertThat(DateFormatUtil.parseToInstantType(inputString).asStringValue()).isEqualTo(expectedDate);
     }
 
+    /**
+     * The golden file was generated with the SimpleDateFormat based parser, over every HL7 timestamp in the test resources
+     * plus leap year, DST transition, lenient and invalid edge cases.
+     */
+    @ParameterizedTest(name = "parseGoldenTimestamp {0}")
+    @CsvFileSource(resources = "/dateformat/hl7-timestamps.csv", numLinesToSkip = 1)
+    public void shouldParseToSameInstantAndPrecisionAsGoldenFile(String inputString, Long expectedEpochMillis, String expectedPrecision) {
+        if ("ERROR".equals(expectedPrecision)) {
+            assertThrows(IllegalStateException.class, () -> DateFormatUtil.parseToDateTimeType(inputString));
+            assertThrows(IllegalStateException.class, () -> DateFormatUtil.parseToInstantType(inputString));
+            return;
+        }
+
+        DateTimeType dateTimeType = DateFormatUtil.parseToDateTimeType(inputString);
+
+        assertThat(dateTimeType.getValue().getTime()).isEqualTo(expectedEpochMillis);
+        assertThat(dateTimeType.getPrecision()).isEqualTo(TemporalPrecisionEnum.valueOf(expectedPrecision));
+        assertThat(DateFormatUtil.parseToInstantType(inputString).getValue().getTime()).isEqualTo(expectedEpochMillis);
+    }
+
     @Test
     public void shouldThrowExceptionForEmptyString() {
         String dateAsString = "";
@@ -0,0 +1,84 @@
+package uk.nhs.adaptors.pss.translator.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.nhs.adaptors.pss.translator.mhs.model.InboundMessage;
+import uk.nhs.adaptors.pss.translator.service.XPathService;
+
+public class InboundMessageUtilTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private InboundMessageUtil inboundMessageUtil;
+
+    @BeforeEach
+    public void setUp() {
+        inboundMessageUtil = new InboundMessageUtil(objectMapper, new XPathService());
+    }
+
+    @Test
+    public void When_ReadMessageWithoutAttachmentPayloads_Expect_AllFieldsExceptAttachmentPayloadsRead() throws JsonProcessingException {
+        var message = new InboundMessage();
+        message.setEbXML("<Envelope/>");
+        message.setPayload("<RCMR_IN030000UK06/>");
+        message.setAttachments(List.of(
+            new InboundMessage.Attachment("text/plain", "false", "Filename=\"a.txt\"", "large attachment content"),
+            new InboundMessage.Attachment("application/xml", "true", "Filename=\"b.xml\"", "PGJvZHkvPg==")));
+        message.setExternalAttachments(List.of(
+            new InboundMessage.ExternalAttachment("DOC-1", "MSG-1", "title", "Filename=\"c.txt\"")));
+
+        var actual = inboundMessageUtil.readMessageWithoutAttachmentPayloads(objectMapper.writeValueAsString(message));
+
+        assertThat(actual.getEbXML()).isEqualTo(message.getEbXML());
+        assertThat(actual.getPayload()).isEqualTo(message.getPayload());
+        assertThat(actual.getAttachments())
+            .containsExactly(
+                new InboundMessage.Attachment("text/plain", "false", "Filename=\"a.txt\"", null),
+                new InboundMessage.Attachment("application/xml", "true", "Filename=\"b.xml\"", null));
+        assertThat(actual.getExternalAttachments()).isEqualTo(message.getExternalAttachments());
+    }
+
+    @Test
+    public void When_ReadMessageWithoutAttachmentPayloadsWithUnknownAndMissingFields_Expect_UnknownFieldsSkipped()
+        throws JsonProcessingException {
+        var json = """
+            {"unknown": {"nested": [1, 2, {"a": "b"}]}, "payload": "<payload/>", "ebXML": "<ebxml/>"}
+            """;
+
+        var actual = inboundMessageUtil.readMessageWithoutAttachmentPayloads(json);
+
+        assertThat(actual.getEbXML()).isEqualTo("<ebxml/>");
+        assertThat(actual.getPayload()).isEqualTo("<payload/>");
+        assertThat(actual.getAttachments()).isNull();
+        assertThat(actual.getExternalAttachments()).isNull();
+    }
+
+    @Test
+    public void When_ReadMessageWithoutAttachmentPayloadsWithMatchingReadMessage_Expect_SameEbXmlAndPayload()
+        throws JsonProcessingException {
+        var json = """
+            {"ebXML": "<a>\\u00e9</a>", "payload": "<b>\\n</b>", "attachments": [], "external_attachments": []}
+            """;
+
+        var streamed = inboundMessageUtil.readMessageWithoutAttachmentPayloads(json);
+        var bound = inboundMessageUtil.readMessage(json);
+
+        assertThat(streamed).isEqualTo(bound);
+    }
+
+    @Test
+    public void When_ReadMessageWithoutAttachmentPayloadsWithInvalidJson_Expect_JsonProcessingException() {
+        assertThatThrownBy(() -> inboundMessageUtil.readMessageWithoutAttachmentPayloads("[\"not an object\"]"))
+            .isInstanceOf(JsonProcessingException.class);
+        assertThatThrownBy(() -> inboundMessageUtil.readMessageWithoutAttachmentPayloads("{\"ebXML\": "))
+            .isInstanceOf(JsonProcessingException.class);
+    }
+}
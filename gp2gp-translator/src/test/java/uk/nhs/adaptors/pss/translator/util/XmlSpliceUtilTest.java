@@ -0,0 +1,82 @@
+package uk.nhs.adaptors.pss.translator.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Node;
+
+import lombok.SneakyThrows;
+import uk.nhs.adaptors.pss.translator.service.XPathService;
+
+public class XmlSpliceUtilTest {
+
+    private static final String PAYLOAD_FILE = "/xml/inbound_message_payload.xml";
+    private static final String SKELETON_FILE = "/xml/inbound_message_skeleton_section_payload.xml";
+    private static final String REFERENCED_DOCUMENT_ID = "31B75ED0-6E88-11EA-9384-E83935108FD5";
+
+    private final XPathService xPathService = new XPathService();
+    private final XmlParseUtilService xmlParseUtilService = new XmlParseUtilService(xPathService);
+
+    @ParameterizedTest
+    @ValueSource(strings = {PAYLOAD_FILE, SKELETON_FILE, "/xml/RCMRIN030000UK06_LARGE_MSG/ebxml.xml"})
+    public void When_DocumentCopied_Expect_SameOutputAsDomRoundTrip(String file) throws Exception {
+        var xml = readResourceAsString(file);
+
+        assertThat(XmlSpliceUtil.copyDocument(xml))
+            .isEqualTo(xmlParseUtilService.getStringFromDocument(xPathService.parseDocumentFromXml(xml)));
+    }
+
+    @Test
+    public void When_ElementReferencingValueReplaced_Expect_SameOutputAsDomReplacement() throws Exception {
+        var payload = readResourceAsString(PAYLOAD_FILE);
+        var skeleton = readResourceAsString(SKELETON_FILE);
+
+        assertThat(XmlSpliceUtil.replaceElementReferencing(payload, REFERENCED_DOCUMENT_ID, skeleton))
+            .isEqualTo(replaceWithDom(payload, REFERENCED_DOCUMENT_ID, skeleton));
+    }
+
+    @Test
+    public void When_ElementReferencedFromSeveralPlaces_Expect_FirstInDocumentOrderReplaced() throws Exception {
+        var payload = "<root><outer><inner><ref id=\"X\"/></inner><ref id=\"X\"/></outer><other><ref id=\"X\"/></other></root>";
+        var skeleton = "<?xml version=\"1.0\"?><!-- dropped --><skeleton><child/></skeleton>";
+
+        assertThat(XmlSpliceUtil.replaceElementReferencing(payload, "X", skeleton))
+            .isEqualTo(replaceWithDom(payload, "X", skeleton))
+            .endsWith("<root><skeleton><child/></skeleton><other><ref id=\"X\"/></other></root>");
+    }
+
+    @Test
+    public void When_ReplacementRedeclaresNamespacesInScope_Expect_SameOutputAsDomReplacement() throws Exception {
+        var payload = "<p:root xmlns:x=\"urn:x\" xmlns=\"urn:default\" xmlns:p=\"urn:p\" b=\"2\" a=\"1\">"
+            + "<section><id root=\"X\"/></section><!-- note --><![CDATA[a < b]]>&amp;&#13;</p:root>";
+        var skeleton = "<section xmlns=\"urn:default\" xmlns:x=\"urn:other\" z=\"&quot;\" y=\"\u00e9\"><text>\u00e9</text></section>";
+
+        assertThat(XmlSpliceUtil.replaceElementReferencing(payload, "X", skeleton))
+            .isEqualTo(replaceWithDom(payload, "X", skeleton))
+            .contains("<p:root xmlns:p=\"urn:p\" xmlns=\"urn:default\" xmlns:x=\"urn:x\" a=\"1\" b=\"2\">")
+            .contains("<section xmlns:x=\"urn:other\" y=\"\u00e9\" z=\"&quot;\">");
+    }
+
+    @Test
+    public void When_ValueOnlyInNamespaceDeclaration_Expect_IllegalArgumentException() {
+        var payload = "<root><section><id xmlns:x=\"X\"/></section></root>";
+
+        assertThatThrownBy(() -> XmlSpliceUtil.replaceElementReferencing(payload, "X", "<skeleton/>"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SneakyThrows
+    private String replaceWithDom(String payload, String referencedValue, String replacement) {
+        var payloadDocument = xPathService.parseDocumentFromXml(payload);
+        var replacementRoot = xPathService.parseDocumentFromXml(replacement).getDocumentElement();
+        Node nodeToReplace = xPathService.getNodes(payloadDocument, "//*/@*[.='" + referencedValue + "']/parent::*/parent::*").item(0);
+
+        nodeToReplace.getParentNode().replaceChild(payloadDocument.importNode(replacementRoot, true), nodeToReplace);
+        return xmlParseUtilService.getStringFromDocument(payloadDocument);
+    }
+}
@@ -0,0 +1,135 @@
+package uk.nhs.adaptors.pss.gpc.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
+
+import java.util.Locale;
+import java.util.UUID;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import uk.nhs.adaptors.common.enums.MigrationStatus;
+import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ExtendWith({SpringExtension.class})
+@DirtiesContext
+@AutoConfigureMockMvc
+public class BulkPatientTransferControllerIT {
+
+    private static final int NHS_NUMBER_MIN_MAX_LENGTH = 10;
+    private static final String APPLICATION_FHIR_JSON_VALUE = "application/fhir+json";
+    private static final String BATCH_ENDPOINT = "/";
+    private static final String VALID_REQUEST_BODY_PATH = "/requests/migrate-patient-record/validRequestBody.json";
+    private static final String VALID_BATCH_REQUEST_BODY_PATH = "/requests/migrate-patient-record/validBatchRequestBody.json";
+    private static final String LOSING_PRACTICE_ODS = "F765";
+    private static final String WINNING_PRACTICE_ODS = "B943";
+
+    @Autowired
+    private PatientMigrationRequestDao patientMigrationRequestDao;
+
+    @Autowired
+    private MigrationStatusLogDao migrationStatusLogDao;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void sendBatchOfPatientTransferRequests() throws Exception {
+        var firstConversationId = generateConversationId();
+        var secondConversationId = generateConversationId();
+        var thirdConversationId = generateConversationId();
+        var requestBody = readResourceAsString(VALID_BATCH_REQUEST_BODY_PATH)
+            .replace("{{firstConversationId}}", firstConversationId)
+            .replace("{{secondConversationId}}", secondConversationId)
+            .replace("{{thirdConversationId}}", thirdConversationId)
+            .replace("{{firstRequestBody}}", getRequestBody())
+            .replace("{{secondRequestBody}}", getRequestBody());
+
+        mockMvc.perform(
+                post(BATCH_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(generateHeaders())
+                    .content(requestBody))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.type").value("batch-response"))
+            .andExpect(jsonPath("$.entry[0].fullUrl").value("urn:uuid:" + firstConversationId))
+            .andExpect(jsonPath("$.entry[0].response.status").value("202 Accepted"))
+            .andExpect(jsonPath("$.entry[1].response.status").value("202 Accepted"))
+            .andExpect(jsonPath("$.entry[2].response.status").value("409 Conflict"));
+
+        verifyRequestReceived(firstConversationId);
+        verifyRequestReceived(secondConversationId);
+        assertThat(patientMigrationRequestDao.getMigrationRequest(thirdConversationId)).isNull();
+
+        mockMvc.perform(
+                post(BATCH_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(generateHeaders())
+                    .content(requestBody))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entry[0].response.status").value("409 Conflict"))
+            .andExpect(jsonPath("$.entry[0].response.outcome.resourceType").value("OperationOutcome"));
+    }
+
+    @Test
+    public void sendBundleThatIsNotABatch() throws Exception {
+        var requestBody = readResourceAsString(VALID_BATCH_REQUEST_BODY_PATH)
+            .replace("\"batch\"", "\"transaction\"")
+            .replace("{{firstConversationId}}", generateConversationId())
+            .replace("{{secondConversationId}}", generateConversationId())
+            .replace("{{thirdConversationId}}", generateConversationId())
+            .replace("{{firstRequestBody}}", getRequestBody())
+            .replace("{{secondRequestBody}}", getRequestBody());
+
+        mockMvc.perform(
+                post(BATCH_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(generateHeaders())
+                    .content(requestBody))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    private void verifyRequestReceived(String conversationId) {
+        var migrationRequest = patientMigrationRequestDao.getMigrationRequest(conversationId);
+        assertThat(migrationRequest).isNotNull();
+        assertThat(migrationRequest.getLosingPracticeOdsCode()).isEqualTo(LOSING_PRACTICE_ODS);
+        assertThat(migrationRequest.getWinningPracticeOdsCode()).isEqualTo(WINNING_PRACTICE_ODS);
+        var migrationStatusLog = migrationStatusLogDao.getLatestMigrationStatusLog(migrationRequest.getId());
+        assertThat(migrationStatusLog.getMigrationStatus()).isEqualTo(MigrationStatus.REQUEST_RECEIVED);
+    }
+
+    private String getRequestBody() {
+        var patientNhsNumber = RandomStringUtils.randomNumeric(NHS_NUMBER_MIN_MAX_LENGTH, NHS_NUMBER_MIN_MAX_LENGTH);
+        return readResourceAsString(VALID_REQUEST_BODY_PATH).replace("{{nhsNumber}}", patientNhsNumber);
+    }
+
+    private String generateConversationId() {
+        return UUID.randomUUID().toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static HttpHeaders generateHeaders() {
+        var headers = new HttpHeaders();
+        headers.set("from-asid", "123456");
+        headers.set("to-asid", "32145");
+        headers.set("from-ods", WINNING_PRACTICE_ODS);
+        headers.set("to-ods", LOSING_PRACTICE_ODS);
+
+        return headers;
+    }
+}
@@ -2,9 +2,14 @@ package uk.nhs.adaptors.pss.gpc.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import static uk.nhs.adaptors.common.util.FileUtil.readResourceAsString;
@@ -54,6 +59,7 @@ public class PatientTransferControllerIT {
     private static final String WINNING_PRACTICE_ODS = "B943";
     private static final String MOCK_PATIENT_NUMBER = "123456789";
     private static final String EXAMPLE_JSON_BUNDLE = "/responses/json/exampleBundle.json";
+    private static final String PREFER_HEADER = "Prefer";
 
     @Autowired
     private PatientMigrationRequestDao patientMigrationRequestDao;
@@ -137,15 +143,18 @@ public class PatientTransferControllerIT {
                                 .content(requestBody))
                 .andExpect(status().isAccepted());
 
-        mockMvc.perform(
+        var errorResponse = mockMvc.perform(
                         post(MIGRATE_PATIENT_RECORD_ENDPOINT)
                                 .contentType(APPLICATION_FHIR_JSON_VALUE)
                                 .headers(REQUIRED_HEADERS)
                                 .header(CONVERSATION_ID_HEADER, secondConversationId)
                                 .content(requestBody))
-                .andExpect(status().isInternalServerError())
-                .andExpect(content().json(expectedResponseBody))
+                .andExpect(request().asyncStarted())
                 .andReturn();
+
+        mockMvc.perform(asyncDispatch(errorResponse))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().json(expectedResponseBody));
     }
 
     @Test
@@ -173,15 +182,54 @@ public class PatientTransferControllerIT {
 
         completePatientMigrationJourneyWithError(conversationId);
 
-        mockMvc.perform(
+        var errorResponse = mockMvc.perform(
                 post(MIGRATE_PATIENT_RECORD_ENDPOINT)
                     .contentType(APPLICATION_FHIR_JSON_VALUE)
                     .headers(REQUIRED_HEADERS)
                     .header(CONVERSATION_ID_HEADER, conversationId)
                     .content(requestBody))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(errorResponse))
             .andExpect(status().is5xxServerError())
-            .andExpect(content().json(expectedErrorResponseBody, true))
+            .andExpect(content().json(expectedErrorResponseBody, true));
+    }
+
+    @Test
+    public void sendPatientTransferRequestPreferringToWaitAndExpectResponseOnceStatusChanges() throws Exception {
+        var conversationId = generateConversationId();
+        var requestBody = getRequestBody(VALID_REQUEST_BODY_PATH);
+        var expectedErrorResponseBody = readResourceAsString("/responses/migrate-patient-record/badMigrationStatusResponseBody.json");
+
+        mockMvc.perform(
+                post(MIGRATE_PATIENT_RECORD_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(REQUIRED_HEADERS)
+                    .header(CONVERSATION_ID_HEADER, conversationId)
+                    .content(requestBody))
+            .andExpect(status().isAccepted());
+
+        var heldRequest = mockMvc.perform(
+                post(MIGRATE_PATIENT_RECORD_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(REQUIRED_HEADERS)
+                    .header(CONVERSATION_ID_HEADER, conversationId)
+                    .header(PREFER_HEADER, "wait=20")
+                    .content(requestBody))
+            .andExpect(request().asyncStarted())
             .andReturn();
+
+        migrationStatusLogService.addMigrationStatusLog(ERROR_REQUEST_TIMEOUT, conversationId, null, "25");
+
+        // the held request answers with a streamed body, which is written by a second async dispatch
+        var errorResponse = mockMvc.perform(asyncDispatch(heldRequest))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(errorResponse))
+            .andExpect(status().is5xxServerError())
+            .andExpect(content().json(expectedErrorResponseBody, true));
     }
 
     @Test
@@ -290,19 +338,100 @@ public class PatientTransferControllerIT {
 
         completePatientMigrationJourney(conversationId);
 
-        mockMvc.perform(
+        var bundleResponse = mockMvc.perform(
                 post(MIGRATE_PATIENT_RECORD_ENDPOINT)
                     .contentType(APPLICATION_FHIR_JSON_VALUE)
                     .headers(REQUIRED_HEADERS)
                     .header(CONVERSATION_ID_HEADER, conversationId)
                     .content(requestBody))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(bundleResponse))
             .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(content().contentType(APPLICATION_FHIR_JSON_VALUE))
             .andExpect(content().json(readResourceAsString(EXAMPLE_JSON_BUNDLE)));
 
         var migrationRequest = patientMigrationRequestDao.getMigrationRequest(conversationId);
         verifyPatientMigrationRequest(migrationRequest, MIGRATION_COMPLETED);
     }
 
+    @Test
+    public void handleCompletedMigrationPatientRequestWhenBundleAlreadyHeld() throws Exception {
+        var requestBody = getRequestBody(VALID_REQUEST_BODY_PATH);
+        var conversationId = generateConversationId();
+
+        completePatientMigrationJourney(conversationId);
+
+        var bundleResponse = mockMvc.perform(
+                post(MIGRATE_PATIENT_RECORD_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(REQUIRED_HEADERS)
+                    .header(CONVERSATION_ID_HEADER, conversationId)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                    .content(requestBody))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        var eTag = mockMvc.perform(asyncDispatch(bundleResponse))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                post(MIGRATE_PATIENT_RECORD_ENDPOINT)
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(REQUIRED_HEADERS)
+                    .header(CONVERSATION_ID_HEADER, conversationId)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .content(requestBody))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(StringUtils.EMPTY));
+    }
+
+    @Test
+    public void handleCompletedMigrationPatientRequestAPageAtATime() throws Exception {
+        var requestBody = getRequestBody(VALID_REQUEST_BODY_PATH);
+        var conversationId = generateConversationId();
+
+        completePatientMigrationJourney(conversationId);
+
+        var firstPageResponse = mockMvc.perform(
+                post(MIGRATE_PATIENT_RECORD_ENDPOINT + "?_count=1")
+                    .contentType(APPLICATION_FHIR_JSON_VALUE)
+                    .headers(REQUIRED_HEADERS)
+                    .header(CONVERSATION_ID_HEADER, conversationId)
+                    .content(requestBody))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(firstPageResponse))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.type").value("collection"))
+            .andExpect(jsonPath("$.entry.length()").value(1))
+            .andExpect(jsonPath("$.entry[0].resource.resourceType").value("Patient"))
+            .andExpect(jsonPath("$.link[?(@.relation == 'next')]").isEmpty());
+
+        mockMvc.perform(
+                get(MIGRATE_PATIENT_RECORD_ENDPOINT + "?_count=1&_offset=1")
+                    .header(CONVERSATION_ID_HEADER, conversationId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entry").doesNotExist())
+            .andExpect(jsonPath("$.link[?(@.relation == 'previous')].url").value(
+                "http://localhost/Patient/$gpc.migratestructuredrecord?_count=1&_offset=0"));
+    }
+
+    @Test
+    public void getPageOfMigrationWithoutSavedBundle() throws Exception {
+        mockMvc.perform(
+                get(MIGRATE_PATIENT_RECORD_ENDPOINT + "?_count=1")
+                    .header(CONVERSATION_ID_HEADER, generateConversationId()))
+            .andExpect(status().isNotFound());
+    }
+
     // This is a use case test to make sure we can pull bundles back with case insensitive conversation ids.
     @Test
     public void handleCompletedMigrationPatientRequestWithLowercaseConversationId() throws Exception {
@@ -312,13 +441,18 @@ public class PatientTransferControllerIT {
 
         completePatientMigrationJourney(conversationId);
 
-        mockMvc.perform(
+        var bundleResponse = mockMvc.perform(
                 post(MIGRATE_PATIENT_RECORD_ENDPOINT)
                     .contentType(APPLICATION_FHIR_JSON_VALUE)
                     .headers(REQUIRED_HEADERS)
                     .header(CONVERSATION_ID_HEADER, lowercaseConversationId)
                     .content(requestBody))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(bundleResponse))
             .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
             .andExpect(content().json(readResourceAsString(EXAMPLE_JSON_BUNDLE)));
 
         var migrationRequest = patientMigrationRequestDao.getMigrationRequest(conversationId);
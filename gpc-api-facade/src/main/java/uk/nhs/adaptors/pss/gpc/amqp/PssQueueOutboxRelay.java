@@ -0,0 +1,84 @@
+package uk.nhs.adaptors.pss.gpc.amqp;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.connector.model.PssQueueOutboxMessage;
+import uk.nhs.adaptors.connector.service.PssQueueOutboxService;
+import uk.nhs.adaptors.pss.gpc.config.OutboxProperties;
+
+/**
+ * Publishes the messages saved in the PSS queue outbox, a batch at a time, each batch in one JMS transaction. Runs on every
+ * facade; the outbox hands each message to only one of them at a time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "outbox.relayEnabled", havingValue = "true")
+public class PssQueueOutboxRelay {
+
+    private final PssQueueOutboxService pssQueueOutboxService;
+    private final PssQueuePublisher pssQueuePublisher;
+    private final OutboxProperties outboxProperties;
+    private final Timer lagTimer;
+    private final AtomicLong pendingMessages = new AtomicLong();
+    private final AtomicLong oldestMessageAgeMillis = new AtomicLong();
+
+    @Autowired
+    public PssQueueOutboxRelay(PssQueueOutboxService pssQueueOutboxService, PssQueuePublisher pssQueuePublisher,
+        OutboxProperties outboxProperties, MeterRegistry meterRegistry) {
+        this.pssQueueOutboxService = pssQueueOutboxService;
+        this.pssQueuePublisher = pssQueuePublisher;
+        this.outboxProperties = outboxProperties;
+        this.lagTimer = Timer.builder("pss.queue.outbox.lag")
+            .description("Time from a message being saved in the outbox to it being published to the PSS queue")
+            .register(meterRegistry);
+        Gauge.builder("pss.queue.outbox.pending", pendingMessages, AtomicLong::get)
+            .description("Messages in the outbox waiting to be published, as of the last relay run")
+            .register(meterRegistry);
+        TimeGauge.builder("pss.queue.outbox.oldest.age", oldestMessageAgeMillis, MILLISECONDS, AtomicLong::get)
+            .description("How long the oldest message in the outbox had been waiting, as of the last relay run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relayFixedDelay}")
+    public void relayMessages() {
+        int batchSize = outboxProperties.getRelayBatchSize();
+        int totalRelayed = 0;
+
+        try {
+            for (int batch = 0; batch < outboxProperties.getRelayMaxBatchesPerRun(); batch++) {
+                int relayed = pssQueueOutboxService.relayMessages(batchSize, this::publish);
+                totalRelayed += relayed;
+
+                if (relayed < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to publish messages from the PSS queue outbox, they will be retried", e);
+        }
+
+        if (totalRelayed > 0) {
+            LOGGER.debug("Published [{}] messages from the PSS queue outbox", totalRelayed);
+        }
+        pendingMessages.set(pssQueueOutboxService.countMessages());
+        oldestMessageAgeMillis.set(pssQueueOutboxService.getOldestMessageAgeMillis());
+    }
+
+    private void publish(List<PssQueueOutboxMessage> messages) {
+        pssQueuePublisher.sendAllToPssQueue(messages.stream().map(PssQueueOutboxMessage::getMessage).toList());
+        messages.forEach(message -> lagTimer.record(message.getAge()));
+    }
+}
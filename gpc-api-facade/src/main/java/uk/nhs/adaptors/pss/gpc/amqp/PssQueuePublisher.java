@@ -1,5 +1,9 @@
 package uk.nhs.adaptors.pss.gpc.amqp;
 
+import java.util.List;
+
+import jakarta.jms.JMSException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jms.core.JmsTemplate;
@@ -18,12 +22,36 @@ public class PssQueuePublisher {
     @Qualifier("jmsTemplatePssQueue")
     private final JmsTemplate pssJmsTemplate;
 
+    @Qualifier("jmsTemplatePssQueueBatch")
+    private final JmsTemplate pssBatchJmsTemplate;
+
     private final ObjectMapper objectMapper;
 
     public void sendToPssQueue(PssQueueMessage message) {
         pssJmsTemplate.send(session -> session.createTextMessage(getMessageAsString(message)));
     }
 
+    /**
+     * Sends messages already written as JSON through one producer in one transacted session, which the template commits once
+     * they are all sent. If any send fails none of the messages are delivered.
+     */
+    public void sendAllToPssQueue(List<String> messages) {
+        pssBatchJmsTemplate.execute(session -> {
+            var producer = session.createProducer(session.createQueue(pssBatchJmsTemplate.getDefaultDestinationName()));
+            try {
+                for (var message : messages) {
+                    producer.send(session.createTextMessage(message));
+                }
+            } catch (JMSException | RuntimeException e) {
+                session.rollback();
+                throw e;
+            } finally {
+                producer.close();
+            }
+            return null;
+        }, false);
+    }
+
     @SneakyThrows
     private String getMessageAsString(PssQueueMessage message) {
         return objectMapper.writeValueAsString(message);
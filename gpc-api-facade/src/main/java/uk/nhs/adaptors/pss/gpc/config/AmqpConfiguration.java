@@ -1,23 +1,31 @@
 package uk.nhs.adaptors.pss.gpc.config;
 
+import jakarta.jms.ConnectionFactory;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.qpid.jms.JmsConnectionFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
 import org.springframework.jms.support.converter.MessageConverter;
 
 @Configuration
 public class AmqpConfiguration {
+    private static final int SESSION_CACHE_SIZE = 10;
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new MappingJackson2MessageConverter();
     }
 
+    /**
+     * Sessions and their producers are cached, so that a send does not open a new session and producer on the broker each time.
+     */
     @Bean("pssQueueConnectionFactory")
-    public JmsConnectionFactory jmsConnectionFactoryPssQueue(PssQueueProperties properties) {
+    public ConnectionFactory jmsConnectionFactoryPssQueue(PssQueueProperties properties) {
         JmsConnectionFactory factory = new JmsConnectionFactory();
 
         factory.setRemoteURI(properties.getBroker());
@@ -30,15 +38,29 @@ public class AmqpConfiguration {
             factory.setPassword(properties.getPassword());
         }
 
-        return factory;
+        CachingConnectionFactory cachingFactory = new CachingConnectionFactory(factory);
+        cachingFactory.setSessionCacheSize(SESSION_CACHE_SIZE);
+        return cachingFactory;
     }
 
     @Bean("jmsTemplatePssQueue")
-    public JmsTemplate jmsTemplatePssQueue(@Qualifier("pssQueueConnectionFactory") JmsConnectionFactory connectionFactory,
+    public JmsTemplate jmsTemplatePssQueue(@Qualifier("pssQueueConnectionFactory") ConnectionFactory connectionFactory,
         PssQueueProperties properties) {
         JmsTemplate jmsTemplate = new JmsTemplate();
         jmsTemplate.setConnectionFactory(connectionFactory);
         jmsTemplate.setDefaultDestinationName(properties.getQueueName());
         return jmsTemplate;
     }
+
+    /**
+     * For sending many messages at once: each {@link JmsTemplate#execute} runs in one local transaction, committed when it
+     * returns, so the broker takes a whole batch or none of it.
+     */
+    @Bean("jmsTemplatePssQueueBatch")
+    public JmsTemplate jmsTemplatePssQueueBatch(@Qualifier("pssQueueConnectionFactory") ConnectionFactory connectionFactory,
+        PssQueueProperties properties) {
+        JmsTemplate jmsTemplate = jmsTemplatePssQueue(connectionFactory, properties);
+        jmsTemplate.setSessionTransacted(true);
+        return jmsTemplate;
+    }
 }
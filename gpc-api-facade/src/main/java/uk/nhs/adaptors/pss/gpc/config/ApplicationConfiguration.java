@@ -1,27 +1,34 @@
 package uk.nhs.adaptors.pss.gpc.config;
 
-import org.hl7.fhir.dstu3.model.Parameters;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import uk.nhs.adaptors.common.config.CommonConfiguration;
 import uk.nhs.adaptors.common.util.fhir.FhirParser;
 import uk.nhs.adaptors.connector.config.DbConnectorConfiguration;
-import uk.nhs.adaptors.pss.gpc.config.serialization.ParametersDeserializer;
+import uk.nhs.adaptors.pss.gpc.config.serialization.FhirResourceHttpMessageConverter;
 
 @Configuration
+@EnableScheduling
 @Import({DbConnectorConfiguration.class, CommonConfiguration.class})
 public class ApplicationConfiguration {
     @Bean
-    public ObjectMapper objectMapper(FhirParser fhirParser) {
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(Parameters.class, new ParametersDeserializer(fhirParser));
-        return new ObjectMapper().registerModule(module);
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+
+    /**
+     * Spring Boot puts converter beans ahead of its default converters, so this reads {@code Parameters} and {@code Bundle}
+     * bodies before the Jackson converter is asked to.
+     */
+    @Bean
+    public FhirResourceHttpMessageConverter fhirResourceConverter(FhirParser fhirParser) {
+        return new FhirResourceHttpMessageConverter(fhirParser);
     }
 
     @Bean
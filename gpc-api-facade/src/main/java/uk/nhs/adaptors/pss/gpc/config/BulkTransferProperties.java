@@ -0,0 +1,16 @@
+package uk.nhs.adaptors.pss.gpc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@ConfigurationProperties(prefix = "bulk-transfer")
+@Getter
+@Setter
+public class BulkTransferProperties {
+    private int maxEntries;
+    private int batchSize;
+}
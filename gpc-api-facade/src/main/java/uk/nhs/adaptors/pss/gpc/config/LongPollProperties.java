@@ -0,0 +1,19 @@
+package uk.nhs.adaptors.pss.gpc.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@ConfigurationProperties(prefix = "long-poll")
+@Getter
+@Setter
+public class LongPollProperties {
+    private boolean enabled;
+    private Duration maxWait;
+    private Duration reconnectDelay;
+}
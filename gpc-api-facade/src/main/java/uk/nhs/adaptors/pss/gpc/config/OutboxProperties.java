@@ -0,0 +1,17 @@
+package uk.nhs.adaptors.pss.gpc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@ConfigurationProperties(prefix = "outbox")
+@Getter
+@Setter
+public class OutboxProperties {
+    private boolean relayEnabled;
+    private int relayBatchSize;
+    private int relayMaxBatchesPerRun;
+}
@@ -0,0 +1,19 @@
+package uk.nhs.adaptors.pss.gpc.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Component
+@ConfigurationProperties(prefix = "status-cache")
+@Getter
+@Setter
+public class StatusCacheProperties {
+    private boolean enabled;
+    private long maximumSize;
+    private Duration timeToLive;
+}
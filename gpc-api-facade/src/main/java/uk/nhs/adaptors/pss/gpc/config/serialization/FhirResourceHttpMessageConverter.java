@@ -0,0 +1,58 @@
+package uk.nhs.adaptors.pss.gpc.config.serialization;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static uk.nhs.adaptors.pss.gpc.controller.handler.FhirMediaTypes.APPLICATION_FHIR_JSON_VALUE;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Set;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.hl7.fhir.dstu3.model.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+
+/**
+ * Reads {@link Parameters} and {@link Bundle} request bodies by handing the request body straight to the HAPI parser, so that
+ * the body is parsed once, without first being read into a Jackson tree and written back out as a string. Only reads are
+ * supported: responses are already encoded by {@link FhirParser} and written as strings.
+ */
+public class FhirResourceHttpMessageConverter extends AbstractHttpMessageConverter<Resource> {
+
+    private static final Set<Class<?>> SUPPORTED_RESOURCES = Set.of(Parameters.class, Bundle.class);
+
+    private final FhirParser fhirParser;
+
+    public FhirResourceHttpMessageConverter(FhirParser fhirParser) {
+        super(UTF_8, MediaType.valueOf(APPLICATION_FHIR_JSON_VALUE), MediaType.APPLICATION_JSON);
+        this.fhirParser = fhirParser;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SUPPORTED_RESOURCES.contains(clazz);
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Resource readInternal(Class<? extends Resource> clazz, HttpInputMessage inputMessage) throws IOException {
+        var contentType = inputMessage.getHeaders().getContentType();
+        var charset = contentType != null && contentType.getCharset() != null ? contentType.getCharset() : getDefaultCharset();
+        return fhirParser.parseFromReader(new InputStreamReader(inputMessage.getBody(), charset), clazz);
+    }
+
+    @Override
+    protected void writeInternal(Resource resource, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("FHIR resources are only read from requests");
+    }
+}
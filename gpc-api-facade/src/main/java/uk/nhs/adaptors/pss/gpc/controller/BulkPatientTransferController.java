@@ -0,0 +1,66 @@
+package uk.nhs.adaptors.pss.gpc.controller;
+
+import static org.springframework.http.HttpStatus.OK;
+
+import static uk.nhs.adaptors.pss.gpc.controller.handler.FhirMediaTypes.APPLICATION_FHIR_JSON_VALUE;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ASID;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
+
+import java.util.Map;
+
+import jakarta.validation.constraints.NotBlank;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+import uk.nhs.adaptors.pss.gpc.service.BulkPatientTransferService;
+
+/**
+ * Starts many patient transfers between two practices in one request, for practice mergers. The request is a FHIR
+ * {@code batch} Bundle posted to the base URL, whose entries are {@code $gpc.migratestructuredrecord} requests. Each transfer
+ * is then followed through the single patient operation with its conversation ID.
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Slf4j
+@Validated
+public class BulkPatientTransferController {
+
+    private final BulkPatientTransferService bulkPatientTransferService;
+    private final FhirParser fhirParser;
+
+    @PostMapping(
+        path = "/",
+        consumes = {APPLICATION_FHIR_JSON_VALUE},
+        produces = {APPLICATION_FHIR_JSON_VALUE}
+    )
+    public ResponseEntity<String> migratePatientStructuredRecords(
+                                    @RequestBody Bundle body,
+                                    @RequestHeader(TO_ASID) @NotBlank String toAsid,
+                                    @RequestHeader(FROM_ASID) @NotBlank String fromAsid,
+                                    @RequestHeader(TO_ODS) @NotBlank String toOds,
+                                    @RequestHeader(FROM_ODS) @NotBlank String fromOds) {
+
+        LOGGER.info("Received bulk patient transfer request with {} entries", body.getEntry().size());
+        Map<String, String> headers = Map.of(
+            TO_ASID, toAsid,
+            FROM_ASID, fromAsid,
+            TO_ODS, toOds,
+            FROM_ODS, fromOds
+        );
+
+        var response = bulkPatientTransferService.handleBulkPatientMigrationRequest(body, headers);
+        return new ResponseEntity<>(fhirParser.encodeToCompactJson(response), OK);
+    }
+}
@@ -1,9 +1,17 @@
 package uk.nhs.adaptors.pss.gpc.controller;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueSeverity.ERROR;
 import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.EXCEPTION;
+import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.NOTFOUND;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.ACCEPTED;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_GENERAL_PROCESSING_ERROR;
@@ -19,12 +27,21 @@ import static uk.nhs.adaptors.common.model.MigrationStatusGroups.LRG_MESSAGE_ERR
 import static uk.nhs.adaptors.pss.gpc.controller.handler.FhirMediaTypes.APPLICATION_FHIR_JSON_VALUE;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.PREFER;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
+import static uk.nhs.adaptors.pss.gpc.service.PatientTransferService.MAX_BUNDLE_PAGE_SIZE;
 import static uk.nhs.adaptors.pss.gpc.util.fhir.OperationOutcomeUtils.createOperationOutcome;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
 import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 import org.hl7.fhir.dstu3.model.CodeableConcept;
@@ -32,20 +49,29 @@ import org.hl7.fhir.dstu3.model.OperationOutcome;
 import org.hl7.fhir.dstu3.model.Parameters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
+import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.common.util.CodeableConceptUtils;
 import uk.nhs.adaptors.common.util.fhir.FhirParser;
 import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.pss.gpc.controller.validation.PatientTransferRequest;
+import uk.nhs.adaptors.pss.gpc.service.LongPollService;
 import uk.nhs.adaptors.pss.gpc.service.PatientTransferService;
 
 @RestController
@@ -56,20 +82,35 @@ public class PatientTransferController {
 
     public static final String INTERNAL_SERVER_ERROR = "INTERNAL_SERVER_ERROR";
     private static final String ISSUE_SYSTEM = "https://fhir.nhs.uk/STU3/ValueSet/Spine-ErrorOrWarningCode-1";
+    private static final String MIGRATE_STRUCTURED_RECORD_PATH = "/Patient/$gpc.migratestructuredrecord";
+    private static final String COUNT = "_count";
+    private static final String OFFSET = "_offset";
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+    private static final Pattern ZERO_QUALITY = Pattern.compile("\\s*q\\s*=\\s*0(\\.0*)?\\s*", Pattern.CASE_INSENSITIVE);
+    private static final int GZIP_BUFFER_SIZE = 65_536;
+    private static final int WRITER_BUFFER_SIZE = 65_536;
+    private static final MediaType APPLICATION_FHIR_JSON = MediaType.valueOf(APPLICATION_FHIR_JSON_VALUE);
     private final PatientTransferService patientTransferService;
     private final FhirParser fhirParser;
+    private final LongPollService longPollService;
+    private final MDCService mdcService;
 
     @PostMapping(
-        path = "/Patient/$gpc.migratestructuredrecord",
+        path = MIGRATE_STRUCTURED_RECORD_PATH,
         consumes = {APPLICATION_FHIR_JSON_VALUE},
         produces = {APPLICATION_FHIR_JSON_VALUE}
     )
-    public ResponseEntity<String> migratePatientStructuredRecord(
+    public ResponseEntity<StreamingResponseBody> migratePatientStructuredRecord(
                                     @RequestBody @PatientTransferRequest Parameters body,
                                     @RequestHeader(TO_ASID) @NotBlank String toAsid,
                                     @RequestHeader(FROM_ASID) @NotBlank String fromAsid,
                                     @RequestHeader(TO_ODS) @NotBlank String toOds,
-                                    @RequestHeader(FROM_ODS) @NotBlank String fromOds) {
+                                    @RequestHeader(FROM_ODS) @NotBlank String fromOds,
+                                    @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                    @RequestHeader(value = ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                    @RequestParam(value = COUNT, required = false) @Min(1) Integer count,
+                                    UriComponentsBuilder uriBuilder) {
 
         LOGGER.info("Received patient transfer request");
         Map<String, String> headers = Map.of(
@@ -83,7 +124,7 @@ public class PatientTransferController {
         if (existingConversationId != null) {
             var operationOutcome = createErrorBodyForInProgressRequest(existingConversationId);
             var errorBody =  fhirParser.encodeToJson(operationOutcome);
-            return new ResponseEntity<>(errorBody, HttpStatus.INTERNAL_SERVER_ERROR);
+            return fhirJsonResponse(errorBody, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         MigrationStatusLog request = patientTransferService.handlePatientMigrationRequest(body, headers);
@@ -92,9 +133,14 @@ public class PatientTransferController {
             return new ResponseEntity<>(ACCEPTED);
         } else if (IN_PROGRESS_STATUSES.contains(request.getMigrationStatus())) {
             return new ResponseEntity<>(NO_CONTENT);
-        } else if (MIGRATION_COMPLETED == request.getMigrationStatus()
-            || FINAL_ACK_SENT == request.getMigrationStatus()) {
-            return new ResponseEntity<>(patientTransferService.getBundleResource(), OK);
+        } else if (isCompleted(request)) {
+            if (count != null) {
+                var firstPage = encodeBundlePage(0, count, uriBuilder);
+                if (firstPage != null) {
+                    return fhirJsonResponse(firstPage, OK);
+                }
+            }
+            return createBundleResponse(ifNoneMatch, acceptEncoding);
         } else {
 
             OperationOutcome operationOutcome = createErrorBodyFromMigrationStatus(request);
@@ -106,26 +152,187 @@ public class PatientTransferController {
                 || LRG_MESSAGE_ERRORS.contains(currentMigrationStatus)
                 || EHR_GENERAL_PROCESSING_ERROR == currentMigrationStatus
                 || ERROR_REQUEST_TIMEOUT == currentMigrationStatus) {
-                return new ResponseEntity<>(errorBody, HttpStatus.INTERNAL_SERVER_ERROR);
+                return fhirJsonResponse(errorBody, HttpStatus.INTERNAL_SERVER_ERROR);
             }
 
             if (GP2GP_NACK_400_ERROR_STATUSES.contains(currentMigrationStatus)) {
-                return new ResponseEntity<>(errorBody, HttpStatus.BAD_REQUEST);
+                return fhirJsonResponse(errorBody, HttpStatus.BAD_REQUEST);
             }
 
             if (GP2GP_NACK_404_ERROR_STATUSES.contains(currentMigrationStatus)) {
-                return new ResponseEntity<>(errorBody, HttpStatus.NOT_FOUND);
+                return fhirJsonResponse(errorBody, HttpStatus.NOT_FOUND);
             }
 
 
             if (GP2GP_NACK_501_ERROR_STATUSES.contains(currentMigrationStatus)) {
-                return new ResponseEntity<>(errorBody, HttpStatus.NOT_IMPLEMENTED);
+                return fhirJsonResponse(errorBody, HttpStatus.NOT_IMPLEMENTED);
             }
 
             throw new IllegalStateException("Unsupported transfer status: " + currentMigrationStatus);
         }
     }
 
+    /**
+     * The same operation for clients that send {@code Prefer: wait=<seconds>}: while the transfer is in progress the request is
+     * held until its status changes or the wait is over, instead of answering {@code 204 No Content} straight away.
+     */
+    @PostMapping(
+        path = MIGRATE_STRUCTURED_RECORD_PATH,
+        consumes = {APPLICATION_FHIR_JSON_VALUE},
+        produces = {APPLICATION_FHIR_JSON_VALUE},
+        headers = PREFER
+    )
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> migratePatientStructuredRecordWhenChanged(
+                                    @RequestBody @PatientTransferRequest Parameters body,
+                                    @RequestHeader(TO_ASID) @NotBlank String toAsid,
+                                    @RequestHeader(FROM_ASID) @NotBlank String fromAsid,
+                                    @RequestHeader(TO_ODS) @NotBlank String toOds,
+                                    @RequestHeader(FROM_ODS) @NotBlank String fromOds,
+                                    @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                    @RequestHeader(value = ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                    @RequestParam(value = COUNT, required = false) @Min(1) Integer count,
+                                    UriComponentsBuilder uriBuilder,
+                                    @RequestHeader(PREFER) String prefer) {
+
+        Supplier<ResponseEntity<StreamingResponseBody>> poll = () -> migratePatientStructuredRecord(
+            body, toAsid, fromAsid, toOds, fromOds, ifNoneMatch, acceptEncoding, count, uriBuilder);
+        return longPollService.awaitChange(longPollService.requestedWait(prefer), poll);
+    }
+
+    /**
+     * A later page of a completed transfer's bundle, as linked from the {@code next} link of the page before it. The first page
+     * is returned by the operation itself when it is called with {@code _count}. Like the operation, it only returns the bundle
+     * once the transfer has completed.
+     */
+    @GetMapping(
+        path = MIGRATE_STRUCTURED_RECORD_PATH,
+        produces = {APPLICATION_FHIR_JSON_VALUE}
+    )
+    public ResponseEntity<String> getPatientStructuredRecordPage(
+                                    @RequestParam(COUNT) @Min(1) int count,
+                                    @RequestParam(value = OFFSET, defaultValue = "0") @Min(0) int offset,
+                                    UriComponentsBuilder uriBuilder) {
+
+        var latestStatus = patientTransferService.getLatestMigrationStatus(mdcService.getConversationId());
+        var page = isCompleted(latestStatus) ? encodeBundlePage(offset, count, uriBuilder) : null;
+        if (page == null) {
+            return new ResponseEntity<>(encodeNoCompletedRecord(), NOT_FOUND);
+        }
+        return new ResponseEntity<>(page, OK);
+    }
+
+    private static boolean isCompleted(MigrationStatusLog migrationStatusLog) {
+        if (migrationStatusLog == null) {
+            return false;
+        }
+        var migrationStatus = migrationStatusLog.getMigrationStatus();
+        return MIGRATION_COMPLETED == migrationStatus || FINAL_ACK_SENT == migrationStatus;
+    }
+
+    /**
+     * Streams the bundle of a completed transfer, gzipped if the client accepts it. The ETag is the stored hash of the bundle,
+     * marked when gzipped as that is a different representation, so a client that already has the bundle gets
+     * {@code 304 Not Modified} without it being read from the database. The hash is saved with the bundle, so without one there
+     * is no bundle to stream and the answer is {@code 404 Not Found}.
+     */
+    private ResponseEntity<StreamingResponseBody> createBundleResponse(String ifNoneMatch, String acceptEncoding) {
+        var conversationId = mdcService.getConversationId();
+        var gzip = acceptsGzip(acceptEncoding);
+
+        var hash = patientTransferService.getBundleResourceHash(conversationId);
+        if (hash == null) {
+            return fhirJsonResponse(encodeNoCompletedRecord(), NOT_FOUND);
+        }
+        var eTag = "\"" + hash + (gzip ? GZIP_ETAG_SUFFIX : "") + "\"";
+        if (matchesAny(eTag, ifNoneMatch)) {
+            return ResponseEntity.status(NOT_MODIFIED).eTag(eTag).varyBy(ACCEPT_ENCODING).build();
+        }
+
+        StreamingResponseBody bundle = outputStream -> {
+            var target = StreamUtils.nonClosing(outputStream);
+            var encoded = gzip ? new GZIPOutputStream(target, GZIP_BUFFER_SIZE) : target;
+            try (var writer = new BufferedWriter(new OutputStreamWriter(encoded, UTF_8), WRITER_BUFFER_SIZE)) {
+                patientTransferService.writeBundleResource(conversationId, writer);
+            }
+        };
+
+        var response = ResponseEntity.ok().contentType(APPLICATION_FHIR_JSON).varyBy(ACCEPT_ENCODING).eTag(eTag);
+        if (gzip) {
+            response.header(CONTENT_ENCODING, GZIP);
+        }
+        return response.body(bundle);
+    }
+
+    /**
+     * A response of the operation with a body that has already been encoded. The operation declares its responses as
+     * {@code ResponseEntity<StreamingResponseBody>}, as Spring only streams a body that is declared that way, and the streaming
+     * handler leaves the content type to the response.
+     */
+    private static ResponseEntity<StreamingResponseBody> fhirJsonResponse(String body, HttpStatus status) {
+        var bytes = body.getBytes(UTF_8);
+        StreamingResponseBody streamingBody = outputStream -> outputStream.write(bytes);
+        return ResponseEntity.status(status).contentType(APPLICATION_FHIR_JSON).body(streamingBody);
+    }
+
+    private String encodeNoCompletedRecord() {
+        var details = CodeableConceptUtils.createCodeableConcept("RESOURCE_NOT_FOUND", ISSUE_SYSTEM, "Resource not found", null);
+        var operationOutcome = createOperationOutcome(NOTFOUND, ERROR, details,
+            "No completed record for Conversation ID: " + mdcService.getConversationId());
+        return fhirParser.encodeToJson(operationOutcome);
+    }
+
+    /**
+     * One page of the bundle as JSON, at most {@link PatientTransferService#MAX_BUNDLE_PAGE_SIZE} entries long, or {@code null}
+     * if the bundle has not been saved a page at a time. Spring fills in {@code uriBuilder} from the request before the handler
+     * is called, so the page links can still be built when a long poll finishes on another thread.
+     */
+    private String encodeBundlePage(int offset, int count, UriComponentsBuilder uriBuilder) {
+        var pageSize = Math.min(count, MAX_BUNDLE_PAGE_SIZE);
+        var pageUri = uriBuilder.cloneBuilder().path(MIGRATE_STRUCTURED_RECORD_PATH).queryParam(COUNT, pageSize);
+        IntFunction<String> pageLink = pageOffset -> pageUri.cloneBuilder().queryParam(OFFSET, pageOffset).toUriString();
+
+        var page = patientTransferService.getBundlePage(mdcService.getConversationId(), offset, pageSize, pageLink);
+        if (page == null) {
+            return null;
+        }
+        return fhirParser.encodeToCompactJson(page);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        var acceptsAny = false;
+        for (var coding : acceptEncoding.split(",")) {
+            var parts = coding.split(";");
+            var name = parts[0].trim();
+            var acceptable = parts.length == 1 || !ZERO_QUALITY.matcher(parts[1]).matches();
+            if (GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                return acceptable;
+            }
+            if ("*".equals(name)) {
+                acceptsAny = acceptable;
+            }
+        }
+        return acceptsAny;
+    }
+
+    private static boolean matchesAny(String eTag, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            var value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || eTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private OperationOutcome createErrorBodyForInProgressRequest(String conversationId) {
         var operationErrorCode = INTERNAL_SERVER_ERROR;
         var operationErrorMessage = "PS - The Given NHS number is already being processed against Conversation ID: "
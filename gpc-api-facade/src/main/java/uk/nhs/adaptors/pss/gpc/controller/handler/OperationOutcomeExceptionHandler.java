@@ -11,6 +11,7 @@ import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.NOTFOUND;
 import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.NOTSUPPORTED;
 import static org.springframework.http.HttpHeaders.ALLOW;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
@@ -55,8 +56,9 @@ import uk.nhs.adaptors.common.util.fhir.FhirParser;
 public class OperationOutcomeExceptionHandler extends ResponseEntityExceptionHandler {
     private static final String ISSUE_SYSTEM = "https://fhir.nhs.uk/STU3/ValueSet/Spine-ErrorOrWarningCode-1";
     private static final Map<String, List<HttpMethod>> ALLOWED_METHODS = Map.of(
-        "/Patient/$gpc.migratestructuredrecord", List.of(POST),
-            "/$gpc.ack", List.of(POST)
+        "/Patient/$gpc.migratestructuredrecord", List.of(GET, POST),
+            "/$gpc.ack", List.of(POST),
+            "/", List.of(POST)
     );
 
     @Autowired
@@ -12,5 +12,6 @@ public class HttpHeaders {
     public static final String FROM_ODS = "from-ods";
     public static final String CONVERSATION_ID = "conversationId";
     public static final String CONFIRMATION_RESPONSE = "confirmationResponse";
+    public static final String PREFER = "Prefer";
 
 }
@@ -35,20 +35,24 @@ public class PatientTransferRequestValidator implements ConstraintValidator<Pati
         return true;
     }
 
-    private static void checkNhsNumber(Parameters parameters) {
-        parameters.getParameter()
-            .stream()
-            .filter(p -> NHS_NUMBER_PART_NAME.equals(p.getName()))
-            .filter(p -> nonNull(p.getValue()))
-            .reduce((x, y) -> {
-                throw new FhirValidationException(String.format("Exactly 1 Parameter named '%s' with not empty value expected",
-                    NHS_NUMBER_PART_NAME));
-            })
-            .map(p -> (Identifier) p.getValue())
-            .filter(i -> StringUtils.isNotBlank(i.getValue()))
-            .orElseThrow(() -> new FhirValidationException(String.format(
-                "Missing value for Parameter '%s'", NHS_NUMBER_PART_NAME)));
+    /**
+     * Throws a {@link FhirValidationException} unless the parameters hold exactly one non-blank NHS number.
+     */
+    public static void checkNhsNumber(Parameters parameters) {
+        Identifier nhsNumber = null;
+        for (var parameter : parameters.getParameter()) {
+            if (NHS_NUMBER_PART_NAME.equals(parameter.getName()) && nonNull(parameter.getValue())) {
+                if (nhsNumber != null) {
+                    throw new FhirValidationException(String.format("Exactly 1 Parameter named '%s' with not empty value expected",
+                        NHS_NUMBER_PART_NAME));
+                }
+                nhsNumber = (Identifier) parameter.getValue();
+            }
+        }
 
+        if (nhsNumber == null || StringUtils.isBlank(nhsNumber.getValue())) {
+            throw new FhirValidationException(String.format("Missing value for Parameter '%s'", NHS_NUMBER_PART_NAME));
+        }
     }
 
     private void setErrorMessage(ConstraintValidatorContext cxt, String message) {
@@ -0,0 +1,273 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueSeverity.ERROR;
+import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.DUPLICATE;
+import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.EXCEPTION;
+import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.INVALID;
+import static org.hl7.fhir.dstu3.model.OperationOutcome.IssueType.NOTSUPPORTED;
+import static org.springframework.http.HttpStatus.ACCEPTED;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+import static uk.nhs.adaptors.common.model.MigrationStatusGroups.IN_PROGRESS_STATUSES;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ASID;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
+import static uk.nhs.adaptors.pss.gpc.util.fhir.OperationOutcomeUtils.createOperationOutcome;
+import static uk.nhs.adaptors.pss.gpc.util.fhir.ParametersUtils.getNhsNumberFromParameters;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.dstu3.model.Bundle.BundleType;
+import org.hl7.fhir.dstu3.model.Bundle.HTTPVerb;
+import org.hl7.fhir.dstu3.model.OperationOutcome;
+import org.hl7.fhir.dstu3.model.OperationOutcome.IssueType;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.common.enums.QueueMessageType;
+import uk.nhs.adaptors.common.exception.FhirValidationException;
+import uk.nhs.adaptors.common.model.PssQueueMessage;
+import uk.nhs.adaptors.common.model.TransferRequestMessage;
+import uk.nhs.adaptors.common.util.CodeableConceptUtils;
+import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.service.PssQueueOutboxService;
+import uk.nhs.adaptors.pss.gpc.config.BulkTransferProperties;
+import uk.nhs.adaptors.pss.gpc.controller.validation.PatientTransferRequestValidator;
+
+/**
+ * Starts many patient transfers from one FHIR {@code batch} Bundle. Each entry is a {@code POST} of the
+ * {@code $gpc.migratestructuredrecord} operation's {@link Parameters}, with its conversation ID as the entry's
+ * {@code urn:uuid:} full URL, and all of them are between the practices named in the request headers. Transfers are started
+ * {@link BulkTransferProperties#getBatchSize()} at a time: the requests, their first status and their transfer request
+ * messages are inserted as JDBC batches in one transaction, and the messages are then published from the outbox.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Slf4j
+public class BulkPatientTransferService {
+    private static final String ISSUE_SYSTEM = "https://fhir.nhs.uk/STU3/ValueSet/Spine-ErrorOrWarningCode-1";
+    private static final String MIGRATE_STRUCTURED_RECORD_OPERATION = "$gpc.migratestructuredrecord";
+    private static final String UUID_URN_PREFIX = "urn:uuid:";
+
+    private final PatientMigrationRequestDao patientMigrationRequestDao;
+    private final PssQueueOutboxService pssQueueOutboxService;
+    private final ObjectMapper objectMapper;
+    private final DateUtils dateUtils;
+    private final BulkTransferProperties bulkTransferProperties;
+
+    /**
+     * Returns a {@code batch-response} Bundle with one entry for each entry of the batch, in the same order, whose
+     * {@code response.status} is {@code 202 Accepted} for each transfer started and an error status with an
+     * {@link OperationOutcome} for each one that was not.
+     */
+    public Bundle handleBulkPatientMigrationRequest(Bundle batch, Map<String, String> headers) {
+        if (batch.getType() != BundleType.BATCH) {
+            throw new FhirValidationException("Bundle of type 'batch' expected");
+        }
+        if (batch.getEntry().size() > bulkTransferProperties.getMaxEntries()) {
+            throw new FhirValidationException(String.format("At most %d entries expected in a batch, got %d",
+                bulkTransferProperties.getMaxEntries(), batch.getEntry().size()));
+        }
+
+        var transfers = new ArrayList<BulkTransfer>(batch.getEntry().size());
+        for (var entry : batch.getEntry()) {
+            transfers.add(readEntry(entry));
+        }
+        rejectRepeatsWithinBatch(transfers);
+
+        var pending = transfers.stream().filter(BulkTransfer::isPending).toList();
+        var batchSize = bulkTransferProperties.getBatchSize();
+        LOGGER.info("Starting {} of {} patient transfers in batches of {}", pending.size(), transfers.size(), batchSize);
+        for (int start = 0; start < pending.size(); start += batchSize) {
+            startTransfers(pending.subList(start, Math.min(start + batchSize, pending.size())), headers);
+        }
+
+        var response = new Bundle().setType(BundleType.BATCHRESPONSE);
+        for (var transfer : transfers) {
+            var responseEntry = response.addEntry();
+            if (transfer.conversationId != null) {
+                responseEntry.setFullUrl(UUID_URN_PREFIX + transfer.conversationId);
+            }
+            responseEntry.getResponse()
+                .setStatus(transfer.status.value() + " " + transfer.status.getReasonPhrase())
+                .setOutcome(transfer.outcome);
+        }
+        return response;
+    }
+
+    private static BulkTransfer readEntry(BundleEntryComponent entry) {
+        var transfer = new BulkTransfer();
+
+        var request = entry.getRequest();
+        if (request.getMethod() != HTTPVerb.POST || request.getUrl() == null
+            || !request.getUrl().endsWith(MIGRATE_STRUCTURED_RECORD_OPERATION)) {
+            transfer.reject(BAD_REQUEST, NOTSUPPORTED, "BAD_REQUEST",
+                "Only POST Patient/" + MIGRATE_STRUCTURED_RECORD_OPERATION + " is supported in a batch");
+            return transfer;
+        }
+
+        if (!entry.hasFullUrl()) {
+            transfer.conversationId = UUID.randomUUID().toString().toUpperCase(Locale.ROOT);
+        } else if (isUuidUrn(entry.getFullUrl())) {
+            transfer.conversationId = entry.getFullUrl().substring(UUID_URN_PREFIX.length()).toUpperCase(Locale.ROOT);
+        } else {
+            transfer.reject(UNPROCESSABLE_ENTITY, INVALID, "INVALID_RESOURCE",
+                "Entry fullUrl must be the conversation ID as a urn:uuid: URI");
+            return transfer;
+        }
+
+        if (!(entry.getResource() instanceof Parameters parameters)) {
+            transfer.reject(UNPROCESSABLE_ENTITY, INVALID, "INVALID_RESOURCE", "Entry resource must be Parameters");
+            return transfer;
+        }
+        try {
+            PatientTransferRequestValidator.checkNhsNumber(parameters);
+        } catch (FhirValidationException exception) {
+            transfer.reject(UNPROCESSABLE_ENTITY, INVALID, "INVALID_RESOURCE", exception.getMessage());
+            return transfer;
+        }
+        transfer.patientNhsNumber = getNhsNumberFromParameters(parameters).get().getValue();
+        return transfer;
+    }
+
+    private static boolean isUuidUrn(String fullUrl) {
+        if (!fullUrl.startsWith(UUID_URN_PREFIX)) {
+            return false;
+        }
+        try {
+            UUID.fromString(fullUrl.substring(UUID_URN_PREFIX.length()));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Only the first entry for a conversation ID or for a patient is started; as with single requests, a patient can only
+     * have one transfer in progress.
+     */
+    private static void rejectRepeatsWithinBatch(List<BulkTransfer> transfers) {
+        var conversationIds = new HashSet<String>();
+        var conversationIdsByPatient = new HashMap<String, String>();
+        for (var transfer : transfers) {
+            if (!transfer.isPending()) {
+                continue;
+            }
+            if (!conversationIds.add(transfer.conversationId)) {
+                transfer.rejectExistingConversation();
+                continue;
+            }
+            var earlierConversationId = conversationIdsByPatient.putIfAbsent(transfer.patientNhsNumber, transfer.conversationId);
+            if (earlierConversationId != null) {
+                transfer.rejectInProgress(earlierConversationId);
+            }
+        }
+    }
+
+    private void startTransfers(List<BulkTransfer> batch, Map<String, String> headers) {
+        var existingConversationIds = new HashSet<>(patientMigrationRequestDao.getExistingConversationIds(
+            batch.stream().map(transfer -> transfer.conversationId).toList()));
+        var inProgressConversationIds = patientMigrationRequestDao.getConversationIdsOfMigrationsInProgress(
+            batch.stream().map(transfer -> transfer.patientNhsNumber).toList(), IN_PROGRESS_STATUSES);
+
+        var transfersToStart = new ArrayList<BulkTransfer>(batch.size());
+        for (var transfer : batch) {
+            if (existingConversationIds.contains(transfer.conversationId)) {
+                transfer.rejectExistingConversation();
+            } else if (inProgressConversationIds.containsKey(transfer.patientNhsNumber)) {
+                transfer.rejectInProgress(inProgressConversationIds.get(transfer.patientNhsNumber));
+            } else {
+                transfersToStart.add(transfer);
+            }
+        }
+        if (transfersToStart.isEmpty()) {
+            return;
+        }
+
+        try {
+            pssQueueOutboxService.addNewRequestsWithMessages(
+                transfersToStart.stream().map(transfer -> transfer.patientNhsNumber).toList(),
+                transfersToStart.stream().map(transfer -> transfer.conversationId).toList(),
+                headers.get(TO_ODS), headers.get(FROM_ODS), dateUtils.getCurrentOffsetDateTime(),
+                transfersToStart.stream().map(transfer -> getMessageAsString(createTransferRequestMessage(transfer, headers))).toList());
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to save a batch of {} patient transfer requests", transfersToStart.size(), e);
+            transfersToStart.forEach(transfer -> transfer.fail("PS - The transfer request could not be saved"));
+            return;
+        }
+
+        transfersToStart.forEach(transfer -> transfer.status = ACCEPTED);
+    }
+
+    @SneakyThrows
+    private String getMessageAsString(PssQueueMessage message) {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    private static TransferRequestMessage createTransferRequestMessage(BulkTransfer transfer, Map<String, String> headers) {
+        return TransferRequestMessage.builder()
+            .conversationId(transfer.conversationId)
+            .patientNhsNumber(transfer.patientNhsNumber)
+            .messageType(QueueMessageType.TRANSFER_REQUEST)
+            .toAsid(headers.get(TO_ASID))
+            .fromAsid(headers.get(FROM_ASID))
+            .toOds(headers.get(TO_ODS))
+            .fromOds(headers.get(FROM_ODS))
+            .build();
+    }
+
+    /**
+     * One entry of the batch. It is pending until it has been either started or rejected.
+     */
+    private static final class BulkTransfer {
+        private String conversationId;
+        private String patientNhsNumber;
+        private HttpStatus status;
+        private OperationOutcome outcome;
+
+        private boolean isPending() {
+            return status == null;
+        }
+
+        private void reject(HttpStatus rejectedStatus, IssueType issueType, String code, String message) {
+            var details = CodeableConceptUtils.createCodeableConcept(code, ISSUE_SYSTEM, message, null);
+            status = rejectedStatus;
+            outcome = createOperationOutcome(issueType, ERROR, details, null);
+        }
+
+        private void rejectExistingConversation() {
+            reject(CONFLICT, DUPLICATE, "DUPLICATE_REJECTED",
+                "PS - A transfer has already been requested with Conversation ID: " + conversationId);
+        }
+
+        private void rejectInProgress(String existingConversationId) {
+            reject(CONFLICT, DUPLICATE, "DUPLICATE_REJECTED",
+                "PS - The Given NHS number is already being processed against Conversation ID: " + existingConversationId
+                    + ", you cannot start a new request until the current request has completed or failed.");
+        }
+
+        private void fail(String message) {
+            reject(INTERNAL_SERVER_ERROR, EXCEPTION, "INTERNAL_SERVER_ERROR", message);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import uk.nhs.adaptors.connector.model.MigrationStatusLog;
+
+/**
+ * What the facade needs to know about a migration request to answer a poll, without its bundle or inbound message.
+ */
+@Getter
+@Builder
+public class CachedMigration {
+    private final int migrationRequestId;
+    private final String conversationId;
+    private final MigrationStatusLog latestStatus;
+}
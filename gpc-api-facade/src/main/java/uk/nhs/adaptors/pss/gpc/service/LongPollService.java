@@ -0,0 +1,115 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.common.service.MDCService;
+import uk.nhs.adaptors.pss.gpc.config.LongPollProperties;
+
+/**
+ * Holds a migration request for as long as its answer would be {@code 204 No Content}, re-evaluating it each time the
+ * migration's status changes, so that clients can wait for the transfer to progress rather than polling for it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class LongPollService {
+
+    private static final Pattern WAIT_PREFERENCE = Pattern.compile("(?:^|[,;])\\s*wait\\s*=\\s*(\\d+)\\s*(?=$|[,;])",
+        Pattern.CASE_INSENSITIVE);
+
+    private final MigrationStatusListener migrationStatusListener;
+    private final LongPollProperties longPollProperties;
+    private final MDCService mdcService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * How long a client asked to wait with an RFC 7240 {@code Prefer: wait=<seconds>} header, capped at the configured maximum.
+     * Zero when long polling is disabled or the header does not ask to wait.
+     */
+    public Duration requestedWait(String prefer) {
+        if (!longPollProperties.isEnabled() || prefer == null) {
+            return Duration.ZERO;
+        }
+        var matcher = WAIT_PREFERENCE.matcher(prefer);
+        if (!matcher.find()) {
+            return Duration.ZERO;
+        }
+        try {
+            var wait = Duration.ofSeconds(Long.parseLong(matcher.group(1)));
+            return wait.compareTo(longPollProperties.getMaxWait()) > 0 ? longPollProperties.getMaxWait() : wait;
+        } catch (NumberFormatException e) {
+            return longPollProperties.getMaxWait();
+        }
+    }
+
+    /**
+     * Answers with the first response from {@code poll} that is not {@code 204 No Content}, polling once straight away and again
+     * whenever the status of the current conversation's migration changes. Answers {@code 204 No Content} if the status has not
+     * moved on within {@code wait}, and with the first response whatever it is if {@code wait} is zero.
+     */
+    public <T> DeferredResult<ResponseEntity<T>> awaitChange(Duration wait, Supplier<ResponseEntity<T>> poll) {
+        if (wait.isZero()) {
+            var result = new DeferredResult<ResponseEntity<T>>();
+            result.setResult(poll.get());
+            return result;
+        }
+
+        var conversationId = mdcService.getConversationId();
+        var result = new DeferredResult<ResponseEntity<T>>(wait.toMillis(), () -> new ResponseEntity<T>(NO_CONTENT));
+
+        // subscribe before the first poll so that a change between the two is not missed
+        var subscription = migrationStatusListener.subscribe(conversationId,
+            () -> executor.execute(() -> pollInBackground(conversationId, poll, result)));
+        result.onCompletion(subscription::close);
+
+        try {
+            completeUnlessInProgress(poll.get(), result);
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        return result;
+    }
+
+    private <T> void pollInBackground(String conversationId, Supplier<ResponseEntity<T>> poll,
+        DeferredResult<ResponseEntity<T>> result) {
+
+        if (result.isSetOrExpired()) {
+            return;
+        }
+        mdcService.applyConversationId(conversationId);
+        try {
+            completeUnlessInProgress(poll.get(), result);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to check the migration status after it changed", e);
+            result.setErrorResult(e);
+        } finally {
+            mdcService.resetAllMdcKeys();
+        }
+    }
+
+    private static <T> void completeUnlessInProgress(ResponseEntity<T> response, DeferredResult<ResponseEntity<T>> result) {
+        if (response.getStatusCode().value() != NO_CONTENT.value()) {
+            result.setResult(response);
+        }
+    }
+}
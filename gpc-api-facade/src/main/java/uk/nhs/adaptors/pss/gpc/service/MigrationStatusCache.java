@@ -0,0 +1,154 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
+import uk.nhs.adaptors.pss.gpc.config.StatusCacheProperties;
+
+/**
+ * Holds the latest status of recently polled migrations, so that polls for a transfer whose status has not changed are
+ * answered without going to the database.
+ * <p>
+ * Entries are dropped as soon as the {@link MigrationStatusListener} hears that their status has changed, and in any case
+ * after a short time to live, which bounds how stale an entry can be if a notification is late. While status changes are not
+ * being heard, every lookup goes to the database.
+ * <p>
+ * Hits and misses are published as the {@code cache.gets} meter of the {@value #BY_CONVERSATION_ID_CACHE} and
+ * {@value #BY_NHS_NUMBER_CACHE} caches.
+ */
+@Component
+public class MigrationStatusCache implements MigrationStatusListener.StatusChangeHandler {
+
+    static final String BY_CONVERSATION_ID_CACHE = "migration.status.by.conversation.id";
+    static final String BY_NHS_NUMBER_CACHE = "migration.status.by.nhs.number";
+
+    private final PatientMigrationRequestDao patientMigrationRequestDao;
+    private final MigrationStatusLogDao migrationStatusLogDao;
+    private final MigrationStatusListener migrationStatusListener;
+    private final boolean enabled;
+    private final Cache<String, CachedMigration> byConversationId;
+    private final Cache<String, String> conversationIdByNhsNumber;
+    private final AtomicLong statusChanges = new AtomicLong();
+
+    @Autowired
+    public MigrationStatusCache(PatientMigrationRequestDao patientMigrationRequestDao, MigrationStatusLogDao migrationStatusLogDao,
+        MigrationStatusListener migrationStatusListener, StatusCacheProperties statusCacheProperties, MeterRegistry meterRegistry) {
+
+        this.patientMigrationRequestDao = patientMigrationRequestDao;
+        this.migrationStatusLogDao = migrationStatusLogDao;
+        this.migrationStatusListener = migrationStatusListener;
+        this.enabled = statusCacheProperties.isEnabled();
+        this.byConversationId = CaffeineCacheMetrics.monitor(meterRegistry, newCache(statusCacheProperties), BY_CONVERSATION_ID_CACHE);
+        this.conversationIdByNhsNumber = CaffeineCacheMetrics.monitor(meterRegistry, newCache(statusCacheProperties),
+            BY_NHS_NUMBER_CACHE);
+
+        migrationStatusListener.addHandler(this);
+    }
+
+    /**
+     * The migration requested under {@code conversationId}, or {@code null} if there is none.
+     */
+    public CachedMigration getMigration(String conversationId) {
+        var key = conversationId.toUpperCase(Locale.ROOT);
+        if (!isUsable()) {
+            return load(patientMigrationRequestDao.getMigrationRequest(key));
+        }
+
+        var cached = byConversationId.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        var statusChangesBeforeLoading = statusChanges.get();
+        var migration = load(patientMigrationRequestDao.getMigrationRequest(key));
+        remember(migration, null, statusChangesBeforeLoading);
+        return migration;
+    }
+
+    /**
+     * The latest migration requested for the patient, or {@code null} if there is none.
+     * <p>
+     * Another instance of the facade may have started a migration for the patient since this one last looked, and that
+     * raises no notification here. So the remembered migration is only trusted when it is the one the caller is polling
+     * for; a request under any other conversation ID always finds the latest migration in the database.
+     */
+    public CachedMigration getLatestMigrationForPatient(String patientNhsNumber, String requestingConversationId) {
+        if (isUsable()) {
+            var conversationId = conversationIdByNhsNumber.getIfPresent(patientNhsNumber);
+            if (conversationId != null && conversationId.equals(requestingConversationId.toUpperCase(Locale.ROOT))) {
+                return getMigration(conversationId);
+            }
+        }
+
+        var statusChangesBeforeLoading = statusChanges.get();
+        var migration = load(patientMigrationRequestDao.getLatestMigrationRequestByPatientNhsNumber(patientNhsNumber));
+        if (isUsable()) {
+            remember(migration, patientNhsNumber, statusChangesBeforeLoading);
+        }
+        return migration;
+    }
+
+    @Override
+    public void statusChanged(String conversationId) {
+        statusChanges.incrementAndGet();
+        byConversationId.invalidate(conversationId);
+    }
+
+    @Override
+    public void statusesMayHaveChanged() {
+        statusChanges.incrementAndGet();
+        byConversationId.invalidateAll();
+        conversationIdByNhsNumber.invalidateAll();
+    }
+
+    private boolean isUsable() {
+        return enabled && migrationStatusListener.isListening();
+    }
+
+    private CachedMigration load(PatientMigrationRequest migrationRequest) {
+        if (migrationRequest == null) {
+            return null;
+        }
+        return CachedMigration.builder()
+            .migrationRequestId(migrationRequest.getId())
+            .conversationId(migrationRequest.getConversationId().toUpperCase(Locale.ROOT))
+            .latestStatus(migrationStatusLogDao.getLatestMigrationStatusLog(migrationRequest.getId()))
+            .build();
+    }
+
+    /**
+     * Remembers a migration read from the database, unless a status changed while it was being read, as the change may have
+     * been missed by the read but its notification already handled. A request is briefly without a status while it is being
+     * created, and no notification covers that, so such a migration is not remembered either.
+     */
+    private void remember(CachedMigration migration, String patientNhsNumber, long statusChangesBeforeLoading) {
+        if (migration == null || migration.getLatestStatus() == null) {
+            return;
+        }
+        byConversationId.put(migration.getConversationId(), migration);
+        if (patientNhsNumber != null) {
+            conversationIdByNhsNumber.put(patientNhsNumber, migration.getConversationId());
+        }
+        if (statusChanges.get() != statusChangesBeforeLoading) {
+            byConversationId.invalidate(migration.getConversationId());
+        }
+    }
+
+    private static <V> Cache<String, V> newCache(StatusCacheProperties statusCacheProperties) {
+        return Caffeine.newBuilder()
+            .maximumSize(statusCacheProperties.getMaximumSize())
+            .expireAfterWrite(statusCacheProperties.getTimeToLive())
+            .recordStats()
+            .build();
+    }
+}
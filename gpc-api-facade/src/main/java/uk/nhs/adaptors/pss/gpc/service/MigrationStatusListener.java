@@ -0,0 +1,173 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static uk.nhs.adaptors.connector.dao.MigrationStatusLogDao.STATUS_CHANGED_CHANNEL;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.pss.gpc.config.LongPollProperties;
+import uk.nhs.adaptors.pss.gpc.config.StatusCacheProperties;
+
+/**
+ * Listens for the notifications sent whenever a migration's status changes and passes them on to whoever subscribed to that
+ * conversation, and to every {@link StatusChangeHandler}. A single connection is held for listening, on a thread of its own.
+ * If that connection is lost everyone is told, as changes may have been missed while reconnecting. Nothing is listened for, and
+ * no connection held, when neither long polling nor the status cache is enabled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class MigrationStatusListener {
+
+    private static final int NOTIFICATION_WAIT_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final LongPollProperties longPollProperties;
+    private final StatusCacheProperties statusCacheProperties;
+    private final Map<String, Set<Runnable>> subscribers = new ConcurrentHashMap<>();
+    private final List<StatusChangeHandler> handlers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        if (!longPollProperties.isEnabled() && !statusCacheProperties.isEnabled()) {
+            LOGGER.info("Long polling and the status cache are disabled, not listening for migration status changes");
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform().name("migration-status-listener").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listening = false;
+        if (listenerThread != null) {
+            listenerThread.join(NOTIFICATION_WAIT_MILLIS * 2L);
+        }
+    }
+
+    /**
+     * Runs {@code onChange} each time the status of the migration changes, until the returned subscription is closed.
+     * {@code onChange} is called on the listener thread, so it should hand any real work to another.
+     */
+    public Subscription subscribe(String conversationId, Runnable onChange) {
+        var key = conversationId.toUpperCase(Locale.ROOT);
+        subscribers.computeIfAbsent(key, k -> new CopyOnWriteArraySet<>()).add(onChange);
+        return () -> subscribers.computeIfPresent(key, (k, callbacks) -> {
+            callbacks.remove(onChange);
+            return callbacks.isEmpty() ? null : callbacks;
+        });
+    }
+
+    /**
+     * Tells {@code handler} of every status change, for as long as the application runs.
+     */
+    public void addHandler(StatusChangeHandler handler) {
+        handlers.add(handler);
+    }
+
+    /**
+     * Whether status changes are being heard right now. While they are not, changes will be missed until the connection
+     * has been re-established and everyone told.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    void statusChanged(String conversationId) {
+        var key = conversationId.toUpperCase(Locale.ROOT);
+        handlers.forEach(handler -> runSafely(() -> handler.statusChanged(key)));
+        var callbacks = subscribers.get(key);
+        if (callbacks != null) {
+            callbacks.forEach(this::runSafely);
+        }
+    }
+
+    void allStatusesMayHaveChanged() {
+        handlers.forEach(handler -> runSafely(handler::statusesMayHaveChanged));
+        subscribers.values().forEach(callbacks -> callbacks.forEach(this::runSafely));
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + STATUS_CHANGED_CHANNEL);
+                }
+                LOGGER.info("Listening for migration status changes");
+                listening = true;
+                if (reconnecting) {
+                    allStatusesMayHaveChanged();
+                }
+                reconnecting = true;
+
+                var pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    var notifications = pgConnection.getNotifications(NOTIFICATION_WAIT_MILLIS);
+                    if (notifications != null) {
+                        for (var notification : notifications) {
+                            statusChanged(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                LOGGER.warn("Lost connection listening for migration status changes, reconnecting in {}",
+                    longPollProperties.getReconnectDelay(), e);
+                sleepBeforeReconnecting();
+            }
+        }
+    }
+
+    private void sleepBeforeReconnecting() {
+        try {
+            Thread.sleep(longPollProperties.getReconnectDelay());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void runSafely(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to handle a migration status change", e);
+        }
+    }
+
+    public interface StatusChangeHandler {
+
+        void statusChanged(String conversationId);
+
+        void statusesMayHaveChanged();
+    }
+
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -1,57 +1,71 @@
 package uk.nhs.adaptors.pss.gpc.service;
 
-import static uk.nhs.adaptors.common.enums.MigrationStatus.REQUEST_RECEIVED;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
 import static uk.nhs.adaptors.pss.gpc.util.fhir.ParametersUtils.getNhsNumberFromParameters;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.IntFunction;
 
+import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Parameters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import uk.nhs.adaptors.common.enums.QueueMessageType;
 import uk.nhs.adaptors.common.model.MigrationStatusGroups;
+import uk.nhs.adaptors.common.model.PssQueueMessage;
 import uk.nhs.adaptors.common.model.TransferRequestMessage;
 import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.common.util.DateUtils;
-import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+import uk.nhs.adaptors.connector.dao.BundleEntryDao;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.connector.model.MigrationStatusLog;
-import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
-import uk.nhs.adaptors.pss.gpc.amqp.PssQueuePublisher;
+import uk.nhs.adaptors.connector.service.PssQueueOutboxService;
 
 @Component
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class PatientTransferService {
+    public static final int MAX_BUNDLE_PAGE_SIZE = 5_000;
+    private static final String ENTRIES_PREFIX = "{\"resourceType\":\"Bundle\",\"entry\":[";
+    private static final String ENTRIES_SUFFIX = "]}";
+
     private final PatientMigrationRequestDao patientMigrationRequestDao;
-    private final MigrationStatusLogDao migrationStatusLogDao;
-    private final PssQueuePublisher pssQueuePublisher;
+    private final PssQueueOutboxService pssQueueOutboxService;
+    private final ObjectMapper objectMapper;
     private final DateUtils dateUtils;
     private final MDCService mdcService;
-
+    private final MigrationStatusCache migrationStatusCache;
+    private final BundleEntryDao bundleEntryDao;
+    private final FhirParser fhirParser;
+
+    /**
+     * Saves a new migration request together with its transfer request message, which is published to the PSS queue from the
+     * outbox, or returns the latest status of the migration if it has already been requested.
+     */
     public MigrationStatusLog handlePatientMigrationRequest(Parameters parameters, Map<String, String> headers) {
         var conversationId = mdcService.getConversationId();
         conversationId = conversationId.toUpperCase(Locale.ROOT);
 
-        PatientMigrationRequest patientMigrationRequest = patientMigrationRequestDao.getMigrationRequest(conversationId);
+        var migration = migrationStatusCache.getMigration(conversationId);
 
-        if (patientMigrationRequest == null) {
+        if (migration == null) {
             var patientNhsNumber = getNhsNumberFromParameters(parameters).get().getValue();
-            patientMigrationRequestDao.addNewRequest(patientNhsNumber, conversationId, headers.get(TO_ODS), headers.get(FROM_ODS));
-
-            int addedId = patientMigrationRequestDao.getMigrationRequestId(conversationId);
-            migrationStatusLogDao.addMigrationStatusLog(REQUEST_RECEIVED, dateUtils.getCurrentOffsetDateTime(), addedId, null, null);
-
             var pssMessage = createTransferRequestMessage(patientNhsNumber, headers, conversationId);
-            pssQueuePublisher.sendToPssQueue(pssMessage);
+            pssQueueOutboxService.addNewRequestWithMessage(patientNhsNumber, conversationId, headers.get(TO_ODS), headers.get(FROM_ODS),
+                dateUtils.getCurrentOffsetDateTime(), getMessageAsString(pssMessage));
         } else {
-            return migrationStatusLogDao.getLatestMigrationStatusLog(patientMigrationRequest.getId());
+            return migration.getLatestStatus();
         }
         return null;
     }
@@ -59,36 +73,96 @@ public class PatientTransferService {
     public String checkExistingPatientMigrationRequestInProgress(Parameters parameters) {
         var patientNhsNumber = getNhsNumberFromParameters(parameters).get().getValue();
 
-        var existingConversationId = getConversationIdOfIncompleteMigrationRequest(patientNhsNumber);
-
         var internalConversationId = mdcService.getConversationId().toUpperCase(Locale.ROOT);
+
+        var existingConversationId = getConversationIdOfIncompleteMigrationRequest(patientNhsNumber, internalConversationId);
         return internalConversationId.equals(existingConversationId) ? null : existingConversationId;
     }
 
-    private String getConversationIdOfIncompleteMigrationRequest(String patientNhsNumber) {
-        var migrationRequest = patientMigrationRequestDao.getLatestMigrationRequestByPatientNhsNumber(patientNhsNumber);
-        if (migrationRequest == null) {
+    private String getConversationIdOfIncompleteMigrationRequest(String patientNhsNumber, String internalConversationId) {
+        var migration = migrationStatusCache.getLatestMigrationForPatient(patientNhsNumber, internalConversationId);
+        if (migration == null) {
             return null;
         }
 
-        var migrationStatusLog = migrationStatusLogDao.getLatestMigrationStatusLog(migrationRequest.getId());
+        var migrationStatusLog = migration.getLatestStatus();
 
         // edge case of second request occurring before the first migration status log has been written
         if (migrationStatusLog == null) {
-            return migrationRequest.getConversationId();
+            return migration.getConversationId();
         }
 
         if (MigrationStatusGroups.IN_PROGRESS_STATUSES.contains(migrationStatusLog.getMigrationStatus())) {
-            return migrationRequest.getConversationId();
+            return migration.getConversationId();
         }
 
         return null;
     }
 
-    public String getBundleResource() {
-        var conversationId = mdcService.getConversationId().toUpperCase(Locale.ROOT);
-        PatientMigrationRequest patientMigrationRequest = patientMigrationRequestDao.getMigrationRequest(conversationId);
-        return patientMigrationRequest.getBundleResource();
+    /**
+     * The latest status of the migration, or {@code null} if it has not been requested or has no status yet.
+     */
+    public MigrationStatusLog getLatestMigrationStatus(String conversationId) {
+        var migration = migrationStatusCache.getMigration(conversationId.toUpperCase(Locale.ROOT));
+        return migration == null ? null : migration.getLatestStatus();
+    }
+
+    public String getBundleResourceHash(String conversationId) {
+        return patientMigrationRequestDao.getBundleResourceHash(conversationId.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes the bundle, read with a single query, or nothing if no bundle has been saved. The JDBC driver holds a text value
+     * whole however it is read, so reading it in pieces would not save memory, only add round trips.
+     */
+    public void writeBundleResource(String conversationId, Writer writer) throws IOException {
+        var bundle = patientMigrationRequestDao.getBundleResource(conversationId.toUpperCase(Locale.ROOT));
+        if (bundle != null) {
+            writer.write(bundle);
+        }
+    }
+
+    /**
+     * One page of the saved bundle: the bundle as saved but with only {@code count} of its entries, starting at entry
+     * {@code offset}, and searchset style {@code self}, {@code previous} and {@code next} links built by {@code pageLink} from
+     * the offset of each page. A bundle that has not been split into entries yet is split first. Returns {@code null} if no
+     * bundle has been saved for the migration.
+     */
+    public Bundle getBundlePage(String conversationId, int offset, int count, IntFunction<String> pageLink) {
+        var key = conversationId.toUpperCase(Locale.ROOT);
+        var envelope = bundleEntryDao.getBundleEnvelope(key);
+        if (envelope == null) {
+            bundleEntryDao.saveBundleEntries(key);
+            envelope = bundleEntryDao.getBundleEnvelope(key);
+            if (envelope == null) {
+                return null;
+            }
+        }
+
+        // one more entry than the page holds tells us whether there is a next page
+        var entries = bundleEntryDao.getBundleEntries(key, offset, count + 1);
+        var hasNext = entries.size() > count;
+        var pageEntries = hasNext ? entries.subList(0, count) : entries;
+
+        var page = fhirParser.parseResource(envelope, Bundle.class);
+        if (!pageEntries.isEmpty()) {
+            var entryBundle = fhirParser.parseResource(ENTRIES_PREFIX + String.join(",", pageEntries) + ENTRIES_SUFFIX, Bundle.class);
+            page.setEntry(entryBundle.getEntry());
+        }
+
+        page.addLink().setRelation("self").setUrl(pageLink.apply(offset));
+        if (offset > 0) {
+            page.addLink().setRelation("previous").setUrl(pageLink.apply(Math.max(0, offset - count)));
+        }
+        if (hasNext) {
+            page.addLink().setRelation("next").setUrl(pageLink.apply(offset + count));
+        }
+        return page;
+    }
+
+    @SneakyThrows
+    private String getMessageAsString(PssQueueMessage message) {
+        return objectMapper.writeValueAsString(message);
     }
 
     private TransferRequestMessage createTransferRequestMessage(String patientNhsNumber, Map<String, String> headers,
@@ -11,13 +11,26 @@ import org.hl7.fhir.dstu3.model.Parameters;
 public class ParametersUtils {
 
     private static final String PATIENT_NHS_NUMBER_PARAM_NAME = "patientNHSNumber";
+    private static final String PATIENT_NHS_NUMBER_USER_DATA = ParametersUtils.class.getName() + ".patientNHSNumber";
 
+    /**
+     * The NHS number identifier of a transfer request. A request is looked at more than once on its way through the facade, so
+     * the identifier is kept in the resource's user data once found rather than searching the parameters each time.
+     */
     public static Optional<Identifier> getNhsNumberFromParameters(Parameters parameters) {
-        return parameters.getParameter()
-            .stream()
-            .filter(it -> PATIENT_NHS_NUMBER_PARAM_NAME.equals(it.getName()))
-            .map(Parameters.ParametersParameterComponent::getValue)
-            .map(Identifier.class::cast)
-            .findFirst();
+        if (parameters.getUserData(PATIENT_NHS_NUMBER_USER_DATA) instanceof Identifier nhsNumber) {
+            return Optional.of(nhsNumber);
+        }
+
+        for (var parameter : parameters.getParameter()) {
+            if (PATIENT_NHS_NUMBER_PARAM_NAME.equals(parameter.getName())) {
+                var nhsNumber = (Identifier) parameter.getValue();
+                if (nhsNumber != null) {
+                    parameters.setUserData(PATIENT_NHS_NUMBER_USER_DATA, nhsNumber);
+                }
+                return Optional.ofNullable(nhsNumber);
+            }
+        }
+        return Optional.empty();
     }
 }
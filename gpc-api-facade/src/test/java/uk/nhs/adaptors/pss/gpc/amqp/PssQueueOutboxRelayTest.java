@@ -0,0 +1,101 @@
+package uk.nhs.adaptors.pss.gpc.amqp;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.nhs.adaptors.connector.model.PssQueueOutboxMessage;
+import uk.nhs.adaptors.connector.service.PssQueueOutboxService;
+import uk.nhs.adaptors.pss.gpc.config.OutboxProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class PssQueueOutboxRelayTest {
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_BATCHES_PER_RUN = 3;
+    private static final long PENDING_MESSAGES = 7;
+    private static final long OLDEST_MESSAGE_AGE_MILLIS = 1_500;
+
+    @Mock
+    private PssQueueOutboxService pssQueueOutboxService;
+
+    @Mock
+    private PssQueuePublisher pssQueuePublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PssQueueOutboxRelay relay;
+
+    @BeforeEach
+    public void setUp() {
+        var properties = new OutboxProperties();
+        properties.setRelayEnabled(true);
+        properties.setRelayBatchSize(BATCH_SIZE);
+        properties.setRelayMaxBatchesPerRun(MAX_BATCHES_PER_RUN);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new PssQueueOutboxRelay(pssQueueOutboxService, pssQueuePublisher, properties, meterRegistry);
+
+        when(pssQueueOutboxService.countMessages()).thenReturn(PENDING_MESSAGES);
+        when(pssQueueOutboxService.getOldestMessageAgeMillis()).thenReturn(OLDEST_MESSAGE_AGE_MILLIS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void When_MessagesRelayed_Expect_PublishedTogetherAndLagRecorded() {
+        when(pssQueueOutboxService.relayMessages(eq(BATCH_SIZE), any())).thenAnswer(invocation -> {
+            ((Consumer<List<PssQueueOutboxMessage>>) invocation.getArgument(1))
+                .accept(List.of(outboxMessage("first", 100), outboxMessage("second", 300)));
+            return BATCH_SIZE;
+        }).thenReturn(0);
+
+        relay.relayMessages();
+
+        verify(pssQueuePublisher).sendAllToPssQueue(List.of("first", "second"));
+        var lagTimer = meterRegistry.get("pss.queue.outbox.lag").timer();
+        assertThat(lagTimer.count()).isEqualTo(2);
+        assertThat(lagTimer.max(MILLISECONDS)).isEqualTo(300);
+    }
+
+    @Test
+    public void When_EveryBatchIsFull_Expect_StopAfterMaxBatchesPerRun() {
+        when(pssQueueOutboxService.relayMessages(eq(BATCH_SIZE), any())).thenReturn(BATCH_SIZE);
+
+        relay.relayMessages();
+
+        verify(pssQueueOutboxService, times(MAX_BATCHES_PER_RUN)).relayMessages(eq(BATCH_SIZE), any());
+    }
+
+    @Test
+    public void When_RelayFails_Expect_BacklogStillMeasured() {
+        when(pssQueueOutboxService.relayMessages(eq(BATCH_SIZE), any())).thenThrow(new IllegalStateException("broker unavailable"));
+
+        relay.relayMessages();
+
+        verify(pssQueueOutboxService, times(1)).relayMessages(eq(BATCH_SIZE), any());
+        assertThat(meterRegistry.get("pss.queue.outbox.pending").gauge().value()).isEqualTo(PENDING_MESSAGES);
+        assertThat(meterRegistry.get("pss.queue.outbox.oldest.age").timeGauge().value(MILLISECONDS))
+            .isEqualTo(OLDEST_MESSAGE_AGE_MILLIS);
+    }
+
+    private static PssQueueOutboxMessage outboxMessage(String message, long ageMillis) {
+        return PssQueueOutboxMessage.builder()
+            .conversationId("conversation")
+            .message(message)
+            .age(Duration.ofMillis(ageMillis))
+            .build();
+    }
+}
@@ -1,21 +1,32 @@
 package uk.nhs.adaptors.pss.gpc.amqp;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.UUID;
 
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
 import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessageCreator;
+import org.springframework.jms.core.SessionCallback;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -24,18 +35,39 @@ import uk.nhs.adaptors.common.model.PssQueueMessage;
 
 @ExtendWith(MockitoExtension.class)
 public class PssQueuePublisherTest {
+    private static final String QUEUE_NAME = "pssQueue";
+
     @Mock
     private JmsTemplate jmsTemplate;
 
+    @Mock
+    private JmsTemplate batchJmsTemplate;
+
     @Mock
     private Session session;
 
+    @Mock
+    private Queue queue;
+
+    @Mock
+    private MessageProducer producer;
+
+    @Mock
+    private TextMessage textMessage;
+
     @Mock
     private ObjectMapper objectMapper;
 
-    @InjectMocks
+    @Captor
+    private ArgumentCaptor<SessionCallback<Object>> sessionCallbackCaptor;
+
     private PssQueuePublisher pssQueuePublisher;
 
+    @BeforeEach
+    public void setUp() {
+        pssQueuePublisher = new PssQueuePublisher(jmsTemplate, batchJmsTemplate, objectMapper);
+    }
+
     @Test
     @SneakyThrows
     public void When_TaskIsSentToPssQueue_Expect_MessageIsSentToQueue() {
@@ -53,4 +85,43 @@ public class PssQueuePublisherTest {
 
         verify(session, times(1)).createTextMessage(message);
     }
+
+    @Test
+    @SneakyThrows
+    public void When_TasksAreSentToPssQueueTogether_Expect_AllSentThroughOneProducer() {
+        givenSessionWithProducer();
+
+        pssQueuePublisher.sendAllToPssQueue(List.of("message", "message"));
+
+        verify(batchJmsTemplate).execute(sessionCallbackCaptor.capture(), eq(false));
+        sessionCallbackCaptor.getValue().doInJms(session);
+
+        verify(session, times(1)).createProducer(queue);
+        verify(producer, times(2)).send(textMessage);
+        verify(producer).close();
+        verify(session, never()).rollback();
+    }
+
+    @Test
+    @SneakyThrows
+    public void When_SendingTasksTogetherFails_Expect_SessionRolledBack() {
+        givenSessionWithProducer();
+        doThrow(new JMSException("broker unavailable")).when(producer).send(textMessage);
+
+        pssQueuePublisher.sendAllToPssQueue(List.of("message"));
+
+        verify(batchJmsTemplate).execute(sessionCallbackCaptor.capture(), eq(false));
+        assertThatThrownBy(() -> sessionCallbackCaptor.getValue().doInJms(session)).isInstanceOf(JMSException.class);
+
+        verify(session).rollback();
+        verify(producer).close();
+    }
+
+    @SneakyThrows
+    private void givenSessionWithProducer() {
+        when(batchJmsTemplate.getDefaultDestinationName()).thenReturn(QUEUE_NAME);
+        when(session.createQueue(QUEUE_NAME)).thenReturn(queue);
+        when(session.createProducer(queue)).thenReturn(producer);
+        when(session.createTextMessage("message")).thenReturn(textMessage);
+    }
 }
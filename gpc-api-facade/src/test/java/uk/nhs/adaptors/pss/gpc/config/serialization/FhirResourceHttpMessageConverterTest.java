@@ -0,0 +1,82 @@
+package uk.nhs.adaptors.pss.gpc.config.serialization;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import static uk.nhs.adaptors.pss.gpc.controller.handler.FhirMediaTypes.APPLICATION_FHIR_JSON_VALUE;
+
+import java.io.IOException;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import ca.uhn.fhir.context.FhirContext;
+import uk.nhs.adaptors.common.exception.FhirValidationException;
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+import uk.nhs.adaptors.pss.gpc.util.fhir.ParametersUtils;
+
+public class FhirResourceHttpMessageConverterTest {
+
+    private static final MediaType FHIR_JSON = MediaType.valueOf(APPLICATION_FHIR_JSON_VALUE);
+    private static final String REQUEST_BODY = """
+        {
+          "resourceType": "Parameters",
+          "parameter": [
+            {
+              "name": "patientNHSNumber",
+              "valueIdentifier": {
+                "system": "https://fhir.nhs.uk/Id/nhs-number",
+                "value": "9692294951"
+              }
+            }
+          ]
+        }
+        """;
+
+    private final FhirResourceHttpMessageConverter converter = new FhirResourceHttpMessageConverter(
+        new FhirParser(FhirContext.forDstu3()));
+
+    @Test
+    public void When_ReadingFhirJsonRequest_Expect_Parameters() throws IOException {
+        var inputMessage = new MockHttpInputMessage(REQUEST_BODY.getBytes(UTF_8));
+        inputMessage.getHeaders().setContentType(FHIR_JSON);
+
+        var parameters = (Parameters) converter.read(Parameters.class, inputMessage);
+
+        assertThat(ParametersUtils.getNhsNumberFromParameters(parameters).get().getValue()).isEqualTo("9692294951");
+    }
+
+    @Test
+    public void When_ReadingBatchBundle_Expect_BundleWithParametersEntries() throws IOException {
+        var body = "{\"resourceType\": \"Bundle\", \"type\": \"batch\", \"entry\": [{\"resource\": " + REQUEST_BODY + "}]}";
+        var inputMessage = new MockHttpInputMessage(body.getBytes(UTF_8));
+        inputMessage.getHeaders().setContentType(FHIR_JSON);
+
+        var bundle = (Bundle) converter.read(Bundle.class, inputMessage);
+
+        assertThat(bundle.getType()).isEqualTo(Bundle.BundleType.BATCH);
+        assertThat(bundle.getEntryFirstRep().getResource()).isInstanceOf(Parameters.class);
+    }
+
+    @Test
+    public void When_ReadingMalformedRequest_Expect_FhirValidationException() {
+        var inputMessage = new MockHttpInputMessage("{\"resourceType\": \"Parameters\",".getBytes(UTF_8));
+        inputMessage.getHeaders().setContentType(FHIR_JSON);
+
+        assertThatThrownBy(() -> converter.read(Parameters.class, inputMessage)).isInstanceOf(FhirValidationException.class);
+    }
+
+    @Test
+    public void When_CheckingSupport_Expect_ParametersAndBundlesReadButNeverWritten() {
+        assertThat(converter.canRead(Parameters.class, FHIR_JSON)).isTrue();
+        assertThat(converter.canRead(Parameters.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canRead(Bundle.class, FHIR_JSON)).isTrue();
+        assertThat(converter.canRead(String.class, FHIR_JSON)).isFalse();
+        assertThat(converter.canWrite(Parameters.class, FHIR_JSON)).isFalse();
+    }
+}
@@ -1,10 +1,18 @@
 package uk.nhs.adaptors.pss.gpc.controller;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED;
 import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_REQUEST_ERROR;
@@ -20,20 +28,33 @@ import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
+import static uk.nhs.adaptors.pss.gpc.service.PatientTransferService.MAX_BUNDLE_PAGE_SIZE;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.OffsetDateTime;
 import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPInputStream;
 
+import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Parameters;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import uk.nhs.adaptors.common.enums.MigrationStatus;
+import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.common.util.fhir.FhirParser;
 import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.pss.gpc.service.PatientTransferService;
@@ -53,6 +74,9 @@ public class PatientTransferControllerTest {
         TO_ODS, TO_ODS_VALUE,
         FROM_ODS, FROM_ODS_VALUE
     );
+    private static final String BUNDLE_HASH = "5f70bf18a086007016e948b04aed3b82103a36bea41755b6cddfaf10ace3c6ef";
+    private static final UriComponentsBuilder URI_BUILDER = UriComponentsBuilder.fromUriString("http://localhost/Gp2Gp/VND3J");
+    private static final String PAGE_URL = "http://localhost/Gp2Gp/VND3J/Patient/$gpc.migratestructuredrecord?_count=2&_offset=";
     private static final String ISSUE_SYSTEM = "https://fhir.nhs.uk/STU3/ValueSet/Spine-ErrorOrWarningCode-1";
 
     @Mock
@@ -64,12 +88,18 @@ public class PatientTransferControllerTest {
     @Mock
     private FhirParser fhirParser;
 
+    @Mock
+    private MDCService mdcService;
+
+    @Captor
+    private ArgumentCaptor<IntFunction<String>> pageLinkCaptor;
+
     @Test
     public void migratePatientStructuredRecordWhenTransferStatusIsNew() {
         when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS)).thenReturn(null);
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
         assertThat(response.getBody()).isNull();
@@ -80,8 +110,8 @@ public class PatientTransferControllerTest {
         when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
             .thenReturn(createMigrationStatusLog(REQUEST_RECEIVED));
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertThat(response.getBody()).isNull();
@@ -92,24 +122,91 @@ public class PatientTransferControllerTest {
         when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
             .thenReturn(createMigrationStatusLog(EHR_EXTRACT_REQUEST_ACCEPTED));
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertThat(response.getBody()).isNull();
     }
 
     @Test
-    public void migratePatientStructuredRecordWhenTransferStatusIsCompleted() {
+    public void migratePatientStructuredRecordWhenTransferStatusIsCompleted() throws IOException {
+        when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
+            .thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getBundleResourceHash(CONVERSATION_ID)).thenReturn(BUNDLE_HASH);
+        stubBundleResource();
+
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"" + BUNDLE_HASH + "\"", response.getHeaders().getETag());
+        assertThat(response.getHeaders().getFirst(CONTENT_ENCODING)).isNull();
+        assertEquals(RESPONSE_BODY, new String(writeBody(response), UTF_8));
+    }
+
+    @Test
+    public void migratePatientStructuredRecordWhenTransferStatusIsCompletedAndGzipAccepted() throws IOException {
+        when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
+            .thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getBundleResourceHash(CONVERSATION_ID)).thenReturn(BUNDLE_HASH);
+        stubBundleResource();
+
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, "deflate, gzip;q=0.8", null, URI_BUILDER);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"" + BUNDLE_HASH + "-gzip\"", response.getHeaders().getETag());
+        assertEquals("gzip", response.getHeaders().getFirst(CONTENT_ENCODING));
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(writeBody(response)))) {
+            assertEquals(RESPONSE_BODY, new String(gzip.readAllBytes(), UTF_8));
+        }
+    }
+
+    @Test
+    public void migratePatientStructuredRecordWhenTransferStatusIsCompletedAndBundleAlreadyHeld() throws IOException {
+        when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
+            .thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getBundleResourceHash(CONVERSATION_ID)).thenReturn(BUNDLE_HASH);
+
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE,
+            "\"other\", W/\"" + BUNDLE_HASH + "\"", null, null, URI_BUILDER);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertThat(response.getBody()).isNull();
+        verify(patientTransferService, never()).writeBundleResource(any(), any());
+    }
+
+    @Test
+    public void migratePatientStructuredRecordWhenTransferStatusIsCompletedAndOtherRepresentationHeld() {
         when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
             .thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
-        when(patientTransferService.getBundleResource()).thenReturn(RESPONSE_BODY);
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getBundleResourceHash(CONVERSATION_ID)).thenReturn(BUNDLE_HASH);
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, "\"" + BUNDLE_HASH + "\"", "gzip", null, URI_BUILDER);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(RESPONSE_BODY, response.getBody());
+    }
+
+    @Test
+    public void When_TransferIsCompletedWithoutSavedBundle_Expect_NotFound() throws IOException {
+        when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
+            .thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(fhirParser.encodeToJson(any())).thenReturn(RESPONSE_BODY);
+
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(RESPONSE_BODY, new String(writeBody(response), UTF_8));
+        verify(patientTransferService, never()).writeBundleResource(any(), any());
     }
 
     @Test
@@ -118,7 +215,7 @@ public class PatientTransferControllerTest {
             .thenReturn(createMigrationStatusLog(EHR_EXTRACT_REQUEST_ERROR));
 
         Exception exception = assertThrows(IllegalStateException.class, () -> controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE));
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER));
 
         assertEquals("Unsupported transfer status: EHR_EXTRACT_REQUEST_ERROR", exception.getMessage());
     }
@@ -131,8 +228,8 @@ public class PatientTransferControllerTest {
         // The OperationOutcome does not effect the http status
         when(fhirParser.encodeToJson(any())).thenReturn("");
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -145,8 +242,8 @@ public class PatientTransferControllerTest {
         // The OperationOutcome does not effect the http status
         when(fhirParser.encodeToJson(any())).thenReturn("");
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.NOT_IMPLEMENTED, response.getStatusCode());
     }
@@ -159,8 +256,8 @@ public class PatientTransferControllerTest {
         // The OperationOutcome does not effect the http status
         when(fhirParser.encodeToJson(any())).thenReturn("");
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -173,8 +270,8 @@ public class PatientTransferControllerTest {
         // The OperationOutcome does not effect the http status
         when(fhirParser.encodeToJson(any())).thenReturn("");
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -187,8 +284,8 @@ public class PatientTransferControllerTest {
         // The OperationOutcome does not effect the http status
         when(fhirParser.encodeToJson(any())).thenReturn("");
 
-        ResponseEntity<String> response = controller.migratePatientStructuredRecord(
-            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -199,12 +296,94 @@ public class PatientTransferControllerTest {
         when(patientTransferService.checkExistingPatientMigrationRequestInProgress(PARAMETERS))
             .thenReturn(CONVERSATION_ID);
 
-        var response = controller.migratePatientStructuredRecord(PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE);
+        var response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, null, URI_BUILDER);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
 
     }
 
+    @Test
+    public void When_TransferIsCompletedAndCountGiven_Expect_FirstPageOfBundle() throws IOException {
+        var page = new Bundle();
+        when(patientTransferService.handlePatientMigrationRequest(PARAMETERS, HEADERS))
+            .thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getBundlePage(eq(CONVERSATION_ID), eq(0), eq(2), any())).thenReturn(page);
+        when(fhirParser.encodeToCompactJson(page)).thenReturn(RESPONSE_BODY);
+
+        ResponseEntity<?> response = controller.migratePatientStructuredRecord(
+            PARAMETERS, TO_ASID_VALUE, FROM_ASID_VALUE, TO_ODS_VALUE, FROM_ODS_VALUE, null, null, 2, URI_BUILDER);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(RESPONSE_BODY, new String(writeBody(response), UTF_8));
+        verify(patientTransferService, never()).writeBundleResource(any(), any());
+    }
+
+    @Test
+    public void When_GettingPage_Expect_PageLinksToOperationWithCountAndOffset() {
+        var page = new Bundle();
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getLatestMigrationStatus(CONVERSATION_ID)).thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(patientTransferService.getBundlePage(eq(CONVERSATION_ID), eq(4), eq(2), any())).thenReturn(page);
+        when(fhirParser.encodeToCompactJson(page)).thenReturn(RESPONSE_BODY);
+
+        ResponseEntity<String> response = controller.getPatientStructuredRecordPage(2, 4, URI_BUILDER);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(RESPONSE_BODY);
+        verify(patientTransferService).getBundlePage(eq(CONVERSATION_ID), eq(4), eq(2), pageLinkCaptor.capture());
+        assertThat(pageLinkCaptor.getValue().apply(6)).isEqualTo(PAGE_URL + "6");
+    }
+
+    @Test
+    public void When_GettingPageLargerThanMaximum_Expect_MaximumPageSize() {
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getLatestMigrationStatus(CONVERSATION_ID)).thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(patientTransferService.getBundlePage(eq(CONVERSATION_ID), eq(0), eq(MAX_BUNDLE_PAGE_SIZE), any())).thenReturn(new Bundle());
+
+        controller.getPatientStructuredRecordPage(MAX_BUNDLE_PAGE_SIZE + 1, 0, URI_BUILDER);
+
+        verify(patientTransferService).getBundlePage(eq(CONVERSATION_ID), eq(0), eq(MAX_BUNDLE_PAGE_SIZE), any());
+    }
+
+    @Test
+    public void When_GettingPageOfTransferInProgress_Expect_NotFoundWithoutReadingPage() {
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getLatestMigrationStatus(CONVERSATION_ID))
+            .thenReturn(createMigrationStatusLog(EHR_EXTRACT_REQUEST_ACCEPTED));
+        when(fhirParser.encodeToJson(any())).thenReturn(RESPONSE_BODY);
+
+        ResponseEntity<String> response = controller.getPatientStructuredRecordPage(2, 0, URI_BUILDER);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(patientTransferService, never()).getBundlePage(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void When_GettingPageOfTransferWithoutSavedBundle_Expect_NotFound() {
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(patientTransferService.getLatestMigrationStatus(CONVERSATION_ID)).thenReturn(createMigrationStatusLog(MIGRATION_COMPLETED));
+        when(fhirParser.encodeToJson(any())).thenReturn(RESPONSE_BODY);
+
+        ResponseEntity<String> response = controller.getPatientStructuredRecordPage(2, 0, URI_BUILDER);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private void stubBundleResource() throws IOException {
+        doAnswer(invocation -> {
+            invocation.<Writer>getArgument(1).write(RESPONSE_BODY);
+            return null;
+        }).when(patientTransferService).writeBundleResource(eq(CONVERSATION_ID), any());
+    }
+
+    private static byte[] writeBody(ResponseEntity<?> response) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
     private MigrationStatusLog createMigrationStatusLog(MigrationStatus status) {
         return MigrationStatusLog.builder()
             .id(1)
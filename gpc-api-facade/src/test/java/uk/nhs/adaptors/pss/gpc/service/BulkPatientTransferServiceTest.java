@@ -0,0 +1,234 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import static uk.nhs.adaptors.common.model.MigrationStatusGroups.IN_PROGRESS_STATUSES;
+import static uk.nhs.adaptors.common.testutil.CreateParametersUtil.createValidParametersResource;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ASID;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
+import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.dstu3.model.Bundle.BundleType;
+import org.hl7.fhir.dstu3.model.Bundle.HTTPVerb;
+import org.hl7.fhir.dstu3.model.OperationOutcome;
+import org.hl7.fhir.dstu3.model.Parameters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.nhs.adaptors.common.exception.FhirValidationException;
+import uk.nhs.adaptors.common.model.TransferRequestMessage;
+import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.service.PssQueueOutboxService;
+import uk.nhs.adaptors.pss.gpc.config.BulkTransferProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkPatientTransferServiceTest {
+
+    private static final String LOSING_ODS_CODE = "D443";
+    private static final String WINNING_ODS_CODE = "ABC";
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_ENTRIES = 5;
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2024-01-01T10:00:00Z");
+    private static final String OPERATION_URL = "Patient/$gpc.migratestructuredrecord";
+    private static final String ACCEPTED = "202 Accepted";
+    private static final String CONFLICT = "409 Conflict";
+
+    private static final Map<String, String> HEADERS = Map.of(
+        TO_ASID, "1234",
+        FROM_ASID, "5678",
+        TO_ODS, LOSING_ODS_CODE,
+        FROM_ODS, WINNING_ODS_CODE
+    );
+
+    @Mock
+    private PatientMigrationRequestDao patientMigrationRequestDao;
+
+    @Mock
+    private PssQueueOutboxService pssQueueOutboxService;
+
+    @Mock
+    private DateUtils dateUtils;
+
+    @Captor
+    private ArgumentCaptor<List<String>> nhsNumbersCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<String>> messagesCaptor;
+
+    private BulkPatientTransferService service;
+
+    @BeforeEach
+    public void setUp() {
+        var properties = new BulkTransferProperties();
+        properties.setBatchSize(BATCH_SIZE);
+        properties.setMaxEntries(MAX_ENTRIES);
+        service = new BulkPatientTransferService(patientMigrationRequestDao, pssQueueOutboxService, new ObjectMapper(), dateUtils,
+            properties);
+    }
+
+    @Test
+    public void When_BatchOfNewTransfers_Expect_StartedBatchSizeAtATime() throws Exception {
+        var conversationIds = List.of(conversationId(), conversationId(), conversationId());
+        var batch = batchOf(
+            transferEntry(conversationIds.get(0), "1111111111"),
+            transferEntry(conversationIds.get(1), "2222222222"),
+            transferEntry(conversationIds.get(2), "3333333333"));
+        givenNoExistingTransfers();
+        when(dateUtils.getCurrentOffsetDateTime()).thenReturn(NOW);
+
+        var response = service.handleBulkPatientMigrationRequest(batch, HEADERS);
+
+        verify(pssQueueOutboxService, times(2)).addNewRequestsWithMessages(nhsNumbersCaptor.capture(), anyList(),
+            eq(LOSING_ODS_CODE), eq(WINNING_ODS_CODE), eq(NOW), messagesCaptor.capture());
+        assertThat(nhsNumbersCaptor.getAllValues())
+            .containsExactly(List.of("1111111111", "2222222222"), List.of("3333333333"));
+
+        var firstMessage = new ObjectMapper().readValue(messagesCaptor.getAllValues().get(0).get(0), TransferRequestMessage.class);
+        assertThat(firstMessage.getConversationId()).isEqualTo(conversationIds.get(0).toUpperCase(Locale.ROOT));
+        assertThat(firstMessage.getPatientNhsNumber()).isEqualTo("1111111111");
+        assertThat(firstMessage.getToOds()).isEqualTo(LOSING_ODS_CODE);
+
+        assertThat(response.getType()).isEqualTo(BundleType.BATCHRESPONSE);
+        assertThat(statuses(response)).containsExactly(ACCEPTED, ACCEPTED, ACCEPTED);
+        assertThat(response.getEntry().get(2).getFullUrl()).isEqualTo("urn:uuid:" + conversationIds.get(2).toUpperCase(Locale.ROOT));
+    }
+
+    @Test
+    public void When_EntriesAreInvalid_Expect_OnlyValidEntriesStarted() {
+        var getEntry = transferEntry(conversationId(), "1111111111");
+        getEntry.getRequest().setMethod(HTTPVerb.GET);
+        var badFullUrlEntry = transferEntry(conversationId(), "2222222222").setFullUrl("conversation-1");
+        var missingNhsNumberEntry = transferEntry(conversationId(), "3333333333").setResource(new Parameters());
+        var validEntry = transferEntry(null, "4444444444");
+        givenNoExistingTransfers();
+        when(dateUtils.getCurrentOffsetDateTime()).thenReturn(NOW);
+
+        var response = service.handleBulkPatientMigrationRequest(
+            batchOf(getEntry, badFullUrlEntry, missingNhsNumberEntry, validEntry), HEADERS);
+
+        assertThat(statuses(response)).containsExactly("400 Bad Request", "422 Unprocessable Entity", "422 Unprocessable Entity", ACCEPTED);
+        assertThat(response.getEntry().get(2).getResponse().getOutcome()).isInstanceOf(OperationOutcome.class);
+        assertThat(response.getEntry().get(3).getFullUrl()).startsWith("urn:uuid:");
+        verify(pssQueueOutboxService).addNewRequestsWithMessages(eq(List.of("4444444444")), anyList(),
+            eq(LOSING_ODS_CODE), eq(WINNING_ODS_CODE), eq(NOW), anyList());
+    }
+
+    @Test
+    public void When_ConversationOrPatientAlreadyUsed_Expect_Conflict() {
+        var existingConversationId = conversationId().toUpperCase(Locale.ROOT);
+        var repeatedConversationId = conversationId();
+        var batch = batchOf(
+            transferEntry(existingConversationId, "1111111111"),
+            transferEntry(conversationId(), "2222222222"),
+            transferEntry(repeatedConversationId, "3333333333"),
+            transferEntry(repeatedConversationId, "4444444444"),
+            transferEntry(conversationId(), "3333333333"));
+        when(patientMigrationRequestDao.getExistingConversationIds(anyList())).thenReturn(List.of(existingConversationId));
+        when(patientMigrationRequestDao.getConversationIdsOfMigrationsInProgress(anyList(), eq(IN_PROGRESS_STATUSES)))
+            .thenReturn(Map.of("2222222222", "IN-PROGRESS-CONVERSATION"), Map.of());
+        when(dateUtils.getCurrentOffsetDateTime()).thenReturn(NOW);
+
+        var response = service.handleBulkPatientMigrationRequest(batch, HEADERS);
+
+        assertThat(statuses(response)).containsExactly(CONFLICT, CONFLICT, ACCEPTED, CONFLICT, CONFLICT);
+        var inProgressOutcome = (OperationOutcome) response.getEntry().get(1).getResponse().getOutcome();
+        assertThat(inProgressOutcome.getIssueFirstRep().getDetails().getCodingFirstRep().getDisplay())
+            .contains("IN-PROGRESS-CONVERSATION");
+        verify(pssQueueOutboxService).addNewRequestsWithMessages(eq(List.of("3333333333")), anyList(),
+            eq(LOSING_ODS_CODE), eq(WINNING_ODS_CODE), eq(NOW), anyList());
+    }
+
+    @Test
+    public void When_SavingFails_Expect_InternalServerErrorForThatBatchOnly() {
+        var batch = batchOf(
+            transferEntry(conversationId(), "1111111111"),
+            transferEntry(conversationId(), "2222222222"),
+            transferEntry(conversationId(), "3333333333"));
+        givenNoExistingTransfers();
+        when(dateUtils.getCurrentOffsetDateTime()).thenReturn(NOW);
+        doThrow(new IllegalStateException("database unavailable")).doNothing().when(pssQueueOutboxService)
+            .addNewRequestsWithMessages(anyList(), anyList(), any(), any(), any(), anyList());
+
+        var response = service.handleBulkPatientMigrationRequest(batch, HEADERS);
+
+        assertThat(statuses(response)).containsExactly("500 Internal Server Error", "500 Internal Server Error", ACCEPTED);
+    }
+
+    @Test
+    public void When_BundleIsNotABatch_Expect_FhirValidationException() {
+        var bundle = batchOf(transferEntry(conversationId(), "1111111111")).setType(BundleType.TRANSACTION);
+
+        assertThatThrownBy(() -> service.handleBulkPatientMigrationRequest(bundle, HEADERS))
+            .isInstanceOf(FhirValidationException.class);
+        verifyNoInteractions(patientMigrationRequestDao, pssQueueOutboxService);
+    }
+
+    @Test
+    public void When_BatchHasTooManyEntries_Expect_FhirValidationException() {
+        var batch = new Bundle().setType(BundleType.BATCH);
+        for (int i = 0; i <= MAX_ENTRIES; i++) {
+            batch.addEntry(transferEntry(conversationId(), "1111111111"));
+        }
+
+        assertThatThrownBy(() -> service.handleBulkPatientMigrationRequest(batch, HEADERS))
+            .isInstanceOf(FhirValidationException.class)
+            .hasMessageContaining("At most " + MAX_ENTRIES);
+        verifyNoInteractions(patientMigrationRequestDao, pssQueueOutboxService);
+    }
+
+    private void givenNoExistingTransfers() {
+        when(patientMigrationRequestDao.getExistingConversationIds(anyList())).thenReturn(List.of());
+        when(patientMigrationRequestDao.getConversationIdsOfMigrationsInProgress(anyList(), any())).thenReturn(Map.of());
+    }
+
+    private static List<String> statuses(Bundle response) {
+        return response.getEntry().stream().map(entry -> entry.getResponse().getStatus()).toList();
+    }
+
+    private static String conversationId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Bundle batchOf(BundleEntryComponent... entries) {
+        var batch = new Bundle().setType(BundleType.BATCH);
+        for (var entry : entries) {
+            batch.addEntry(entry);
+        }
+        return batch;
+    }
+
+    private static BundleEntryComponent transferEntry(String conversationId, String nhsNumber) {
+        var entry = new BundleEntryComponent().setResource(createValidParametersResource(nhsNumber));
+        if (conversationId != null) {
+            entry.setFullUrl("urn:uuid:" + conversationId);
+        }
+        entry.getRequest().setMethod(HTTPVerb.POST).setUrl(OPERATION_URL);
+        return entry;
+    }
+}
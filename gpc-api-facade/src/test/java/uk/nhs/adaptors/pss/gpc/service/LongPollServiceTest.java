@@ -0,0 +1,131 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import uk.nhs.adaptors.common.service.MDCService;
+import uk.nhs.adaptors.pss.gpc.config.LongPollProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class LongPollServiceTest {
+
+    private static final String CONVERSATION_ID = UUID.randomUUID().toString().toUpperCase(Locale.ROOT);
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+    private static final Duration WAIT = Duration.ofSeconds(10);
+    private static final long CALLBACK_TIMEOUT_MILLIS = 1000;
+
+    @Mock
+    private MigrationStatusListener migrationStatusListener;
+
+    @Mock
+    private MDCService mdcService;
+
+    @Mock
+    private Supplier<ResponseEntity<String>> poll;
+
+    private LongPollProperties longPollProperties;
+    private LongPollService longPollService;
+
+    @BeforeEach
+    public void setUp() {
+        longPollProperties = new LongPollProperties();
+        longPollProperties.setEnabled(true);
+        longPollProperties.setMaxWait(MAX_WAIT);
+        longPollService = new LongPollService(migrationStatusListener, longPollProperties, mdcService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        longPollService.shutdown();
+    }
+
+    @Test
+    public void When_PreferringToWait_Expect_RequestedWaitCappedAtMaximum() {
+        assertThat(longPollService.requestedWait("wait=10")).isEqualTo(WAIT);
+        assertThat(longPollService.requestedWait("respond-async, WAIT = 10")).isEqualTo(WAIT);
+        assertThat(longPollService.requestedWait("wait=600")).isEqualTo(MAX_WAIT);
+        assertThat(longPollService.requestedWait("wait=99999999999999999999")).isEqualTo(MAX_WAIT);
+    }
+
+    @Test
+    public void When_NotPreferringToWait_Expect_NoWait() {
+        assertThat(longPollService.requestedWait("return=minimal")).isZero();
+        assertThat(longPollService.requestedWait("no-wait=10")).isZero();
+        assertThat(longPollService.requestedWait(null)).isZero();
+    }
+
+    @Test
+    public void When_LongPollingDisabled_Expect_NoWait() {
+        longPollProperties.setEnabled(false);
+
+        assertThat(longPollService.requestedWait("wait=10")).isZero();
+    }
+
+    @Test
+    public void When_NoWait_Expect_FirstResponseWithoutSubscribing() {
+        doReturn(new ResponseEntity<>(NO_CONTENT)).when(poll).get();
+
+        var result = longPollService.awaitChange(Duration.ZERO, poll);
+
+        assertThat(result.getResult()).isEqualTo(new ResponseEntity<>(NO_CONTENT));
+        verifyNoInteractions(migrationStatusListener);
+    }
+
+    @Test
+    public void When_TransferNoLongerInProgress_Expect_ResponseStraightAway() {
+        var subscription = mock(MigrationStatusListener.Subscription.class);
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(migrationStatusListener.subscribe(eq(CONVERSATION_ID), any())).thenReturn(subscription);
+        doReturn(new ResponseEntity<>("bundle", OK)).when(poll).get();
+
+        var result = longPollService.awaitChange(WAIT, poll);
+
+        assertThat(result.getResult()).isEqualTo(new ResponseEntity<>("bundle", OK));
+    }
+
+    @Test
+    public void When_TransferInProgress_Expect_ResponseHeldUntilStatusChanges() {
+        var onChange = ArgumentCaptor.forClass(Runnable.class);
+        var subscription = mock(MigrationStatusListener.Subscription.class);
+        when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
+        when(migrationStatusListener.subscribe(eq(CONVERSATION_ID), onChange.capture())).thenReturn(subscription);
+        doReturn(new ResponseEntity<>(NO_CONTENT), new ResponseEntity<>(NO_CONTENT), new ResponseEntity<>(INTERNAL_SERVER_ERROR))
+            .when(poll).get();
+
+        var result = longPollService.awaitChange(WAIT, poll);
+        assertThat(result.hasResult()).isFalse();
+
+        onChange.getValue().run();
+        verify(mdcService, timeout(CALLBACK_TIMEOUT_MILLIS)).resetAllMdcKeys();
+        assertThat(result.hasResult()).isFalse();
+
+        onChange.getValue().run();
+        verify(mdcService, timeout(CALLBACK_TIMEOUT_MILLIS).times(2)).resetAllMdcKeys();
+        assertThat(result.getResult()).isEqualTo(new ResponseEntity<>(INTERNAL_SERVER_ERROR));
+        verify(mdcService, timeout(CALLBACK_TIMEOUT_MILLIS).times(2)).applyConversationId(CONVERSATION_ID);
+    }
+}
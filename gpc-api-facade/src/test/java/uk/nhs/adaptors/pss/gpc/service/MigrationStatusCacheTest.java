@@ -0,0 +1,179 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_RECEIVED;
+import static uk.nhs.adaptors.common.enums.MigrationStatus.REQUEST_RECEIVED;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.nhs.adaptors.common.enums.MigrationStatus;
+import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
+import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
+import uk.nhs.adaptors.connector.model.MigrationStatusLog;
+import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
+import uk.nhs.adaptors.pss.gpc.config.StatusCacheProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class MigrationStatusCacheTest {
+
+    private static final String CONVERSATION_ID = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+    private static final String OTHER_CONVERSATION_ID = "9D9F6B2A-4E8C-4B0F-8B8E-2D9B1A0C7E11";
+    private static final String PATIENT_NHS_NUMBER = "9726908671";
+    private static final int MIGRATION_REQUEST_ID = 1;
+    private static final long MAXIMUM_SIZE = 100;
+
+    @Mock
+    private PatientMigrationRequestDao patientMigrationRequestDao;
+
+    @Mock
+    private MigrationStatusLogDao migrationStatusLogDao;
+
+    @Mock
+    private MigrationStatusListener migrationStatusListener;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MigrationStatusCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        var statusCacheProperties = new StatusCacheProperties();
+        statusCacheProperties.setEnabled(true);
+        statusCacheProperties.setMaximumSize(MAXIMUM_SIZE);
+        statusCacheProperties.setTimeToLive(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MigrationStatusCache(patientMigrationRequestDao, migrationStatusLogDao, migrationStatusListener,
+            statusCacheProperties, meterRegistry);
+
+        lenient().when(migrationStatusListener.isListening()).thenReturn(true);
+        lenient().when(patientMigrationRequestDao.getMigrationRequest(CONVERSATION_ID)).thenReturn(createMigrationRequest());
+        lenient().when(patientMigrationRequestDao.getLatestMigrationRequestByPatientNhsNumber(PATIENT_NHS_NUMBER))
+            .thenReturn(createMigrationRequest());
+    }
+
+    @Test
+    public void When_PolledAgainWithoutStatusChange_Expect_ServedFromCache() {
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID)).thenReturn(createStatusLog(REQUEST_RECEIVED));
+
+        cache.getMigration(CONVERSATION_ID);
+        var migration = cache.getMigration(CONVERSATION_ID.toLowerCase(Locale.ROOT));
+
+        assertThat(migration.getLatestStatus().getMigrationStatus()).isEqualTo(REQUEST_RECEIVED);
+        verify(patientMigrationRequestDao).getMigrationRequest(CONVERSATION_ID);
+        verify(migrationStatusLogDao).getLatestMigrationStatusLog(MIGRATION_REQUEST_ID);
+        assertThat(cacheGets(MigrationStatusCache.BY_CONVERSATION_ID_CACHE, "hit")).isEqualTo(1);
+        assertThat(cacheGets(MigrationStatusCache.BY_CONVERSATION_ID_CACHE, "miss")).isEqualTo(1);
+    }
+
+    @Test
+    public void When_StatusChanges_Expect_NextPollReadsDatabase() {
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID))
+            .thenReturn(createStatusLog(REQUEST_RECEIVED))
+            .thenReturn(createStatusLog(EHR_EXTRACT_RECEIVED));
+
+        cache.getMigration(CONVERSATION_ID);
+        cache.statusChanged(CONVERSATION_ID);
+        var migration = cache.getMigration(CONVERSATION_ID);
+
+        assertThat(migration.getLatestStatus().getMigrationStatus()).isEqualTo(EHR_EXTRACT_RECEIVED);
+    }
+
+    @Test
+    public void When_StatusChangesWhileReading_Expect_ReadNotRemembered() {
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID))
+            .thenAnswer(invocation -> {
+                cache.statusChanged(CONVERSATION_ID);
+                return createStatusLog(REQUEST_RECEIVED);
+            })
+            .thenReturn(createStatusLog(EHR_EXTRACT_RECEIVED));
+
+        cache.getMigration(CONVERSATION_ID);
+        var migration = cache.getMigration(CONVERSATION_ID);
+
+        assertThat(migration.getLatestStatus().getMigrationStatus()).isEqualTo(EHR_EXTRACT_RECEIVED);
+    }
+
+    @Test
+    public void When_NotListeningForStatusChanges_Expect_EveryPollReadsDatabase() {
+        when(migrationStatusListener.isListening()).thenReturn(false);
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID)).thenReturn(createStatusLog(REQUEST_RECEIVED));
+
+        cache.getMigration(CONVERSATION_ID);
+        cache.getMigration(CONVERSATION_ID);
+
+        verify(patientMigrationRequestDao, times(2)).getMigrationRequest(CONVERSATION_ID);
+    }
+
+    @Test
+    public void When_ChangesMayHaveBeenMissed_Expect_EverythingForgotten() {
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID)).thenReturn(createStatusLog(REQUEST_RECEIVED));
+
+        cache.getLatestMigrationForPatient(PATIENT_NHS_NUMBER, CONVERSATION_ID);
+        cache.statusesMayHaveChanged();
+        cache.getLatestMigrationForPatient(PATIENT_NHS_NUMBER, CONVERSATION_ID);
+
+        verify(patientMigrationRequestDao, times(2)).getLatestMigrationRequestByPatientNhsNumber(PATIENT_NHS_NUMBER);
+    }
+
+    @Test
+    public void When_RequestHasNoStatusYet_Expect_NotRemembered() {
+        cache.getMigration(CONVERSATION_ID);
+        cache.getMigration(CONVERSATION_ID);
+
+        verify(patientMigrationRequestDao, times(2)).getMigrationRequest(CONVERSATION_ID);
+    }
+
+    @Test
+    public void When_PatientPolledUnderSameConversation_Expect_ServedFromCache() {
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID)).thenReturn(createStatusLog(REQUEST_RECEIVED));
+
+        cache.getLatestMigrationForPatient(PATIENT_NHS_NUMBER, CONVERSATION_ID);
+        var migration = cache.getLatestMigrationForPatient(PATIENT_NHS_NUMBER, CONVERSATION_ID.toLowerCase(Locale.ROOT));
+
+        assertThat(migration.getConversationId()).isEqualTo(CONVERSATION_ID);
+        verify(patientMigrationRequestDao).getLatestMigrationRequestByPatientNhsNumber(PATIENT_NHS_NUMBER);
+        verify(migrationStatusLogDao).getLatestMigrationStatusLog(MIGRATION_REQUEST_ID);
+        assertThat(cacheGets(MigrationStatusCache.BY_NHS_NUMBER_CACHE, "hit")).isEqualTo(1);
+    }
+
+    @Test
+    public void When_PatientRequestedUnderAnotherConversation_Expect_LatestMigrationReadFromDatabase() {
+        when(migrationStatusLogDao.getLatestMigrationStatusLog(MIGRATION_REQUEST_ID)).thenReturn(createStatusLog(REQUEST_RECEIVED));
+
+        cache.getLatestMigrationForPatient(PATIENT_NHS_NUMBER, CONVERSATION_ID);
+        cache.getLatestMigrationForPatient(PATIENT_NHS_NUMBER, OTHER_CONVERSATION_ID);
+
+        verify(patientMigrationRequestDao, times(2)).getLatestMigrationRequestByPatientNhsNumber(PATIENT_NHS_NUMBER);
+    }
+
+    private double cacheGets(String cacheName, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter().count();
+    }
+
+    private static PatientMigrationRequest createMigrationRequest() {
+        return PatientMigrationRequest.builder()
+            .id(MIGRATION_REQUEST_ID)
+            .conversationId(CONVERSATION_ID)
+            .patientNhsNumber(PATIENT_NHS_NUMBER)
+            .build();
+    }
+
+    private static MigrationStatusLog createStatusLog(MigrationStatus status) {
+        return MigrationStatusLog.builder()
+            .migrationRequestId(MIGRATION_REQUEST_ID)
+            .migrationStatus(status)
+            .build();
+    }
+}
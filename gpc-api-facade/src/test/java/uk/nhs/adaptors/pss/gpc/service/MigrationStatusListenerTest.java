@@ -0,0 +1,110 @@
+package uk.nhs.adaptors.pss.gpc.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.nhs.adaptors.pss.gpc.config.LongPollProperties;
+import uk.nhs.adaptors.pss.gpc.config.StatusCacheProperties;
+
+@ExtendWith(MockitoExtension.class)
+public class MigrationStatusListenerTest {
+
+    private static final String CONVERSATION_ID = "6E242658-3D8E-11E3-A7DC-172BDA00FA84";
+    private static final String OTHER_CONVERSATION_ID = "9D9F6B2A-4E8C-4B0F-8B8E-2D9B1A0C7E11";
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private LongPollProperties longPollProperties;
+
+    @Mock
+    private StatusCacheProperties statusCacheProperties;
+
+    @Mock
+    private Runnable onChange;
+
+    @Mock
+    private Runnable onOtherChange;
+
+    @InjectMocks
+    private MigrationStatusListener migrationStatusListener;
+
+    @Test
+    public void When_StatusChanges_Expect_OnlySubscribersToThatConversationCalled() {
+        migrationStatusListener.subscribe(CONVERSATION_ID, onChange);
+        migrationStatusListener.subscribe(OTHER_CONVERSATION_ID, onOtherChange);
+
+        migrationStatusListener.statusChanged(CONVERSATION_ID.toLowerCase(Locale.ROOT));
+
+        verify(onChange).run();
+        verify(onOtherChange, never()).run();
+    }
+
+    @Test
+    public void When_SubscriptionClosed_Expect_SubscriberNoLongerCalled() {
+        var subscription = migrationStatusListener.subscribe(CONVERSATION_ID, onChange);
+
+        subscription.close();
+        migrationStatusListener.statusChanged(CONVERSATION_ID);
+
+        verify(onChange, never()).run();
+    }
+
+    @Test
+    public void When_SubscriberFails_Expect_OtherSubscribersStillCalled() {
+        doThrow(IllegalStateException.class).when(onOtherChange).run();
+        migrationStatusListener.subscribe(CONVERSATION_ID, onOtherChange);
+        migrationStatusListener.subscribe(CONVERSATION_ID, onChange);
+
+        migrationStatusListener.statusChanged(CONVERSATION_ID);
+
+        verify(onChange).run();
+    }
+
+    @Test
+    public void When_ChangesMayHaveBeenMissed_Expect_EverySubscriberCalled() {
+        migrationStatusListener.subscribe(CONVERSATION_ID, onChange);
+        migrationStatusListener.subscribe(OTHER_CONVERSATION_ID, onOtherChange);
+
+        migrationStatusListener.allStatusesMayHaveChanged();
+
+        verify(onChange).run();
+        verify(onOtherChange).run();
+    }
+
+    @Test
+    public void When_StatusChanges_Expect_HandlersToldWithUppercaseConversationId() {
+        var handler = mock(MigrationStatusListener.StatusChangeHandler.class);
+        migrationStatusListener.addHandler(handler);
+
+        migrationStatusListener.statusChanged(CONVERSATION_ID.toLowerCase(Locale.ROOT));
+        migrationStatusListener.allStatusesMayHaveChanged();
+
+        verify(handler).statusChanged(CONVERSATION_ID);
+        verify(handler).statusesMayHaveChanged();
+    }
+
+    @Test
+    public void When_LongPollAndStatusCacheDisabled_Expect_NoConnectionHeld() throws Exception {
+        migrationStatusListener.start();
+        migrationStatusListener.stop();
+
+        verifyNoInteractions(dataSource);
+        assertThat(migrationStatusListener.isListening()).isFalse();
+    }
+}
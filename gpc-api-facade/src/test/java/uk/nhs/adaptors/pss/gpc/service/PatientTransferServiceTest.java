@@ -2,6 +2,7 @@ package uk.nhs.adaptors.pss.gpc.service;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -14,32 +15,42 @@ import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.FROM_ODS;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ASID;
 import static uk.nhs.adaptors.pss.gpc.controller.header.HttpHeaders.TO_ODS;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 
+import org.hl7.fhir.dstu3.model.Bundle;
 import org.hl7.fhir.dstu3.model.Parameters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import uk.nhs.adaptors.common.model.TransferRequestMessage;
 import uk.nhs.adaptors.common.service.MDCService;
 import uk.nhs.adaptors.common.testutil.CreateParametersUtil;
 import uk.nhs.adaptors.common.util.DateUtils;
+import uk.nhs.adaptors.common.util.fhir.FhirParser;
+import uk.nhs.adaptors.connector.dao.BundleEntryDao;
 import uk.nhs.adaptors.connector.dao.MigrationStatusLogDao;
 import uk.nhs.adaptors.connector.dao.PatientMigrationRequestDao;
 import uk.nhs.adaptors.common.enums.MigrationStatus;
 import uk.nhs.adaptors.connector.model.MigrationStatusLog;
 import uk.nhs.adaptors.connector.model.PatientMigrationRequest;
-import uk.nhs.adaptors.pss.gpc.amqp.PssQueuePublisher;
+import uk.nhs.adaptors.connector.service.PssQueueOutboxService;
+import uk.nhs.adaptors.pss.gpc.config.StatusCacheProperties;
 
 @ExtendWith(MockitoExtension.class)
 public class PatientTransferServiceTest {
@@ -48,6 +59,8 @@ public class PatientTransferServiceTest {
     private static final String CONVERSATION_ID = UUID.randomUUID().toString().toUpperCase(Locale.ROOT);
     private static final String LOSING_ODS_CODE = "D443";
     private static final String WINNING_ODS_CODE = "ABC";
+    private static final String BUNDLE_ENVELOPE = """
+        {"resourceType":"Bundle","id":"bundle-id","type":"collection"}""";
 
     private static final Map<String, String> HEADERS = Map.of(
         TO_ASID, "1234",
@@ -63,7 +76,9 @@ public class PatientTransferServiceTest {
     private MigrationStatusLogDao migrationStatusLogDao;
 
     @Mock
-    private PssQueuePublisher pssQueuePublisher;
+    private PssQueueOutboxService pssQueueOutboxService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Mock
     private DateUtils dateUtils;
@@ -71,7 +86,12 @@ public class PatientTransferServiceTest {
     @Mock
     private MDCService mdcService;
 
-    @InjectMocks
+    @Mock
+    private MigrationStatusListener migrationStatusListener;
+
+    @Mock
+    private BundleEntryDao bundleEntryDao;
+
     private PatientTransferService service;
 
     private Parameters parameters;
@@ -79,10 +99,17 @@ public class PatientTransferServiceTest {
     @BeforeEach
     void setUp() {
         parameters = CreateParametersUtil.createValidParametersResource(PATIENT_NHS_NUMBER);
+
+        var statusCacheProperties = new StatusCacheProperties();
+        statusCacheProperties.setTimeToLive(Duration.ofSeconds(5));
+        var migrationStatusCache = new MigrationStatusCache(patientMigrationRequestDao, migrationStatusLogDao, migrationStatusListener,
+            statusCacheProperties, new SimpleMeterRegistry());
+        service = new PatientTransferService(patientMigrationRequestDao, pssQueueOutboxService, objectMapper, dateUtils,
+            mdcService, migrationStatusCache, bundleEntryDao, new FhirParser(FhirContext.forDstu3()));
     }
 
     @Test
-    public void handlePatientMigrationRequestWhenRequestIsNew() {
+    public void handlePatientMigrationRequestWhenRequestIsNew() throws Exception {
 
         var expectedPssQueueMessage = TransferRequestMessage.builder()
             .conversationId(CONVERSATION_ID)
@@ -94,23 +121,20 @@ public class PatientTransferServiceTest {
             .messageType(TRANSFER_REQUEST)
             .build();
 
-        var migrationRequestId = 1;
         OffsetDateTime now = OffsetDateTime.now();
         when(dateUtils.getCurrentOffsetDateTime()).thenReturn(now);
         when(patientMigrationRequestDao.getMigrationRequest(CONVERSATION_ID)).thenReturn(null);
-        when(patientMigrationRequestDao.getMigrationRequestId(CONVERSATION_ID)).thenReturn(migrationRequestId);
         when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID);
 
         MigrationStatusLog patientMigrationRequest = service.handlePatientMigrationRequest(parameters, HEADERS);
 
         assertThat(patientMigrationRequest).isNull();
-        verify(pssQueuePublisher).sendToPssQueue(expectedPssQueueMessage);
-        verify(patientMigrationRequestDao).addNewRequest(PATIENT_NHS_NUMBER, CONVERSATION_ID, LOSING_ODS_CODE, WINNING_ODS_CODE);
-        verify(migrationStatusLogDao).addMigrationStatusLog(MigrationStatus.REQUEST_RECEIVED, now, migrationRequestId, null, null);
+        verify(pssQueueOutboxService).addNewRequestWithMessage(PATIENT_NHS_NUMBER, CONVERSATION_ID, LOSING_ODS_CODE, WINNING_ODS_CODE,
+            now, objectMapper.writeValueAsString(expectedPssQueueMessage));
     }
 
     @Test
-    public void handlePatientMigrationRequestWhenRequestIsNewAndConversationIdIsLowercase() {
+    public void handlePatientMigrationRequestWhenRequestIsNewAndConversationIdIsLowercase() throws Exception {
         var expectedPssQueueMessage = TransferRequestMessage.builder()
             .conversationId(CONVERSATION_ID)
             .patientNhsNumber(PATIENT_NHS_NUMBER)
@@ -121,19 +145,16 @@ public class PatientTransferServiceTest {
             .messageType(TRANSFER_REQUEST)
             .build();
 
-        var migrationRequestId = 1;
         OffsetDateTime now = OffsetDateTime.now();
         when(dateUtils.getCurrentOffsetDateTime()).thenReturn(now);
         when(patientMigrationRequestDao.getMigrationRequest(CONVERSATION_ID)).thenReturn(null);
-        when(patientMigrationRequestDao.getMigrationRequestId(CONVERSATION_ID)).thenReturn(migrationRequestId);
         when(mdcService.getConversationId()).thenReturn(CONVERSATION_ID.toLowerCase(Locale.ROOT));
 
         MigrationStatusLog patientMigrationRequest = service.handlePatientMigrationRequest(parameters, HEADERS);
 
         assertThat(patientMigrationRequest).isNull();
-        verify(pssQueuePublisher).sendToPssQueue(expectedPssQueueMessage);
-        verify(patientMigrationRequestDao).addNewRequest(PATIENT_NHS_NUMBER, CONVERSATION_ID, LOSING_ODS_CODE, WINNING_ODS_CODE);
-        verify(migrationStatusLogDao).addMigrationStatusLog(MigrationStatus.REQUEST_RECEIVED, now, migrationRequestId, null, null);
+        verify(pssQueueOutboxService).addNewRequestWithMessage(PATIENT_NHS_NUMBER, CONVERSATION_ID, LOSING_ODS_CODE, WINNING_ODS_CODE,
+            now, objectMapper.writeValueAsString(expectedPssQueueMessage));
     }
 
     @Test
@@ -149,7 +170,7 @@ public class PatientTransferServiceTest {
         MigrationStatusLog patientMigrationRequest = service.handlePatientMigrationRequest(parameters, HEADERS);
 
         assertEquals(expectedMigrationStatusLog, patientMigrationRequest);
-        verifyNoInteractions(pssQueuePublisher);
+        verifyNoInteractions(pssQueueOutboxService);
         verify(patientMigrationRequestDao).getMigrationRequest(CONVERSATION_ID);
         verifyNoMoreInteractions(patientMigrationRequestDao);
     }
@@ -168,7 +189,7 @@ public class PatientTransferServiceTest {
         MigrationStatusLog patientMigrationRequest = service.handlePatientMigrationRequest(parameters, HEADERS);
 
         assertEquals(expectedMigrationStatusLog, patientMigrationRequest);
-        verifyNoInteractions(pssQueuePublisher);
+        verifyNoInteractions(pssQueueOutboxService);
         verify(patientMigrationRequestDao).getMigrationRequest(CONVERSATION_ID);
         verifyNoMoreInteractions(patientMigrationRequestDao);
     }
@@ -267,6 +288,78 @@ public class PatientTransferServiceTest {
                 .filter(status -> !IN_PROGRESS_STATUSES.contains(status));
     }
 
+    @Test
+    public void When_WritingBundleResource_Expect_BundleReadOnceAndWritten() throws IOException {
+        when(patientMigrationRequestDao.getBundleResource(CONVERSATION_ID)).thenReturn(BUNDLE_ENVELOPE);
+
+        var writer = new StringWriter();
+        service.writeBundleResource(CONVERSATION_ID.toLowerCase(Locale.ROOT), writer);
+
+        assertThat(writer.toString()).isEqualTo(BUNDLE_ENVELOPE);
+        verify(patientMigrationRequestDao).getBundleResource(CONVERSATION_ID);
+    }
+
+    @Test
+    public void When_WritingBundleResourceThatIsNotSaved_Expect_NothingWritten() throws IOException {
+        var writer = new StringWriter();
+        service.writeBundleResource(CONVERSATION_ID, writer);
+
+        assertThat(writer.toString()).isEmpty();
+    }
+
+    @Test
+    public void When_GettingBundlePageWithMoreEntriesAfterIt_Expect_PageEntriesAndNextLink() {
+        when(bundleEntryDao.getBundleEnvelope(CONVERSATION_ID)).thenReturn(BUNDLE_ENVELOPE);
+        when(bundleEntryDao.getBundleEntries(CONVERSATION_ID, 2, 3)).thenReturn(List.of(
+            entry("patient-3"), entry("patient-4"), entry("patient-5")));
+
+        Bundle page = service.getBundlePage(CONVERSATION_ID.toLowerCase(Locale.ROOT), 2, 2, offset -> "page-" + offset);
+
+        assertThat(page.getIdElement().getIdPart()).isEqualTo("bundle-id");
+        assertThat(page.getType()).isEqualTo(Bundle.BundleType.COLLECTION);
+        assertThat(page.getEntry().size()).isEqualTo(2);
+        assertThat(page.getEntry().get(0).getResource().getIdElement().getIdPart()).isEqualTo("patient-3");
+        assertThat(page.getEntry().get(1).getResource().getIdElement().getIdPart()).isEqualTo("patient-4");
+        assertThat(page.getLink("self").getUrl()).isEqualTo("page-2");
+        assertThat(page.getLink("previous").getUrl()).isEqualTo("page-0");
+        assertThat(page.getLink("next").getUrl()).isEqualTo("page-4");
+    }
+
+    @Test
+    public void When_GettingLastBundlePage_Expect_NoNextLink() {
+        when(bundleEntryDao.getBundleEnvelope(CONVERSATION_ID)).thenReturn(BUNDLE_ENVELOPE);
+        when(bundleEntryDao.getBundleEntries(CONVERSATION_ID, 0, 3)).thenReturn(List.of(entry("patient-1")));
+
+        Bundle page = service.getBundlePage(CONVERSATION_ID, 0, 2, offset -> "page-" + offset);
+
+        assertThat(page.getEntry().size()).isEqualTo(1);
+        assertThat(page.getLink("self").getUrl()).isEqualTo("page-0");
+        assertThat(page.getLink("previous")).isNull();
+        assertThat(page.getLink("next")).isNull();
+    }
+
+    @Test
+    public void When_GettingBundlePageOfBundleNotYetSplit_Expect_BundleSplitBeforeEntriesRead() {
+        when(bundleEntryDao.getBundleEnvelope(CONVERSATION_ID)).thenReturn(null).thenReturn(BUNDLE_ENVELOPE);
+        when(bundleEntryDao.getBundleEntries(CONVERSATION_ID, 0, 3)).thenReturn(List.of(entry("patient-1")));
+
+        Bundle page = service.getBundlePage(CONVERSATION_ID, 0, 2, offset -> "page-" + offset);
+
+        assertThat(page.getEntry().size()).isEqualTo(1);
+        var inOrder = inOrder(bundleEntryDao);
+        inOrder.verify(bundleEntryDao).saveBundleEntries(CONVERSATION_ID);
+        inOrder.verify(bundleEntryDao).getBundleEntries(CONVERSATION_ID, 0, 3);
+    }
+
+    @Test
+    public void When_GettingBundlePageWithoutSavedBundle_Expect_Null() {
+        assertThat(service.getBundlePage(CONVERSATION_ID, 0, 2, offset -> "page-" + offset)).isNull();
+    }
+
+    private static String entry(String patientId) {
+        return "{\"resource\":{\"resourceType\":\"Patient\",\"id\":\"" + patientId + "\"}}";
+    }
+
     private PatientMigrationRequest createPatientMigrationRequest() {
         return PatientMigrationRequest.builder()
             .id(1)
@@ -1,7 +1,10 @@
 package uk.nhs.adaptors.pss.gpc.util.fhir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.hl7.fhir.dstu3.model.Parameters;
 import org.junit.jupiter.api.Test;
 
 import uk.nhs.adaptors.common.testutil.CreateParametersUtil;
@@ -15,4 +18,19 @@ public class ParametersUtilsTest {
         String nhsNumber = ParametersUtils.getNhsNumberFromParameters(parameters).get().getValue();
         assertEquals(TEST_NHS_NUMBER, nhsNumber);
     }
+
+    @Test
+    public void When_GettingNhsNumberAgain_Expect_SameIdentifierWithoutSearchingParameters() {
+        var parameters = CreateParametersUtil.createValidParametersResource(TEST_NHS_NUMBER);
+        var nhsNumber = ParametersUtils.getNhsNumberFromParameters(parameters).get();
+
+        parameters.getParameter().clear();
+
+        assertSame(nhsNumber, ParametersUtils.getNhsNumberFromParameters(parameters).get());
+    }
+
+    @Test
+    public void When_ParametersHaveNoNhsNumber_Expect_Empty() {
+        assertTrue(ParametersUtils.getNhsNumberFromParameters(new Parameters()).isEmpty());
+    }
 }
@@ -1,2 +1,6 @@
-@jakarta.xml.bind.annotation.XmlSchema(namespace = "urn:hl7-org:v3", elementFormDefault = jakarta.xml.bind.annotation.XmlNsForm.QUALIFIED)
+@jakarta.xml.bind.annotation.XmlSchema(namespace = "urn:hl7-org:v3", elementFormDefault = jakarta.xml.bind.annotation.XmlNsForm.QUALIFIED,
+    xmlns = {
+        @jakarta.xml.bind.annotation.XmlNs(prefix = "", namespaceURI = "urn:hl7-org:v3"),
+        @jakarta.xml.bind.annotation.XmlNs(prefix = "npfitlc", namespaceURI = "NPFIT:HL7:Localisation")
+    })
 package org.hl7.v3;
@@ -0,0 +1,58 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import uk.nhs.adaptors.pss.generator.GeneratorOptions;
+
+/**
+ * Calls the facade's {@code $gpc.migratestructuredrecord} operation the way an incumbent system does: the first call starts
+ * the migration and each repeat of it reports progress, until the bundle or an error comes back.
+ */
+final class FacadeClient {
+
+    private static final String MIGRATE_PATH = "/Patient/$gpc.migratestructuredrecord";
+    private static final String FHIR_JSON = "application/fhir+json";
+    private static final String REQUEST_BODY = """
+        {"resourceType":"Parameters","parameter":[\
+        {"name":"patientNHSNumber","valueIdentifier":{"system":"https://fhir.nhs.uk/Id/nhs-number","value":"%s"}},\
+        {"name":"includeFullRecord","part":[{"name":"includeSensitiveInformation","valueBoolean":true}]}]}""";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+    private final URI migrateUri;
+    private final HttpClient httpClient;
+
+    FacadeClient(String facadeUrl) {
+        this.migrateUri = URI.create(facadeUrl + MIGRATE_PATH);
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    }
+
+    /**
+     * Requests the migration of the transfer's patient from its losing practice to its winning one.
+     *
+     * @return the HTTP status: 202 when a migration starts, 204 while it is in progress, 200 with the bundle once it completes,
+     *     or a 4xx/5xx once it fails
+     */
+    int migrate(String conversationId, GeneratorOptions transfer) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(migrateUri)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", FHIR_JSON)
+            .header("Accept", FHIR_JSON)
+            .header("ConversationId", conversationId)
+            .header("to-asid", transfer.getLosingAsid())
+            .header("from-asid", transfer.getWinningAsid())
+            .header("to-ods", transfer.getLosingOdsCode())
+            .header("from-ods", transfer.getWinningOdsCode())
+            .POST(HttpRequest.BodyPublishers.ofString(REQUEST_BODY.formatted(transfer.getNhsNumber())))
+            .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
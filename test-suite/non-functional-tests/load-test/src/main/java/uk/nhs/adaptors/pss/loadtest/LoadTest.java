@@ -0,0 +1,79 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts transfers at a fixed rate, whether or not earlier ones have finished, so that a slow adaptor builds up a backlog the
+ * way it would in production instead of slowing the load down to match. Each transfer runs on its own virtual thread.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LoadTestOptions options;
+
+    public LoadTest(LoadTestOptions options) {
+        if (options.getTransfers() < 1) {
+            throw new IllegalArgumentException("transfers must be at least 1 but was " + options.getTransfers());
+        }
+        if (options.getRatePerSecond() <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive but was " + options.getRatePerSecond());
+        }
+        this.options = options;
+    }
+
+    public LoadTestReport run() throws InterruptedException, SQLException {
+        var statusRepository = new MigrationStatusRepository(options.getDatabaseUrl(), options.getDatabaseUsername(),
+            options.getDatabasePassword());
+        var facadeClient = new FacadeClient(options.getFacadeUrl());
+
+        List<TransferResult> results;
+        long started;
+        long finished;
+        try (var publisher = new MhsInboundPublisher(options.getBrokerUrl(), options.getBrokerUsername(),
+                options.getBrokerPassword(), options.getMhsQueueName());
+            var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            var runner = new TransferRunner(options, facadeClient, publisher, statusRepository);
+            var interval = (long) (NANOS_PER_SECOND / options.getRatePerSecond());
+            var transfers = new ArrayList<Future<TransferResult>>(options.getTransfers());
+
+            started = System.nanoTime();
+            for (int i = 0; i < options.getTransfers(); i++) {
+                TimeUnit.NANOSECONDS.sleep(started + i * interval - System.nanoTime());
+                final int index = i;
+                transfers.add(executor.submit(() -> runner.run(index)));
+            }
+            LOGGER.info("Started {} transfers, waiting for them to finish", transfers.size());
+
+            results = new ArrayList<>(transfers.size());
+            for (var transfer : transfers) {
+                results.add(getResult(transfer));
+            }
+            finished = System.nanoTime();
+        }
+
+        var conversationIds = results.stream().map(TransferResult::conversationId).toList();
+        return LoadTestReport.of(results, Duration.ofNanos(finished - started),
+            statusRepository.countFinalStatuses(conversationIds), statusRepository.countLoggedStatuses(conversationIds));
+    }
+
+    private static TransferResult getResult(Future<TransferResult> transfer) throws InterruptedException {
+        try {
+            return transfer.get();
+        } catch (ExecutionException e) {
+            // TransferRunner turns every failure into a result, so this only happens if the runner itself is broken
+            throw new IllegalStateException("Transfer did not produce a result", e.getCause());
+        }
+    }
+}
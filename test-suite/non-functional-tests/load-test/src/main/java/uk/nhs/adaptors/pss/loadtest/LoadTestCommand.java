@@ -0,0 +1,109 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import uk.nhs.adaptors.pss.generator.GeneratorOptions;
+
+/**
+ * Runs a load test against a running {@code test-suite} environment and prints the report. Options are given as
+ * {@code --name=value}; run with {@code --help} for the list.
+ */
+public final class LoadTestCommand {
+
+    private static final String USAGE = """
+        Usage: load-test [option...]
+          --transfers=<count>                patient transfers to start; defaults to 12
+          --rate=<per second>                transfers started each second; defaults to 1
+          --timeout=<seconds>                how long a transfer may take before it counts as timed out; defaults to 600
+          --poll-interval=<milliseconds>     how often to check on a transfer; defaults to 1000
+          --report=<file>                    also write the report to this file as JSON
+          --compositions=<count>             compositions in each generated record; defaults to 10
+          --statements-per-composition=<n>   defaults to 5
+          --attachments=<count>              attachments in each record; defaults to 0
+          --attachment-size=<bytes>          defaults to 4096
+          --compress                         gzip attachments before encoding
+          --fragment-size=<characters>       send longer attachments as COPC fragments; defaults to 0, all inline
+          --seed=<number>                    seed of the first transfer; each later transfer adds one
+          --facade-url=<url>                 defaults to http://localhost:8081/Gp2Gp/VND3J
+          --broker-url=<url>                 defaults to amqp://localhost:5672
+          --broker-username=<name>           defaults to admin
+          --broker-password=<password>       defaults to admin
+          --mhs-queue=<name>                 defaults to mhsQueue
+          --database-url=<jdbc url>          defaults to jdbc:postgresql://localhost:5436/patient_switching
+          --database-username=<name>         defaults to gp2gp_user
+          --database-password=<password>     defaults to 123456
+        """;
+
+    private LoadTestCommand() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var arguments = parse(args);
+        if (arguments.containsKey("help")) {
+            System.out.print(USAGE);
+            return;
+        }
+
+        var transfer = GeneratorOptions.builder();
+        apply(arguments, "compositions", value -> transfer.compositionCount(Integer.parseInt(value)));
+        apply(arguments, "statements-per-composition", value -> transfer.statementsPerComposition(Integer.parseInt(value)));
+        apply(arguments, "attachments", value -> transfer.attachmentCount(Integer.parseInt(value)));
+        apply(arguments, "attachment-size", value -> transfer.attachmentSize(Integer.parseInt(value)));
+        apply(arguments, "compress", value -> transfer.compressAttachments(true));
+        apply(arguments, "fragment-size", value -> transfer.fragmentSize(Integer.parseInt(value)));
+        apply(arguments, "seed", value -> transfer.seed(Long.parseLong(value)));
+
+        var options = LoadTestOptions.builder().transfer(transfer.build());
+        apply(arguments, "transfers", value -> options.transfers(Integer.parseInt(value)));
+        apply(arguments, "rate", value -> options.ratePerSecond(Double.parseDouble(value)));
+        apply(arguments, "timeout", value -> options.migrationTimeout(Duration.ofSeconds(Long.parseLong(value))));
+        apply(arguments, "poll-interval", value -> options.pollInterval(Duration.ofMillis(Long.parseLong(value))));
+        apply(arguments, "report", value -> options.reportFile(Path.of(value)));
+        apply(arguments, "facade-url", options::facadeUrl);
+        apply(arguments, "broker-url", options::brokerUrl);
+        apply(arguments, "broker-username", options::brokerUsername);
+        apply(arguments, "broker-password", options::brokerPassword);
+        apply(arguments, "mhs-queue", options::mhsQueueName);
+        apply(arguments, "database-url", options::databaseUrl);
+        apply(arguments, "database-username", options::databaseUsername);
+        apply(arguments, "database-password", options::databasePassword);
+
+        var loadTestOptions = options.build();
+        var report = new LoadTest(loadTestOptions).run();
+
+        System.out.print(report.toText());
+        if (loadTestOptions.getReportFile() != null) {
+            Files.writeString(loadTestOptions.getReportFile(), report.toJson(), UTF_8);
+            System.out.printf("Report written to %s%n", loadTestOptions.getReportFile());
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var arguments = new HashMap<String, String>();
+        for (var arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            var separator = arg.indexOf('=');
+            if (separator < 0) {
+                arguments.put(arg.substring(2), "");
+            } else {
+                arguments.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return arguments;
+    }
+
+    private static void apply(Map<String, String> arguments, String name, Consumer<String> setter) {
+        if (arguments.containsKey(name)) {
+            setter.accept(arguments.get(name));
+        }
+    }
+}
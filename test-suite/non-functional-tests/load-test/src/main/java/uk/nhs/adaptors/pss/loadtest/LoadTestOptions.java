@@ -0,0 +1,65 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+import uk.nhs.adaptors.pss.generator.GeneratorOptions;
+
+/**
+ * How hard to drive the adaptor and where to find it. The defaults match the ports and credentials of the
+ * {@code test-suite} docker-compose environment as published on the host.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class LoadTestOptions {
+
+    @Builder.Default
+    private final String facadeUrl = "http://localhost:8081/Gp2Gp/VND3J";
+    @Builder.Default
+    private final String brokerUrl = "amqp://localhost:5672";
+    @Builder.Default
+    private final String brokerUsername = "admin";
+    @Builder.Default
+    private final String brokerPassword = "admin";
+    @Builder.Default
+    private final String mhsQueueName = "mhsQueue";
+    @Builder.Default
+    private final String databaseUrl = "jdbc:postgresql://localhost:5436/patient_switching";
+    @Builder.Default
+    private final String databaseUsername = "gp2gp_user";
+    @Builder.Default
+    private final String databasePassword = "123456";
+
+    /**
+     * How many patient transfers to start.
+     */
+    @Builder.Default
+    private final int transfers = 12;
+
+    /**
+     * How many transfers to start each second, however many are still in flight.
+     */
+    @Builder.Default
+    private final double ratePerSecond = 1.0;
+
+    /**
+     * How long a transfer may take, from the migration request to the facade returning the bundle, before it counts as timed out.
+     */
+    @Builder.Default
+    private final Duration migrationTimeout = Duration.ofMinutes(10);
+    @Builder.Default
+    private final Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * The shape of the record each transfer sends. The conversation ID, NHS number and seed are replaced for every transfer.
+     */
+    @Builder.Default
+    private final GeneratorOptions transfer = GeneratorOptions.builder().build();
+
+    /**
+     * Where to also write the report as JSON, or {@code null} to print it only.
+     */
+    private final Path reportFile;
+}
@@ -0,0 +1,110 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * What a run achieved. Throughput and latency percentiles count completed transfers only; outcomes count every transfer by the
+ * facade's final response, and the status counts come from {@code migration_status_log} for the run's conversations.
+ */
+@Getter
+@Builder
+public final class LoadTestReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final double SECONDS_PER_MINUTE = 60.0;
+    private static final double PERCENT = 100.0;
+    private static final int P50 = 50;
+    private static final int P95 = 95;
+    private static final int P99 = 99;
+
+    private final int transfers;
+    private final int completed;
+    private final long durationMillis;
+    private final double completedPerMinute;
+    private final Long p50LatencyMillis;
+    private final Long p95LatencyMillis;
+    private final Long p99LatencyMillis;
+    private final Map<String, Long> outcomes;
+    private final Map<String, Long> finalStatuses;
+    private final Map<String, Long> loggedStatuses;
+
+    static LoadTestReport of(List<TransferResult> results, Duration duration, Map<String, Long> finalStatuses,
+        Map<String, Long> loggedStatuses) {
+
+        var latencies = results.stream()
+            .filter(TransferResult::isCompleted)
+            .map(result -> result.latency().toMillis())
+            .sorted()
+            .toList();
+        var minutes = duration.toMillis() / MILLIS_PER_SECOND / SECONDS_PER_MINUTE;
+
+        return LoadTestReport.builder()
+            .transfers(results.size())
+            .completed(latencies.size())
+            .durationMillis(duration.toMillis())
+            .completedPerMinute(minutes > 0 ? latencies.size() / minutes : 0)
+            .p50LatencyMillis(percentile(latencies, P50))
+            .p95LatencyMillis(percentile(latencies, P95))
+            .p99LatencyMillis(percentile(latencies, P99))
+            .outcomes(results.stream()
+                .collect(Collectors.groupingBy(TransferResult::outcome, TreeMap::new, Collectors.counting())))
+            .finalStatuses(finalStatuses)
+            .loggedStatuses(loggedStatuses)
+            .build();
+    }
+
+    /**
+     * The nearest-rank percentile of values already in ascending order, or {@code null} when there are none.
+     */
+    static Long percentile(List<Long> sortedValues, int percentile) {
+        if (sortedValues.isEmpty()) {
+            return null;
+        }
+        var rank = (int) Math.ceil(percentile / PERCENT * sortedValues.size());
+        return sortedValues.get(Math.max(rank, 1) - 1);
+    }
+
+    public String toJson() {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialise load test report", e);
+        }
+    }
+
+    public String toText() {
+        var text = new StringBuilder()
+            .append("Transfers:      %d started, %d completed in %.1f s%n".formatted(transfers, completed,
+                durationMillis / MILLIS_PER_SECOND))
+            .append("Throughput:     %.2f completed transfers per minute%n".formatted(completedPerMinute))
+            .append("Latency (ms):   p50 %s, p95 %s, p99 %s%n".formatted(orNotApplicable(p50LatencyMillis),
+                orNotApplicable(p95LatencyMillis), orNotApplicable(p99LatencyMillis)));
+        appendCounts(text, "Facade outcomes", outcomes);
+        appendCounts(text, "Final statuses", finalStatuses);
+        appendCounts(text, "Logged statuses", loggedStatuses);
+        return text.toString();
+    }
+
+    private static String orNotApplicable(Long millis) {
+        return millis == null ? "n/a" : millis.toString();
+    }
+
+    private static void appendCounts(StringBuilder text, String heading, Map<String, Long> counts) {
+        text.append(heading).append(':').append(System.lineSeparator());
+        counts.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> text.append("  %-60s %d%n".formatted(entry.getKey(), entry.getValue())));
+    }
+}
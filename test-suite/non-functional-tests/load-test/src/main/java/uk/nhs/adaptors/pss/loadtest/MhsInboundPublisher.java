@@ -0,0 +1,45 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.qpid.jms.JmsConnectionFactory;
+
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.Queue;
+import uk.nhs.adaptors.pss.generator.GeneratedMessage;
+
+/**
+ * Puts messages on the MHS inbound queue as if the MHS adaptor had received them from the losing practice. A JMS context
+ * must not be used by more than one thread at once, so sends are serialised over a single one. The lock is not a monitor so that
+ * a virtual thread waiting on the broker does not pin its carrier.
+ */
+final class MhsInboundPublisher implements AutoCloseable {
+
+    private final JMSContext context;
+    private final JMSProducer producer;
+    private final Queue queue;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    MhsInboundPublisher(String brokerUrl, String username, String password, String queueName) {
+        var connectionFactory = new JmsConnectionFactory(username, password, brokerUrl);
+        this.context = connectionFactory.createContext(JMSContext.AUTO_ACKNOWLEDGE);
+        this.producer = context.createProducer();
+        this.queue = context.createQueue(queueName);
+    }
+
+    void send(GeneratedMessage message) {
+        var json = message.toJson();
+        lock.lock();
+        try {
+            producer.send(queue, json);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,87 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import uk.nhs.adaptors.common.enums.MigrationStatus;
+
+/**
+ * Reads the adaptor's {@code migration_status_log} directly, both to pace each transfer and to count where every transfer of
+ * a run ended up. Each call opens its own connection, which keeps it safe to use from any number of transfer threads.
+ */
+final class MigrationStatusRepository {
+
+    private static final String SELECT_LATEST_STATUS = """
+        SELECT l.status FROM migration_status_log l
+        JOIN patient_migration_request r ON r.id = l.migration_request_id
+        WHERE r.conversation_id = ?
+        ORDER BY l.date DESC LIMIT 1""";
+    private static final String COUNT_FINAL_STATUSES = """
+        SELECT latest.status, count(*) FROM (
+            SELECT DISTINCT ON (l.migration_request_id) l.status FROM migration_status_log l
+            JOIN patient_migration_request r ON r.id = l.migration_request_id
+            WHERE r.conversation_id = ANY (?)
+            ORDER BY l.migration_request_id, l.date DESC
+        ) latest
+        GROUP BY latest.status""";
+    private static final String COUNT_LOGGED_STATUSES = """
+        SELECT l.status, count(*) FROM migration_status_log l
+        JOIN patient_migration_request r ON r.id = l.migration_request_id
+        WHERE r.conversation_id = ANY (?)
+        GROUP BY l.status""";
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    MigrationStatusRepository(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    Optional<MigrationStatus> getLatestStatus(String conversationId) throws SQLException {
+        try (var connection = connect(); var statement = connection.prepareStatement(SELECT_LATEST_STATUS)) {
+            statement.setString(1, conversationId);
+            try (var resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(MigrationStatus.valueOf(resultSet.getString(1))) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * How many of the given migrations finished in each status, going by the last status each one logged.
+     */
+    Map<String, Long> countFinalStatuses(Collection<String> conversationIds) throws SQLException {
+        return countStatuses(COUNT_FINAL_STATUSES, conversationIds);
+    }
+
+    /**
+     * How many times each status was logged across the given migrations.
+     */
+    Map<String, Long> countLoggedStatuses(Collection<String> conversationIds) throws SQLException {
+        return countStatuses(COUNT_LOGGED_STATUSES, conversationIds);
+    }
+
+    private Map<String, Long> countStatuses(String query, Collection<String> conversationIds) throws SQLException {
+        var counts = new TreeMap<String, Long>();
+        try (var connection = connect(); var statement = connection.prepareStatement(query)) {
+            statement.setArray(1, connection.createArrayOf("varchar", conversationIds.toArray()));
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    counts.put(resultSet.getString(1), resultSet.getLong(2));
+                }
+            }
+        }
+        return counts;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+}
@@ -0,0 +1,20 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import java.time.Duration;
+
+/**
+ * How one transfer ended, as the incumbent system saw it.
+ *
+ * @param outcome the facade's final HTTP status, or {@link #TIMED_OUT} or {@link #FAILED} when it never gave one
+ * @param latency from the first migration request to the facade's final response
+ */
+record TransferResult(String conversationId, String outcome, Duration latency) {
+
+    static final String COMPLETED = "200";
+    static final String TIMED_OUT = "TIMED_OUT";
+    static final String FAILED = "HARNESS_ERROR";
+
+    boolean isCompleted() {
+        return COMPLETED.equals(outcome);
+    }
+}
@@ -0,0 +1,134 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import static uk.nhs.adaptors.common.enums.MigrationStatus.CONTINUE_REQUEST_ACCEPTED;
+import static uk.nhs.adaptors.common.enums.MigrationStatus.EHR_EXTRACT_REQUEST_ACCEPTED;
+import static uk.nhs.adaptors.common.model.MigrationStatusGroups.IN_PROGRESS_STATUSES;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.nhs.adaptors.common.enums.MigrationStatus;
+import uk.nhs.adaptors.pss.generator.EhrExtractGenerator;
+import uk.nhs.adaptors.pss.generator.GeneratedTransfer;
+import uk.nhs.adaptors.pss.generator.GeneratorOptions;
+
+/**
+ * Plays both ends of one patient transfer against the adaptor. As the incumbent system it requests the migration and polls the
+ * facade until the bundle or an error comes back; as the losing practice it answers the adaptor's EHR request with a generated
+ * extract, and its continue request with the extract's COPC messages. The adaptor's own requests go out through the MHS
+ * outbound to {@code mock-spine-mhs-outbound}, which accepts them, so the harness watches {@code migration_status_log} to
+ * know when each reply is due.
+ */
+@Slf4j
+final class TransferRunner {
+
+    private static final int HTTP_ACCEPTED = 202;
+    private static final int HTTP_NO_CONTENT = 204;
+    private static final long NHS_NUMBER_BASE = 9_000_000_000L;
+
+    private final LoadTestOptions options;
+    private final FacadeClient facadeClient;
+    private final MhsInboundPublisher publisher;
+    private final MigrationStatusRepository statusRepository;
+    private final EhrExtractGenerator generator = new EhrExtractGenerator();
+
+    TransferRunner(LoadTestOptions options, FacadeClient facadeClient, MhsInboundPublisher publisher,
+        MigrationStatusRepository statusRepository) {
+
+        this.options = options;
+        this.facadeClient = facadeClient;
+        this.publisher = publisher;
+        this.statusRepository = statusRepository;
+    }
+
+    /**
+     * Runs the transfer with the given position in the run, which picks its NHS number and generator seed so that no two
+     * transfers of a run are for the same patient.
+     */
+    TransferResult run(int index) {
+        var conversationId = UUID.randomUUID().toString().toUpperCase(Locale.ROOT);
+        var transferOptions = options.getTransfer().toBuilder()
+            .conversationId(conversationId)
+            .nhsNumber(String.valueOf(NHS_NUMBER_BASE + index))
+            .seed(options.getTransfer().getSeed() + index)
+            .build();
+        var transfer = generator.generate(transferOptions);
+
+        var started = System.nanoTime();
+        var deadline = started + options.getMigrationTimeout().toNanos();
+        try {
+            var outcome = migrate(conversationId, transferOptions, transfer, deadline);
+            return new TransferResult(conversationId, outcome, Duration.ofNanos(System.nanoTime() - started));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new TransferResult(conversationId, TransferResult.FAILED, Duration.ofNanos(System.nanoTime() - started));
+        } catch (IOException | SQLException | RuntimeException e) {
+            LOGGER.warn("Transfer [{}] failed in the harness", conversationId, e);
+            return new TransferResult(conversationId, TransferResult.FAILED, Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    private String migrate(String conversationId, GeneratorOptions transferOptions, GeneratedTransfer transfer, long deadline)
+        throws IOException, InterruptedException, SQLException {
+
+        var status = facadeClient.migrate(conversationId, transferOptions);
+        if (status != HTTP_ACCEPTED) {
+            return String.valueOf(status);
+        }
+
+        if (!awaitStatus(conversationId, EHR_EXTRACT_REQUEST_ACCEPTED, deadline)) {
+            return awaitOutcome(conversationId, transferOptions, deadline);
+        }
+        publisher.send(transfer.getEhrExtract());
+
+        if (transfer.hasCopcMessages()) {
+            if (!awaitStatus(conversationId, CONTINUE_REQUEST_ACCEPTED, deadline)) {
+                return awaitOutcome(conversationId, transferOptions, deadline);
+            }
+            transfer.getCopcMessages().forEach(publisher::send);
+        }
+
+        return awaitOutcome(conversationId, transferOptions, deadline);
+    }
+
+    /**
+     * Waits for the migration to reach the given status.
+     *
+     * @return {@code false} if the migration stopped being in progress, or the deadline passed, before reaching it
+     */
+    private boolean awaitStatus(String conversationId, MigrationStatus expected, long deadline)
+        throws SQLException, InterruptedException {
+
+        while (System.nanoTime() < deadline) {
+            var latest = statusRepository.getLatestStatus(conversationId);
+            if (latest.filter(expected::equals).isPresent()) {
+                return true;
+            }
+            if (latest.filter(status -> !IN_PROGRESS_STATUSES.contains(status)).isPresent()) {
+                return false;
+            }
+            Thread.sleep(options.getPollInterval());
+        }
+        return false;
+    }
+
+    /**
+     * Polls the facade, as an incumbent system would, until it stops reporting the migration as in progress.
+     */
+    private String awaitOutcome(String conversationId, GeneratorOptions transferOptions, long deadline)
+        throws IOException, InterruptedException {
+
+        while (System.nanoTime() < deadline) {
+            var status = facadeClient.migrate(conversationId, transferOptions);
+            if (status != HTTP_NO_CONTENT && status != HTTP_ACCEPTED) {
+                return String.valueOf(status);
+            }
+            Thread.sleep(options.getPollInterval());
+        }
+        return TransferResult.TIMED_OUT;
+    }
+}
@@ -0,0 +1,72 @@
+package uk.nhs.adaptors.pss.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+public class LoadTestReportTest {
+
+    private static final Map<String, Long> FINAL_STATUSES = Map.of("MIGRATION_COMPLETED", 100L);
+    private static final Map<String, Long> LOGGED_STATUSES = Map.of("REQUEST_RECEIVED", 100L, "MIGRATION_COMPLETED", 100L);
+
+    @Test
+    public void When_CalculatingPercentiles_Expect_NearestRank() {
+        var values = LongStream.rangeClosed(1, 200).boxed().toList();
+
+        assertThat(LoadTestReport.percentile(values, 50)).isEqualTo(100L);
+        assertThat(LoadTestReport.percentile(values, 95)).isEqualTo(190L);
+        assertThat(LoadTestReport.percentile(values, 99)).isEqualTo(198L);
+        assertThat(LoadTestReport.percentile(List.of(7L), 99)).isEqualTo(7L);
+        assertThat(LoadTestReport.percentile(List.of(), 50)).isNull();
+    }
+
+    @Test
+    public void When_TransfersComplete_Expect_ThroughputAndLatencyOfCompletedTransfers() {
+        var results = IntStream.rangeClosed(1, 100)
+            .mapToObj(i -> new TransferResult("conversation-" + i, TransferResult.COMPLETED, Duration.ofSeconds(i)))
+            .toList();
+
+        var report = LoadTestReport.of(results, Duration.ofMinutes(2), FINAL_STATUSES, LOGGED_STATUSES);
+
+        assertThat(report.getCompleted()).isEqualTo(100);
+        assertThat(report.getCompletedPerMinute()).isEqualTo(50.0);
+        assertThat(report.getP50LatencyMillis()).isEqualTo(50_000L);
+        assertThat(report.getP95LatencyMillis()).isEqualTo(95_000L);
+        assertThat(report.getP99LatencyMillis()).isEqualTo(99_000L);
+    }
+
+    @Test
+    public void When_SomeTransfersFail_Expect_OutcomesCountedAndLatencyOfCompletedOnly() {
+        var results = List.of(
+            new TransferResult("completed", TransferResult.COMPLETED, Duration.ofSeconds(10)),
+            new TransferResult("nacked", "500", Duration.ofSeconds(1)),
+            new TransferResult("timed-out", TransferResult.TIMED_OUT, Duration.ofMinutes(10)),
+            new TransferResult("also-nacked", "500", Duration.ofSeconds(2)));
+
+        var report = LoadTestReport.of(results, Duration.ofMinutes(1), FINAL_STATUSES, LOGGED_STATUSES);
+
+        assertThat(report.getTransfers()).isEqualTo(4);
+        assertThat(report.getCompleted()).isEqualTo(1);
+        assertThat(report.getOutcomes()).containsExactly(
+            Map.entry("200", 1L), Map.entry("500", 2L), Map.entry(TransferResult.TIMED_OUT, 1L));
+        assertThat(report.getP99LatencyMillis()).isEqualTo(10_000L);
+    }
+
+    @Test
+    public void When_NoTransferCompletes_Expect_NoLatencies() {
+        var results = List.of(new TransferResult("timed-out", TransferResult.TIMED_OUT, Duration.ofMinutes(10)));
+
+        var report = LoadTestReport.of(results, Duration.ofMinutes(10), FINAL_STATUSES, LOGGED_STATUSES);
+
+        assertThat(report.getCompletedPerMinute()).isZero();
+        assertThat(report.getP50LatencyMillis()).isNull();
+        assertThat(report.toText()).contains("p50 n/a, p95 n/a, p99 n/a");
+        assertThat(report.toJson()).contains("\"p50LatencyMillis\" : null", "\"finalStatuses\"", "\"loggedStatuses\"");
+    }
+}